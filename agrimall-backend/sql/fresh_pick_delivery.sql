@@ -347,7 +347,8 @@ CREATE TABLE `mall_collect`  (
   `product_id` bigint NOT NULL COMMENT '收藏对应的商品id',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '收藏创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '收藏更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_user_id`(`user_id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 21 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -376,7 +377,8 @@ CREATE TABLE `mall_comment`  (
   `content` varchar(128) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NOT NULL COMMENT '评论内容',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '评论创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '评论更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_create_time`(`create_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 16 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -389,6 +391,25 @@ INSERT INTO `mall_comment` VALUES (4, 8, 4, '梨子很脆，价格实惠，性
 INSERT INTO `mall_comment` VALUES (5, 12, 5, '香蕉很新鲜，熟度刚好，值得推荐', '2024-01-07 10:00:00', '2024-01-07 10:00:00');
 INSERT INTO `mall_comment` VALUES (15, 3, 51, '这个水果好好吃', '2025-11-14 07:13:35', '2025-11-14 07:13:35');
 
+-- ----------------------------
+-- Table structure for mall_id_segment
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_id_segment`;
+CREATE TABLE `mall_id_segment`  (
+  `biz_tag` varchar(64) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NOT NULL COMMENT '号段对应的表名',
+  `max_id` bigint NOT NULL COMMENT '已分配出去的最大id',
+  `step` int NOT NULL DEFAULT 1000 COMMENT '每次分配的号段长度',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '号段更新时间',
+  PRIMARY KEY (`biz_tag`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Records of mall_id_segment
+-- ----------------------------
+INSERT INTO `mall_id_segment` VALUES ('bms_authority', 588, 1000, '2025-11-20 00:00:00');
+INSERT INTO `mall_id_segment` VALUES ('bms_mail', 9, 1000, '2025-11-20 00:00:00');
+INSERT INTO `mall_id_segment` VALUES ('mall_order_item', 62, 1000, '2025-11-20 00:00:00');
+
 -- ----------------------------
 -- Table structure for mall_order
 -- ----------------------------
@@ -404,7 +425,10 @@ CREATE TABLE `mall_order`  (
   `is_deleted` int NOT NULL DEFAULT 0 COMMENT '用户是否删除订单 0：未删除；1：已删除 ',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '订单创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '订单更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_user_id`(`user_id`) USING BTREE,
+  INDEX `idx_state_create_time`(`state`, `create_time`) USING BTREE,
+  INDEX `idx_create_time`(`create_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 50 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -439,6 +463,19 @@ INSERT INTO `mall_order` VALUES (45, 1186514623046889472, 51, 2, 3.80, 0, NULL,
 INSERT INTO `mall_order` VALUES (46, 1186533236030058496, 51, 5, 4.50, 10, '', 0, '2025-11-14 02:20:33', '2025-11-14 02:21:11');
 INSERT INTO `mall_order` VALUES (48, 1188333247910916096, 52, 1, 12.80, 0, NULL, 0, '2025-11-19 01:33:10', '2025-11-19 01:33:48');
 
+-- ----------------------------
+-- Table structure for mall_order_archive_month
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_order_archive_month`;
+CREATE TABLE `mall_order_archive_month`  (
+  `month` char(6) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NOT NULL COMMENT '归档月份（yyyyMM），对应 mall_order_archive_{month} 和 mall_order_item_archive_{month} 两张归档表',
+  `order_count` bigint NOT NULL DEFAULT 0 COMMENT '已归档的未删除订单数量',
+  `sales_amount` decimal(14, 2) NOT NULL DEFAULT 0.00 COMMENT '已归档的未删除、未取消订单的总价之和',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档表创建时间',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最近一次归档时间',
+  PRIMARY KEY (`month`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for mall_order_item
 -- ----------------------------
@@ -454,7 +491,8 @@ CREATE TABLE `mall_order_item`  (
   `total_price` decimal(10, 2) NOT NULL COMMENT '商品小计',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '订单详情创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '订单详情更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_order_id`(`order_id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 63 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -498,6 +536,25 @@ INSERT INTO `mall_order_item` VALUES (60, 46, 53, '新鲜黄瓜', '20251112/1605
 INSERT INTO `mall_order_item` VALUES (61, 47, 3, '新疆哈密瓜', '20251112/1605253581860.jpg', 25.00, 1, 25.00, '2025-11-18 15:46:02', '2025-11-18 15:46:02');
 INSERT INTO `mall_order_item` VALUES (62, 48, 1, '红富士苹果', '20251112/1605253581858.jpg', 12.80, 1, 12.80, '2025-11-19 01:33:10', '2025-11-19 01:33:10');
 
+-- ----------------------------
+-- Table structure for mall_outbox
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_outbox`;
+CREATE TABLE `mall_outbox`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '事件id',
+  `event_type` int NOT NULL COMMENT '事件类型  1：标记订单已扣库存；2：移出购物车；3：发送邮件',
+  `biz_key` varchar(64) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NOT NULL COMMENT '业务键（订单id、用户id、收件人等）',
+  `payload` varchar(1024) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NULL DEFAULT NULL COMMENT '事件内容',
+  `state` int NOT NULL DEFAULT 0 COMMENT '事件状态  0：待执行；1：重试次数用尽，需人工处理',
+  `retry_count` int NOT NULL DEFAULT 0 COMMENT '已重试次数',
+  `next_retry_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次执行时间',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '事件创建时间',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '事件更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_state_next_retry_time`(`state`, `next_retry_time`) USING BTREE,
+  INDEX `idx_event_type_biz_key`(`event_type`, `biz_key`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for mall_product
 -- ----------------------------
@@ -514,7 +571,8 @@ CREATE TABLE `mall_product`  (
   `category_id` bigint NOT NULL COMMENT '商品所属的商品种类id',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '商品创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '商品更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_create_time`(`create_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 201 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -741,6 +799,67 @@ INSERT INTO `mall_product_category` VALUES (2, '时令蔬菜', '2024-01-01 10:00
 INSERT INTO `mall_product_category` VALUES (3, '五谷杂粮', '2024-01-01 10:00:00', '2024-01-01 10:00:00');
 INSERT INTO `mall_product_category` VALUES (4, '干果坚果', '2024-01-01 10:00:00', '2025-11-17 15:11:20');
 
+-- ----------------------------
+-- Table structure for mall_seckill
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_seckill`;
+CREATE TABLE `mall_seckill`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '秒杀活动id',
+  `product_id` bigint NOT NULL COMMENT '秒杀商品id',
+  `seckill_price` decimal(10, 2) NOT NULL COMMENT '秒杀价格',
+  `quota` int NOT NULL COMMENT '秒杀名额（每个用户限购一件）',
+  `start_time` datetime NOT NULL COMMENT '秒杀开始时间',
+  `end_time` datetime NOT NULL COMMENT '秒杀结束时间',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '秒杀活动创建时间',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '秒杀活动更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_end_time`(`end_time`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for mall_seckill_order
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_seckill_order`;
+CREATE TABLE `mall_seckill_order`  (
+  `order_id` bigint NOT NULL COMMENT '订单id',
+  `seckill_id` bigint NOT NULL COMMENT '秒杀活动id',
+  `user_id` bigint NOT NULL COMMENT '用户id',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '记录时间',
+  PRIMARY KEY (`order_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for mall_stock_ledger
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_stock_ledger`;
+CREATE TABLE `mall_stock_ledger`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '流水id',
+  `order_id` bigint NOT NULL COMMENT '订单id',
+  `product_id` bigint NOT NULL COMMENT '商品id',
+  `delta` int NOT NULL COMMENT '库存变动数量，扣减为负数',
+  `reason` int NOT NULL COMMENT '变动原因  1：提交订单扣减；2：发货时补扣；3：迁移升级前的 Redis 扣减标记',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '记录时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_order_product_reason`(`order_id`, `product_id`, `reason`) USING BTREE,
+  INDEX `idx_product_id`(`product_id`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for mall_stock_sync
+-- ----------------------------
+DROP TABLE IF EXISTS `mall_stock_sync`;
+CREATE TABLE `mall_stock_sync`  (
+  `id` int NOT NULL COMMENT '固定为 1，只有一行',
+  `batch_id` varchar(64) CHARACTER SET utf8mb3 COLLATE utf8mb3_general_ci NOT NULL DEFAULT '' COMMENT '最近一次写入商品表的 Redis 已售库存同步批次号',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb3 COLLATE = utf8mb3_general_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Records of mall_stock_sync
+-- ----------------------------
+INSERT INTO `mall_stock_sync` VALUES (1, '', '2024-01-01 10:00:00');
+
 -- ----------------------------
 -- Table structure for mall_user
 -- ----------------------------
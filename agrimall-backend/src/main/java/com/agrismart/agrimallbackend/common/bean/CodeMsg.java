@@ -159,6 +159,9 @@ public class CodeMsg {
     /** 系统错误 */
     public static CodeMsg SYSTEM_ERROR = new CodeMsg(-12, "系统出现了错误，请联系管理员！");
 
+    /** 分页游标无效 */
+    public static CodeMsg CURSOR_INVALID = new CodeMsg(-13, "分页游标无效，请从第一页重新查询！");
+
     // ==================== 菜单管理错误码 (-1000 到 -1999) ====================
 
     /** 菜单状态改变失败 */
@@ -400,6 +403,18 @@ public class CodeMsg {
     /** 订单删除失败 */
     public static CodeMsg ORDER_DELETE_ERROR = new CodeMsg(-11008, "订单删除失败，请联系管理员！");
 
+    /** 库存预占服务暂不可用 */
+    public static CodeMsg ORDER_STOCK_BUSY = new CodeMsg(-11009, "下单人数过多，请稍后重试！");
+
+    /** 订单已提交或已取消 */
+    public static CodeMsg ORDER_NOT_UNPAID = new CodeMsg(-11010, "该订单已提交或已超时取消，请重新下单！");
+
+    /** 批量修改订单状态的订单数量超过上限 */
+    public static CodeMsg ORDER_STATE_BATCH_EXCEED = new CodeMsg(-11011, "一次最多修改 500 个订单的状态！");
+
+    /** 订单正在被其他请求发货 */
+    public static CodeMsg ORDER_SEND_CONFLICT = new CodeMsg(-11012, "订单正在发货，请刷新后查看订单状态！");
+
     // ==================== 评论管理错误码 (-12000 到 -12999) ====================
 
     /** 评论添加失败 */
@@ -410,5 +425,38 @@ public class CodeMsg {
 
     /** 评论删除失败 */
     public static CodeMsg COMMENT_DELETE_ERROR = new CodeMsg(-12002, "评论删除失败，请联系管理员！");
+
+    // ==================== 秒杀错误码 (-13000 到 -13999) ====================
+
+    /** 秒杀活动不存在 */
+    public static CodeMsg SECKILL_NOT_EXIST = new CodeMsg(-13000, "该秒杀活动不存在！");
+
+    /** 秒杀尚未开始或已经结束 */
+    public static CodeMsg SECKILL_NOT_IN_TIME = new CodeMsg(-13001, "不在秒杀时间内！");
+
+    /** 秒杀商品已售罄 */
+    public static CodeMsg SECKILL_SOLD_OUT = new CodeMsg(-13002, "手慢了，秒杀商品已抢光！");
+
+    /** 秒杀令牌无效 */
+    public static CodeMsg SECKILL_TOKEN_INVALID = new CodeMsg(-13003, "秒杀令牌无效或已过期，请重新获取！");
+
+    /** 重复秒杀 */
+    public static CodeMsg SECKILL_REPEAT = new CodeMsg(-13004, "每人限购一件，请勿重复秒杀！");
+
+    /** 秒杀排队已满 */
+    public static CodeMsg SECKILL_BUSY = new CodeMsg(-13005, "秒杀人数过多，请稍后重试！");
+
+    /** 秒杀订单创建失败（已不再使用，保留以免错误码被复用） */
+    @Deprecated
+    public static CodeMsg SECKILL_ORDER_FAILED = new CodeMsg(-13006, "秒杀订单创建失败，请重新秒杀！");
+
+    /** 秒杀活动添加失败 */
+    public static CodeMsg SECKILL_ADD_ERROR = new CodeMsg(-13007, "秒杀活动添加失败，请联系管理员！");
+
+    /** 秒杀时间设置错误 */
+    public static CodeMsg SECKILL_TIME_ERROR = new CodeMsg(-13008, "秒杀结束时间必须晚于开始时间！");
+
+    /** 秒杀名额超过库存 */
+    public static CodeMsg SECKILL_QUOTA_EXCEED_STOCK = new CodeMsg(-13009, "秒杀名额不能超过商品库存！");
 }
 
@@ -0,0 +1,117 @@
+package com.agrismart.agrimallbackend.common.enums;
+
+/**
+ * 后台仪表盘计数项枚举类。
+ *
+ * 该枚举用于标识 Redis 仪表盘计数 Hash 中的各个实体总数，
+ * field 既是 Hash 中的字段名，也是仪表盘接口返回的字段名：
+ *
+ * - {@link #ADMIN}：管理员总数
+ * - {@link #PRODUCT}：商品总数（只统计分类存在的商品）
+ * - {@link #USER}：用户总数
+ * - {@link #ORDER}：在线订单表中的订单总数（包括用户已删除的订单，不包括已归档的订单）
+ * - {@link #COMMENT}：评论总数
+ * - {@link #CATEGORY}：商品分类总数
+ * - {@link #COLLECT}：收藏总数
+ * - {@link #ANNOUNCEMENT}：公告总数
+ * - {@link #MAIL}：站内邮件总数
+ * - {@link #ATTACHMENT}：附件总数
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.stats.DashboardCounter
+ * @since 1.0
+ */
+public enum DashboardCounterEnum {
+
+    /**
+     * 管理员总数。
+     */
+    ADMIN("adminTotal", "管理员总数"),
+
+    /**
+     * 商品总数。
+     */
+    PRODUCT("productTotal", "商品总数"),
+
+    /**
+     * 用户总数。
+     */
+    USER("userTotal", "用户总数"),
+
+    /**
+     * 订单总数。
+     */
+    ORDER("orderTotal", "订单总数"),
+
+    /**
+     * 评论总数。
+     */
+    COMMENT("commentTotal", "评论总数"),
+
+    /**
+     * 商品分类总数。
+     */
+    CATEGORY("categoryTotal", "商品分类总数"),
+
+    /**
+     * 收藏总数。
+     */
+    COLLECT("collectTotal", "收藏总数"),
+
+    /**
+     * 公告总数。
+     */
+    ANNOUNCEMENT("announcementTotal", "公告总数"),
+
+    /**
+     * 站内邮件总数。
+     */
+    MAIL("mailTotal", "站内邮件总数"),
+
+    /**
+     * 附件总数。
+     */
+    ATTACHMENT("attachmentTotal", "附件总数"),
+
+    ;
+
+    /**
+     * 计数字段名。
+     * 用于 Redis Hash 字段和仪表盘接口返回字段。
+     */
+    String field;
+
+    /**
+     * 枚举值的描述信息。
+     */
+    String desc;
+
+    /**
+     * 枚举构造函数。
+     *
+     * @param field 计数字段名
+     * @param desc  枚举值的描述信息
+     */
+    DashboardCounterEnum(String field, String desc) {
+        this.field = field;
+        this.desc = desc;
+    }
+
+    /**
+     * 获取计数字段名。
+     *
+     * @return 计数字段名
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * 获取枚举值的描述信息。
+     *
+     * @return 枚举值的描述信息
+     */
+    public String getDesc() {
+        return desc;
+    }
+}
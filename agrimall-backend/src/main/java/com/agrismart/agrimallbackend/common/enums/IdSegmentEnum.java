@@ -0,0 +1,76 @@
+package com.agrismart.agrimallbackend.common.enums;
+
+/**
+ * 号段分配业务枚举类。
+ *
+ * 该枚举列出由 {@link com.agrismart.agrimallbackend.common.util.SegmentIdAllocator} 预分配主键的表，
+ * code 即表名，同时作为 {@code mall_id_segment} 表的 biz_tag。
+ *
+ * 这些表的全部插入都必须使用预分配的主键，否则自增主键可能与内存中尚未使用的号段冲突：
+ *
+ * - {@link #ORDER_ITEM}：订单项（code: mall_order_item）
+ * - {@link #MAIL}：站内邮件（code: bms_mail）
+ * - {@link #AUTHORITY}：角色权限（code: bms_authority）
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.common.util.SegmentIdAllocator
+ * @since 1.0
+ */
+public enum IdSegmentEnum {
+
+    /**
+     * 订单项。
+     */
+    ORDER_ITEM("mall_order_item", "订单项"),
+
+    /**
+     * 站内邮件。
+     */
+    MAIL("bms_mail", "站内邮件"),
+
+    /**
+     * 角色权限。
+     */
+    AUTHORITY("bms_authority", "角色权限"),
+
+    ;
+
+    /**
+     * 枚举值对应的代码，即表名。
+     */
+    String code;
+
+    /**
+     * 枚举值的描述信息。
+     */
+    String desc;
+
+    /**
+     * 枚举构造函数。
+     *
+     * @param code 枚举值对应的代码
+     * @param desc 枚举值的描述信息
+     */
+    IdSegmentEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    /**
+     * 获取枚举值对应的代码。
+     *
+     * @return 枚举值对应的代码
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 获取枚举值的描述信息。
+     *
+     * @return 枚举值的描述信息
+     */
+    public String getDesc() {
+        return desc;
+    }
+}
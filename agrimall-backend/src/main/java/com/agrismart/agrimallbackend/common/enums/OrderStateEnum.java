@@ -1,5 +1,8 @@
 package com.agrismart.agrimallbackend.common.enums;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * 订单状态枚举类。
  *
@@ -48,8 +51,8 @@ package com.agrismart.agrimallbackend.common.enums;
  *     userId, OrderStateEnum.PAYED.getCode());
  *
  * // 统计各状态的订单数量
- * int count = orderService.selectByOrderStateAndUserIdAndIsDeleted(
- *     OrderStateEnum.PAYED.getCode(), userId, OrderDeleteEnum.NO.getCode()).size();
+ * int count = orderService.selectStateCountByUserId(userId)
+ *     .get(OrderStateEnum.PAYED.getCode());
  * }
  * </pre>
  *
@@ -122,6 +125,16 @@ public enum OrderStateEnum {
         this.desc = desc;
     }
 
+    /**
+     * 获取不计为购买的订单状态代码：未支付和已取消的订单没有成交。
+     * 推荐模型和用户偏好统计购买记录时排除这些状态。
+     *
+     * @return 未支付、已取消的状态代码
+     */
+    public static List<Integer> unpurchasedCodes() {
+        return Arrays.asList(NO_PAY.getCode(), CANCELED.getCode());
+    }
+
     /**
      * 获取枚举值对应的代码。
      *
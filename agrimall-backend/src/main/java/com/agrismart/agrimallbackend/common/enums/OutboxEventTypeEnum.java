@@ -0,0 +1,92 @@
+package com.agrismart.agrimallbackend.common.enums;
+
+/**
+ * 事务发件箱事件类型枚举类。
+ *
+ * 该枚举用于标识 {@code mall_outbox} 表中记录的事务提交后副作用，
+ * 事件与业务数据在同一事务中写入，由 {@link com.agrismart.agrimallbackend.service.common.outbox.OutboxDispatcher} 在提交后执行：
+ *
+ * - {@link #ORDER_STOCK_FLAG}：标记订单已扣减库存（code: 1），biz_key 为订单ID；扣减记录已改为库存流水，
+ *   不再发布该事件，仅用于投递升级前写入的事件，由 StockLedgerRecorder 迁移为流水
+ * - {@link #CART_REMOVE}：把已下单的商品移出购物车（code: 2），biz_key 为用户ID，payload 为逗号分隔的商品ID
+ * - {@link #MAIL}：发送邮件（code: 3），biz_key 为收件人，payload 为邮件模板编码和附加内容
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.outbox.OutboxPublisher
+ * @see com.agrismart.agrimallbackend.service.common.outbox.OutboxDispatcher
+ * @since 1.0
+ */
+public enum OutboxEventTypeEnum {
+
+    /**
+     * 标记订单已扣减库存，仅保留用于投递升级前写入的事件。
+     */
+    ORDER_STOCK_FLAG(1, "标记订单已扣减库存"),
+
+    /**
+     * 移出购物车。
+     */
+    CART_REMOVE(2, "移出购物车"),
+
+    /**
+     * 发送邮件。
+     */
+    MAIL(3, "发送邮件"),
+
+    ;
+
+    /**
+     * 枚举值对应的代码。
+     * 用于数据库存储和业务逻辑判断。
+     */
+    Integer code;
+
+    /**
+     * 枚举值的描述信息。
+     */
+    String desc;
+
+    /**
+     * 枚举构造函数。
+     *
+     * @param code 枚举值对应的代码
+     * @param desc 枚举值的描述信息
+     */
+    OutboxEventTypeEnum(Integer code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    /**
+     * 根据代码查找事件类型。
+     *
+     * @param code 代码
+     * @return 事件类型，代码不存在时返回 null
+     */
+    public static OutboxEventTypeEnum fromCode(Integer code) {
+        for (OutboxEventTypeEnum type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取枚举值对应的代码。
+     *
+     * @return 枚举值对应的代码
+     */
+    public Integer getCode() {
+        return code;
+    }
+
+    /**
+     * 获取枚举值的描述信息。
+     *
+     * @return 枚举值的描述信息
+     */
+    public String getDesc() {
+        return desc;
+    }
+}
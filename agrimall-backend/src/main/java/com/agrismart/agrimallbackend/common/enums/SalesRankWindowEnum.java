@@ -0,0 +1,89 @@
+package com.agrismart.agrimallbackend.common.enums;
+
+/**
+ * 销量排行榜时间窗口枚举类。
+ *
+ * 该枚举用于标识热销排行的统计范围，对应 {@code /api/home/products/hot-rank} 接口的 window 参数：
+ *
+ * - {@link #ALL}：全部时间（code: all），与商品表中的累计销量一致
+ * - {@link #WEEK}：最近 7 天（code: 7d），由按天分桶的销量合并得到
+ * - {@link #DAY}：最近 24 小时（code: 24h），由按小时分桶的销量合并得到
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.rank.SalesLeaderboard
+ * @since 1.0
+ */
+public enum SalesRankWindowEnum {
+
+    /**
+     * 全部时间。
+     */
+    ALL("all", "全部时间"),
+
+    /**
+     * 最近 7 天。
+     */
+    WEEK("7d", "最近7天"),
+
+    /**
+     * 最近 24 小时。
+     */
+    DAY("24h", "最近24小时"),
+
+    ;
+
+    /**
+     * 枚举值对应的代码。
+     * 即接口参数中的取值。
+     */
+    String code;
+
+    /**
+     * 枚举值的描述信息。
+     */
+    String desc;
+
+    /**
+     * 枚举构造函数。
+     *
+     * @param code 枚举值对应的代码
+     * @param desc 枚举值的描述信息
+     */
+    SalesRankWindowEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    /**
+     * 根据代码查找时间窗口。
+     *
+     * @param code 代码（忽略大小写）
+     * @return 时间窗口，代码不存在时返回 null
+     */
+    public static SalesRankWindowEnum fromCode(String code) {
+        for (SalesRankWindowEnum window : values()) {
+            if (window.code.equalsIgnoreCase(code)) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取枚举值对应的代码。
+     *
+     * @return 枚举值对应的代码
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 获取枚举值的描述信息。
+     *
+     * @return 枚举值的描述信息
+     */
+    public String getDesc() {
+        return desc;
+    }
+}
@@ -0,0 +1,74 @@
+package com.agrismart.agrimallbackend.common.enums;
+
+/**
+ * 库存流水变动原因枚举类。
+ *
+ * 该枚举用于标识 {@code mall_stock_ledger} 表中每条库存流水的来源：
+ *
+ * - {@link #ORDER_SUBMIT}：提交订单时扣减库存（code: 1）
+ * - {@link #ORDER_SEND}：发货时为尚未扣减库存的订单补扣（code: 2）
+ * - {@link #LEGACY_FLAG}：迁移升级前写在 Redis 中的 order_stock_{orderId} 扣减标记（code: 3），库存已在当时扣减，本条流水不再扣减
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.stock.StockLedgerRecorder
+ * @since 1.0
+ */
+public enum StockLedgerReasonEnum {
+
+    /**
+     * 提交订单扣减。
+     */
+    ORDER_SUBMIT(1, "提交订单扣减"),
+
+    /**
+     * 发货时补扣。
+     */
+    ORDER_SEND(2, "发货时补扣"),
+
+    /**
+     * 迁移升级前的 Redis 扣减标记。
+     */
+    LEGACY_FLAG(3, "迁移升级前的扣减标记"),
+
+    ;
+
+    /**
+     * 枚举值对应的代码。
+     * 用于数据库存储和业务逻辑判断。
+     */
+    Integer code;
+
+    /**
+     * 枚举值的描述信息。
+     */
+    String desc;
+
+    /**
+     * 枚举构造函数。
+     *
+     * @param code 枚举值对应的代码
+     * @param desc 枚举值的描述信息
+     */
+    StockLedgerReasonEnum(Integer code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    /**
+     * 获取枚举值对应的代码。
+     *
+     * @return 枚举值对应的代码
+     */
+    public Integer getCode() {
+        return code;
+    }
+
+    /**
+     * 获取枚举值的描述信息。
+     *
+     * @return 枚举值的描述信息
+     */
+    public String getDesc() {
+        return desc;
+    }
+}
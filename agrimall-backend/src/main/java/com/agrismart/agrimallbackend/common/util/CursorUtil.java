@@ -0,0 +1,148 @@
+package com.agrismart.agrimallbackend.common.util;
+
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类。
+ *
+ * 列表按 (create_time desc, id desc) 排序，游标记录上一页最后一行的创建时间和ID，
+ * 下一页只查询排在它之后的 pageSize + 1 行（多取一行用于判断是否还有更多数据）：
+ * <pre>
+ * where create_time &lt; #{createTime} or (create_time = #{createTime} and id &lt; #{id})
+ * order by create_time desc, id desc
+ * limit #{limit}
+ * </pre>
+ * 查询沿 create_time 索引从游标位置开始读取，不需要跳过前面的行，也不需要 COUNT(*)，深翻页与第一页代价相同。
+ *
+ * create_time 允许为空，倒序时这些行排在最后：游标位于非空时间时条件还要加上 {@code or create_time is null}，
+ * 位于空时间的行中时游标的创建时间为 null，下一页只查询 {@code create_time is null and id < #{id}}。
+ *
+ * 游标对外是 Base64 编码的不透明字符串，调用方只能原样传回。
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * CursorUtil.Position position = CursorUtil.decode(cursor);
+ * int size = CursorUtil.pageSize(pageSize);
+ * List<Order> rows = orderMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+ * CursorPage<Order> page = CursorUtil.page(rows, size, Order::getCreateTime, Order::getId, null);
+ * }
+ * </pre>
+ *
+ * @author agrimall
+ * @see CursorPage
+ * @since 1.0
+ */
+public class CursorUtil {
+
+    /**
+     * 每页最多返回的记录数。
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 第一页的游标位置。
+     */
+    private static final Position FIRST = new Position(null, null);
+
+    /**
+     * 解析游标。
+     *
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @return 游标位置，第一页的创建时间和ID均为 null，位于创建时间为空的行中时只有创建时间为 null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static Position decode(String cursor) {
+        if (StringUtil.isEmpty(cursor)) {
+            return FIRST;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (parts.length != 2 || parts[1].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            Date createTime = parts[0].isEmpty() ? null : new Date(Long.parseLong(parts[0]));
+            return new Position(createTime, Long.valueOf(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * 生成游标。
+     *
+     * @param createTime 当前页最后一行的创建时间，可以为 null
+     * @param id         当前页最后一行的ID
+     * @return 不透明的游标字符串
+     */
+    public static String encode(Date createTime, Long id) {
+        String raw = (createTime == null ? "" : String.valueOf(createTime.getTime())) + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 规范每页记录数，取值范围：1 到 {@link #MAX_PAGE_SIZE}。
+     *
+     * @param pageSize 请求的每页记录数
+     * @return 实际每页记录数
+     */
+    public static int pageSize(Integer pageSize) {
+        return pageSize == null ? 10 : Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 把多取一行的查询结果封装为游标分页。
+     *
+     * @param rows       查询结果，最多 pageSize + 1 行，超出的一行会被移除
+     * @param pageSize   每页记录数
+     * @param createTime 取创建时间的函数
+     * @param id         取ID的函数
+     * @param total      总记录数，未统计时为 null
+     * @param <T>        数据类型
+     * @return 游标分页
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int pageSize, Function<T, Date> createTime,
+                                         Function<T, Long> id, Long total) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows.subList(pageSize, rows.size()).clear();
+            T last = rows.get(pageSize - 1);
+            nextCursor = encode(createTime.apply(last), id.apply(last));
+        }
+        return new CursorPage<>(rows, nextCursor, total);
+    }
+
+    /**
+     * 游标位置：上一页最后一行的创建时间和ID。
+     */
+    public static class Position {
+
+        private final Date createTime;
+
+        private final Long id;
+
+        private Position(Date createTime, Long id) {
+            this.createTime = createTime;
+            this.id = id;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.agrismart.agrimallbackend.common.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 全局唯一 ID 生成器（单例）。
+ *
+ * ID 结构与 {@link SnowFlake} 相同：41 位时间戳 + 10 位机器编号（数据中心 ID 与机器 ID 合并）+ 12 位序列号，
+ * 区别在于：
+ *
+ * - 机器编号从 Redis 租约获得（id_worker_{workerId}），定时续约，保证多个节点的机器编号不重复
+ * - 时间戳和序列号打包在一个 {@link AtomicLong} 中，通过 CAS 分配，没有锁竞争
+ * - 时钟回拨不超过 max-backward 时等待时钟追上，超过时才抛出异常
+ *
+ * 启动时 Redis 不可用会临时使用随机机器编号，并在续约任务中重试租约。
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * long orderNo = idGenerator.nextId();
+ * }
+ * </pre>
+ *
+ * @author agrimall
+ * @see SnowFlake
+ * @since 1.0
+ */
+@Component
+public class IdGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdGenerator.class);
+
+    /**
+     * 机器编号租约 Redis Key 前缀，完整格式：id_worker_{workerId}。
+     */
+    private static final String WORKER_KEY_PREFIX = "id_worker_";
+
+    /**
+     * 机器编号占用的位数（数据中心 ID + 机器 ID）。
+     */
+    private static final long WORKER_BIT = SnowFlake.DATA_CENTER_BIT + SnowFlake.MACHINE_BIT;
+
+    /**
+     * 机器编号的数量（1024）。
+     */
+    private static final int WORKER_COUNT = 1 << WORKER_BIT;
+
+    /**
+     * 续约脚本：租约仍属于本节点时延长过期时间。
+     * KEYS: 租约 Key
+     * ARGV: 节点标识, 过期时间（毫秒）
+     * 返回 1 表示续约成功，0 表示租约已丢失
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then\n"
+                    + "  redis.call('pexpire', KEYS[1], ARGV[2])\n"
+                    + "  return 1\n"
+                    + "end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 释放脚本：租约仍属于本节点时删除。
+     * KEYS: 租约 Key
+     * ARGV: 节点标识
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 上次分配的 (时间戳偏移 << 序列号位数) | 序列号。
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 本节点标识，用于区分租约归属。
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 租约过期时间（毫秒）。
+     */
+    private final long leaseTtl;
+
+    /**
+     * 允许等待的最大时钟回拨（毫秒）。
+     */
+    private final long maxBackward;
+
+    /**
+     * 当前机器编号。
+     */
+    private volatile long workerId;
+
+    /**
+     * 当前机器编号是否持有 Redis 租约。
+     */
+    private volatile boolean leased;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param redisTemplate Redis 模板
+     * @param leaseTtl      租约过期时间（秒）
+     * @param maxBackward   允许等待的最大时钟回拨（毫秒）
+     */
+    @Autowired
+    public IdGenerator(StringRedisTemplate redisTemplate,
+                       @Value("${xqx.id.worker-lease-ttl:60}") long leaseTtl,
+                       @Value("${xqx.id.max-backward:10}") long maxBackward) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = TimeUnit.SECONDS.toMillis(Math.max(leaseTtl, 3L));
+        this.maxBackward = Math.max(maxBackward, 0L);
+        this.workerId = ThreadLocalRandom.current().nextInt(WORKER_COUNT);
+    }
+
+    /**
+     * 启动时租用机器编号。
+     */
+    @PostConstruct
+    public void init() {
+        if (!lease()) {
+            LOGGER.error("机器编号租约获取失败，临时使用随机机器编号 {}，续约时重试", workerId);
+        }
+    }
+
+    /**
+     * 生成下一个唯一 ID。
+     *
+     * @return 64 位长整型 ID
+     * @throws IllegalStateException 时钟回拨超过 max-backward
+     */
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long lastStamp = last >>> SnowFlake.SEQUENCE_BIT;
+            long currStamp = System.currentTimeMillis() - SnowFlake.START_STAMP;
+            long next;
+            if (currStamp > lastStamp) {
+                next = currStamp << SnowFlake.SEQUENCE_BIT;
+            } else if (currStamp == lastStamp) {
+                if ((last & SnowFlake.MAX_SEQUENCE) == SnowFlake.MAX_SEQUENCE) {
+                    // 本毫秒的序列号已用完，等待下一毫秒
+                    Thread.onSpinWait();
+                    continue;
+                }
+                next = last + 1;
+            } else {
+                waitForClock(lastStamp - currStamp);
+                continue;
+            }
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SnowFlake.SEQUENCE_BIT) << SnowFlake.TIMESTAMP_LEFT
+                        | workerId << SnowFlake.MACHINE_LEFT
+                        | (next & SnowFlake.MAX_SEQUENCE);
+            }
+        }
+    }
+
+    /**
+     * 获取当前机器编号。
+     *
+     * @return 机器编号，取值范围：0-1023
+     */
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 续约机器编号；租约丢失（例如 Redis 重启或节点长时间停顿）时重新租用。
+     */
+    @Scheduled(initialDelayString = "${xqx.id.heartbeat-interval:20000}",
+            fixedDelayString = "${xqx.id.heartbeat-interval:20000}")
+    public void heartbeat() {
+        try {
+            if (leased) {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT,
+                        Collections.singletonList(WORKER_KEY_PREFIX + workerId), nodeId, String.valueOf(leaseTtl));
+                if (renewed != null && renewed == 1) {
+                    return;
+                }
+                LOGGER.warn("机器编号 {} 的租约已丢失，重新租用", workerId);
+                leased = false;
+            }
+            if (!lease()) {
+                LOGGER.error("机器编号租约获取失败，继续使用机器编号 {}", workerId);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("机器编号续约失败，下次重试，workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * 节点关闭时释放租约，便于其他节点复用该机器编号。
+     */
+    @PreDestroy
+    public void release() {
+        if (!leased) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(WORKER_KEY_PREFIX + workerId), nodeId);
+        } catch (RuntimeException e) {
+            LOGGER.warn("机器编号租约释放失败，workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * 从当前机器编号开始依次尝试租用一个空闲的机器编号。
+     *
+     * @return true 表示租用成功
+     */
+    private boolean lease() {
+        long start = workerId;
+        try {
+            for (int i = 0; i < WORKER_COUNT; i++) {
+                long candidate = (start + i) % WORKER_COUNT;
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(WORKER_KEY_PREFIX + candidate,
+                        nodeId, Duration.ofMillis(leaseTtl)))) {
+                    workerId = candidate;
+                    leased = true;
+                    LOGGER.info("已租用机器编号 {}", candidate);
+                    return true;
+                }
+            }
+            LOGGER.error("机器编号已全部被占用");
+        } catch (RuntimeException e) {
+            LOGGER.warn("机器编号租约获取失败", e);
+        }
+        return false;
+    }
+
+    /**
+     * 时钟回拨时等待时钟追上上次分配的时间戳。
+     *
+     * @param backward 回拨的毫秒数
+     */
+    private void waitForClock(long backward) {
+        if (backward > maxBackward) {
+            throw new IllegalStateException("Clock moved backwards by " + backward + "ms");
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backward));
+    }
+}
@@ -104,18 +104,40 @@ public class MailUtil {
      * 该方法同步发送邮件，会阻塞调用线程直到邮件发送完成。
      * 主要用于异步方法的内部实现，也可在必要时直接调用。
      *
+     * 如果邮件发送失败，会记录错误日志但不会抛出异常，确保不影响主业务流程。
+     *
+     * @param code    邮件模板编码，对应 {@link com.agrismart.agrimallbackend.common.enums.MailTypeEnum} 中的值
+     * @param to      收件人邮箱地址
+     * @param context 附加内容，对于订单提交邮件，此参数为订单编号；对于用户注册邮件，此参数可为空
+     */
+    public void sendMail(Integer code, String to, String context) {
+        // 发送邮件，捕获异常但不抛出，避免影响主业务流程
+        try {
+            deliverMail(code, to, context);
+        } catch (MailException e) {
+            LOGGER.error("邮件发送失败", e);
+        }
+    }
+
+    /**
+     * 同步发送邮件，发送失败时抛出异常。
+     *
+     * 供需要根据发送结果重试的调用方使用，例如
+     * {@link com.agrismart.agrimallbackend.service.common.outbox.OutboxDispatcher}。
+     *
      * 邮件模板说明：
      *
      * - code = 1：用户注册邮件模板，欢迎用户注册成功
      * - code = 2：订单提交邮件模板，通知用户订单已提交，context 参数为订单编号
      *
-     * 如果邮件发送失败，会记录错误日志但不会抛出异常，确保不影响主业务流程。
+     * 没有匹配的邮件模板时只记录日志，不视为失败。
      *
      * @param code    邮件模板编码，对应 {@link com.agrismart.agrimallbackend.common.enums.MailTypeEnum} 中的值
      * @param to      收件人邮箱地址
      * @param context 附加内容，对于订单提交邮件，此参数为订单编号；对于用户注册邮件，此参数可为空
+     * @throws MailException 邮件发送失败
      */
-    public void sendMail(Integer code, String to, String context) {
+    public void deliverMail(Integer code, String to, String context) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(from);
         message.setTo(to);
@@ -142,13 +164,6 @@ public class MailUtil {
                 LOGGER.info("无匹配的邮件模板 code={}", code);
                 return;
         }
-        
-        // 发送邮件，捕获异常但不抛出，避免影响主业务流程
-        try {
-            mailSender.send(message);
-        } catch (MailException e) {
-            LOGGER.error("邮件发送失败", e);
-        }
+        mailSender.send(message);
     }
 }
-
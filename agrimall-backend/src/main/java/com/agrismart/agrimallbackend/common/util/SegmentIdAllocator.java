@@ -0,0 +1,272 @@
+package com.agrismart.agrimallbackend.common.util;
+
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
+import com.agrismart.agrimallbackend.mapper.common.IdSegmentMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 主键号段分配器。
+ *
+ * 批量插入的表不再依赖自增主键：每个节点从 {@code mall_id_segment} 表一次领取 step 个（默认 1000）连续主键，
+ * 在内存中依次分配，用完后再领取下一段。批量插入语句直接带上主键，不需要 useGeneratedKeys 回填，
+ * 也不再竞争表的自增锁；每领取一段只需一次数据库往返。
+ *
+ * 每个业务表在内存中保留当前号段和一个预取号段：当前号段剩余不足 10% 时，由号段领取线程在后台领取下一段，
+ * 当前号段用完后直接切换，分配主键的线程不等待数据库，也不会在持有号段锁和自身数据库连接的同时再占用一个连接。
+ * 只有预取尚未完成（例如启动后首次分配、短时间内分配量超过一段）时，分配线程才释放号段锁等待领取结果，
+ * 超过 segment-fetch-timeout 仍未领取到时抛出异常。
+ *
+ * 领取号段在独立事务中执行，调用方事务回滚不会回退号段，已领取未使用的主键会被跳过（主键不连续，但不会重复）。
+ * 号段记录不存在时按业务表当前最大主键自动初始化。
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * long[] ids = segmentIdAllocator.nextIds(IdSegmentEnum.ORDER_ITEM, orderItemList.size());
+ * }
+ * </pre>
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.common.enums.IdSegmentEnum
+ * @since 1.0
+ */
+@Component
+public class SegmentIdAllocator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentIdAllocator.class);
+
+    /**
+     * 当前号段剩余主键低于号段长度的该百分比时预取下一段。
+     */
+    private static final int PREFETCH_PERCENT = 10;
+
+    /**
+     * 各业务表在本节点内存中的号段。
+     */
+    private final Map<IdSegmentEnum, Segment> segments = new EnumMap<>(IdSegmentEnum.class);
+
+    private final IdSegmentMapper idSegmentMapper;
+
+    /**
+     * 领取号段使用的独立事务。
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 号段领取线程池。
+     */
+    private final Executor segmentTaskExecutor;
+
+    /**
+     * 号段记录初始化时的号段长度。
+     */
+    private final int initialStep;
+
+    /**
+     * 等待号段领取的超时时间（纳秒）。
+     */
+    private final long fetchTimeout;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param idSegmentMapper     号段数据访问对象
+     * @param transactionManager  事务管理器
+     * @param segmentTaskExecutor 号段领取线程池
+     * @param initialStep         号段记录初始化时的号段长度
+     * @param fetchTimeout        等待号段领取的超时时间（毫秒）
+     */
+    @Autowired
+    public SegmentIdAllocator(IdSegmentMapper idSegmentMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("segmentTaskExecutor") Executor segmentTaskExecutor,
+                              @Value("${xqx.id.segment-step:1000}") int initialStep,
+                              @Value("${xqx.id.segment-fetch-timeout:3000}") long fetchTimeout) {
+        this.idSegmentMapper = idSegmentMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.segmentTaskExecutor = segmentTaskExecutor;
+        this.initialStep = Math.max(initialStep, 1);
+        this.fetchTimeout = TimeUnit.MILLISECONDS.toNanos(Math.max(fetchTimeout, 1L));
+        for (IdSegmentEnum bizTag : IdSegmentEnum.values()) {
+            segments.put(bizTag, new Segment());
+        }
+    }
+
+    /**
+     * 分配一个主键。
+     *
+     * @param bizTag 业务表
+     * @return 主键
+     */
+    public long nextId(IdSegmentEnum bizTag) {
+        return nextIds(bizTag, 1)[0];
+    }
+
+    /**
+     * 批量分配主键，当前号段不够时切换到预取的下一段。
+     *
+     * @param bizTag 业务表
+     * @param count  主键数量
+     * @return 递增的主键数组
+     * @throws IllegalStateException 号段领取失败或超时
+     */
+    public long[] nextIds(IdSegmentEnum bizTag, int count) {
+        long[] ids = new long[count];
+        Segment segment = segments.get(bizTag);
+        synchronized (segment) {
+            int filled = 0;
+            while (filled < count) {
+                if (segment.next > segment.max) {
+                    swap(bizTag, segment);
+                }
+                while (filled < count && segment.next <= segment.max) {
+                    ids[filled++] = segment.next++;
+                }
+                if (!segment.loading && segment.bufferMax < segment.bufferNext
+                        && (segment.max - segment.next + 1) * 100 < segment.length * PREFETCH_PERCENT) {
+                    prefetch(bizTag, segment);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 切换到预取的号段，尚未预取时发起领取，并在释放号段锁的情况下等待领取结果。
+     * 调用方持有号段锁。
+     */
+    private void swap(IdSegmentEnum bizTag, Segment segment) {
+        long deadline = System.nanoTime() + fetchTimeout;
+        boolean requested = false;
+        while (segment.bufferMax < segment.bufferNext) {
+            if (!segment.loading) {
+                // 之前的预取失败时重新领取一次，本次领取仍失败才抛出异常
+                if (requested && segment.failure != null) {
+                    throw new IllegalStateException("号段领取失败：" + bizTag.getCode(), segment.failure);
+                }
+                prefetch(bizTag, segment);
+                requested = true;
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("号段领取超时：" + bizTag.getCode());
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(segment, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("号段领取被中断：" + bizTag.getCode(), e);
+            }
+        }
+        segment.next = segment.bufferNext;
+        segment.max = segment.bufferMax;
+        segment.length = segment.max - segment.next + 1;
+        segment.bufferNext = 1L;
+        segment.bufferMax = 0L;
+    }
+
+    /**
+     * 提交后台领取下一段的任务。调用方持有号段锁。
+     */
+    private void prefetch(IdSegmentEnum bizTag, Segment segment) {
+        segment.loading = true;
+        segment.failure = null;
+        try {
+            segmentTaskExecutor.execute(() -> load(bizTag, segment));
+        } catch (RejectedExecutionException e) {
+            segment.loading = false;
+            segment.failure = e;
+        }
+    }
+
+    /**
+     * 在号段领取线程中领取下一段，完成后唤醒等待的分配线程。
+     */
+    private void load(IdSegmentEnum bizTag, Segment segment) {
+        long[] range = null;
+        RuntimeException failure = null;
+        try {
+            range = fetch(bizTag);
+        } catch (RuntimeException e) {
+            LOGGER.error("主键号段领取失败，表={}", bizTag.getCode(), e);
+            failure = e;
+        }
+        synchronized (segment) {
+            if (range != null) {
+                segment.bufferNext = range[0];
+                segment.bufferMax = range[1];
+            }
+            segment.failure = failure;
+            segment.loading = false;
+            segment.notifyAll();
+        }
+    }
+
+    /**
+     * 在独立事务中领取下一个号段。
+     *
+     * @return 号段范围 [起始主键, 最大主键]
+     */
+    private long[] fetch(IdSegmentEnum bizTag) {
+        Map<String, Object> row = transactionTemplate.execute(status -> {
+            if (idSegmentMapper.stepSegment(bizTag.getCode()) == 0) {
+                idSegmentMapper.initSegment(bizTag.getCode(), initialStep);
+                idSegmentMapper.stepSegment(bizTag.getCode());
+            }
+            return idSegmentMapper.selectSegment(bizTag.getCode());
+        });
+        if (row == null) {
+            throw new IllegalStateException("号段领取失败：" + bizTag.getCode());
+        }
+        long max = ((Number) row.get("maxId")).longValue();
+        long step = ((Number) row.get("step")).longValue();
+        LOGGER.info("领取主键号段，表={}，范围=[{}, {}]", bizTag.getCode(), max - step + 1, max);
+        return new long[]{max - step + 1, max};
+    }
+
+    /**
+     * 内存中的号段，[next, max] 为尚未分配的主键，[bufferNext, bufferMax] 为预取的下一段（为空时 bufferMax < bufferNext）。
+     * 字段均在号段锁内读写。
+     */
+    private static class Segment {
+
+        private long next = 1L;
+
+        private long max = 0L;
+
+        /**
+         * 当前号段的长度，用于计算预取时机。
+         */
+        private long length = 0L;
+
+        private long bufferNext = 1L;
+
+        private long bufferMax = 0L;
+
+        /**
+         * 是否有正在进行的领取任务。
+         */
+        private boolean loading;
+
+        /**
+         * 最近一次领取失败的原因。
+         */
+        private RuntimeException failure;
+    }
+}
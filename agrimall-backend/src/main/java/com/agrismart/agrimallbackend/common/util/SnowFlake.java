@@ -37,8 +37,10 @@ package com.agrismart.agrimallbackend.common.util;
  * - 数据中心 ID 和机器 ID 需要在分布式环境中唯一配置
  * - 如果系统时钟回拨，会抛出异常
  * - 同一毫秒内生成的 ID 通过序列号区分
+ * - 每个实例独立维护序列号，业务中请使用单例的 {@link IdGenerator}，其机器编号从 Redis 租约获得
  *
  * @author agrimall
+ * @see IdGenerator
  * @since 1.0
  */
 public class SnowFlake {
@@ -47,25 +49,25 @@ public class SnowFlake {
      * 起始时间戳（2016-11-26 08:01:05）。
      * 用于计算时间戳的偏移量，减少 ID 长度。
      */
-    private static final long START_STAMP = 1480166465631L;
+    static final long START_STAMP = 1480166465631L;
 
     /**
      * 序列号占用的位数（12 位）。
      * 每毫秒最多可生成 2^12 = 4096 个 ID。
      */
-    private static final long SEQUENCE_BIT = 12;
+    static final long SEQUENCE_BIT = 12;
 
     /**
      * 机器 ID 占用的位数（5 位）。
      * 每个数据中心最多支持 2^5 = 32 台机器。
      */
-    private static final long MACHINE_BIT = 5;
+    static final long MACHINE_BIT = 5;
 
     /**
      * 数据中心 ID 占用的位数（5 位）。
      * 最多支持 2^5 = 32 个数据中心。
      */
-    private static final long DATA_CENTER_BIT = 5;
+    static final long DATA_CENTER_BIT = 5;
 
     /**
      * 数据中心 ID 的最大值（31）。
@@ -83,13 +85,13 @@ public class SnowFlake {
      * 序列号的最大值（4095）。
      * 计算方式：2^12 - 1 = 4095
      */
-    private static final long MAX_SEQUENCE = -1L ^ (-1L << SEQUENCE_BIT);
+    static final long MAX_SEQUENCE = -1L ^ (-1L << SEQUENCE_BIT);
 
     /**
      * 机器 ID 左移的位数。
      * 用于将机器 ID 放置到 ID 的正确位置。
      */
-    private static final long MACHINE_LEFT = SEQUENCE_BIT;
+    static final long MACHINE_LEFT = SEQUENCE_BIT;
 
     /**
      * 数据中心 ID 左移的位数。
@@ -101,7 +103,7 @@ public class SnowFlake {
      * 时间戳左移的位数。
      * 用于将时间戳放置到 ID 的正确位置。
      */
-    private static final long TIMESTAMP_LEFT = DATA_CENTER_LEFT + DATA_CENTER_BIT;
+    static final long TIMESTAMP_LEFT = DATA_CENTER_LEFT + DATA_CENTER_BIT;
 
     /**
      * 数据中心 ID。
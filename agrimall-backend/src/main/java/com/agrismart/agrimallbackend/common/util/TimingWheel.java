@@ -0,0 +1,219 @@
+package com.agrismart.agrimallbackend.common.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮（单层）。
+ *
+ * 时间被切分为固定长度的刻度，轮上有 2 的幂个槽，到期时间落在第 n 个刻度的任务放入第 n & mask 个槽，
+ * 并记录还需转过的圈数。后台线程每个刻度处理一个槽，把圈数归零的任务一次性交给到期回调：
+ *
+ * - 添加任务只是把任务放入无锁队列，O(1)，不论轮上已有多少任务
+ * - 后台线程每个刻度把新任务转入对应的槽，同一刻度到期的任务合并为一次回调
+ * - 到期回调在后台线程中执行，耗时过长时后续刻度顺延处理，不会丢失任务
+ *
+ * 适合大量、精度要求为刻度级别的延迟任务，例如订单超时取消。任务只保存在内存中，节点重启后需要由调用方重新添加。
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * TimingWheel<Long> wheel = new TimingWheel<>("order-timeout", 1000, 512, orderIds -> cancel(orderIds));
+ * wheel.start();
+ * wheel.schedule(orderId, deadline);
+ * }
+ * </pre>
+ *
+ * @param <T> 任务类型
+ * @author agrimall
+ * @since 1.0
+ */
+public class TimingWheel<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheel.class);
+
+    /**
+     * 刻度长度（毫秒）。
+     */
+    private final long tickMillis;
+
+    /**
+     * 槽，只由后台线程访问。
+     */
+    private final List<LinkedList<Timeout<T>>> buckets;
+
+    private final int mask;
+
+    /**
+     * 新添加、尚未转入槽的任务。
+     */
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 到期回调。
+     */
+    private final Consumer<List<T>> onExpire;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Thread worker;
+
+    /**
+     * 时间轮的起始时间（毫秒）。
+     */
+    private volatile long startTime;
+
+    private volatile boolean running;
+
+    /**
+     * 构造函数。
+     *
+     * @param name       后台线程名
+     * @param tickMillis 刻度长度（毫秒）
+     * @param wheelSize  槽数，向上取整为 2 的幂
+     * @param onExpire   到期回调，参数为同一刻度到期的全部任务
+     */
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<List<T>> onExpire) {
+        this.tickMillis = Math.max(tickMillis, 1L);
+        int slots = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        this.mask = slots - 1;
+        this.onExpire = onExpire;
+        this.worker = new Thread(this::work, name);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * 启动后台线程。
+     */
+    public void start() {
+        startTime = System.currentTimeMillis();
+        running = true;
+        worker.start();
+    }
+
+    /**
+     * 停止后台线程，尚未到期的任务被丢弃。
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 添加一个任务，O(1)。已过期的任务在下一个刻度到期。
+     *
+     * @param task     任务
+     * @param deadline 到期时间（毫秒时间戳）
+     */
+    public void schedule(T task, long deadline) {
+        pending.add(new Timeout<>(task, deadline));
+        size.incrementAndGet();
+    }
+
+    /**
+     * 时间轮转一圈的时长（毫秒），到期时间超过该时长的任务需要多转几圈。
+     *
+     * @return 刻度长度 × 槽数
+     */
+    public long horizon() {
+        return tickMillis * buckets.size();
+    }
+
+    /**
+     * 尚未到期的任务数。
+     *
+     * @return 任务数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void work() {
+        long tick = 0;
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickMillis;
+            long sleep = deadline - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            transferPending(tick);
+            List<T> expired = expire(buckets.get((int) (tick & mask)));
+            tick++;
+            if (expired.isEmpty()) {
+                continue;
+            }
+            size.addAndGet(-expired.size());
+            try {
+                onExpire.accept(expired);
+            } catch (RuntimeException e) {
+                LOGGER.error("时间轮到期任务处理失败，任务数={}", expired.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 把新任务转入槽：到期刻度早于当前刻度的放入当前槽。
+     */
+    private void transferPending(long tick) {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            long ticks = Math.max((timeout.deadline - startTime) / tickMillis, tick);
+            timeout.rounds = (ticks - tick) / buckets.size();
+            buckets.get((int) (ticks & mask)).add(timeout);
+        }
+    }
+
+    private List<T> expire(LinkedList<Timeout<T>> bucket) {
+        List<T> expired = new ArrayList<>();
+        Iterator<Timeout<T>> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout<T> timeout = iterator.next();
+            if (timeout.rounds <= 0) {
+                iterator.remove();
+                expired.add(timeout.task);
+            } else {
+                timeout.rounds--;
+            }
+        }
+        return expired;
+    }
+
+    private static final class Timeout<T> {
+
+        private final T task;
+
+        private final long deadline;
+
+        /**
+         * 还需转过的圈数。
+         */
+        private long rounds;
+
+        private Timeout(T task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 异步任务配置类。
@@ -17,6 +18,9 @@ import java.util.concurrent.Executor;
  *
  * - 启用 Spring 异步任务支持（{@link EnableAsync}）
  * - 配置邮件发送专用线程池
+ * - 配置推荐模型增量更新专用线程池
+ * - 配置事务发件箱投递专用线程池
+ * - 配置主键号段预取专用线程池
  * - 自定义线程池参数，优化邮件发送性能
  *
  * 使用场景：
@@ -62,5 +66,79 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * 推荐模型增量更新任务执行器 Bean。
+     *
+     * 用于在事务提交后异步处理下单、收藏等用户行为事件，
+     * 见 {@link com.agrismart.agrimallbackend.service.home.recommend.UserBehaviorListener}。
+     * 线程池配置：
+     *
+     * - 核心线程数/最大线程数：1/2，增量更新需要竞争模型锁，多开线程没有意义
+     * - 队列容量：1000，突发流量下缓冲事件
+     * - 拒绝策略：直接丢弃，丢失的增量由定时全量重建补上，不能反压到下单请求
+     * - 线程名前缀：recommend-exec-，便于日志追踪和问题排查
+     *
+     * @return 推荐模型增量更新任务执行器
+     */
+    @Bean(name = "recommendTaskExecutor")
+    public Executor recommendTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);        // 核心线程数
+        executor.setMaxPoolSize(2);         // 最大线程数
+        executor.setQueueCapacity(1000);    // 队列容量
+        executor.setThreadNamePrefix("recommend-exec-");  // 线程名前缀
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 事务发件箱投递任务执行器 Bean。
+     *
+     * 事务提交后触发 {@link com.agrismart.agrimallbackend.service.common.outbox.OutboxDispatcher#dispatchAsync()}，
+     * 一次投递会取出全部到期事件，因此只需要一个线程：
+     *
+     * - 核心线程数/最大线程数：1/1
+     * - 队列容量：1，投递进行中时最多再排队一次，用于处理投递期间新写入的事件
+     * - 拒绝策略：直接丢弃，已排队的那次投递会一并处理，漏掉的事件由定时轮询补上
+     * - 线程名前缀：outbox-exec-，便于日志追踪和问题排查
+     *
+     * @return 事务发件箱投递任务执行器
+     */
+    @Bean(name = "outboxTaskExecutor")
+    public Executor outboxTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);        // 核心线程数
+        executor.setMaxPoolSize(1);         // 最大线程数
+        executor.setQueueCapacity(1);       // 队列容量
+        executor.setThreadNamePrefix("outbox-exec-");  // 线程名前缀
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 主键号段领取任务执行器 Bean。
+     *
+     * 号段剩余不足时在后台领取下一段，见 {@link com.agrismart.agrimallbackend.common.util.SegmentIdAllocator}。
+     * 每个业务表同时最多只有一个领取任务：
+     *
+     * - 核心线程数/最大线程数：1/1，领取一段只需一次数据库往返
+     * - 队列容量：16，不小于业务表的数量
+     * - 拒绝策略：抛出异常，由分配线程记录为领取失败
+     * - 线程名前缀：segment-exec-，便于日志追踪和问题排查
+     *
+     * @return 主键号段领取任务执行器
+     */
+    @Bean(name = "segmentTaskExecutor")
+    public Executor segmentTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);        // 核心线程数
+        executor.setMaxPoolSize(1);         // 最大线程数
+        executor.setQueueCapacity(16);      // 队列容量
+        executor.setThreadNamePrefix("segment-exec-");  // 线程名前缀
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.agrismart.agrimallbackend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务配置类。
+ *
+ * 该类启用 Spring 定时任务支持，并配置定时任务使用的调度线程池。
+ * 主要用于后台周期性任务，例如推荐模型的定时重建，避免这些耗时操作占用请求线程。
+ *
+ * 功能特性：
+ *
+ * - 启用 Spring 定时任务支持（{@link EnableScheduling}）
+ * - 配置定时任务专用调度线程池
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.recommend.RecommendIndexHolder
+ * @since 1.0
+ */
+@Configuration
+@EnableScheduling
+public class ScheduleConfig {
+
+    /**
+     * 定时任务调度器 Bean。
+     *
+     * 线程池配置：
+     *
+     * - 线程数：4，不同的定时任务之间互不阻塞
+     * - 线程名前缀：schedule-exec-，便于日志追踪和问题排查
+     * - 关闭时等待正在执行的任务完成
+     *
+     * @return 定时任务调度器
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);                          // 调度线程数
+        scheduler.setThreadNamePrefix("schedule-exec-");   // 线程名前缀
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
@@ -8,16 +8,13 @@ import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.admin.Admin;
 import com.agrismart.agrimallbackend.entity.admin.Authority;
 import com.agrismart.agrimallbackend.entity.admin.Menu;
-import com.agrismart.agrimallbackend.mapper.admin.AdminMapper;
-import com.agrismart.agrimallbackend.mapper.admin.AnnouncementMapper;
-import com.agrismart.agrimallbackend.mapper.admin.AttachmentMapper;
 import com.agrismart.agrimallbackend.mapper.admin.AuthorityMapper;
-import com.agrismart.agrimallbackend.mapper.admin.MailMapper;
 import com.agrismart.agrimallbackend.mapper.admin.MenuMapper;
 import com.agrismart.agrimallbackend.service.admin.IAdminService;
 import com.agrismart.agrimallbackend.service.admin.IAnnouncementService;
 import com.agrismart.agrimallbackend.service.admin.IMenuService;
 import com.agrismart.agrimallbackend.service.common.IOrderService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import com.github.pagehelper.PageInfo;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -92,55 +89,15 @@ public class AdminSystemController {
      */
     private final AuthorityMapper authorityMapper;
 
-    /**
-     * 公告数据访问接口。
-     */
-    private final AnnouncementMapper announcementMapper;
-
-    /**
-     * 邮件数据访问接口。
-     */
-    private final MailMapper mailMapper;
-
-    /**
-     * 附件数据访问接口。
-     */
-    private final AttachmentMapper attachmentMapper;
-
-    /**
-     * 管理员数据访问接口。
-     */
-    private final AdminMapper adminMapper;
-
-    /**
-     * 商品数据访问接口。
-     */
-    private final com.agrismart.agrimallbackend.mapper.common.ProductMapper productMapper;
-
-    /**
-     * 用户数据访问接口。
-     */
-    private final com.agrismart.agrimallbackend.mapper.common.UserMapper userMapper;
-
     /**
      * 订单数据访问接口。
      */
     private final com.agrismart.agrimallbackend.mapper.common.OrderMapper orderMapper;
 
     /**
-     * 评论数据访问接口。
-     */
-    private final com.agrismart.agrimallbackend.mapper.common.CommentMapper commentMapper;
-
-    /**
-     * 商品分类数据访问接口。
-     */
-    private final com.agrismart.agrimallbackend.mapper.common.ProductCategoryMapper productCategoryMapper;
-
-    /**
-     * 收藏数据访问接口。
+     * 后台仪表盘计数。
      */
-    private final com.agrismart.agrimallbackend.mapper.home.CollectMapper collectMapper;
+    private final DashboardCounter dashboardCounter;
 
     /**
      * 构造函数，注入依赖。
@@ -151,16 +108,8 @@ public class AdminSystemController {
      * @param orderService         订单服务接口
      * @param menuMapper           菜单数据访问接口
      * @param authorityMapper      权限数据访问接口
-     * @param announcementMapper   公告数据访问接口
-     * @param mailMapper           邮件数据访问接口
-     * @param attachmentMapper     附件数据访问接口
-     * @param adminMapper          管理员数据访问接口
-     * @param productMapper        商品数据访问接口
-     * @param userMapper           用户数据访问接口
      * @param orderMapper          订单数据访问接口
-     * @param commentMapper        评论数据访问接口
-     * @param productCategoryMapper 商品分类数据访问接口
-     * @param collectMapper        收藏数据访问接口
+     * @param dashboardCounter     后台仪表盘计数
      */
     @Autowired
     public AdminSystemController(IAdminService adminService,
@@ -169,32 +118,16 @@ public class AdminSystemController {
                                  IOrderService orderService,
                                  MenuMapper menuMapper,
                                  AuthorityMapper authorityMapper,
-                                 AnnouncementMapper announcementMapper,
-                                 MailMapper mailMapper,
-                                 AttachmentMapper attachmentMapper,
-                                 AdminMapper adminMapper,
-                                 com.agrismart.agrimallbackend.mapper.common.ProductMapper productMapper,
-                                 com.agrismart.agrimallbackend.mapper.common.UserMapper userMapper,
                                  com.agrismart.agrimallbackend.mapper.common.OrderMapper orderMapper,
-                                 com.agrismart.agrimallbackend.mapper.common.CommentMapper commentMapper,
-                                 com.agrismart.agrimallbackend.mapper.common.ProductCategoryMapper productCategoryMapper,
-                                 com.agrismart.agrimallbackend.mapper.home.CollectMapper collectMapper) {
+                                 DashboardCounter dashboardCounter) {
         this.adminService = adminService;
         this.menuService = menuService;
         this.announcementService = announcementService;
         this.orderService = orderService;
         this.menuMapper = menuMapper;
         this.authorityMapper = authorityMapper;
-        this.announcementMapper = announcementMapper;
-        this.mailMapper = mailMapper;
-        this.attachmentMapper = attachmentMapper;
-        this.adminMapper = adminMapper;
-        this.productMapper = productMapper;
-        this.userMapper = userMapper;
         this.orderMapper = orderMapper;
-        this.commentMapper = commentMapper;
-        this.productCategoryMapper = productCategoryMapper;
-        this.collectMapper = collectMapper;
+        this.dashboardCounter = dashboardCounter;
     }
 
     /**
@@ -300,9 +233,11 @@ public class AdminSystemController {
      * 返回后台管理系统的统计数据，包括：
      *
      * - 订单统计：今日、本周、本月的订单数量
-     * - 系统数据统计：公告总数、邮件总数、附件总数、管理员总数
+     * - 系统数据统计：公告总数、邮件总数、附件总数、管理员总数以及商品、用户、订单、评论、分类、收藏总数
      * - 最新公告列表：最近 5 条公告
      *
+     * 各项数量从 {@link DashboardCounter} 维护的 Redis 计数中一次读取，不查询业务表。
+     *
      * @return 包含仪表盘数据的响应对象
      *
      * - todayOrderCount：今日订单数量
@@ -317,21 +252,9 @@ public class AdminSystemController {
      */
     @GetMapping("/dashboard")
     public ResponseVo<Map<String, Object>> dashboard() {
-        Map<String, Object> payload = new HashMap<>(10);
-        payload.put("todayOrderCount", orderService.getOrderByDay().size());
-        payload.put("weekOrderCount", orderService.getOrderByWeek().size());
-        payload.put("monthOrderCount", orderService.getOrderByMonth().size());
-        payload.put("announcementTotal", announcementMapper.getTotal());
-        payload.put("mailTotal", mailMapper.getTotal());
-        payload.put("attachmentTotal", attachmentMapper.getTotal());
-        payload.put("adminTotal", adminMapper.selectAll().size());
+        Map<String, Object> payload = new HashMap<>(20);
+        payload.putAll(dashboardCounter.counts());
         // 添加更有价值的业务数据
-        payload.put("productTotal", productMapper.selectAll().size());
-        payload.put("userTotal", userMapper.selectAll().size());
-        payload.put("orderTotal", orderMapper.selectAll().size());
-        payload.put("commentTotal", commentMapper.selectAll().size());
-        payload.put("categoryTotal", productCategoryMapper.selectAll().size());
-        payload.put("collectTotal", collectMapper.selectAllSimple().size());
         payload.put("totalSalesAmount", orderMapper.getTotalSalesAmount());
         // 添加月度订单统计
         payload.put("orderCountByMonth", orderService.getOrderCountByMonth());
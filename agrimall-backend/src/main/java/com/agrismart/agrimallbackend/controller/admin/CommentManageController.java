@@ -1,6 +1,8 @@
 package com.agrismart.agrimallbackend.controller.admin;
 
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.common.Comment;
 import com.agrismart.agrimallbackend.service.common.ICommentService;
 import com.github.pagehelper.PageInfo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -68,6 +70,24 @@ public class CommentManageController {
                 : commentService.selectByPageAndSearchContent(content, pageNum, pageSize);
     }
 
+    /**
+     * 游标分页查询评论列表，按创建时间倒序。
+     *
+     * 与 {@link #list} 的页码分页不同，游标分页按上一页最后一条记录定位，
+     * 深翻页与第一页代价相同；总记录数需要额外执行一次 COUNT 查询，默认不统计。
+     *
+     * @param cursor    上一页返回的 nextCursor（可选），为空表示第一页
+     * @param pageSize  每页大小，默认为 10，最大为 100
+     * @param withTotal 是否返回总记录数，默认为 false
+     * @return 游标分页结果，包含评论列表、下一页游标和是否还有下一页
+     */
+    @GetMapping("/cursor")
+    public ResponseVo<CursorPage<Comment>> cursor(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "10") Integer pageSize,
+                                                  @RequestParam(defaultValue = "false") boolean withTotal) {
+        return commentService.selectByCursor(cursor, pageSize, withTotal);
+    }
+
     /**
      * 删除评论。
      *
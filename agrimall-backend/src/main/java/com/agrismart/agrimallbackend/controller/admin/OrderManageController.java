@@ -1,6 +1,8 @@
 package com.agrismart.agrimallbackend.controller.admin;
 
 import com.agrismart.agrimallbackend.common.util.StringUtil;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
+import com.agrismart.agrimallbackend.dto.response.OrderStateResult;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Order;
 import com.agrismart.agrimallbackend.service.common.IOrderService;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,7 +27,7 @@ import java.util.Map;
  *
  * - 订单列表查询（支持分页和按订单号搜索）
  * - 订单详情查询（包含订单项）
- * - 订单状态更新
+ * - 订单状态更新（支持批量）
  * - 订单删除
  *
  * 接口路径：{@code /api/admin/orders}
@@ -85,6 +88,24 @@ public class OrderManageController {
         }
     }
 
+    /**
+     * 游标分页查询订单列表，按创建时间倒序。
+     *
+     * 与 {@link #list} 的页码分页不同，游标分页按上一页最后一条记录定位，
+     * 深翻页与第一页代价相同；总记录数需要额外执行一次 COUNT 查询，默认不统计。
+     *
+     * @param cursor    上一页返回的 nextCursor（可选），为空表示第一页
+     * @param pageSize  每页大小，默认为 10，最大为 100
+     * @param withTotal 是否返回总记录数，默认为 false
+     * @return 游标分页结果，包含订单列表、下一页游标和是否还有下一页
+     */
+    @GetMapping("/cursor")
+    public ResponseVo<CursorPage<Order>> cursor(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "10") Integer pageSize,
+                                                @RequestParam(defaultValue = "false") boolean withTotal) {
+        return orderService.selectByCursor(cursor, pageSize, withTotal);
+    }
+
     /**
      * 查询订单详情。
      *
@@ -124,6 +145,22 @@ public class OrderManageController {
         return orderService.updateOrderState(orderId, state);
     }
 
+    /**
+     * 批量更新订单状态。
+     *
+     * 用于批量发货等场景，整批订单在一个事务中处理，发货时按商品合并扣减库存。
+     * 不存在或库存不足的订单在结果中单独返回失败原因，不影响同批其他订单。
+     *
+     * @param orderIds 订单 ID 列表（逗号分隔），最多 500 个
+     * @param state    新的订单状态，对应 {@link com.agrismart.agrimallbackend.common.enums.OrderStateEnum} 中的值
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/state")
+    public ResponseVo<List<OrderStateResult>> updateStates(@RequestParam("orderIds") List<Long> orderIds,
+                                                           @RequestParam("state") Integer state) {
+        return orderService.updateOrderStates(orderIds, state);
+    }
+
     /**
      * 删除订单。
      *
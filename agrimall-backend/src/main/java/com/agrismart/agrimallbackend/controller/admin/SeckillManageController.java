@@ -0,0 +1,79 @@
+package com.agrismart.agrimallbackend.controller.admin;
+
+import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.home.Seckill;
+import com.agrismart.agrimallbackend.service.home.ISeckillService;
+import com.github.pagehelper.PageInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 秒杀活动管理控制器。
+ *
+ * 该控制器提供后台管理系统对秒杀活动的管理接口，包括：
+ *
+ * - 秒杀活动列表查询（支持分页）
+ * - 秒杀活动创建（创建后立即把名额预加载到 Redis）
+ *
+ * 接口路径：{@code /api/admin/seckill}
+ *
+ * 权限要求：
+ *
+ * - 需要管理员登录（通过 {@link com.agrismart.agrimallbackend.interceptor.AdminInterceptor} 验证）
+ * - 需要相应的菜单权限
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.ISeckillService
+ * @see com.agrismart.agrimallbackend.entity.home.Seckill
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/admin/seckill")
+public class SeckillManageController {
+
+    /**
+     * 秒杀服务接口。
+     */
+    private final ISeckillService seckillService;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param seckillService 秒杀服务接口
+     */
+    @Autowired
+    public SeckillManageController(ISeckillService seckillService) {
+        this.seckillService = seckillService;
+    }
+
+    /**
+     * 分页查询秒杀活动列表。
+     *
+     * @param pageNum  页码，从 1 开始，默认为 1
+     * @param pageSize 每页大小，默认为 5
+     * @return 分页信息，包含秒杀活动列表
+     */
+    @GetMapping
+    public ResponseVo<PageInfo> list(@RequestParam(defaultValue = "1") Integer pageNum,
+                                     @RequestParam(defaultValue = "5") Integer pageSize) {
+        return seckillService.selectByPage(pageNum, pageSize);
+    }
+
+    /**
+     * 创建秒杀活动。
+     *
+     * 需要提供秒杀商品、秒杀价格、名额和起止时间，名额不能超过商品库存。
+     *
+     * @param seckill 秒杀活动实体对象
+     * @return 操作结果，true 表示创建成功
+     */
+    @PostMapping
+    public ResponseVo<Boolean> create(@RequestBody Seckill seckill) {
+        return seckillService.add(seckill);
+    }
+}
@@ -1,11 +1,13 @@
 package com.agrismart.agrimallbackend.controller.common;
 
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.common.util.StringUtil;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.admin.Attachment;
 import com.agrismart.agrimallbackend.mapper.admin.AttachmentMapper;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -89,14 +91,21 @@ public class UploadController {
      */
     private final AttachmentMapper attachmentMapper;
 
+    /**
+     * 后台仪表盘计数，上传附件后调整附件总数。
+     */
+    private final DashboardCounter dashboardCounter;
+
     /**
      * 构造函数，注入依赖。
      *
      * @param attachmentMapper 附件数据访问接口
+     * @param dashboardCounter 后台仪表盘计数
      */
     @Autowired
-    public UploadController(AttachmentMapper attachmentMapper) {
+    public UploadController(AttachmentMapper attachmentMapper, DashboardCounter dashboardCounter) {
         this.attachmentMapper = attachmentMapper;
+        this.dashboardCounter = dashboardCounter;
     }
 
     /**
@@ -234,6 +243,7 @@ public class UploadController {
         if (attachmentMapper.insertSelective(saveAttachment) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.UPLOAD_ATTACHMENT_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ATTACHMENT, 1);
         return ResponseVo.success(saveAttachment);
     }
 
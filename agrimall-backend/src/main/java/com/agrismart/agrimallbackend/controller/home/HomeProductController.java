@@ -1,10 +1,13 @@
 package com.agrismart.agrimallbackend.controller.home;
 
+import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.SalesRankWindowEnum;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Product;
 import com.agrismart.agrimallbackend.entity.common.ProductCategory;
 import com.agrismart.agrimallbackend.service.common.ICommentService;
 import com.agrismart.agrimallbackend.service.common.IProductService;
+import com.agrismart.agrimallbackend.service.home.IRecommendService;
 import com.agrismart.agrimallbackend.mapper.common.ProductCategoryMapper;
 import com.github.pagehelper.PageInfo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +30,7 @@ import java.util.Map;
  * - 热销商品排行
  * - 商品分类列表
  * - 商品详情查询（包含评论）
+ * - 相关商品推荐（买了该商品的用户还买了）
  *
  * 接口路径：{@code /api/home/products}
  *
@@ -35,6 +39,7 @@ import java.util.Map;
  * @author agrimall
  * @see com.agrismart.agrimallbackend.service.common.IProductService
  * @see com.agrismart.agrimallbackend.service.common.ICommentService
+ * @see com.agrismart.agrimallbackend.service.home.IRecommendService
  * @since 1.0
  */
 @RestController
@@ -56,20 +61,28 @@ public class HomeProductController {
      */
     private final ProductCategoryMapper productCategoryMapper;
 
+    /**
+     * 推荐服务接口。
+     */
+    private final IRecommendService recommendService;
+
     /**
      * 构造函数，注入依赖。
      *
      * @param productService         商品服务接口
      * @param commentService          评论服务接口
      * @param productCategoryMapper  商品分类数据访问接口
+     * @param recommendService       推荐服务接口
      */
     @Autowired
     public HomeProductController(IProductService productService,
                                  ICommentService commentService,
-                                 ProductCategoryMapper productCategoryMapper) {
+                                 ProductCategoryMapper productCategoryMapper,
+                                 IRecommendService recommendService) {
         this.productService = productService;
         this.commentService = commentService;
         this.productCategoryMapper = productCategoryMapper;
+        this.recommendService = recommendService;
     }
 
     /**
@@ -110,15 +123,21 @@ public class HomeProductController {
     /**
      * 查询热销商品排行榜（限制数量）。
      *
-     * 返回按销量排序的前 N 个商品。
+     * 返回指定时间窗口内按销量排序的前 N 个商品，数据来自 Redis 销量排行榜。
      *
-     * @param size 返回的商品数量，默认为 20
+     * @param size   返回的商品数量，默认为 20
+     * @param window 时间窗口：all（全部时间，默认）、7d（最近 7 天）、24h（最近 24 小时）
      * @return 商品列表，按销量从高到低排序
      */
     @GetMapping("/hot-rank")
-    public ResponseVo<List<Product>> hotRank(@RequestParam(value = "size", defaultValue = "20") Integer size) {
+    public ResponseVo<List<Product>> hotRank(@RequestParam(value = "size", defaultValue = "20") Integer size,
+                                             @RequestParam(value = "window", defaultValue = "all") String window) {
         int limit = size == null ? 20 : size;
-        return ResponseVo.success(productService.selectBySellNumberLimit(limit));
+        SalesRankWindowEnum rankWindow = SalesRankWindowEnum.fromCode(window);
+        if (rankWindow == null) {
+            return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
+        }
+        return ResponseVo.success(productService.selectBySellNumberLimit(limit, rankWindow));
     }
 
     /**
@@ -160,5 +179,20 @@ public class HomeProductController {
         payload.put("pageInfo", commentService.selectByProductIdAndPage(id, pageNum, pageSize).getData());
         return ResponseVo.success(payload);
     }
-}
 
+    /**
+     * 查询相关商品（买了该商品的用户还买了）。
+     *
+     * 从内存中的商品相似度索引读取该商品的近邻，按余弦相似度从高到低排序，
+     * 请求时不查询订单数据。索引尚未构建或商品没有购买/收藏记录时返回空列表。
+     *
+     * @param id   商品 ID（路径变量）
+     * @param size 返回的商品数量，默认为 6
+     * @return 相关商品列表
+     */
+    @GetMapping("/{id}/related")
+    public ResponseVo<List<Product>> related(@PathVariable("id") Long id,
+                                             @RequestParam(value = "size", required = false, defaultValue = "6") Integer size) {
+        return recommendService.related(id, size == null ? 0 : size);
+    }
+}
@@ -0,0 +1,113 @@
+package com.agrismart.agrimallbackend.controller.home;
+
+import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.home.Seckill;
+import com.agrismart.agrimallbackend.service.home.ISeckillService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 前台秒杀控制器。
+ *
+ * 该控制器提供前台用户参与秒杀的功能接口，包括：
+ *
+ * - 秒杀活动列表查询
+ * - 秒杀令牌获取
+ * - 凭令牌抢购
+ * - 秒杀结果轮询
+ *
+ * 抢购成功只表示抢到名额，订单由后台批量创建；前台轮询结果拿到订单ID后，按普通订单提交。
+ *
+ * 接口路径：{@code /api/home/seckill}
+ *
+ * 权限要求：所有接口都需要用户登录（通过 {@link com.agrismart.agrimallbackend.interceptor.JwtInterceptor} 验证）。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.ISeckillService
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/home/seckill")
+public class HomeSeckillController {
+
+    /**
+     * 秒杀服务接口。
+     */
+    private final ISeckillService seckillService;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param seckillService 秒杀服务接口
+     */
+    @Autowired
+    public HomeSeckillController(ISeckillService seckillService) {
+        this.seckillService = seckillService;
+    }
+
+    /**
+     * 查询进行中和即将开始的秒杀活动。
+     *
+     * @return 秒杀活动列表，按开始时间排序
+     */
+    @GetMapping
+    public ResponseVo<List<Seckill>> list() {
+        return seckillService.listActive();
+    }
+
+    /**
+     * 获取秒杀令牌。
+     *
+     * 令牌在有效期内只能使用一次；名额已抢光或令牌已发完时直接返回错误，不进入抢购。
+     *
+     * @param id  秒杀活动 ID（路径变量）
+     * @param uid 用户 ID（从请求属性中获取，由拦截器设置）
+     * @return 秒杀令牌
+     */
+    @GetMapping("/{id}/token")
+    public ResponseVo<String> token(@PathVariable("id") Long id,
+                                    @RequestAttribute("id") Long uid) {
+        return seckillService.token(id, uid);
+    }
+
+    /**
+     * 凭令牌抢购。
+     *
+     * @param id    秒杀活动 ID（路径变量）
+     * @param token 秒杀令牌
+     * @param uid   用户 ID（从请求属性中获取，由拦截器设置）
+     * @return 操作结果，true 表示抢到名额、订单正在创建
+     */
+    @PostMapping("/{id}")
+    public ResponseVo<Boolean> attempt(@PathVariable("id") Long id,
+                                       @RequestParam("token") String token,
+                                       @RequestAttribute("id") Long uid) {
+        return seckillService.attempt(id, uid, token);
+    }
+
+    /**
+     * 查询秒杀结果。
+     *
+     * @param id  秒杀活动 ID（路径变量）
+     * @param uid 用户 ID（从请求属性中获取，由拦截器设置）
+     * @return 秒杀结果
+     *
+     * - status：queuing 排队中，success 成功，failed 失败（可重新秒杀），none 没有秒杀记录
+     * - orderId：成功时的订单ID
+     *
+     */
+    @GetMapping("/{id}/result")
+    public ResponseVo<Map<String, Object>> result(@PathVariable("id") Long id,
+                                                  @RequestAttribute("id") Long uid) {
+        return seckillService.result(id, uid);
+    }
+}
@@ -168,11 +168,13 @@ public class HomeUserController {
      *
      * 查询当前登录用户的订单，支持按订单状态筛选。
      * 返回结果包含订单列表、各状态订单数量统计和总订单数。
+     * 默认只查询近期订单，history 为 true 时同时查询已归档的历史订单；状态统计只包含近期订单。
      *
      * @param uid      用户 ID（从请求属性中获取，由拦截器设置）
      * @param pageNum  页码，从 1 开始，默认为 1
      * @param pageSize 每页大小，默认为 1
      * @param state    订单状态（可选），用于筛选指定状态的订单
+     * @param history  是否包含已归档的历史订单，默认为 false
      * @return 包含订单列表和统计信息的响应对象
      *
      * - pageInfo：分页信息，包含订单列表
@@ -185,10 +187,15 @@ public class HomeUserController {
     public ResponseVo<Map<String, Object>> orders(@RequestAttribute("id") Long uid,
                                                   @RequestParam(defaultValue = "1") Integer pageNum,
                                                   @RequestParam(defaultValue = "1") Integer pageSize,
-                                                  @RequestParam(value = "state", required = false) Integer state) {
-        // 根据是否提供状态参数，选择不同的查询方法
+                                                  @RequestParam(value = "state", required = false) Integer state,
+                                                  @RequestParam(defaultValue = "false") boolean history) {
+        // 根据是否查询历史订单和是否提供状态参数，选择不同的查询方法
         ResponseVo<PageInfo> pageInfoVo;
-        if (state != null) {
+        if (history) {
+            // 合并查询在线订单和已归档的订单
+            pageInfoVo = orderService.selectHistoryByPageAndUserId(
+                    uid, OrderDeleteEnum.NO.getCode(), state, pageNum, pageSize);
+        } else if (state != null) {
             // 查询指定状态的订单
             pageInfoVo = orderService.selectByPageAndUserIdAndState(
                     uid, OrderDeleteEnum.NO.getCode(), state, pageNum, pageSize);
@@ -201,16 +208,13 @@ public class HomeUserController {
             return ResponseVo.errorByMsg(CodeMsg.SYSTEM_ERROR);
         }
 
-        // 统计各状态的订单数量
+        // 统计各状态的订单数量（命中缓存时只需一次 Redis 读取）
         Map<String, Object> payload = new HashMap<>(6);
         Map<String, Integer> stateCount = new HashMap<>(OrderStateEnum.values().length + 1);
         int totalCount = 0;
-        for (OrderStateEnum orderStateEnum : OrderStateEnum.values()) {
-            int count = orderService
-                    .selectByOrderStateAndUserIdAndIsDeleted(orderStateEnum.getCode(), uid, OrderDeleteEnum.NO.getCode())
-                    .size();
-            stateCount.put(orderStateEnum.getCode().toString(), count);
-            totalCount += count;
+        for (Map.Entry<Integer, Integer> entry : orderService.selectStateCountByUserId(uid).entrySet()) {
+            stateCount.put(entry.getKey().toString(), entry.getValue());
+            totalCount += entry.getValue();
         }
         payload.put("pageInfo", pageInfoVo.getData());
         payload.put("stateCount", stateCount);
@@ -218,5 +222,31 @@ public class HomeUserController {
         payload.put("activeState", state);
         return ResponseVo.success(payload);
     }
+
+    /**
+     * 查询当前用户各状态的订单数量。
+     *
+     * 用于订单页的状态角标，命中缓存时只需一次 Redis 读取，不查询订单列表。
+     *
+     * @param uid 用户 ID（从请求属性中获取，由拦截器设置）
+     * @return 包含统计信息的响应对象
+     *
+     * - stateCount：各状态订单数量统计（Map，key 为状态码，value 为数量）
+     * - totalCount：总订单数
+     *
+     */
+    @GetMapping("/orders/count")
+    public ResponseVo<Map<String, Object>> orderCount(@RequestAttribute("id") Long uid) {
+        Map<String, Object> payload = new HashMap<>(4);
+        Map<String, Integer> stateCount = new HashMap<>(OrderStateEnum.values().length + 1);
+        int totalCount = 0;
+        for (Map.Entry<Integer, Integer> entry : orderService.selectStateCountByUserId(uid).entrySet()) {
+            stateCount.put(entry.getKey().toString(), entry.getValue());
+            totalCount += entry.getValue();
+        }
+        payload.put("stateCount", stateCount);
+        payload.put("totalCount", totalCount);
+        return ResponseVo.success(payload);
+    }
 }
 
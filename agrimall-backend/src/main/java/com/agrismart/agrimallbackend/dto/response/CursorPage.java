@@ -0,0 +1,102 @@
+package com.agrismart.agrimallbackend.dto.response;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页响应数据传输对象。
+ *
+ * 该 DTO 用于封装按 (create_time, id) 游标分页的响应数据。与 {@link PageResponse} 不同，
+ * 游标分页不使用页码和偏移量，每一页的查询代价相同，适合深翻页的后台列表。
+ *
+ * 使用场景：
+ *
+ * - 第一页不传游标，之后每次把 {@link #getNextCursor()} 原样传回以获取下一页
+ * - {@link #getNextCursor()} 为 null 表示没有更多数据
+ * - 只有请求时显式要求才统计总记录数，否则 {@link #getTotal()} 为 null
+ *
+ * @param <T> 数据列表的元素类型
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.common.util.CursorUtil
+ * @since 1.0
+ */
+public class CursorPage<T> implements Serializable {
+
+    /**
+     * 数据列表。
+     * 当前页的数据记录。
+     */
+    private List<T> list;
+
+    /**
+     * 下一页的游标。
+     * 不透明字符串，为 null 表示没有更多数据。
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据。
+     */
+    private boolean hasMore;
+
+    /**
+     * 总记录数。
+     * 未要求统计时为 null。
+     */
+    private Long total;
+
+    /**
+     * 无参构造函数。
+     * 初始化数据列表为空列表。
+     */
+    public CursorPage() {
+        this.list = Collections.emptyList();
+    }
+
+    /**
+     * 全参构造函数。
+     *
+     * @param list       数据列表
+     * @param nextCursor 下一页的游标
+     * @param total      总记录数
+     */
+    public CursorPage(List<T> list, String nextCursor, Long total) {
+        this.list = list;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.total = total;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public void setList(List<T> list) {
+        this.list = list;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
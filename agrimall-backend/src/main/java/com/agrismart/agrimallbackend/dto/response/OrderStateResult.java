@@ -0,0 +1,91 @@
+package com.agrismart.agrimallbackend.dto.response;
+
+import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+
+import java.io.Serializable;
+
+/**
+ * 批量修改订单状态时单个订单的处理结果。
+ *
+ * 该 DTO 用于后台批量发货等场景，整批订单在一个事务中处理，
+ * 不存在或库存不足的订单单独返回失败原因，不影响同批其他订单。
+ *
+ * 使用场景：
+ *
+ * - code 为 {@link CodeMsg#SUCCESS} 的错误码表示该订单已修改为目标状态（或原本就是目标状态）
+ * - 其他 code 与单个修改接口返回的错误码相同，msg 为失败原因
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.IOrderService#updateOrderStates
+ * @since 1.0
+ */
+public class OrderStateResult implements Serializable {
+
+    /**
+     * 订单ID。
+     */
+    private Long orderId;
+
+    /**
+     * 结果码，0 表示成功。
+     */
+    private Integer code;
+
+    /**
+     * 结果说明。
+     */
+    private String msg;
+
+    /**
+     * 无参构造函数。
+     */
+    public OrderStateResult() {
+    }
+
+    /**
+     * 全参构造函数。
+     *
+     * @param orderId 订单ID
+     * @param code    结果码
+     * @param msg     结果说明
+     */
+    public OrderStateResult(Long orderId, Integer code, String msg) {
+        this.orderId = orderId;
+        this.code = code;
+        this.msg = msg;
+    }
+
+    /**
+     * 按错误码构造结果。
+     *
+     * @param orderId 订单ID
+     * @param codeMsg 错误码
+     */
+    public OrderStateResult(Long orderId, CodeMsg codeMsg) {
+        this(orderId, codeMsg.getCode(), codeMsg.getMsg());
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Integer getCode() {
+        return code;
+    }
+
+    public void setCode(Integer code) {
+        this.code = code;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public void setMsg(String msg) {
+        this.msg = msg;
+    }
+}
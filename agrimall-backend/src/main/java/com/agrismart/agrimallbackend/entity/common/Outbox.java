@@ -0,0 +1,76 @@
+package com.agrismart.agrimallbackend.entity.common;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 事务发件箱事件实体类。
+ *
+ * 该实体类对应数据库中的发件箱表，记录业务事务提交后需要执行的副作用（写 Redis、发邮件等）。
+ * 事件与业务数据在同一事务中写入，事务回滚时事件一并回滚；提交后由后台批量执行，失败时按退避时间重试，
+ * 执行成功的事件直接删除。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum
+ * @see com.agrismart.agrimallbackend.service.common.outbox.OutboxDispatcher
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+public class Outbox {
+    /**
+     * 事件 ID。
+     * 主键，自增。
+     */
+    private Long id;
+
+    /**
+     * 事件类型。
+     * 取值见 {@link com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum}。
+     */
+    private Integer eventType;
+
+    /**
+     * 业务键（订单ID、用户ID、收件人等）。
+     */
+    private String bizKey;
+
+    /**
+     * 事件内容。
+     */
+    private String payload;
+
+    /**
+     * 事件状态。
+     * 0：待执行；1：重试次数用尽，需人工处理。
+     */
+    private Integer state;
+
+    /**
+     * 已重试次数。
+     */
+    private Integer retryCount;
+
+    /**
+     * 下次执行时间。
+     */
+    private Date nextRetryTime;
+
+    /**
+     * 事件创建时间。
+     */
+    private Date createTime;
+
+    /**
+     * 事件更新时间。
+     */
+    private Date updateTime;
+
+    public Outbox(Integer eventType, String bizKey, String payload) {
+        this.eventType = eventType;
+        this.bizKey = bizKey;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,63 @@
+package com.agrismart.agrimallbackend.entity.common;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 库存流水实体类。
+ *
+ * 该实体类对应数据库中的库存流水表，只追加不修改，记录每个订单对每个商品的库存变动。
+ * 主键为自增ID，另有唯一键 (订单ID, 商品ID, 原因)：同一订单的同一商品以同一原因只能扣减一次，
+ * 重复写入（例如并发发货）时唯一键冲突，整个扣减事务回滚。
+ * 判断订单是否已扣减库存只需一次按唯一键前缀（订单ID）的查询。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.common.enums.StockLedgerReasonEnum
+ * @see com.agrismart.agrimallbackend.service.common.stock.StockLedgerRecorder
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+public class StockLedger {
+    /**
+     * 流水 ID。
+     * 主键，自增。
+     */
+    private Long id;
+
+    /**
+     * 订单 ID。
+     */
+    private Long orderId;
+
+    /**
+     * 商品 ID。
+     */
+    private Long productId;
+
+    /**
+     * 库存变动数量。
+     * 扣减为负数。
+     */
+    private Integer delta;
+
+    /**
+     * 变动原因。
+     * 取值见 {@link com.agrismart.agrimallbackend.common.enums.StockLedgerReasonEnum}。
+     */
+    private Integer reason;
+
+    /**
+     * 记录时间。
+     */
+    private Date createTime;
+
+    public StockLedger(Long orderId, Long productId, Integer delta, Integer reason) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,32 @@
+package com.agrismart.agrimallbackend.entity.common;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户-商品行为记录。
+ *
+ * 该类不对应单独的数据表，用于承接订单项（关联订单取得用户）和收藏记录的流式查询结果，
+ * 每条记录表示某个用户购买或收藏过某个商品。
+ *
+ * 使用场景：
+ *
+ * - 推荐模型全量构建时流式读取全部历史行为
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.mapper.common.OrderItemMapper#streamUserProducts
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+public class UserProduct {
+    /**
+     * 用户 ID。
+     */
+    private Long userId;
+
+    /**
+     * 商品 ID。
+     */
+    private Long productId;
+}
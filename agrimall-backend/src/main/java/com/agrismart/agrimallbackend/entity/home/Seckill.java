@@ -0,0 +1,87 @@
+package com.agrismart.agrimallbackend.entity.home;
+
+import com.agrismart.agrimallbackend.annotation.ValidateEntity;
+import com.agrismart.agrimallbackend.entity.common.Product;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 秒杀活动实体类。
+ *
+ * 该实体类对应数据库中的秒杀活动表，用于存储限量促销活动的信息。
+ * 活动开始前名额会预加载到 Redis，抢购请求只在 Redis 中扣减名额，订单由后台批量创建。
+ *
+ * 使用场景：
+ *
+ * - 后台创建秒杀活动
+ * - 前台展示进行中和即将开始的秒杀活动
+ * - 秒杀下单时读取秒杀价格和时间范围
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.entity.common.Product
+ * @see com.agrismart.agrimallbackend.service.home.ISeckillService
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+public class Seckill {
+    /**
+     * 秒杀活动 ID。
+     * 主键，自增。
+     */
+    private Long id;
+
+    /**
+     * 秒杀商品 ID。
+     * 必填字段，关联到 {@link com.agrismart.agrimallbackend.entity.common.Product} 表。
+     */
+    @ValidateEntity(required = true, errorRequiredMsg = "秒杀商品不能为空！")
+    private Long productId;
+
+    /**
+     * 秒杀商品对象。
+     * 关联对象，用于查询时关联商品信息。
+     */
+    private Product product;
+
+    /**
+     * 秒杀价格。
+     * 必填字段，下单时作为订单项的商品单价。
+     */
+    @ValidateEntity(required = true, requiredMinValue = true, requiredMaxValue = true, maxValue = 100000000.00, minValue = 0.00, errorRequiredMsg = "秒杀价格不能为空！", errorMaxValueMsg = "秒杀价格不合理，请调低价格！", errorMinValueMsg = "秒杀价格不能低于0.00元！")
+    private BigDecimal seckillPrice;
+
+    /**
+     * 秒杀名额。
+     * 必填字段，每个用户限购一件，名额即可创建的订单数量。
+     */
+    @ValidateEntity(required = true, requiredMinValue = true, requiredMaxValue = true, maxValue = 100000000, minValue = 1, errorRequiredMsg = "秒杀名额不能为空！", errorMaxValueMsg = "秒杀名额不合理，请调低名额！", errorMinValueMsg = "秒杀名额不能低于1个！")
+    private Integer quota;
+
+    /**
+     * 秒杀开始时间。
+     */
+    @ValidateEntity(required = true, errorRequiredMsg = "秒杀开始时间不能为空！")
+    private Date startTime;
+
+    /**
+     * 秒杀结束时间。
+     */
+    @ValidateEntity(required = true, errorRequiredMsg = "秒杀结束时间不能为空！")
+    private Date endTime;
+
+    /**
+     * 秒杀活动创建时间。
+     * 系统自动设置。
+     */
+    private Date createTime;
+
+    /**
+     * 秒杀活动更新时间。
+     * 系统自动更新。
+     */
+    private Date updateTime;
+}
@@ -0,0 +1,48 @@
+package com.agrismart.agrimallbackend.entity.home;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 秒杀订单标记实体类。
+ *
+ * 该实体类对应数据库中的秒杀订单表，与秒杀订单在同一个事务中写入，记录订单来自哪个秒杀活动。
+ * 秒杀订单超时未支付被取消时据此归还用户抢到的名额。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.seckill.SeckillOrderQueue
+ * @see com.agrismart.agrimallbackend.service.common.order.OrderTimeoutScheduler
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+public class SeckillOrder {
+    /**
+     * 订单 ID。
+     * 主键。
+     */
+    private Long orderId;
+
+    /**
+     * 秒杀活动 ID。
+     */
+    private Long seckillId;
+
+    /**
+     * 用户 ID。
+     */
+    private Long userId;
+
+    /**
+     * 记录时间。
+     */
+    private Date createTime;
+
+    public SeckillOrder(Long orderId, Long seckillId, Long userId) {
+        this.orderId = orderId;
+        this.seckillId = seckillId;
+        this.userId = userId;
+    }
+}
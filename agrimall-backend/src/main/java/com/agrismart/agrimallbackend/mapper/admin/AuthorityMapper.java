@@ -29,7 +29,7 @@ public interface AuthorityMapper {
 
     int updateByPrimaryKey(Authority record);
 
-    //一次插入多条数据
+    //一次插入多条数据（主键由 SegmentIdAllocator 预分配）
     int batchInsert(@Param("authorityList") List<Authority> authorityList);
 }
 
@@ -39,7 +39,7 @@ public interface MailMapper {
 
     int updateByPrimaryKey(Mail record);
 
-    //一次插入多条数据
+    //一次插入多条数据（主键由 SegmentIdAllocator 预分配）
     int batchInsert(@Param("mailList") List<Mail> mailList);
 
     int getTotal();
@@ -2,8 +2,10 @@ package com.agrismart.agrimallbackend.mapper.common;
 
 import com.agrismart.agrimallbackend.entity.common.Comment;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -33,6 +35,12 @@ public interface CommentMapper {
     //获取所有评论
     List<Comment> selectAll();
 
+    //游标分页：查询排在 (createTime, id) 之后的 limit 条记录，id 为 null 时从第一条开始；创建时间为空的记录排在最后
+    List<Comment> selectByCursor(@Param("createTime") Date createTime, @Param("id") Long id, @Param("limit") Integer limit);
+
+    //统计总记录数
+    long countAll();
+
     //根据用户id获取评论
     List<Comment> selectByUserId(Long userId);
 
@@ -0,0 +1,30 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 仪表盘统计mapper接口
+ */
+@Mapper
+@Repository
+public interface DashboardStatsMapper {
+
+    /**
+     * 一条语句统计仪表盘的全部计数。
+     * 各实体总数的列名与 DashboardCounterEnum 的 field 相同，
+     * 另有 todayOrderCount、weekOrderCount、monthOrderCount 三列为对应时间段内创建的订单数。
+     *
+     * @param dayStart   今天零点
+     * @param weekStart  本周一零点
+     * @param monthStart 本月一日零点
+     * @return 列名 -> 数量
+     */
+    Map<String, Object> countAll(@Param("dayStart") Date dayStart,
+                                 @Param("weekStart") Date weekStart,
+                                 @Param("monthStart") Date monthStart);
+}
@@ -0,0 +1,40 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * 主键号段mapper接口
+ */
+@Mapper
+@Repository
+public interface IdSegmentMapper {
+
+    /**
+     * 号段记录不存在时按业务表当前最大主键初始化（已存在时忽略）。
+     *
+     * @param bizTag 业务表名，只能取 {@link com.agrismart.agrimallbackend.common.enums.IdSegmentEnum} 中的值
+     * @param step   号段长度
+     * @return 插入行数
+     */
+    int initSegment(@Param("bizTag") String bizTag, @Param("step") Integer step);
+
+    /**
+     * 把号段的最大主键推进一个号段长度，同时锁定该行直到事务结束。
+     *
+     * @param bizTag 业务表名
+     * @return 更新行数，号段记录不存在时为 0
+     */
+    int stepSegment(@Param("bizTag") String bizTag);
+
+    /**
+     * 查询号段当前的最大主键和号段长度。
+     *
+     * @param bizTag 业务表名
+     * @return max_id 和 step 组成的号段，[max_id - step + 1, max_id] 为本次分配的范围
+     */
+    Map<String, Object> selectSegment(@Param("bizTag") String bizTag);
+}
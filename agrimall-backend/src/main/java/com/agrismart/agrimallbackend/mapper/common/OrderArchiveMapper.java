@@ -0,0 +1,67 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import com.agrismart.agrimallbackend.entity.common.Order;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单归档mapper接口
+ *
+ * 归档表按订单创建月份划分：mall_order_archive_{yyyyMM} 和 mall_order_item_archive_{yyyyMM}，
+ * 表结构与在线表相同，已创建的月份登记在 mall_order_archive_month 中。
+ * 月份参数以 ${} 拼接到表名中，只能传入 {@link com.agrismart.agrimallbackend.service.common.order.OrderArchiver} 生成的 yyyyMM。
+ */
+@Mapper
+@Repository
+public interface OrderArchiveMapper {
+
+    //按在线表结构创建某个月份的订单归档表，已存在时忽略
+    int createOrderArchiveTable(@Param("month") String month);
+
+    //按在线表结构创建某个月份的订单项归档表，已存在时忽略
+    int createOrderItemArchiveTable(@Param("month") String month);
+
+    //按月份倒序查询已创建归档表的月份
+    List<String> selectMonths();
+
+    /**
+     * 按创建时间顺序查询可以归档的订单（只取 id、create_time）。
+     *
+     * @param states 可以归档的订单状态
+     * @param before 创建时间上限（不含）
+     * @param limit  最多返回的订单数
+     * @return 订单列表
+     */
+    List<Order> selectClosedBefore(@Param("states") Collection<Integer> states, @Param("before") Date before, @Param("limit") Integer limit);
+
+    //查询并锁定仍处于可归档状态的订单
+    List<Order> selectByIdsAndStatesForUpdate(@Param("ids") Collection<Long> ids, @Param("states") Collection<Integer> states);
+
+    //把订单复制到归档表
+    int copyOrders(@Param("month") String month, @Param("ids") Collection<Long> ids);
+
+    //把订单的订单项复制到归档表
+    int copyOrderItems(@Param("month") String month, @Param("orderIds") Collection<Long> orderIds);
+
+    //删除在线表中的订单项
+    int deleteOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    //删除在线表中的订单
+    int deleteOrders(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 登记归档月份并累加该月已归档的订单数量和销售额。
+     *
+     * @param month       归档月份（yyyyMM）
+     * @param orderCount  本批归档的未删除订单数量
+     * @param salesAmount 本批归档的未删除、未取消订单的总价之和
+     * @return 影响行数
+     */
+    int upsertMonth(@Param("month") String month, @Param("orderCount") Long orderCount, @Param("salesAmount") BigDecimal salesAmount);
+}
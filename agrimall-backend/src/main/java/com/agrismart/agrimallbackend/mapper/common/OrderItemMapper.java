@@ -1,10 +1,13 @@
 package com.agrismart.agrimallbackend.mapper.common;
 
 import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.common.UserProduct;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +28,7 @@ public interface OrderItemMapper {
 
     int updateByPrimaryKey(OrderItem record);
 
+    //一次插入多条数据（主键由 SegmentIdAllocator 预分配）
     int batchInsert(@Param("orderItemList") List<OrderItem> orderItemList);
 
     /**
@@ -33,6 +37,36 @@ public interface OrderItemMapper {
      * @param orderIds 订单ID集合
      * @return 订单明细列表
      */
+    //根据多个订单id一次查询订单项，按订单项id排序
     List<OrderItem> selectByOrderIds(@Param("orderIds") List<Long> orderIds);
-}
 
+    //根据多个订单id在在线表和给定月份的归档表中一次查询订单项
+    List<OrderItem> selectHistoryByOrderIds(@Param("orderIds") List<Long> orderIds, @Param("months") Collection<String> months);
+
+    /**
+     * 查询用户订单中购买过的商品ID（每个订单项一条，用于推荐打分和增量更新），与推荐模型全量构建的口径一致。
+     * 已归档的订单同样计入，在线表与给定月份的归档表合并查询。
+     *
+     * @param userId         用户ID
+     * @param excludedStates 不计为购买的订单状态，见 {@link com.agrismart.agrimallbackend.common.enums.OrderStateEnum#unpurchasedCodes()}
+     * @param months         要合并查询的归档月份（yyyyMM），见 {@link com.agrismart.agrimallbackend.service.common.order.OrderArchiver#months()}
+     * @return 商品ID列表（可能重复）
+     */
+    List<Long> selectProductIdsByUserId(@Param("userId") Long userId,
+                                        @Param("excludedStates") Collection<Integer> excludedStates,
+                                        @Param("months") Collection<String> months);
+
+    /**
+     * 流式查询所有用户购买（已提交订单的订单项，不含未支付和已取消的订单）和收藏过的商品，按用户ID排序，同一用户的记录连续出现。
+     * 购买记录包含给定月份归档表中的订单。
+     *
+     * 结果集以 MySQL 流式方式逐行读取，不会一次性加载到内存；
+     * 返回的 Cursor 必须在事务内消费，消费期间该连接不能执行其他查询。
+     *
+     * @param excludedStates 不计为购买的订单状态
+     * @param months         要合并查询的归档月份（yyyyMM），需在打开游标之前查询
+     * @return 用户-商品记录游标
+     */
+    Cursor<UserProduct> streamUserProducts(@Param("excludedStates") Collection<Integer> excludedStates,
+                                           @Param("months") Collection<String> months);
+}
@@ -6,6 +6,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +23,15 @@ public interface OrderMapper {
 
     int insertSelective(Order record);
 
+    /**
+     * 批量插入订单，一条语句写入整批订单并回填自增ID。
+     * 订单的 address_id、remark、is_deleted 使用表默认值。
+     *
+     * @param orderList 订单列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("orderList") List<Order> orderList);
+
     Order selectByPrimaryKey(Long id);
 
     int updateByPrimaryKeySelective(Order record);
@@ -36,18 +47,57 @@ public interface OrderMapper {
     //根据订单状态和用户id和用户是否删除订单来查询订单
     List<Order> selectByOrderStateAndUserIdAndIsDeleted(@Param("state") Integer state, @Param("userId") Long userId, @Param("isDeleted") Integer isDeleted);
 
+    /**
+     * 查询用户的全部历史订单，包括在线表和给定月份的归档表，按创建时间倒序。
+     *
+     * @param userId    用户id
+     * @param isDeleted 用户是否删除订单
+     * @param state     订单状态，为 null 时不限
+     * @param months    要合并查询的归档月份（yyyyMM）
+     * @return 订单列表（不含订单项）
+     */
+    List<Order> selectHistoryByUserIdAndIsDeleted(@Param("userId") Long userId, @Param("isDeleted") Integer isDeleted,
+                                                  @Param("state") Integer state, @Param("months") List<String> months);
+
+    //根据订单id和用户id在在线表和给定月份的归档表中查询订单（不含订单项）
+    Order selectHistoryByOrderIdAndUserId(@Param("userId") Long userId, @Param("orderId") Long orderId, @Param("months") List<String> months);
+
+    //按订单状态统计用户的订单数量
+    List<Map<String, Object>> countStateByUserIdAndIsDeleted(@Param("userId") Long userId, @Param("isDeleted") Integer isDeleted);
+
     //根据订单id查询订单详情
     List<OrderItem> getOrderItemByOrderId(@Param("orderId") Long orderId);
 
     //根据订单id修改订单状态
     int updateStateByOrderId(@Param("orderId") Long orderId, @Param("state") Integer state);
 
+    //提交订单：只有订单仍处于指定状态时才更新配送地址、留言和状态
+    int updateSubmitByIdAndState(@Param("order") Order order, @Param("fromState") Integer fromState);
+
+    //查询并锁定订单，按id顺序加锁
+    List<Order> selectByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    //查询并锁定仍处于指定状态的订单
+    List<Order> selectByIdsAndStateForUpdate(@Param("ids") Collection<Long> ids, @Param("state") Integer state);
+
+    //批量把仍处于原状态的订单改为新状态
+    int updateStateByIdsAndState(@Param("ids") Collection<Long> ids, @Param("fromState") Integer fromState, @Param("toState") Integer toState);
+
+    //查询指定状态、创建时间早于指定时间的订单id
+    List<Long> selectIdsByStateAndCreateTimeBefore(@Param("state") Integer state, @Param("before") Date before, @Param("limit") Integer limit);
+
     //根据订单id修改用户是否删除订单
     int updateIsDeletedByOrderId(@Param("orderId") Long orderId, @Param("isDeleted") Integer isDeleted);
 
     //获取所有订单
     List<Order> selectAll();
 
+    //游标分页：查询排在 (createTime, id) 之后的 limit 条记录，id 为 null 时从第一条开始；创建时间为空的记录排在最后
+    List<Order> selectByCursor(@Param("createTime") Date createTime, @Param("id") Long id, @Param("limit") Integer limit);
+
+    //统计总记录数
+    long countAll();
+
     //根据搜索内容获取订单
     List<Order> selectBySearchContent(@Param("orderNo") Long orderNo);
 
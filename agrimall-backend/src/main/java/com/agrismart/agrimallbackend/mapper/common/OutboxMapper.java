@@ -0,0 +1,46 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import com.agrismart.agrimallbackend.entity.common.Outbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 事务发件箱mapper接口
+ */
+@Mapper
+@Repository
+public interface OutboxMapper {
+
+    //一次插入多条事件
+    int batchInsert(@Param("outboxList") List<Outbox> outboxList);
+
+    /**
+     * 按ID顺序查询已到执行时间的待执行事件。
+     *
+     * @param limit 最多返回的事件数
+     * @return 待执行事件列表
+     */
+    List<Outbox> selectDue(@Param("limit") Integer limit);
+
+    //批量删除已执行的事件
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 更新事件的重试次数、下次执行时间和状态。
+     *
+     * @param record 事件（id、retryCount、nextRetryTime、state）
+     * @return 更新行数
+     */
+    int updateRetry(Outbox record);
+
+    //批量推后事件的下次执行时间，用于认领邮件事件
+    int updateNextRetryTimeByIds(@Param("ids") Collection<Long> ids, @Param("nextRetryTime") Date nextRetryTime);
+
+    //查询尚未执行成功的指定类型事件中出现的业务键
+    List<String> selectBizKeysByEventTypeAndBizKeys(@Param("eventType") Integer eventType, @Param("bizKeys") Collection<String> bizKeys);
+}
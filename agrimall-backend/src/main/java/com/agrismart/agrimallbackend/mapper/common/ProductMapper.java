@@ -5,7 +5,9 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -29,6 +31,12 @@ public interface ProductMapper {
     //获取所有商品
     List<Product> selectAll();
 
+    //游标分页：查询排在 (createTime, id) 之后的 limit 条记录，id 为 null 时从第一条开始；创建时间为空的记录排在最后
+    List<Product> selectByCursor(@Param("createTime") Date createTime, @Param("id") Long id, @Param("limit") Integer limit);
+
+    //统计总记录数
+    long countAll();
+
     //根据搜索内容获取符合条件的商品
     List<Product> selectBySearchContent(String content);
 
@@ -38,6 +46,9 @@ public interface ProductMapper {
     //根据商品id集合获取商品
     List<Product> selectByProductIdSet(@Param("productIdSet") Set<Long> productIdSet);
 
+    //根据商品id集合查询并锁定商品，按id顺序加锁
+    List<Product> selectByProductIdSetForUpdate(@Param("productIdSet") Set<Long> productIdSet);
+
     //获取销量排行前5个商品
     List<Product> selectBySellNumber();
 
@@ -48,5 +59,44 @@ public interface ProductMapper {
      * @return 商品列表
      */
     List<Product> selectBySellNumberLimit(@Param("limit") int limit);
+
+    /**
+     * 查询全部商品的ID和销量，用于重建 Redis 销量排行榜。
+     *
+     * @return 商品列表（只填充 id 和 sellNum）
+     */
+    List<Product> selectSellNumbers();
+
+    /**
+     * 锁定本次要扣减的商品，查询其中库存小于扣减数量的商品。
+     *
+     * 在扣减前与 {@link #deductStock} 在同一事务（同一连接）中执行，库存不足时不再执行扣减，
+     * 不需要另开连接读取已提交的库存。
+     *
+     * @param quantities 商品ID -> 扣减数量（不能为空）
+     * @return 库存不足的商品，按ID排序
+     */
+    List<Product> selectShortageForUpdate(@Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 原子扣减库存并累加销量。
+     *
+     * 一条 UPDATE 语句处理整个订单，只有库存充足的商品行会被更新：
+     * 返回的影响行数小于商品数即表示有商品库存不足，调用方需要回滚事务。
+     *
+     * @param quantities 商品ID -> 扣减数量（不能为空）
+     * @return 影响行数
+     */
+    int deductStock(@Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 无条件扣减库存并累加销量。
+     *
+     * 只用于把 Redis 中已经预占并提交的库存同步回商品表，库存是否充足已在 Redis 中判断过。
+     *
+     * @param quantities 商品ID -> 扣减数量（不能为空）
+     * @return 影响行数
+     */
+    int applyStockDeduction(@Param("quantities") Map<Long, Integer> quantities);
 }
 
@@ -0,0 +1,32 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import com.agrismart.agrimallbackend.entity.common.StockLedger;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存流水mapper接口
+ */
+@Mapper
+@Repository
+public interface StockLedgerMapper {
+
+    /**
+     * 一条语句写入多条库存流水。
+     * 任意一条的 (订单ID, 商品ID, 原因) 已存在时抛出 DuplicateKeyException，整条语句不写入。
+     *
+     * @param ledgerList 库存流水列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("ledgerList") List<StockLedger> ledgerList);
+
+    //一条语句写入多条库存流水，(订单ID, 商品ID, 原因) 已存在的流水忽略，用于不扣减库存的迁移流水
+    int batchInsertIgnore(@Param("ledgerList") List<StockLedger> ledgerList);
+
+    //查询已有库存流水的订单id（按唯一键前缀 order_id 查询）
+    List<Long> selectOrderIdsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,25 @@
+package com.agrismart.agrimallbackend.mapper.common;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 已售库存同步批次mapper接口
+ */
+@Mapper
+@Repository
+public interface StockSyncMapper {
+
+    /**
+     * 记录即将写入商品表的同步批次号，与商品表扣减在同一事务中执行。
+     * 批次号与上一次相同表示该批次已经写入过（上次删除 Redis 中的同步数据前宕机），返回 0。
+     *
+     * @param batchId 同步批次号
+     * @return 1 表示新批次，0 表示该批次已写入
+     */
+    int updateBatchId(@Param("batchId") String batchId);
+
+    //查询最近一次写入商品表的同步批次号
+    String selectBatchId();
+}
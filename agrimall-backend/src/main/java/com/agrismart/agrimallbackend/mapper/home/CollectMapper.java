@@ -37,5 +37,13 @@ public interface CollectMapper {
      * @return 收藏列表
      */
     List<Collect> selectAllSimple();
+
+    /**
+     * 查询用户收藏的商品ID（不带商品关联，主要用于推荐打分）。
+     *
+     * @param userId 用户ID
+     * @return 商品ID列表
+     */
+    List<Long> selectProductIdsByUserId(@Param("userId") Long userId);
 }
 
@@ -0,0 +1,28 @@
+package com.agrismart.agrimallbackend.mapper.home;
+
+import com.agrismart.agrimallbackend.entity.home.Seckill;
+import org.apache.ibatis.annotations.Mapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 秒杀活动mapper接口
+ */
+@Mapper
+@Repository
+public interface SeckillMapper {
+    int insertSelective(Seckill record);
+
+    Seckill selectByPrimaryKey(Long id);
+
+    //获取所有秒杀活动（关联商品信息）
+    List<Seckill> selectAll();
+
+    /**
+     * 获取尚未结束的秒杀活动（关联商品信息），按开始时间排序。
+     *
+     * @return 进行中和即将开始的秒杀活动列表
+     */
+    List<Seckill> selectActive();
+}
@@ -0,0 +1,23 @@
+package com.agrismart.agrimallbackend.mapper.home;
+
+import com.agrismart.agrimallbackend.entity.home.SeckillOrder;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 秒杀订单标记mapper接口
+ */
+@Mapper
+@Repository
+public interface SeckillOrderMapper {
+
+    //一条语句写入多条秒杀订单标记
+    int batchInsert(@Param("seckillOrderList") List<SeckillOrder> seckillOrderList);
+
+    //根据订单id查询秒杀订单标记，不是秒杀订单的id没有对应记录
+    List<SeckillOrder> selectByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
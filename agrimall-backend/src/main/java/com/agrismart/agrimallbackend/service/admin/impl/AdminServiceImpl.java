@@ -5,6 +5,7 @@ import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
 import com.agrismart.agrimallbackend.common.constant.SessionConstant;
 import com.agrismart.agrimallbackend.common.enums.AdminStateEnum;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.common.util.StringUtil;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
@@ -14,6 +15,7 @@ import com.agrismart.agrimallbackend.mapper.admin.AdminMapper;
 import com.agrismart.agrimallbackend.mapper.admin.AnnouncementMapper;
 import com.agrismart.agrimallbackend.mapper.admin.AuthorityMapper;
 import com.agrismart.agrimallbackend.service.admin.IAdminService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +55,13 @@ public class AdminServiceImpl implements IAdminService {
     @Autowired
     private AuthorityMapper authorityMapper;
 
+    /**
+     * 后台仪表盘计数。
+     * 新增、删除管理员（及其公告）后调整管理员和公告总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public ResponseVo<PageInfo> getAdminListByPage(Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
@@ -101,6 +110,7 @@ public class AdminServiceImpl implements IAdminService {
         if (adminMapper.insertSelective(admin) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ADMIN_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ADMIN, 1);
         return ResponseVo.successByMsg(true, "添加成功！");
     }
 
@@ -140,12 +150,15 @@ public class AdminServiceImpl implements IAdminService {
         if (id == null) {
             return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
         }
-        if (announcementMapper.deleteByAdminId(id) < 0) {
+        int announcementCount = announcementMapper.deleteByAdminId(id);
+        if (announcementCount < 0) {
             return ResponseVo.errorByMsg(CodeMsg.ADMIN_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ANNOUNCEMENT, -announcementCount);
         if (adminMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ADMIN_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ADMIN, -1);
         return ResponseVo.successByMsg(true, "删除成功！");
     }
 
@@ -3,11 +3,13 @@ package com.agrismart.agrimallbackend.service.admin.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.admin.Announcement;
 import com.agrismart.agrimallbackend.mapper.admin.AnnouncementMapper;
 import com.agrismart.agrimallbackend.service.admin.IAnnouncementService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +33,13 @@ public class AnnouncementServiceImpl implements IAnnouncementService {
     @Autowired
     private AnnouncementMapper announcementMapper;
 
+    /**
+     * 后台仪表盘计数。
+     * 发布、删除公告后调整公告总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public ResponseVo<PageInfo> getAnnouncementByPage(Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
@@ -62,6 +71,7 @@ public class AnnouncementServiceImpl implements IAnnouncementService {
         if (announcementMapper.insertSelective(announcement) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ANNOUNCEMENT_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ANNOUNCEMENT, 1);
         return ResponseVo.successByMsg(true, "发布成功！");
     }
 
@@ -73,6 +83,7 @@ public class AnnouncementServiceImpl implements IAnnouncementService {
         if (announcementMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ANNOUNCEMENT_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ANNOUNCEMENT, -1);
         return ResponseVo.successByMsg(true, "删除成功！");
     }
 }
@@ -3,13 +3,17 @@ package com.agrismart.agrimallbackend.service.admin.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
 import com.agrismart.agrimallbackend.common.enums.MailDeleteStateEnum;
+import com.agrismart.agrimallbackend.common.util.SegmentIdAllocator;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.admin.Mail;
 import com.agrismart.agrimallbackend.mapper.admin.AttachmentMapper;
 import com.agrismart.agrimallbackend.mapper.admin.MailMapper;
 import com.agrismart.agrimallbackend.service.admin.IMailService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -43,6 +47,20 @@ public class MailServiceImpl implements IMailService {
     @Autowired
     private AttachmentMapper attachmentMapper;
 
+    /**
+     * 主键号段分配器。
+     * 群发邮件时为每封邮件预分配主键。
+     */
+    @Autowired
+    private SegmentIdAllocator segmentIdAllocator;
+
+    /**
+     * 后台仪表盘计数。
+     * 发送、删除邮件和删除附件后调整对应总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public ResponseVo<PageInfo<Mail>> getReceiveMailsByPage(Integer pageNum, Integer pageSize, Integer id) {
         PageHelper.startPage(pageNum, pageSize);
@@ -87,6 +105,7 @@ public class MailServiceImpl implements IMailService {
         if (attachmentMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.MAIL_ATTACHMENT_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.ATTACHMENT, -1);
         return ResponseVo.successByMsg(true, "删除成功！");
     }
 
@@ -112,7 +131,12 @@ public class MailServiceImpl implements IMailService {
             }
             mailList.add(saveMail);
         }
+        long[] ids = segmentIdAllocator.nextIds(IdSegmentEnum.MAIL, mailList.size());
+        for (int i = 0; i < mailList.size(); i++) {
+            mailList.get(i).setId((int) ids[i]);
+        }
         mailMapper.batchInsert(mailList);
+        dashboardCounter.adjust(DashboardCounterEnum.MAIL, mailList.size());
         return ResponseVo.successByMsg(true, "发送成功！");
     }
 
@@ -126,11 +150,13 @@ public class MailServiceImpl implements IMailService {
             if (mailMapper.deleteByPrimaryKey(id) <= 0) {
                 return ResponseVo.errorByMsg(CodeMsg.MAIL_DELETE_ERROR);
             }
+            dashboardCounter.adjust(DashboardCounterEnum.MAIL, -1);
         } else if (selectByPrimaryKey.getReceiverId().equals(loginedId)) {
             if (selectByPrimaryKey.getDeleteState().intValue() == MailDeleteStateEnum.SENDER_DELETE.getCode().intValue()) {
                 if (mailMapper.deleteByPrimaryKey(id) <= 0) {
                     return ResponseVo.errorByMsg(CodeMsg.MAIL_DELETE_ERROR);
                 }
+                dashboardCounter.adjust(DashboardCounterEnum.MAIL, -1);
             } else {
                 selectByPrimaryKey.setDeleteState(MailDeleteStateEnum.RECEIVER_DELETE.getCode());
                 if (mailMapper.updateByPrimaryKeySelective(selectByPrimaryKey) <= 0) {
@@ -142,6 +168,7 @@ public class MailServiceImpl implements IMailService {
                 if (mailMapper.deleteByPrimaryKey(id) <= 0) {
                     return ResponseVo.errorByMsg(CodeMsg.MAIL_DELETE_ERROR);
                 }
+                dashboardCounter.adjust(DashboardCounterEnum.MAIL, -1);
             } else {
                 selectByPrimaryKey.setDeleteState(MailDeleteStateEnum.SENDER_DELETE.getCode());
                 if (mailMapper.updateByPrimaryKeySelective(selectByPrimaryKey) <= 0) {
@@ -4,6 +4,8 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.github.pagehelper.util.StringUtil;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
+import com.agrismart.agrimallbackend.common.util.SegmentIdAllocator;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.admin.Admin;
@@ -55,6 +57,13 @@ public class RoleServiceImpl implements IRoleService {
     @Autowired
     private AuthorityMapper authorityMapper;
 
+    /**
+     * 主键号段分配器。
+     * 保存角色权限时为每条权限预分配主键。
+     */
+    @Autowired
+    private SegmentIdAllocator segmentIdAllocator;
+
     /**
      * 日志记录器。
      */
@@ -171,6 +180,10 @@ public class RoleServiceImpl implements IRoleService {
             }
             authorityList.add(authority);
         }
+        long[] authorityIds = segmentIdAllocator.nextIds(IdSegmentEnum.AUTHORITY, authorityList.size());
+        for (int i = 0; i < authorityList.size(); i++) {
+            authorityList.get(i).setId((int) authorityIds[i]);
+        }
         if (authorityMapper.batchInsert(authorityList) < 0) {
             return ResponseVo.errorByMsg(CodeMsg.ROLE_AUTHORITY_UPDATE_ERROR);
         }
@@ -1,6 +1,7 @@
 package com.agrismart.agrimallbackend.service.common;
 
 import com.github.pagehelper.PageInfo;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Comment;
 
@@ -59,6 +60,17 @@ public interface ICommentService {
      */
     ResponseVo<PageInfo> selectByPage(Integer pageNum, Integer pageSize);
 
+    /**
+     * 游标分页查询评论列表，按创建时间倒序。
+     * 用于后台管理系统，深翻页与第一页代价相同。
+     *
+     * @param cursor    上一页返回的游标，为空表示第一页
+     * @param pageSize  每页大小，最大 {@link com.agrismart.agrimallbackend.common.util.CursorUtil#MAX_PAGE_SIZE}
+     * @param withTotal 是否统计总记录数（额外执行一次 COUNT 查询）
+     * @return 包含下一页游标的评论列表
+     */
+    ResponseVo<CursorPage<Comment>> selectByCursor(String cursor, Integer pageSize, boolean withTotal);
+
     /**
      * 按内容分页查询评论列表。
      * 用于后台管理系统，支持按评论内容搜索。
@@ -1,6 +1,8 @@
 package com.agrismart.agrimallbackend.service.common;
 
 import com.github.pagehelper.PageInfo;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
+import com.agrismart.agrimallbackend.dto.response.OrderStateResult;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Order;
 import com.agrismart.agrimallbackend.entity.common.OrderItem;
@@ -48,7 +50,7 @@ public interface IOrderService {
 
     /**
      * 根据订单 ID 和用户 ID 查询订单。
-     * 用于验证订单是否属于当前用户。
+     * 用于验证订单是否属于当前用户。在线表中不存在时到归档表中查找，已归档的订单只读。
      *
      * @param userId  用户 ID
      * @param orderId 订单 ID
@@ -94,6 +96,19 @@ public interface IOrderService {
      */
     ResponseVo<PageInfo> selectByPageAndUserIdAndState(Long userId, Integer isDeleted, Integer state, Integer pageNum, Integer pageSize);
 
+    /**
+     * 按用户分页查询全部历史订单，包括已归档的订单。
+     * 用于前台用户查看完整历史，需要合并查询在线表和各月份的归档表，默认的订单列表只查询在线表。
+     *
+     * @param userId    用户 ID
+     * @param isDeleted 删除状态（0-未删除，1-已删除）
+     * @param state     订单状态（可选），为 null 时不限
+     * @param pageNum   页码，从 1 开始
+     * @param pageSize  每页大小
+     * @return 包含分页信息的订单列表
+     */
+    ResponseVo<PageInfo> selectHistoryByPageAndUserId(Long userId, Integer isDeleted, Integer state, Integer pageNum, Integer pageSize);
+
     /**
      * 按订单状态、用户和删除状态查询订单列表。
      * 用于订单统计和查询。
@@ -105,6 +120,15 @@ public interface IOrderService {
      */
     List<Order> selectByOrderStateAndUserIdAndIsDeleted(Integer state, Long userId, Integer isDeleted);
 
+    /**
+     * 统计用户未删除订单的各状态数量。
+     * 用于订单页的状态角标，优先读取 Redis 缓存。
+     *
+     * @param userId 用户 ID
+     * @return 订单状态 -> 数量，包含全部订单状态
+     */
+    Map<Integer, Integer> selectStateCountByUserId(Long userId);
+
     /**
      * 更新订单状态。
      * 用于后台管理系统，管理员更新订单状态（如发货、取消等）。
@@ -117,6 +141,18 @@ public interface IOrderService {
      */
     ResponseVo<Boolean> updateOrderState(Long orderId, Integer state);
 
+    /**
+     * 批量更新订单状态。
+     * 用于后台管理系统批量发货等场景，整批订单在一个事务中处理，语句数与订单数量无关：
+     * 锁定订单、查询库存标记、查询订单项、锁定商品、按商品合并扣减库存、按原状态分组更新订单状态。
+     * 发货时按请求顺序分配库存，库存不足的订单返回失败原因，不影响同批其他订单。
+     *
+     * @param orderIds 订单 ID 列表，最多 500 个
+     * @param state    订单状态
+     * @return 每个订单的处理结果，顺序与去重后的订单 ID 相同
+     */
+    ResponseVo<List<OrderStateResult>> updateOrderStates(List<Long> orderIds, Integer state);
+
     /**
      * 用户删除订单（软删除）。
      * 用户删除订单不会真正删除数据，只是标记为已删除。
@@ -137,6 +173,17 @@ public interface IOrderService {
      */
     ResponseVo<PageInfo> selectByPage(Integer pageNum, Integer pageSize);
 
+    /**
+     * 游标分页查询订单列表，按创建时间倒序。
+     * 用于后台管理系统，深翻页与第一页代价相同。
+     *
+     * @param cursor    上一页返回的游标，为空表示第一页
+     * @param pageSize  每页大小，最大 {@link com.agrismart.agrimallbackend.common.util.CursorUtil#MAX_PAGE_SIZE}
+     * @param withTotal 是否统计总记录数（额外执行一次 COUNT 查询）
+     * @return 包含下一页游标的订单列表
+     */
+    ResponseVo<CursorPage<Order>> selectByCursor(String cursor, Integer pageSize, boolean withTotal);
+
     /**
      * 按订单号分页查询订单列表。
      * 用于后台管理系统，支持按订单号搜索。
@@ -1,6 +1,8 @@
 package com.agrismart.agrimallbackend.service.common;
 
 import com.github.pagehelper.PageInfo;
+import com.agrismart.agrimallbackend.common.enums.SalesRankWindowEnum;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Product;
 
@@ -33,6 +35,17 @@ public interface IProductService {
      */
     ResponseVo<PageInfo> getProductByPage(Integer pageNum, Integer pageSize);
 
+    /**
+     * 游标分页查询商品列表，按创建时间倒序。
+     * 用于后台管理系统，深翻页与第一页代价相同。
+     *
+     * @param cursor    上一页返回的游标，为空表示第一页
+     * @param pageSize  每页大小，最大 {@link com.agrismart.agrimallbackend.common.util.CursorUtil#MAX_PAGE_SIZE}
+     * @param withTotal 是否统计总记录数（额外执行一次 COUNT 查询）
+     * @return 包含下一页游标的商品列表
+     */
+    ResponseVo<CursorPage<Product>> getProductByCursor(String cursor, Integer pageSize, boolean withTotal);
+
     /**
      * 按内容分页查询商品列表。
      * 用于后台管理系统，支持按商品名称、详情等搜索。
@@ -104,5 +117,15 @@ public interface IProductService {
      * @return 商品列表（按销量降序，最多返回 limit 个）
      */
     List<Product> selectBySellNumberLimit(int limit);
+
+    /**
+     * 按指定时间窗口的销量获取前 N 个商品。
+     * 读取 Redis 销量排行榜，排行榜不可用时退回按累计销量查询数据库。
+     *
+     * @param limit  限制数量（如果小于等于 0，则默认返回 5 个）
+     * @param window 时间窗口
+     * @return 商品列表（按销量降序，最多返回 limit 个）
+     */
+    List<Product> selectBySellNumberLimit(int limit, SalesRankWindowEnum window);
 }
 
@@ -3,13 +3,17 @@ package com.agrismart.agrimallbackend.service.common.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.common.util.CursorUtil;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Comment;
 import com.agrismart.agrimallbackend.entity.common.Product;
 import com.agrismart.agrimallbackend.mapper.common.CommentMapper;
 import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
 import com.agrismart.agrimallbackend.service.common.ICommentService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +46,13 @@ public class CommentServiceImpl implements ICommentService {
     @Autowired
     private ProductMapper productMapper;
 
+    /**
+     * 后台仪表盘计数。
+     * 发表、删除评论后调整评论总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     @Transactional
     public ResponseVo<Boolean> submitComment(Long uid, Comment comment) {
@@ -58,6 +69,7 @@ public class CommentServiceImpl implements ICommentService {
         if (productMapper.updateByPrimaryKeySelective(product) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.COMMENT_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.COMMENT, 1);
         return ResponseVo.successByMsg(true, "评论发表成功！");
     }
 
@@ -79,6 +91,21 @@ public class CommentServiceImpl implements ICommentService {
         return ResponseVo.success(pageInfo);
     }
 
+    @Override
+    public ResponseVo<CursorPage<Comment>> selectByCursor(String cursor, Integer pageSize, boolean withTotal) {
+        CursorUtil.Position position;
+        try {
+            position = CursorUtil.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseVo.errorByMsg(CodeMsg.CURSOR_INVALID);
+        }
+        int size = CursorUtil.pageSize(pageSize);
+        List<Comment> rows = commentMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+        Long total = withTotal ? commentMapper.countAll() : null;
+        CursorPage<Comment> page = CursorUtil.page(rows, size, Comment::getCreateTime, Comment::getId, total);
+        return ResponseVo.success(page);
+    }
+
     @Override
     public ResponseVo<PageInfo> selectByPageAndSearchContent(String content, Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
@@ -100,6 +127,7 @@ public class CommentServiceImpl implements ICommentService {
         if (commentMapper.deleteByPrimaryKey(commentId) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.COMMENT_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.COMMENT, -1);
         return ResponseVo.successByMsg(true, "成功删除评论！");
     }
 
@@ -5,14 +5,22 @@ import com.github.pagehelper.PageInfo;
 import com.google.gson.Gson;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
 import com.agrismart.agrimallbackend.common.enums.AddressFirstSelectedEnum;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderDeleteEnum;
 import com.agrismart.agrimallbackend.common.enums.MailTypeEnum;
 import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
-import com.agrismart.agrimallbackend.common.util.MailUtil;
-import com.agrismart.agrimallbackend.common.util.SnowFlake;
+import com.agrismart.agrimallbackend.common.enums.StockLedgerReasonEnum;
+import com.agrismart.agrimallbackend.common.util.CursorUtil;
+import com.agrismart.agrimallbackend.common.util.IdGenerator;
+import com.agrismart.agrimallbackend.common.util.SegmentIdAllocator;
 import com.agrismart.agrimallbackend.common.util.StringUtil;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
+import com.agrismart.agrimallbackend.dto.response.OrderStateResult;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Order;
 import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.common.Outbox;
 import com.agrismart.agrimallbackend.entity.common.Product;
 import com.agrismart.agrimallbackend.entity.home.Address;
 import com.agrismart.agrimallbackend.entity.home.Cart;
@@ -21,12 +29,26 @@ import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
 import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
 import com.agrismart.agrimallbackend.mapper.home.AddressMapper;
 import com.agrismart.agrimallbackend.service.common.IOrderService;
+import com.agrismart.agrimallbackend.service.common.order.OrderArchiver;
+import com.agrismart.agrimallbackend.service.common.order.OrderItemLoader;
+import com.agrismart.agrimallbackend.service.common.order.OrderStateCounter;
+import com.agrismart.agrimallbackend.service.common.order.OrderTimeoutScheduler;
+import com.agrismart.agrimallbackend.service.common.outbox.OutboxPublisher;
+import com.agrismart.agrimallbackend.service.common.rank.ProductSoldEvent;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
+import com.agrismart.agrimallbackend.service.common.stock.StockLedgerRecorder;
+import com.agrismart.agrimallbackend.service.common.stock.StockReservation;
+import com.agrismart.agrimallbackend.service.home.recommend.UserBehaviorEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.CollectionUtils;
 
 import java.math.BigDecimal;
@@ -41,8 +63,9 @@ import java.util.*;
  *
  * 订单流程：
  *
- * - 从 Redis 购物车生成订单（未支付状态）
- * - 提交订单时验证库存、扣减库存、更新状态、发送邮件
+ * - 从 Redis 购物车生成订单（未支付状态）：一次 HMGET 只读取勾选的商品，事务提交后一次 HDEL 移出购物车
+ * - 提交订单时用一条条件 UPDATE 原子扣减整单库存（库存不足的商品行不会被更新），再更新状态、发送邮件；
+ *   {@code xqx.order.stock-mode=reserve} 时改为通过 {@link StockReservation} 在 Redis 中预占库存，异步同步到商品表
  * - 订单状态流转由管理员操作
  *
  * @author agrimall
@@ -79,11 +102,53 @@ public class OrderServiceImpl implements IOrderService {
     private OrderItemMapper orderItemMapper;
 
     /**
-     * 邮件工具类。
-     * 用于发送订单提交通知邮件。
+     * 订单项批量加载器。
+     * 订单列表分页查询后一次加载整页订单的订单项。
      */
     @Autowired
-    private MailUtil mailUtil;
+    private OrderItemLoader orderItemLoader;
+
+    /**
+     * 用户订单状态计数缓存。
+     * 订单创建、状态变更和删除时调整计数。
+     */
+    @Autowired
+    private OrderStateCounter orderStateCounter;
+
+    /**
+     * 未支付订单超时取消调度器。
+     * 订单创建后登记到期时间。
+     */
+    @Autowired
+    private OrderTimeoutScheduler orderTimeoutScheduler;
+
+    /**
+     * 订单归档任务。
+     * 查询完整历史时提供已归档的月份。
+     */
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    /**
+     * 事务发件箱事件发布器。
+     * 订单提交通知邮件和购物车清理在事务提交后由发件箱执行。
+     */
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    /**
+     * 库存流水记录器。
+     * 扣减库存时写入流水，发货时据此判断订单是否已扣减库存。
+     */
+    @Autowired
+    private StockLedgerRecorder stockLedgerRecorder;
+
+    /**
+     * 后台仪表盘计数。
+     * 创建、删除订单后调整订单总数和今日、本周、本月订单数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
 
     /**
      * 购物车 Redis Key 模板。
@@ -92,10 +157,9 @@ public class OrderServiceImpl implements IOrderService {
     private static final String CART_REDIS_KEY_TEMPLATE = "cart_%d";
 
     /**
-     * 订单库存扣减标记 Redis Key 模板。
-     * 格式：order_stock_{orderId}，用于标记订单是否已扣减库存，防止重复扣减。
+     * 批量修改订单状态时一次最多处理的订单数。
      */
-    private static final String ORDER_STOCK_KEY_TEMPLATE = "order_stock_%d";
+    private static final int MAX_STATE_BATCH = 500;
 
     /**
      * Gson 对象。
@@ -110,6 +174,34 @@ public class OrderServiceImpl implements IOrderService {
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    /**
+     * 事件发布器。
+     * 用于在生成、提交订单后发布用户行为事件，增量更新推荐模型并清理推荐缓存；
+     * 扣减库存后发布商品售出事件，累加销量排行榜。
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Redis 库存预占服务。
+     * reserve 模式下提交订单时预占库存，商品表库存被直接修改后删除对应的库存镜像。
+     */
+    @Autowired
+    private StockReservation stockReservation;
+
+    /**
+     * 订单流水号生成器（单例，机器编号从 Redis 租约获得）。
+     */
+    @Autowired
+    private IdGenerator idGenerator;
+
+    /**
+     * 主键号段分配器。
+     * 生成订单时为订单项预分配主键。
+     */
+    @Autowired
+    private SegmentIdAllocator segmentIdAllocator;
+
     @Override
     @Transactional
     public ResponseVo<Long> generate(String ids, HttpServletRequest request) {
@@ -118,56 +210,85 @@ public class OrderServiceImpl implements IOrderService {
             codeMsg.setMsg("请勾选你要购买的商品！");
             return ResponseVo.errorByMsg(codeMsg);
         }
-        String[] split = ids.split(",");
-        Set<Long> productIdSet = new HashSet<>();
-        for (String id : split) {
+        Set<Long> productIdSet = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
             productIdSet.add(Long.valueOf(id));
         }
-        List<Product> productList = productMapper.selectByProductIdSet(productIdSet);
-        List<OrderItem> orderItemList = new ArrayList<>();
-        OrderItem orderItem;
-        HashOperations<String, String, String> opsForHash = redisTemplate.opsForHash();
         Object attr = request.getAttribute("id");
         Long uid = attr instanceof Long ? (Long) attr : Long.valueOf(String.valueOf(attr));
-        String redisKey = String.format(CART_REDIS_KEY_TEMPLATE, uid);
-        Map<String, String> entries = opsForHash.entries(redisKey);
+        // 只读取勾选的购物车字段（一次 HMGET），商品按ID建索引后逐项匹配
+        List<String> fields = new ArrayList<>(productIdSet.size());
+        for (Long productId : productIdSet) {
+            fields.add(String.valueOf(productId));
+        }
+        HashOperations<String, String, String> opsForHash = redisTemplate.opsForHash();
+        List<String> cartValues = opsForHash.multiGet(String.format(CART_REDIS_KEY_TEMPLATE, uid), fields);
+        Map<Long, Product> productMap = new HashMap<>();
+        for (Product product : productMapper.selectByProductIdSet(productIdSet)) {
+            productMap.put(product.getId(), product);
+        }
+        List<OrderItem> orderItemList = new ArrayList<>(productIdSet.size());
         BigDecimal orderTotalPrice = BigDecimal.ZERO;
-        for (Map.Entry<String, String> entry : entries.entrySet()) {
-            Cart cart = gson.fromJson(entry.getValue(), Cart.class);
-            for (Product product : productList) {
-                if (product.getId().equals(cart.getProductId())) {
-                    orderItem = new OrderItem(product.getId(), cart.getQuantity(),
-                            product.getProductName(),
-                            product.getProductPic(),
-                            product.getPrice(),
-                            product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity())));
-                    orderItemList.add(orderItem);
-                    orderTotalPrice = orderTotalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity())));
-                }
+        for (String cartValue : cartValues) {
+            if (cartValue == null) {
+                continue;
+            }
+            Cart cart = gson.fromJson(cartValue, Cart.class);
+            Product product = productMap.get(cart.getProductId());
+            if (product == null) {
+                continue;
             }
+            BigDecimal totalPrice = product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity()));
+            orderItemList.add(new OrderItem(product.getId(), cart.getQuantity(),
+                    product.getProductName(),
+                    product.getProductPic(),
+                    product.getPrice(),
+                    totalPrice));
+            orderTotalPrice = orderTotalPrice.add(totalPrice);
+        }
+        if (orderItemList.isEmpty()) {
+            CodeMsg codeMsg = CodeMsg.DATA_ERROR;
+            codeMsg.setMsg("勾选的商品已不在购物车中，请刷新后重试！");
+            return ResponseVo.errorByMsg(codeMsg);
         }
-        Order order = new Order(new SnowFlake(2, 3).nextId(),
+        Order order = new Order(idGenerator.nextId(),
                 uid,
                 OrderStateEnum.NO_PAY.getCode(),
                 orderTotalPrice);
         if (orderMapper.insertSelective(order) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_ADD_ERROR);
         }
-        for (OrderItem or : orderItemList) {
-            or.setOrderId(order.getId());
+        long[] orderItemIds = segmentIdAllocator.nextIds(IdSegmentEnum.ORDER_ITEM, orderItemList.size());
+        for (int i = 0; i < orderItemList.size(); i++) {
+            orderItemList.get(i).setId(orderItemIds[i]);
+            orderItemList.get(i).setOrderId(order.getId());
         }
         if (orderItemMapper.batchInsert(orderItemList) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_ITEM_ADD_ERROR);
         }
-        for (Long productId : productIdSet) {
-            opsForHash.delete(redisKey, String.valueOf(productId));
-        }
+        orderStateCounter.move(uid, null, order.getState());
+        dashboardCounter.orderCreated(1);
+        orderTimeoutScheduler.schedule(Collections.singletonList(order.getId()));
+        outboxPublisher.publish(OutboxPublisher.cartRemove(uid, productIdSet));
+        eventPublisher.publishEvent(new UserBehaviorEvent(uid, UserBehaviorEvent.Type.ORDER_CREATE, new ArrayList<>(productIdSet)));
         return ResponseVo.success(order.getId());
     }
 
     @Override
     public Order selectByOrderIdAndUserId(Long userId, Long orderId) {
-        return orderMapper.selectByOrderIdAndUserId(userId, orderId);
+        Order order = orderMapper.selectByOrderIdAndUserId(userId, orderId);
+        if (order != null) {
+            return order;
+        }
+        List<String> months = orderArchiver.months();
+        if (months.isEmpty()) {
+            return null;
+        }
+        order = orderMapper.selectHistoryByOrderIdAndUserId(userId, orderId, months);
+        if (order != null) {
+            orderItemLoader.attachHistory(Collections.singletonList(order), months);
+        }
+        return order;
     }
 
     @Override
@@ -184,48 +305,59 @@ public class OrderServiceImpl implements IOrderService {
         if (remark.length() > 50) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_REMARK_EXCEED_LENGTH);
         }
+        if (!OrderStateEnum.NO_PAY.getCode().equals(order.getState())) {
+            return ResponseVo.errorByMsg(CodeMsg.ORDER_NOT_UNPAID);
+        }
         CodeMsg codeMsg = CodeMsg.ORDER_ERROR;
         Set<Long> productIdSet = new HashSet<>();
         for (OrderItem orderItem : order.getOrderItemList()) {
             productIdSet.add(orderItem.getProductId());
         }
-        List<Product> productList = productMapper.selectByProductIdSet(productIdSet);
-        for (OrderItem orderItem : order.getOrderItemList()) {
-            for (Product product : productList) {
-                if (orderItem.getProductId().equals(product.getId())) {
-                    if (orderItem.getQuantity() > product.getStock()) {
-                        codeMsg.setMsg("商品<" + product.getProductName() + ">库存不足了，请减少购买数量！");
-                        return ResponseVo.errorByMsg(codeMsg);
-                    }
-                }
+        Map<Long, Integer> quantities = soldQuantities(order.getOrderItemList());
+        if (!quantities.isEmpty() && stockReservation.isEnabled()) {
+            // 在 Redis 中预占整单库存，售罄时不访问商品表；事务提交后再异步同步到商品表
+            Long shortageId;
+            try {
+                shortageId = stockReservation.reserve(order.getId(), quantities);
+            } catch (DataAccessException e) {
+                return ResponseVo.errorByMsg(CodeMsg.ORDER_STOCK_BUSY);
             }
-        }
-        for (OrderItem orderItem : order.getOrderItemList()) {
-            for (Product product : productList) {
-                if (orderItem.getProductId().equals(product.getId())) {
-                    product.setStock(product.getStock() - orderItem.getQuantity());
-                    product.setSellNum(product.getSellNum() + orderItem.getQuantity());
-                }
+            if (shortageId != null) {
+                codeMsg.setMsg("商品<" + productNameOf(order.getOrderItemList(), shortageId) + ">库存不足了，请减少购买数量！");
+                return ResponseVo.errorByMsg(codeMsg);
             }
-        }
-        for (Product product : productList) {
-            if (productMapper.updateByPrimaryKeySelective(product) <= 0) {
-                throw new RuntimeException("商品库存信息更新失败！");
+        } else if (!quantities.isEmpty()) {
+            Product shortage = findShortage(quantities);
+            if (shortage != null) {
+                codeMsg.setMsg("商品<" + shortage.getProductName() + ">库存不足了，请减少购买数量！");
+                return ResponseVo.errorByMsg(codeMsg);
+            }
+            if (productMapper.deductStock(quantities) != quantities.size()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                codeMsg.setMsg("商品信息异常，请刷新后重试！");
+                return ResponseVo.errorByMsg(codeMsg);
             }
         }
-        redisTemplate.opsForValue().set(String.format(ORDER_STOCK_KEY_TEMPLATE, order.getId()), "1");
+        eventPublisher.publishEvent(new ProductSoldEvent(quantities));
+        Integer fromState = order.getState();
         order.setAddressId(address.getId());
         order.setRemark(remark);
         order.setState(OrderStateEnum.PAYED.getCode());
-        if (orderMapper.updateByPrimaryKeySelective(order) <= 0) {
+        // 以未支付为条件更新，与超时取消并发时只有一方生效，取消在先时回滚已扣减的库存
+        if (orderMapper.updateSubmitByIdAndState(order, fromState) <= 0) {
             throw new RuntimeException("订单提交失败！");
         }
-        HashOperations<String, String, String> opsForHash = redisTemplate.opsForHash();
-        String redisKey = String.format(CART_REDIS_KEY_TEMPLATE, uid);
-        for (OrderItem orderItem : order.getOrderItemList()) {
-            opsForHash.delete(redisKey, String.valueOf(orderItem.getProductId()));
+        // 库存流水与扣减同时提交，发货时据此判断无需补扣
+        stockLedgerRecorder.record(Collections.singletonMap(order.getId(), quantities), StockLedgerReasonEnum.ORDER_SUBMIT);
+        if (OrderDeleteEnum.NO.getCode().equals(order.getIsDeleted())) {
+            orderStateCounter.move(uid, fromState, order.getState());
         }
-        mailUtil.sendMailAsync(MailTypeEnum.ORDER_SUBMIT.getCode(), email, String.valueOf(order.getOrderNo()));
+        // 购物车清理和通知邮件随订单一起提交，回滚时都不会发生
+        List<Outbox> events = new ArrayList<>(2);
+        events.add(OutboxPublisher.cartRemove(uid, productIdSet));
+        events.add(OutboxPublisher.mail(MailTypeEnum.ORDER_SUBMIT.getCode(), email, String.valueOf(order.getOrderNo())));
+        outboxPublisher.publish(events);
+        eventPublisher.publishEvent(new UserBehaviorEvent(uid, UserBehaviorEvent.Type.PURCHASE, new ArrayList<>(productIdSet)));
         return ResponseVo.successByMsg(true, "订单提交成功,交易完成！");
     }
 
@@ -233,6 +365,7 @@ public class OrderServiceImpl implements IOrderService {
     public ResponseVo<PageInfo> selectByPageAndUserIdAndIsDeleted(Long userId, Integer isDeleted, Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
         List<Order> orderList = orderMapper.selectByUserIdAndIsDeleted(userId, isDeleted);
+        orderItemLoader.attach(orderList);
         PageInfo<Order> pageInfo = new PageInfo<>(orderList);
         pageInfo.setList(orderList);
         return ResponseVo.success(pageInfo);
@@ -242,24 +375,67 @@ public class OrderServiceImpl implements IOrderService {
     public ResponseVo<PageInfo> selectByPageAndUserIdAndState(Long userId, Integer isDeleted, Integer state, Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
         List<Order> orderList = orderMapper.selectByOrderStateAndUserIdAndIsDeleted(state, userId, isDeleted);
+        orderItemLoader.attach(orderList);
+        PageInfo<Order> pageInfo = new PageInfo<>(orderList);
+        pageInfo.setList(orderList);
+        return ResponseVo.success(pageInfo);
+    }
+
+    @Override
+    public ResponseVo<PageInfo> selectHistoryByPageAndUserId(Long userId, Integer isDeleted, Integer state, Integer pageNum, Integer pageSize) {
+        // 先查询归档月份，避免分页条件应用到这条查询上
+        List<String> months = orderArchiver.months();
+        PageHelper.startPage(pageNum, pageSize);
+        List<Order> orderList;
+        if (!months.isEmpty()) {
+            orderList = orderMapper.selectHistoryByUserIdAndIsDeleted(userId, isDeleted, state, months);
+        } else if (state != null) {
+            orderList = orderMapper.selectByOrderStateAndUserIdAndIsDeleted(state, userId, isDeleted);
+        } else {
+            orderList = orderMapper.selectByUserIdAndIsDeleted(userId, isDeleted);
+        }
+        orderItemLoader.attachHistory(orderList, months);
         PageInfo<Order> pageInfo = new PageInfo<>(orderList);
         pageInfo.setList(orderList);
         return ResponseVo.success(pageInfo);
     }
 
+    @Override
+    public Map<Integer, Integer> selectStateCountByUserId(Long userId) {
+        return orderStateCounter.counts(userId);
+    }
+
     @Override
     public ResponseVo<PageInfo> selectByPage(Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
         List<Order> orderList = orderMapper.selectAll();
+        orderItemLoader.attach(orderList);
         PageInfo<Order> pageInfo = new PageInfo<>(orderList);
         pageInfo.setList(orderList);
         return ResponseVo.success(pageInfo);
     }
 
+    @Override
+    public ResponseVo<CursorPage<Order>> selectByCursor(String cursor, Integer pageSize, boolean withTotal) {
+        CursorUtil.Position position;
+        try {
+            position = CursorUtil.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseVo.errorByMsg(CodeMsg.CURSOR_INVALID);
+        }
+        int size = CursorUtil.pageSize(pageSize);
+        List<Order> rows = orderMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+        Long total = withTotal ? orderMapper.countAll() : null;
+        CursorPage<Order> page = CursorUtil.page(rows, size, Order::getCreateTime, Order::getId, total);
+        orderItemLoader.attach(page.getList());
+        return ResponseVo.success(page);
+    }
+
     @Override
     public ResponseVo<PageInfo> selectByPageAndContent(Long orderNo, Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
         List<Order> orderList = orderMapper.selectBySearchContent(orderNo);
+        orderItemLoader.attach(orderList);
         PageInfo<Order> pageInfo = new PageInfo<>(orderList);
         pageInfo.setList(orderList);
         return ResponseVo.success(pageInfo);
@@ -267,7 +443,7 @@ public class OrderServiceImpl implements IOrderService {
 
     @Override
     public List<Order> selectByOrderStateAndUserIdAndIsDeleted(Integer state, Long userId, Integer isDeleted) {
-        return orderMapper.selectByOrderStateAndUserIdAndIsDeleted(state, userId, isDeleted);
+        return orderItemLoader.attach(orderMapper.selectByOrderStateAndUserIdAndIsDeleted(state, userId, isDeleted));
     }
 
     @Override
@@ -281,48 +457,33 @@ public class OrderServiceImpl implements IOrderService {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_NOT_EXIST);
         }
         if (OrderStateEnum.SEND.getCode().equals(state)) {
-            String stockKey = String.format(ORDER_STOCK_KEY_TEMPLATE, orderId);
-            boolean alreadyDeducted = Boolean.TRUE.equals(redisTemplate.hasKey(stockKey));
+            // 按订单ID查询库存流水；并发发货时后写入流水的一方违反 (订单ID, 商品ID, 原因) 唯一键，回滚并提示
+            boolean alreadyDeducted = stockLedgerRecorder.deducted(Collections.singletonList(orderId)).contains(orderId);
             if (!alreadyDeducted) {
                 List<OrderItem> orderItems = orderMapper.getOrderItemByOrderId(orderId);
                 if (!CollectionUtils.isEmpty(orderItems)) {
-                    Set<Long> productIds = new HashSet<>();
-                    for (OrderItem item : orderItems) {
-                        if (item.getProductId() != null) {
-                            productIds.add(item.getProductId());
+                    Map<Long, Integer> quantities = soldQuantities(orderItems);
+                    if (!quantities.isEmpty()) {
+                        Product shortage = findShortage(quantities);
+                        if (shortage != null) {
+                            CodeMsg codeMsg = CodeMsg.ORDER_ERROR;
+                            codeMsg.setMsg("商品<" + shortage.getProductName() + ">库存不足，无法发货！");
+                            return ResponseVo.errorByMsg(codeMsg);
                         }
-                    }
-                    if (!productIds.isEmpty()) {
-                        List<Product> products = productMapper.selectByProductIdSet(productIds);
-                        Map<Long, Product> productMap = new HashMap<>();
-                        for (Product product : products) {
-                            productMap.put(product.getId(), product);
+                        try {
+                            stockLedgerRecorder.record(Collections.singletonMap(orderId, quantities), StockLedgerReasonEnum.ORDER_SEND);
+                        } catch (DuplicateKeyException e) {
+                            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                            return ResponseVo.errorByMsg(CodeMsg.ORDER_SEND_CONFLICT);
                         }
-                        CodeMsg codeMsg = CodeMsg.ORDER_ERROR;
-                        for (OrderItem item : orderItems) {
-                            Product product = productMap.get(item.getProductId());
-                            if (product == null) {
-                                codeMsg.setMsg("商品信息异常，无法发货，请联系管理员！");
-                                return ResponseVo.errorByMsg(codeMsg);
-                            }
-                            Integer stock = product.getStock();
-                            if (stock == null || stock < item.getQuantity()) {
-                                codeMsg.setMsg("商品<" + product.getProductName() + ">库存不足，无法发货！");
-                                return ResponseVo.errorByMsg(codeMsg);
-                            }
+                        if (productMapper.deductStock(quantities) != quantities.size()) {
+                            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                            CodeMsg codeMsg = CodeMsg.ORDER_ERROR;
+                            codeMsg.setMsg("商品信息异常，无法发货，请联系管理员！");
+                            return ResponseVo.errorByMsg(codeMsg);
                         }
-                        for (OrderItem item : orderItems) {
-                            Product product = productMap.get(item.getProductId());
-                            product.setStock(product.getStock() - item.getQuantity());
-                            Integer sellNum = product.getSellNum() == null ? 0 : product.getSellNum();
-                            product.setSellNum(sellNum + item.getQuantity());
-                        }
-                        for (Product product : productMap.values()) {
-                            if (productMapper.updateByPrimaryKeySelective(product) <= 0) {
-                                throw new RuntimeException("商品库存信息更新失败！");
-                            }
-                        }
-                        redisTemplate.opsForValue().set(stockKey, "1");
+                        stockReservation.evict(quantities.keySet());
+                        eventPublisher.publishEvent(new ProductSoldEvent(quantities));
                     }
                 }
             }
@@ -330,9 +491,84 @@ public class OrderServiceImpl implements IOrderService {
         if (orderMapper.updateStateByOrderId(orderId, state) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_STATE_EDIT_ERROR);
         }
+        if (OrderDeleteEnum.NO.getCode().equals(order.getIsDeleted())) {
+            orderStateCounter.move(order.getUserId(), order.getState(), state);
+        }
         return ResponseVo.successByMsg(true, "成功修改订单状态！");
     }
 
+    @Override
+    @Transactional
+    public ResponseVo<List<OrderStateResult>> updateOrderStates(List<Long> orderIds, Integer state) {
+        if (CollectionUtils.isEmpty(orderIds) || state == null
+                || Arrays.stream(OrderStateEnum.values()).noneMatch(e -> e.getCode().equals(state))) {
+            return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
+        }
+        Set<Long> ids = new LinkedHashSet<>(orderIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
+        }
+        if (ids.size() > MAX_STATE_BATCH) {
+            return ResponseVo.errorByMsg(CodeMsg.ORDER_STATE_BATCH_EXCEED);
+        }
+        Map<Long, Order> orders = new HashMap<>(ids.size() * 2);
+        for (Order order : orderMapper.selectByIdsForUpdate(ids)) {
+            orders.put(order.getId(), order);
+        }
+        List<Order> changing = new ArrayList<>(orders.size());
+        for (Long id : ids) {
+            Order order = orders.get(id);
+            if (order != null && !state.equals(order.getState())) {
+                changing.add(order);
+            }
+        }
+        Map<Long, String> failures = new HashMap<>();
+        if (OrderStateEnum.SEND.getCode().equals(state) && !changing.isEmpty()) {
+            Set<Long> deducted = stockLedgerRecorder.deducted(changing.stream().map(Order::getId).toList());
+            List<Order> undeducted = new ArrayList<>(changing.size());
+            for (Order order : changing) {
+                if (!deducted.contains(order.getId())) {
+                    undeducted.add(order);
+                }
+            }
+            try {
+                deductStockForSend(undeducted, failures);
+            } catch (DuplicateKeyException e) {
+                // 单个订单发货与本批次并发，先写入流水的一方生效
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return ResponseVo.errorByMsg(CodeMsg.ORDER_SEND_CONFLICT);
+            }
+            changing.removeIf(order -> failures.containsKey(order.getId()));
+        }
+        // 按原状态分组，每组一条条件更新；订单已锁定，影响行数必须与组内订单数相同
+        Map<Integer, List<Long>> idsByFromState = new HashMap<>();
+        List<Long> userIds = new ArrayList<>(changing.size());
+        for (Order order : changing) {
+            idsByFromState.computeIfAbsent(order.getState(), k -> new ArrayList<>()).add(order.getId());
+            if (OrderDeleteEnum.NO.getCode().equals(order.getIsDeleted())) {
+                userIds.add(order.getUserId());
+            }
+        }
+        for (Map.Entry<Integer, List<Long>> entry : idsByFromState.entrySet()) {
+            if (orderMapper.updateStateByIdsAndState(entry.getValue(), entry.getKey(), state) != entry.getValue().size()) {
+                throw new RuntimeException("订单状态批量修改失败！");
+            }
+        }
+        orderStateCounter.evict(userIds);
+        List<OrderStateResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (!orders.containsKey(id)) {
+                results.add(new OrderStateResult(id, CodeMsg.ORDER_NOT_EXIST));
+            } else if (failures.containsKey(id)) {
+                results.add(new OrderStateResult(id, CodeMsg.ORDER_ERROR.getCode(), failures.get(id)));
+            } else {
+                results.add(new OrderStateResult(id, CodeMsg.SUCCESS.getCode(), "成功修改订单状态！"));
+            }
+        }
+        return ResponseVo.success(results);
+    }
+
     @Override
     public ResponseVo<Boolean> userDelete(Long orderId, Integer isDeleted) {
         if (orderId == null || isDeleted == null) {
@@ -345,6 +581,10 @@ public class OrderServiceImpl implements IOrderService {
         if (orderMapper.updateIsDeletedByOrderId(orderId, isDeleted) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_DELETE_ERROR);
         }
+        if (!isDeleted.equals(order.getIsDeleted())) {
+            boolean deleted = OrderDeleteEnum.YES.getCode().equals(isDeleted);
+            orderStateCounter.move(order.getUserId(), deleted ? order.getState() : null, deleted ? null : order.getState());
+        }
         return ResponseVo.successByMsg(true, "成功删除该订单！");
     }
 
@@ -363,9 +603,14 @@ public class OrderServiceImpl implements IOrderService {
         if (orderId == null) {
             return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
         }
+        Order order = orderMapper.selectByPrimaryKey(orderId);
         if (orderMapper.deleteByPrimaryKey(orderId) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.ORDER_DELETE_ERROR);
         }
+        dashboardCounter.orderRemoved(order == null ? null : order.getCreateTime());
+        if (order != null && OrderDeleteEnum.NO.getCode().equals(order.getIsDeleted())) {
+            orderStateCounter.move(order.getUserId(), order.getState(), null);
+        }
         return ResponseVo.successByMsg(true, "订单删除成功！");
     }
 
@@ -393,5 +638,117 @@ public class OrderServiceImpl implements IOrderService {
     public List<Map<String, Object>> getOrderCountByDayOfWeek() {
         return orderMapper.getOrderCountByDayOfWeek();
     }
-}
 
+    /**
+     * 为一批发货订单扣减库存：锁定涉及的商品，按订单顺序在内存中分配库存，
+     * 再为分配成功的订单批量写入库存流水，并用一条语句按商品合并扣减。
+     *
+     * @param orders   尚未扣减库存的订单
+     * @param failures 库存不足的订单ID -> 失败原因，由本方法填入
+     */
+    private void deductStockForSend(List<Order> orders, Map<Long, String> failures) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>(orders.size() * 2);
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem orderItem : orderItemMapper.selectByOrderIds(orderIds)) {
+            itemsByOrderId.computeIfAbsent(orderItem.getOrderId(), k -> new ArrayList<>()).add(orderItem);
+            if (orderItem.getProductId() != null) {
+                productIds.add(orderItem.getProductId());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> products = new HashMap<>(productIds.size() * 2);
+        for (Product product : productMapper.selectByProductIdSetForUpdate(productIds)) {
+            products.put(product.getId(), product);
+        }
+        Map<Long, Integer> deducted = new HashMap<>();
+        Map<Long, Map<Long, Integer>> deductedByOrderId = new LinkedHashMap<>();
+        for (Order order : orders) {
+            Map<Long, Integer> quantities = soldQuantities(itemsByOrderId.getOrDefault(order.getId(), Collections.emptyList()));
+            if (quantities.isEmpty()) {
+                continue;
+            }
+            String failure = null;
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product == null || product.getStock() == null) {
+                    failure = "商品信息异常，无法发货，请联系管理员！";
+                    break;
+                }
+                if (product.getStock() - deducted.getOrDefault(entry.getKey(), 0) < entry.getValue()) {
+                    failure = "商品<" + product.getProductName() + ">库存不足，无法发货！";
+                    break;
+                }
+            }
+            if (failure != null) {
+                failures.put(order.getId(), failure);
+                continue;
+            }
+            quantities.forEach((productId, quantity) -> deducted.merge(productId, quantity, Integer::sum));
+            deductedByOrderId.put(order.getId(), quantities);
+        }
+        if (deducted.isEmpty()) {
+            return;
+        }
+        stockLedgerRecorder.record(deductedByOrderId, StockLedgerReasonEnum.ORDER_SEND);
+        // 商品已锁定且已按锁定时的库存分配，条件更新必须全部生效
+        if (productMapper.deductStock(deducted) != deducted.size()) {
+            throw new RuntimeException("商品库存批量扣减失败！");
+        }
+        stockReservation.evict(deducted.keySet());
+        eventPublisher.publishEvent(new ProductSoldEvent(deducted));
+    }
+
+    /**
+     * 扣减前锁定商品并查找库存不足的商品，用于提示用户。
+     *
+     * 在当前事务的连接上执行，不另开事务占用第二个连接；锁定后紧接着的条件扣减看到的是同一份库存。
+     *
+     * @param quantities 商品ID -> 扣减数量
+     * @return 第一个库存不足的商品；都充足（或商品不存在）时返回 null
+     */
+    private Product findShortage(Map<Long, Integer> quantities) {
+        List<Product> shortages = productMapper.selectShortageForUpdate(quantities);
+        return shortages.isEmpty() ? null : shortages.get(0);
+    }
+
+    /**
+     * 从订单项中取商品名称，用于提示信息。
+     *
+     * @param orderItems 订单项列表
+     * @param productId  商品ID
+     * @return 商品名称，找不到时返回商品ID
+     */
+    private String productNameOf(List<OrderItem> orderItems, Long productId) {
+        for (OrderItem orderItem : orderItems) {
+            if (productId.equals(orderItem.getProductId())) {
+                return orderItem.getProductName();
+            }
+        }
+        return String.valueOf(productId);
+    }
+
+    /**
+     * 汇总订单项中每个商品的售出数量。
+     *
+     * @param orderItems 订单项列表
+     * @return 商品ID -> 售出数量
+     */
+    private Map<Long, Integer> soldQuantities(List<OrderItem> orderItems) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            if (orderItem.getProductId() != null && orderItem.getQuantity() != null) {
+                quantities.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+}
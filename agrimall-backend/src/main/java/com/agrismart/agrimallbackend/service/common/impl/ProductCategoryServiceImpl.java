@@ -3,11 +3,13 @@ package com.agrismart.agrimallbackend.service.common.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.ProductCategory;
 import com.agrismart.agrimallbackend.mapper.common.ProductCategoryMapper;
 import com.agrismart.agrimallbackend.service.common.IProductCategoryService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +33,13 @@ public class ProductCategoryServiceImpl implements IProductCategoryService {
     @Autowired
     private ProductCategoryMapper productCategoryMapper;
 
+    /**
+     * 后台仪表盘计数。
+     * 新增、删除分类后调整分类总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public ResponseVo<PageInfo> getProductCategoryByPage(Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
@@ -61,6 +70,7 @@ public class ProductCategoryServiceImpl implements IProductCategoryService {
         if (productCategoryMapper.insertSelective(productCategory) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.PRODUCT_CATEGORY_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.CATEGORY, 1);
         return ResponseVo.successByMsg(true, "商品种类添加成功！");
     }
 
@@ -87,6 +97,7 @@ public class ProductCategoryServiceImpl implements IProductCategoryService {
         if (productCategoryMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.PRODUCT_CATEGORY_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.CATEGORY, -1);
         return ResponseVo.successByMsg(true, "商品种类删除成功！");
     }
 }
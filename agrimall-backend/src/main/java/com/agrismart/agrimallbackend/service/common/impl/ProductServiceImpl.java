@@ -3,21 +3,34 @@ package com.agrismart.agrimallbackend.service.common.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.common.enums.SalesRankWindowEnum;
+import com.agrismart.agrimallbackend.common.util.CursorUtil;
 import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
+import com.agrismart.agrimallbackend.dto.response.CursorPage;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.Product;
 import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
 import com.agrismart.agrimallbackend.service.common.IProductService;
+import com.agrismart.agrimallbackend.service.common.rank.SalesLeaderboard;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
+import com.agrismart.agrimallbackend.service.common.stock.StockReservation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品服务实现类。
  *
  * 该类实现了 {@link IProductService} 接口，提供商品相关的业务逻辑实现。
  * 包括商品管理、查询、热销商品推荐等功能。
+ * 热销排行优先读取 {@link SalesLeaderboard} 维护的 Redis 排行榜，避免按销量扫描商品表。
  *
  * @author agrimall
  * @see com.agrismart.agrimallbackend.service.common.IProductService
@@ -32,6 +45,31 @@ public class ProductServiceImpl implements IProductService {
     @Autowired
     private ProductMapper productMapper;
 
+    /**
+     * 商品销量排行榜。
+     */
+    @Autowired
+    private SalesLeaderboard salesLeaderboard;
+
+    /**
+     * Redis 库存预占服务。
+     * 后台修改商品库存后删除对应的库存镜像。
+     */
+    @Autowired
+    private StockReservation stockReservation;
+
+    /**
+     * 后台仪表盘计数。
+     * 新增、删除商品后调整商品总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
+    /**
+     * 首页和商品详情页热销排行展示的商品数量。
+     */
+    private static final int SELL_RANK_SIZE = 8;
+
     @Override
     public ResponseVo<PageInfo> getProductByPage(Integer pageNum, Integer pageSize) {
         PageHelper.startPage(pageNum, pageSize);
@@ -41,6 +79,21 @@ public class ProductServiceImpl implements IProductService {
         return ResponseVo.success(pageInfo);
     }
 
+    @Override
+    public ResponseVo<CursorPage<Product>> getProductByCursor(String cursor, Integer pageSize, boolean withTotal) {
+        CursorUtil.Position position;
+        try {
+            position = CursorUtil.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseVo.errorByMsg(CodeMsg.CURSOR_INVALID);
+        }
+        int size = CursorUtil.pageSize(pageSize);
+        List<Product> rows = productMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+        Long total = withTotal ? productMapper.countAll() : null;
+        CursorPage<Product> page = CursorUtil.page(rows, size, Product::getCreateTime, Product::getId, total);
+        return ResponseVo.success(page);
+    }
+
     @Override
     public ResponseVo<PageInfo> getProductByPageAndContent(Integer pageNum, Integer pageSize, String content) {
         PageHelper.startPage(pageNum, pageSize);
@@ -62,6 +115,7 @@ public class ProductServiceImpl implements IProductService {
         if (productMapper.insertSelective(product) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.PRODUCT_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.PRODUCT, 1);
         return ResponseVo.successByMsg(true, "商品添加成功！");
     }
 
@@ -77,6 +131,7 @@ public class ProductServiceImpl implements IProductService {
         if (productMapper.updateByPrimaryKeySelective(product) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.PRODUCT_EDIT_ERROR);
         }
+        stockReservation.evict(Collections.singleton(product.getId()));
         return ResponseVo.successByMsg(true, "商品编辑成功！");
     }
 
@@ -88,6 +143,9 @@ public class ProductServiceImpl implements IProductService {
         if (productMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.PRODUCT_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.PRODUCT, -1);
+        salesLeaderboard.remove(id);
+        stockReservation.evict(Collections.singleton(id));
         return ResponseVo.successByMsg(true, "商品删除成功！");
     }
 
@@ -107,13 +165,46 @@ public class ProductServiceImpl implements IProductService {
 
     @Override
     public List<Product> selectBySellNumber() {
-        return productMapper.selectBySellNumber();
+        List<Long> rankedIds = salesLeaderboard.top(SalesRankWindowEnum.ALL, SELL_RANK_SIZE);
+        if (rankedIds == null) {
+            return productMapper.selectBySellNumber();
+        }
+        return selectOrderedByIds(rankedIds);
     }
 
     @Override
     public List<Product> selectBySellNumberLimit(int limit) {
+        return selectBySellNumberLimit(limit, SalesRankWindowEnum.ALL);
+    }
+
+    @Override
+    public List<Product> selectBySellNumberLimit(int limit, SalesRankWindowEnum window) {
         int effectiveLimit = limit <= 0 ? 5 : limit;
-        return productMapper.selectBySellNumberLimit(effectiveLimit);
+        List<Long> rankedIds = salesLeaderboard.top(window, effectiveLimit);
+        if (rankedIds == null) {
+            return productMapper.selectBySellNumberLimit(effectiveLimit);
+        }
+        return selectOrderedByIds(rankedIds);
     }
-}
 
+    /**
+     * 按排行榜顺序批量查询商品，已删除的商品直接跳过。
+     *
+     * @param productIds 商品ID列表（按销量降序）
+     * @return 商品列表（保持原有顺序）
+     */
+    private List<Product> selectOrderedByIds(List<Long> productIds) {
+        Map<Long, Product> productMap = new HashMap<>();
+        for (Product product : productMapper.selectByProductIdSet(new LinkedHashSet<>(productIds))) {
+            productMap.put(product.getId(), product);
+        }
+        List<Product> ordered = new ArrayList<>(productIds.size());
+        for (Long id : productIds) {
+            Product product = productMap.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+}
@@ -3,6 +3,7 @@ package com.agrismart.agrimallbackend.service.common.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.common.enums.MailTypeEnum;
 import com.agrismart.agrimallbackend.common.util.JwtUtil;
 import com.agrismart.agrimallbackend.common.util.MailUtil;
@@ -12,6 +13,7 @@ import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.common.User;
 import com.agrismart.agrimallbackend.mapper.common.UserMapper;
 import com.agrismart.agrimallbackend.service.common.IUserService;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -46,6 +48,13 @@ public class UserServiceImpl implements IUserService {
     @Autowired
     private MailUtil mailUtil;
 
+    /**
+     * 后台仪表盘计数。
+     * 用户注册、删除用户后调整用户总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public ResponseVo<Boolean> isUsernameExist(User user, Long id) {
         User findByUsername = userMapper.findUserByUsername(user.getUsername());
@@ -114,6 +123,7 @@ public class UserServiceImpl implements IUserService {
         if (userMapper.insertSelective(user) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.USER_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.USER, 1);
         mailUtil.sendMailAsync(MailTypeEnum.USER_REGISTER.getCode(), user.getEmail(), "");
         return ResponseVo.successByMsg(true, "注册成功！快去登录体验吧！");
     }
@@ -226,6 +236,7 @@ public class UserServiceImpl implements IUserService {
         if (userMapper.deleteByPrimaryKey(userId) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.USER_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.USER, -1);
         return ResponseVo.successByMsg(true, "删除用户成功！");
     }
 }
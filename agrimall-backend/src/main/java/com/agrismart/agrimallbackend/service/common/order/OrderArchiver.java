@@ -0,0 +1,296 @@
+package com.agrismart.agrimallbackend.service.common.order;
+
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderDeleteEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.entity.common.Order;
+import com.agrismart.agrimallbackend.mapper.common.OrderArchiveMapper;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 订单冷热分离归档任务。
+ *
+ * 已签收或已取消、且创建时间早于 archive-after-days 天的订单不会再被修改，很少被读取，
+ * 定时把它们连同订单项按创建月份搬到 mall_order_archive_{yyyyMM} 和 mall_order_item_archive_{yyyyMM}，
+ * 使在线表只保留近期订单，用户订单列表、后台列表和统计查询的索引和数据页都能常驻缓冲池。
+ *
+ * - 每批最多 batch-size 个订单，一个月份一个事务：锁定订单 -> 复制订单和订单项 -> 删除在线行 -> 累加月份统计
+ * - 批次之间暂停 batch-pause 毫秒，单次运行不超过锁过期时间的一半，避免长事务和持续的写入压力
+ * - 多个节点之间通过 Redis 锁保证同一时刻只有一个节点归档，锁的值为本次归档的随机令牌，只有持有者才能释放
+ * - 归档后删除相关用户的订单状态计数缓存、扣减仪表盘的订单总数，计数与在线表保持一致
+ *
+ * 查询默认只访问在线表；调用方需要完整历史时通过 {@link #months()} 取得已归档月份，
+ * 再调用 OrderMapper 的 selectHistory* 方法把在线表和归档表合并查询。
+ * 推荐模型读取的购买记录（OrderItemMapper 的 selectProductIdsByUserId、streamUserProducts）同样合并归档表，
+ * 归档不会让用户的历史购买从推荐打分和"已购买"过滤中消失。
+ * 后台统计的按月订单数和总销售额从 mall_order_archive_month 中读取归档时累计的值，不扫描归档表。
+ *
+ * @author agrimall
+ * @see OrderArchiveMapper
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderArchiver.class);
+
+    /**
+     * 归档锁 Redis Key。
+     */
+    private static final String ARCHIVE_LOCK_KEY = "order_archive_lock";
+
+    /**
+     * 归档锁过期时间，单次运行超过该时间的一半时停止取下一批。
+     */
+    private static final Duration ARCHIVE_LOCK_TTL = Duration.ofMinutes(10);
+
+    /**
+     * 释放脚本：锁仍属于本次归档时删除。
+     * KEYS: 锁 Key
+     * ARGV: 令牌
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 最短归档天数，保证本周、本月的订单统计只需查询在线表。
+     */
+    private static final int MIN_ARCHIVE_DAYS = 31;
+
+    /**
+     * 归档月份格式，拼接到表名中。
+     */
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final Pattern MONTH_PATTERN = Pattern.compile("\\d{6}");
+
+    /**
+     * 可以归档的订单状态：已签收、已取消。
+     */
+    private static final List<Integer> CLOSED_STATES = Arrays.asList(
+            OrderStateEnum.SIGN.getCode(), OrderStateEnum.CANCELED.getCode());
+
+    private final OrderArchiveMapper orderArchiveMapper;
+
+    private final OrderStateCounter orderStateCounter;
+
+    private final DashboardCounter dashboardCounter;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 订单创建多少天后归档。
+     */
+    private final int archiveAfterDays;
+
+    /**
+     * 每批归档的订单数。
+     */
+    private final int batchSize;
+
+    /**
+     * 批次之间的暂停时间（毫秒）。
+     */
+    private final long batchPause;
+
+    /**
+     * 本节点已确认存在归档表的月份。
+     */
+    private final Set<String> createdMonths = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderArchiveMapper 订单归档数据访问对象
+     * @param orderStateCounter  用户订单状态计数缓存
+     * @param dashboardCounter   后台仪表盘计数
+     * @param redisTemplate      Redis 模板
+     * @param transactionManager 事务管理器
+     * @param archiveAfterDays   订单创建多少天后归档
+     * @param batchSize          每批归档的订单数
+     * @param batchPause         批次之间的暂停时间（毫秒）
+     */
+    @Autowired
+    public OrderArchiver(OrderArchiveMapper orderArchiveMapper,
+                         OrderStateCounter orderStateCounter,
+                         DashboardCounter dashboardCounter,
+                         StringRedisTemplate redisTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${xqx.order.archive-after-days:180}") int archiveAfterDays,
+                         @Value("${xqx.order.archive-batch-size:500}") int batchSize,
+                         @Value("${xqx.order.archive-batch-pause:200}") long batchPause) {
+        this.orderArchiveMapper = orderArchiveMapper;
+        this.orderStateCounter = orderStateCounter;
+        this.dashboardCounter = dashboardCounter;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveAfterDays = Math.max(archiveAfterDays, MIN_ARCHIVE_DAYS);
+        this.batchSize = Math.max(batchSize, 1);
+        this.batchPause = Math.max(batchPause, 0L);
+    }
+
+    /**
+     * 获取订单创建时间所在的归档月份。
+     *
+     * @param createTime 订单创建时间
+     * @return 归档月份（yyyyMM）
+     */
+    public static String monthOf(Date createTime) {
+        return MONTH_FORMATTER.format(createTime.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * 查询已归档的月份，按月份倒序。
+     *
+     * @return 已创建归档表的月份（yyyyMM）列表
+     */
+    public List<String> months() {
+        List<String> months = new ArrayList<>();
+        for (String month : orderArchiveMapper.selectMonths()) {
+            if (MONTH_PATTERN.matcher(month).matches()) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * 定时归档，其他节点正在归档时直接返回。
+     */
+    @Scheduled(initialDelayString = "${xqx.order.archive-interval:3600000}",
+            fixedDelayString = "${xqx.order.archive-interval:3600000}")
+    public void archive() {
+        try {
+            String token = UUID.randomUUID().toString();
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(ARCHIVE_LOCK_KEY, token, ARCHIVE_LOCK_TTL))) {
+                return;
+            }
+            long deadline = System.currentTimeMillis() + ARCHIVE_LOCK_TTL.toMillis() / 2;
+            int archived = 0;
+            try {
+                Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(archiveAfterDays));
+                List<Order> candidates;
+                do {
+                    candidates = orderArchiveMapper.selectClosedBefore(CLOSED_STATES, before, batchSize);
+                    archived += archiveBatch(candidates);
+                    if (candidates.size() == batchSize && batchPause > 0) {
+                        Thread.sleep(batchPause);
+                    }
+                } while (candidates.size() == batchSize && System.currentTimeMillis() < deadline);
+            } finally {
+                // 归档超过锁过期时间时锁可能已被其他节点获得，只删除本次归档的锁
+                redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(ARCHIVE_LOCK_KEY), token);
+            }
+            if (archived > 0) {
+                LOGGER.info("已归档 {} 个订单", archived);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.error("订单归档失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 按创建月份归档一批订单，每个月份一个事务。
+     *
+     * @return 实际归档的订单数
+     */
+    private int archiveBatch(List<Order> candidates) {
+        Map<String, List<Long>> idsByMonth = new LinkedHashMap<>();
+        for (Order order : candidates) {
+            idsByMonth.computeIfAbsent(monthOf(order.getCreateTime()), k -> new ArrayList<>()).add(order.getId());
+        }
+        int archived = 0;
+        for (Map.Entry<String, List<Long>> entry : idsByMonth.entrySet()) {
+            String month = entry.getKey();
+            // DDL 会隐式提交，必须在归档事务之外执行
+            ensureTables(month);
+            Integer count = transactionTemplate.execute(status -> archiveMonth(month, entry.getValue()));
+            archived += count == null ? 0 : count;
+        }
+        return archived;
+    }
+
+    /**
+     * 在当前事务中把同一月份的订单搬到归档表。
+     * 锁定后再复制和删除，期间被修改为其他状态的订单不会归档。
+     */
+    private int archiveMonth(String month, List<Long> candidateIds) {
+        List<Order> orders = orderArchiveMapper.selectByIdsAndStatesForUpdate(candidateIds, CLOSED_STATES);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(orders.size());
+        List<Long> userIds = new ArrayList<>(orders.size());
+        long orderCount = 0;
+        BigDecimal salesAmount = BigDecimal.ZERO;
+        for (Order order : orders) {
+            ids.add(order.getId());
+            userIds.add(order.getUserId());
+            if (!OrderDeleteEnum.NO.getCode().equals(order.getIsDeleted())) {
+                continue;
+            }
+            orderCount++;
+            if (!OrderStateEnum.CANCELED.getCode().equals(order.getState()) && order.getTotalPrice() != null) {
+                salesAmount = salesAmount.add(order.getTotalPrice());
+            }
+        }
+        orderArchiveMapper.copyOrders(month, ids);
+        orderArchiveMapper.copyOrderItems(month, ids);
+        orderArchiveMapper.deleteOrderItems(ids);
+        orderArchiveMapper.deleteOrders(ids);
+        orderArchiveMapper.upsertMonth(month, orderCount, salesAmount);
+        orderStateCounter.evict(userIds);
+        // 归档的订单创建已超过 31 天，不在今日、本周、本月的订单数中
+        dashboardCounter.adjust(DashboardCounterEnum.ORDER, -ids.size());
+        return ids.size();
+    }
+
+    /**
+     * 确保某个月份的归档表存在。
+     */
+    private void ensureTables(String month) {
+        if (!MONTH_PATTERN.matcher(month).matches()) {
+            throw new IllegalArgumentException("Invalid archive month: " + month);
+        }
+        if (createdMonths.contains(month)) {
+            return;
+        }
+        orderArchiveMapper.createOrderArchiveTable(month);
+        orderArchiveMapper.createOrderItemArchiveTable(month);
+        createdMonths.add(month);
+    }
+}
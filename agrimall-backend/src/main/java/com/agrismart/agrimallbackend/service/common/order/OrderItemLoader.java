@@ -0,0 +1,100 @@
+package com.agrismart.agrimallbackend.service.common.order;
+
+import com.agrismart.agrimallbackend.entity.common.Order;
+import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 订单项批量加载器。
+ *
+ * 订单列表只查询订单表，再通过 {@link #attach(List)} 用一条 {@code order_id in (...)} 查询取出整页订单的订单项，
+ * 在内存中按订单ID分组后填入 {@link Order#getOrderItemList()}。
+ * 一页订单固定只需要两条查询，与页大小无关，避免嵌套子查询每个订单多查一次订单项。
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * PageHelper.startPage(pageNum, pageSize);
+ * List<Order> orderList = orderMapper.selectByUserIdAndIsDeleted(userId, isDeleted);
+ * orderItemLoader.attach(orderList);
+ * }
+ * </pre>
+ *
+ * 注意：必须在分页查询之后调用，否则 PageHelper 会把分页条件应用到订单项查询上。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class OrderItemLoader {
+
+    private final OrderItemMapper orderItemMapper;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderItemMapper 订单项数据访问对象
+     */
+    @Autowired
+    public OrderItemLoader(OrderItemMapper orderItemMapper) {
+        this.orderItemMapper = orderItemMapper;
+    }
+
+    /**
+     * 为订单列表批量填充订单项，没有订单项的订单填入空列表。
+     *
+     * @param orders 订单列表
+     * @return 传入的订单列表
+     */
+    public List<Order> attach(List<Order> orders) {
+        return attachHistory(orders, Collections.emptyList());
+    }
+
+    /**
+     * 为可能包含已归档订单的列表批量填充订单项。
+     * 只合并查询订单创建月份中已归档的月份，其余订单只查询在线表。
+     *
+     * @param orders         订单列表
+     * @param archivedMonths 已归档的月份（yyyyMM），见 {@link OrderArchiver#months()}
+     * @return 传入的订单列表
+     */
+    public List<Order> attachHistory(List<Order> orders, Collection<String> archivedMonths) {
+        if (orders == null || orders.isEmpty()) {
+            return orders;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        Set<String> months = new TreeSet<>();
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+            if (!archivedMonths.isEmpty() && order.getCreateTime() != null) {
+                String month = OrderArchiver.monthOf(order.getCreateTime());
+                if (archivedMonths.contains(month)) {
+                    months.add(month);
+                }
+            }
+        }
+        List<OrderItem> orderItems = months.isEmpty()
+                ? orderItemMapper.selectByOrderIds(orderIds)
+                : orderItemMapper.selectHistoryByOrderIds(orderIds, months);
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>(orders.size() * 2);
+        for (OrderItem orderItem : orderItems) {
+            itemsByOrderId.computeIfAbsent(orderItem.getOrderId(), k -> new ArrayList<>()).add(orderItem);
+        }
+        for (Order order : orders) {
+            order.setOrderItemList(itemsByOrderId.getOrDefault(order.getId(), new ArrayList<>()));
+        }
+        return orders;
+    }
+}
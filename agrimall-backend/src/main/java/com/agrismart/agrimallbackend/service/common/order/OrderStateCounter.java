@@ -0,0 +1,193 @@
+package com.agrismart.agrimallbackend.service.common.order;
+
+import com.agrismart.agrimallbackend.common.enums.OrderDeleteEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户订单状态计数缓存。
+ *
+ * 每个用户未删除订单的各状态数量缓存在 Redis Hash 中（order_state_count_{userId}，状态 -> 数量），
+ * 订单页的状态角标只需一次 HGETALL：
+ *
+ * - 缓存缺失时用一条 {@code GROUP BY state} 聚合查询重建，全部状态（包括数量为 0 的状态）一并写入
+ * - 订单创建、状态变更、用户删除或恢复订单时，在事务提交后用 Lua 脚本原子地调整计数；缓存不存在时不写入，等待下次读取时重建
+ * - 调整失败时删除缓存，由下次读取重建
+ * - 缓存设置过期时间，重建与并发调整交错造成的偏差最多保留到过期
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class OrderStateCounter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderStateCounter.class);
+
+    /**
+     * 订单状态计数 Redis Key 模板。
+     * 格式：order_state_count_{userId}
+     */
+    private static final String COUNT_KEY_TEMPLATE = "order_state_count_%d";
+
+    /**
+     * 调整脚本：缓存存在时把一个订单从原状态移到新状态。
+     * KEYS: 计数缓存
+     * ARGV: 原状态（空串表示新增订单）, 新状态（空串表示移除订单）
+     * 返回 1 表示已调整，0 表示缓存不存在
+     */
+    private static final RedisScript<Long> MOVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end\n"
+                    + "if ARGV[1] ~= '' then redis.call('hincrby', KEYS[1], ARGV[1], -1) end\n"
+                    + "if ARGV[2] ~= '' then redis.call('hincrby', KEYS[1], ARGV[2], 1) end\n"
+                    + "return 1", Long.class);
+
+    private final OrderMapper orderMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 计数缓存过期时间（秒）。
+     */
+    private final long ttl;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderMapper   订单数据访问对象
+     * @param redisTemplate Redis 模板
+     * @param ttl           计数缓存过期时间（秒）
+     */
+    @Autowired
+    public OrderStateCounter(OrderMapper orderMapper,
+                             StringRedisTemplate redisTemplate,
+                             @Value("${xqx.order.state-count-ttl:3600}") long ttl) {
+        this.orderMapper = orderMapper;
+        this.redisTemplate = redisTemplate;
+        this.ttl = Math.max(ttl, 1L);
+    }
+
+    /**
+     * 查询用户未删除订单的各状态数量。
+     *
+     * @param userId 用户ID
+     * @return 订单状态 -> 数量，按 {@link OrderStateEnum} 顺序包含全部状态
+     */
+    public Map<Integer, Integer> counts(Long userId) {
+        String key = String.format(COUNT_KEY_TEMPLATE, userId);
+        Map<Object, Object> cached = Collections.emptyMap();
+        try {
+            cached = redisTemplate.opsForHash().entries(key);
+        } catch (RuntimeException e) {
+            LOGGER.warn("订单状态计数缓存读取失败，直接查询数据库，userId={}", userId, e);
+        }
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        if (!cached.isEmpty()) {
+            for (OrderStateEnum orderStateEnum : OrderStateEnum.values()) {
+                Object value = cached.get(orderStateEnum.getCode().toString());
+                counts.put(orderStateEnum.getCode(), value == null ? 0 : Math.max(Integer.parseInt(value.toString()), 0));
+            }
+            return counts;
+        }
+        Map<Integer, Integer> loaded = new HashMap<>();
+        for (Map<String, Object> row : orderMapper.countStateByUserIdAndIsDeleted(userId, OrderDeleteEnum.NO.getCode())) {
+            loaded.put(((Number) row.get("state")).intValue(), ((Number) row.get("orderCount")).intValue());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (OrderStateEnum orderStateEnum : OrderStateEnum.values()) {
+            int count = loaded.getOrDefault(orderStateEnum.getCode(), 0);
+            counts.put(orderStateEnum.getCode(), count);
+            fields.put(orderStateEnum.getCode().toString(), String.valueOf(count));
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.hMSet(key, fields);
+                stringConnection.expire(key, ttl);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("订单状态计数缓存写入失败，userId={}", userId, e);
+        }
+        return counts;
+    }
+
+    /**
+     * 把一个订单从原状态移到新状态，在事务中调用时延迟到事务提交后执行。
+     *
+     * @param userId    用户ID
+     * @param fromState 原状态，null 表示新增订单（或恢复已删除的订单）
+     * @param toState   新状态，null 表示移除订单（用户删除或管理员删除）
+     */
+    public void move(Long userId, Integer fromState, Integer toState) {
+        if (userId == null || (fromState == null && toState == null)
+                || (fromState != null && fromState.equals(toState))) {
+            return;
+        }
+        afterCommit(() -> {
+            String key = String.format(COUNT_KEY_TEMPLATE, userId);
+            try {
+                redisTemplate.execute(MOVE_SCRIPT, Collections.singletonList(key),
+                        fromState == null ? "" : fromState.toString(), toState == null ? "" : toState.toString());
+            } catch (RuntimeException e) {
+                LOGGER.warn("订单状态计数调整失败，删除缓存，userId={}", userId, e);
+                evictQuietly(Collections.singletonList(key));
+            }
+        });
+    }
+
+    /**
+     * 删除多个用户的计数缓存（一次 DEL），用于批量创建订单等不便逐个调整的场景。
+     * 在事务中调用时延迟到事务提交后执行。
+     *
+     * @param userIds 用户ID
+     */
+    public void evict(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = userIds.stream().distinct().map(userId -> String.format(COUNT_KEY_TEMPLATE, userId)).toList();
+        afterCommit(() -> evictQuietly(keys));
+    }
+
+    private void evictQuietly(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            // 缓存最多保留到过期
+            LOGGER.error("订单状态计数缓存删除失败，keys={}", keys, e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,346 @@
+package com.agrismart.agrimallbackend.service.common.order;
+
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.common.util.TimingWheel;
+import com.agrismart.agrimallbackend.entity.common.Order;
+import com.agrismart.agrimallbackend.entity.home.SeckillOrder;
+import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
+import com.agrismart.agrimallbackend.mapper.home.SeckillOrderMapper;
+import com.agrismart.agrimallbackend.service.home.seckill.SeckillQuota;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 未支付订单超时取消调度器。
+ *
+ * 订单创建后超过 pay-timeout 仍未提交（未支付）时自动取消，两级调度：
+ *
+ * - Redis ZSet order_timeout：订单ID -> 到期时间（毫秒），订单事务提交后用一条 ZADD 写入，节点重启后不丢失
+ * - 本地 {@link TimingWheel}：轮询节点每隔 poll-interval 把一圈（刻度 × 槽数）内到期的订单分批载入时间轮，
+ *   到期后同一刻度的订单合并为一个事务批量取消
+ * - 数据库兜底：每隔 sweep-interval 按 (state, create_time) 索引查找早已到期仍未支付的订单（例如 ZADD 失败、Redis 数据丢失、
+ *   本功能上线前创建的订单），直接批量取消
+ *
+ * 多个节点通过 Redis 租约（order_timeout_leader）选出一个节点负责轮询和兜底。
+ * 取消语句以 state = 未支付 为条件，用户同时提交订单时只有一方生效，重复取消是空操作。
+ *
+ * 未支付订单尚未扣减或预占库存（提交订单时才扣减），取消时不需要归还商品库存。
+ * 秒杀订单在取消事务中按秒杀订单标记查出所属活动，事务提交后归还用户抢到的名额，用户可以重新秒杀。
+ *
+ * @author agrimall
+ * @see TimingWheel
+ * @see SeckillQuota
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class OrderTimeoutScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderTimeoutScheduler.class);
+
+    /**
+     * 订单到期时间 Redis Key（ZSet，订单ID -> 到期时间）。
+     */
+    private static final String TIMEOUT_KEY = "order_timeout";
+
+    /**
+     * 轮询节点租约 Redis Key。
+     */
+    private static final String LEADER_KEY = "order_timeout_leader";
+
+    /**
+     * 租约脚本：租约空闲时占用，属于本节点时续期。
+     * KEYS: 租约 Key
+     * ARGV: 节点标识, 过期时间（毫秒）
+     * 返回 1 表示本节点持有租约
+     */
+    private static final RedisScript<Long> LEADER_SCRIPT = new DefaultRedisScript<>(
+            "local owner = redis.call('get', KEYS[1])\n"
+                    + "if not owner then redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end\n"
+                    + "if owner == ARGV[1] then redis.call('pexpire', KEYS[1], ARGV[2]) return 1 end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 本节点标识。
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final OrderMapper orderMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final OrderStateCounter orderStateCounter;
+
+    /**
+     * 秒杀订单标记数据访问对象，取消时查出秒杀订单所属活动。
+     */
+    private final SeckillOrderMapper seckillOrderMapper;
+
+    /**
+     * 秒杀名额服务，秒杀订单取消后归还名额。
+     */
+    private final SeckillQuota seckillQuota;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 订单未支付超时时间（毫秒）。
+     */
+    private final long payTimeout;
+
+    /**
+     * 轮询间隔（毫秒），租约过期时间为其 3 倍。
+     */
+    private final long pollInterval;
+
+    /**
+     * 每批载入或取消的订单数。
+     */
+    private final int batchSize;
+
+    private final TimingWheel<Long> wheel;
+
+    /**
+     * 已载入时间轮、尚未处理的订单ID，避免重复载入。
+     */
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderMapper        订单数据访问对象
+     * @param redisTemplate      Redis 模板
+     * @param orderStateCounter  用户订单状态计数缓存
+     * @param seckillOrderMapper 秒杀订单标记数据访问对象
+     * @param seckillQuota       秒杀名额服务
+     * @param transactionManager 事务管理器
+     * @param payTimeout         订单未支付超时时间（秒）
+     * @param tick               时间轮刻度（毫秒）
+     * @param wheelSize          时间轮槽数
+     * @param pollInterval       轮询间隔（毫秒）
+     * @param batchSize          每批载入或取消的订单数
+     */
+    @Autowired
+    public OrderTimeoutScheduler(OrderMapper orderMapper,
+                                 StringRedisTemplate redisTemplate,
+                                 OrderStateCounter orderStateCounter,
+                                 SeckillOrderMapper seckillOrderMapper,
+                                 SeckillQuota seckillQuota,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${xqx.order.pay-timeout:1800}") long payTimeout,
+                                 @Value("${xqx.order.timeout-tick:1000}") long tick,
+                                 @Value("${xqx.order.timeout-wheel-size:512}") int wheelSize,
+                                 @Value("${xqx.order.timeout-poll-interval:5000}") long pollInterval,
+                                 @Value("${xqx.order.timeout-batch-size:500}") int batchSize) {
+        this.orderMapper = orderMapper;
+        this.redisTemplate = redisTemplate;
+        this.orderStateCounter = orderStateCounter;
+        this.seckillOrderMapper = seckillOrderMapper;
+        this.seckillQuota = seckillQuota;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.payTimeout = Math.max(payTimeout, 1L) * 1000L;
+        this.pollInterval = Math.max(pollInterval, 100L);
+        this.batchSize = Math.max(batchSize, 1);
+        this.wheel = new TimingWheel<>("order-timeout", tick, wheelSize, this::expire);
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        wheel.stop();
+    }
+
+    /**
+     * 登记新创建的未支付订单（一条 ZADD），在事务中调用时延迟到事务提交后执行。
+     * 写入失败时只记录日志，由数据库兜底扫描取消。
+     *
+     * @param orderIds 订单ID
+     */
+    public void schedule(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(orderIds);
+        Runnable action = () -> {
+            double deadline = System.currentTimeMillis() + payTimeout;
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(ids.size() * 2);
+            for (Long orderId : ids) {
+                tuples.add(ZSetOperations.TypedTuple.of(String.valueOf(orderId), deadline));
+            }
+            try {
+                redisTemplate.opsForZSet().add(TIMEOUT_KEY, tuples);
+            } catch (RuntimeException e) {
+                LOGGER.warn("订单超时登记失败，由兜底扫描取消，orderIds={}", ids, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 把一圈之内到期的订单分批载入时间轮。
+     */
+    @Scheduled(fixedDelayString = "${xqx.order.timeout-poll-interval:5000}")
+    public void poll() {
+        try {
+            if (!lead()) {
+                return;
+            }
+            double upper = System.currentTimeMillis() + wheel.horizon();
+            long offset = 0;
+            while (true) {
+                Set<ZSetOperations.TypedTuple<String>> due = redisTemplate.opsForZSet()
+                        .rangeByScoreWithScores(TIMEOUT_KEY, 0, upper, offset, batchSize);
+                if (due == null || due.isEmpty()) {
+                    return;
+                }
+                for (ZSetOperations.TypedTuple<String> tuple : due) {
+                    Long orderId = Long.valueOf(tuple.getValue());
+                    if (loaded.add(orderId)) {
+                        wheel.schedule(orderId, tuple.getScore().longValue());
+                    }
+                }
+                if (due.size() < batchSize) {
+                    return;
+                }
+                offset += due.size();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("订单超时轮询失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 兜底扫描：批量取消早已到期仍未支付的订单。
+     */
+    @Scheduled(initialDelayString = "${xqx.order.timeout-sweep-interval:600000}",
+            fixedDelayString = "${xqx.order.timeout-sweep-interval:600000}")
+    public void sweep() {
+        try {
+            if (!lead()) {
+                return;
+            }
+            // 留出一个轮询周期，避免与时间轮重复处理刚到期的订单
+            Date before = new Date(System.currentTimeMillis() - payTimeout - pollInterval);
+            List<Long> orderIds;
+            do {
+                orderIds = orderMapper.selectIdsByStateAndCreateTimeBefore(OrderStateEnum.NO_PAY.getCode(), before, batchSize);
+                if (!orderIds.isEmpty() && cancel(orderIds) < 0) {
+                    return;
+                }
+            } while (orderIds.size() == batchSize);
+        } catch (RuntimeException e) {
+            LOGGER.error("未支付订单兜底扫描失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 时间轮到期回调，在时间轮线程中分批取消。
+     */
+    private void expire(List<Long> orderIds) {
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<Long> batch = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            cancel(batch);
+            // 取消失败的订单仍在 ZSet 中，下次轮询重新载入
+            loaded.removeAll(batch);
+        }
+    }
+
+    /**
+     * 在一个事务中取消仍未支付的订单，提交后从 ZSet 中删除全部订单、清除相关用户的状态计数并归还秒杀名额。
+     *
+     * @param orderIds 订单ID
+     * @return 取消的订单数，失败时返回 -1
+     */
+    private int cancel(List<Long> orderIds) {
+        List<Order> canceled;
+        List<SeckillOrder> seckillOrders = new ArrayList<>();
+        try {
+            canceled = transactionTemplate.execute(status -> {
+                seckillOrders.clear();
+                List<Order> orders = orderMapper.selectByIdsAndStateForUpdate(orderIds, OrderStateEnum.NO_PAY.getCode());
+                if (!orders.isEmpty()) {
+                    List<Long> ids = new ArrayList<>(orders.size());
+                    for (Order order : orders) {
+                        ids.add(order.getId());
+                    }
+                    orderMapper.updateStateByIdsAndState(ids, OrderStateEnum.NO_PAY.getCode(), OrderStateEnum.CANCELED.getCode());
+                    seckillOrders.addAll(seckillOrderMapper.selectByOrderIds(ids));
+                }
+                return orders;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("未支付订单批量取消失败，订单数={}", orderIds.size(), e);
+            return -1;
+        }
+        if (canceled == null) {
+            canceled = Collections.emptyList();
+        }
+        List<Long> userIds = new ArrayList<>(canceled.size());
+        for (Order order : canceled) {
+            userIds.add(order.getUserId());
+        }
+        orderStateCounter.evict(userIds);
+        // 订单已取消，名额归还失败时只记录日志
+        for (SeckillOrder seckillOrder : seckillOrders) {
+            seckillQuota.restore(seckillOrder.getSeckillId(), seckillOrder.getUserId());
+        }
+        try {
+            redisTemplate.opsForZSet().remove(TIMEOUT_KEY, orderIds.stream().map(String::valueOf).toArray());
+        } catch (RuntimeException e) {
+            // 留在 ZSet 中的订单再次到期时是空操作
+            LOGGER.warn("订单超时记录删除失败，订单数={}", orderIds.size(), e);
+        }
+        if (!canceled.isEmpty()) {
+            LOGGER.info("已取消超时未支付订单 {} 个", canceled.size());
+        }
+        return canceled.size();
+    }
+
+    /**
+     * 占用或续期轮询节点租约。
+     *
+     * @return true 表示本节点负责轮询
+     */
+    private boolean lead() {
+        Long result = redisTemplate.execute(LEADER_SCRIPT, Collections.singletonList(LEADER_KEY),
+                nodeId, String.valueOf(pollInterval * 3));
+        return result != null && result == 1;
+    }
+}
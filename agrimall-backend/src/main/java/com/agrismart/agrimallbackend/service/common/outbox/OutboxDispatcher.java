@@ -0,0 +1,342 @@
+package com.agrismart.agrimallbackend.service.common.outbox;
+
+import com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum;
+import com.agrismart.agrimallbackend.common.util.MailUtil;
+import com.agrismart.agrimallbackend.entity.common.Outbox;
+import com.agrismart.agrimallbackend.mapper.common.OutboxMapper;
+import com.agrismart.agrimallbackend.service.common.stock.StockLedgerRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事务发件箱投递器。
+ *
+ * 按ID顺序批量取出已到执行时间的事件并执行：
+ *
+ * - 移出购物车事件合并为一次 Redis 管道往返
+ * - 升级前的订单库存标记事件直接写为库存流水（一次查询订单项、一条批量插入），不再创建没有过期时间的 Redis 标记
+ * - 邮件事件只在锁内认领（用一条 UPDATE 把下次执行时间推后 5 分钟），释放锁后交给邮件线程池逐个发送，
+ *   SMTP 耗时不会占用投递锁，单个失败不影响其他事件
+ * - 执行成功的事件用一条 DELETE 批量删除
+ * - 执行失败的事件按 2 的幂次退避（最长 300 秒）重试，超过 max-retries 后标记为需人工处理
+ *
+ * 事务提交后由 {@link OutboxPublisher} 触发 {@link #dispatchAsync()} 立即投递，定时轮询用于补漏和重试。
+ * 多个节点之间通过 Redis 锁保证同一时刻只有一个节点投递，锁的值为本次投递的随机令牌，只有持有者才能释放。
+ * 事件至少执行一次：移出购物车可重复执行，重复的库存流水被忽略；已认领的邮件在节点宕机或邮件线程池已满时，认领到期后重新投递。
+ *
+ * @author agrimall
+ * @see OutboxPublisher
+ * @since 1.0
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    /**
+     * 投递锁 Redis Key。
+     */
+    private static final String DISPATCH_LOCK_KEY = "outbox_dispatch_lock";
+
+    /**
+     * 投递锁过期时间，单次投递超过该时间的一半时停止取下一批。
+     */
+    private static final Duration DISPATCH_LOCK_TTL = Duration.ofSeconds(60);
+
+    /**
+     * 邮件事件认领时长，认领期间其他投递不会再次取出该事件。
+     */
+    private static final Duration MAIL_CLAIM_TTL = Duration.ofMinutes(5);
+
+    /**
+     * 释放脚本：锁仍属于本次投递时删除。
+     * KEYS: 锁 Key
+     * ARGV: 令牌
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 购物车 Redis Key 模板，与 OrderServiceImpl 一致。
+     */
+    private static final String CART_REDIS_KEY_TEMPLATE = "cart_%d";
+
+    /**
+     * 最长重试间隔（秒）。
+     */
+    private static final long MAX_BACKOFF_SECONDS = 300L;
+
+    private final OutboxMapper outboxMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MailUtil mailUtil;
+
+    private final StockLedgerRecorder stockLedgerRecorder;
+
+    /**
+     * 邮件任务执行器，在投递锁之外发送已认领的邮件事件。
+     */
+    private final Executor mailTaskExecutor;
+
+    /**
+     * 每次最多取出的事件数。
+     */
+    private final int batchSize;
+
+    /**
+     * 单个事件最多重试次数。
+     */
+    private final int maxRetries;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param outboxMapper        事务发件箱数据访问对象
+     * @param redisTemplate       Redis 模板
+     * @param mailUtil            邮件工具类
+     * @param stockLedgerRecorder 库存流水记录器
+     * @param mailTaskExecutor    邮件任务执行器
+     * @param batchSize           每次最多取出的事件数
+     * @param maxRetries          单个事件最多重试次数
+     */
+    @Autowired
+    public OutboxDispatcher(OutboxMapper outboxMapper,
+                            StringRedisTemplate redisTemplate,
+                            MailUtil mailUtil,
+                            StockLedgerRecorder stockLedgerRecorder,
+                            @Qualifier("mailTaskExecutor") Executor mailTaskExecutor,
+                            @Value("${xqx.outbox.batch-size:100}") int batchSize,
+                            @Value("${xqx.outbox.max-retries:10}") int maxRetries) {
+        this.outboxMapper = outboxMapper;
+        this.redisTemplate = redisTemplate;
+        this.mailUtil = mailUtil;
+        this.stockLedgerRecorder = stockLedgerRecorder;
+        this.mailTaskExecutor = mailTaskExecutor;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxRetries = Math.max(maxRetries, 0);
+    }
+
+    /**
+     * 事务提交后异步投递。投递线程忙时最多排队一次，多余的触发直接丢弃。
+     */
+    @Async("outboxTaskExecutor")
+    public void dispatchAsync() {
+        dispatch();
+    }
+
+    /**
+     * 定时投递，补上异步触发被丢弃或节点宕机遗漏的事件，并执行到期的重试。
+     */
+    @Scheduled(initialDelayString = "${xqx.outbox.poll-interval:1000}",
+            fixedDelayString = "${xqx.outbox.poll-interval:1000}")
+    public void poll() {
+        dispatch();
+    }
+
+    /**
+     * 取出并执行全部到期事件，其他节点正在投递时直接返回。
+     * 认领的邮件事件在释放投递锁之后交给邮件线程池发送。
+     */
+    public void dispatch() {
+        List<Outbox> mails = new ArrayList<>();
+        try {
+            String token = UUID.randomUUID().toString();
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(DISPATCH_LOCK_KEY, token, DISPATCH_LOCK_TTL))) {
+                return;
+            }
+            long deadline = System.currentTimeMillis() + DISPATCH_LOCK_TTL.toMillis() / 2;
+            try {
+                List<Outbox> events;
+                do {
+                    events = outboxMapper.selectDue(batchSize);
+                    if (!events.isEmpty()) {
+                        execute(events, mails);
+                    }
+                } while (events.size() == batchSize && System.currentTimeMillis() < deadline);
+            } finally {
+                // 投递超过锁过期时间时锁可能已被其他节点获得，只删除本次投递的锁
+                redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(DISPATCH_LOCK_KEY), token);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("事务发件箱投递失败，下次重试", e);
+        }
+        if (!mails.isEmpty()) {
+            try {
+                mailTaskExecutor.execute(() -> deliverMails(mails));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("邮件线程池已满，{} 个邮件事件在认领到期后重新投递", mails.size());
+            }
+        }
+    }
+
+    /**
+     * 执行一批事件，删除成功的事件并记录失败事件的重试时间；邮件事件认领后放入 mails，由调用方在锁外发送。
+     */
+    private void execute(List<Outbox> events, List<Outbox> mails) {
+        List<Outbox> redisEvents = new ArrayList<>();
+        List<Outbox> stockFlagEvents = new ArrayList<>();
+        List<Outbox> mailEvents = new ArrayList<>();
+        List<Long> succeeded = new ArrayList<>(events.size());
+        List<Outbox> failed = new ArrayList<>();
+        for (Outbox event : events) {
+            OutboxEventTypeEnum type = OutboxEventTypeEnum.fromCode(event.getEventType());
+            if (type == null) {
+                LOGGER.error("未知的事务发件箱事件类型，id={}，eventType={}", event.getId(), event.getEventType());
+                event.setRetryCount(maxRetries);
+                failed.add(event);
+            } else if (type == OutboxEventTypeEnum.MAIL) {
+                mailEvents.add(event);
+            } else if (type == OutboxEventTypeEnum.ORDER_STOCK_FLAG) {
+                stockFlagEvents.add(event);
+            } else {
+                redisEvents.add(event);
+            }
+        }
+        if (!mailEvents.isEmpty()) {
+            List<Long> ids = new ArrayList<>(mailEvents.size());
+            for (Outbox event : mailEvents) {
+                ids.add(event.getId());
+            }
+            try {
+                outboxMapper.updateNextRetryTimeByIds(ids, new Date(System.currentTimeMillis() + MAIL_CLAIM_TTL.toMillis()));
+                mails.addAll(mailEvents);
+            } catch (RuntimeException e) {
+                // 未认领的邮件事件保持原状态，下次投递再处理
+                LOGGER.warn("事务发件箱邮件事件认领失败，事件数={}", mailEvents.size(), e);
+            }
+        }
+        if (!stockFlagEvents.isEmpty()) {
+            List<Long> orderIds = new ArrayList<>(stockFlagEvents.size());
+            for (Outbox event : stockFlagEvents) {
+                orderIds.add(Long.valueOf(event.getBizKey()));
+            }
+            try {
+                stockLedgerRecorder.recordLegacyFlags(orderIds);
+                for (Outbox event : stockFlagEvents) {
+                    succeeded.add(event.getId());
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("事务发件箱库存标记事件执行失败，事件数={}", stockFlagEvents.size(), e);
+                failed.addAll(stockFlagEvents);
+            }
+        }
+        if (!redisEvents.isEmpty()) {
+            try {
+                executeRedis(redisEvents);
+                for (Outbox event : redisEvents) {
+                    succeeded.add(event.getId());
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("事务发件箱 Redis 事件执行失败，事件数={}", redisEvents.size(), e);
+                failed.addAll(redisEvents);
+            }
+        }
+        if (!succeeded.isEmpty()) {
+            outboxMapper.deleteByIds(succeeded);
+        }
+        for (Outbox event : failed) {
+            retryLater(event);
+        }
+    }
+
+    /**
+     * 在一次管道往返中执行全部移出购物车事件。
+     */
+    private void executeRedis(List<Outbox> events) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Outbox event : events) {
+                long bizKey = Long.parseLong(event.getBizKey());
+                if (event.getPayload() != null && !event.getPayload().isEmpty()) {
+                    stringConnection.hDel(String.format(CART_REDIS_KEY_TEMPLATE, bizKey), event.getPayload().split(","));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 在邮件线程池中逐个发送已认领的邮件事件，删除发送成功的事件并记录失败事件的重试时间。
+     */
+    private void deliverMails(List<Outbox> mails) {
+        List<Long> succeeded = new ArrayList<>(mails.size());
+        for (Outbox event : mails) {
+            if (sendMail(event)) {
+                succeeded.add(event.getId());
+            } else {
+                retryLater(event);
+            }
+        }
+        if (succeeded.isEmpty()) {
+            return;
+        }
+        try {
+            outboxMapper.deleteByIds(succeeded);
+        } catch (RuntimeException e) {
+            // 认领到期后会再次发送
+            LOGGER.error("事务发件箱邮件事件删除失败，事件数={}", succeeded.size(), e);
+        }
+    }
+
+    /**
+     * 发送邮件事件，payload 格式：邮件模板编码:附加内容。
+     *
+     * @return true 表示发送成功
+     */
+    private boolean sendMail(Outbox event) {
+        String[] payload = event.getPayload().split(":", 2);
+        try {
+            mailUtil.deliverMail(Integer.valueOf(payload[0]), event.getBizKey(), payload.length > 1 ? payload[1] : "");
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.warn("事务发件箱邮件发送失败，id={}，第 {} 次重试", event.getId(), event.getRetryCount() + 1, e);
+            return false;
+        }
+    }
+
+    /**
+     * 增加事件的重试次数并按退避时间推迟执行，超过最多重试次数时标记为需人工处理。
+     */
+    private void retryLater(Outbox event) {
+        int retryCount = event.getRetryCount() + 1;
+        long backoff = Math.min(1L << Math.min(retryCount, 30), MAX_BACKOFF_SECONDS);
+        Outbox record = new Outbox();
+        record.setId(event.getId());
+        record.setRetryCount(retryCount);
+        record.setNextRetryTime(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(backoff)));
+        record.setState(retryCount > maxRetries ? 1 : 0);
+        if (record.getState() == 1) {
+            LOGGER.error("事务发件箱事件重试次数用尽，需人工处理，id={}，eventType={}，bizKey={}",
+                    event.getId(), event.getEventType(), event.getBizKey());
+        }
+        try {
+            outboxMapper.updateRetry(record);
+        } catch (RuntimeException e) {
+            // 事件保持原状态，下次投递会再次执行
+            LOGGER.error("事务发件箱事件重试时间更新失败，id={}", event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.agrismart.agrimallbackend.service.common.outbox;
+
+import com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum;
+import com.agrismart.agrimallbackend.entity.common.Outbox;
+import com.agrismart.agrimallbackend.mapper.common.OutboxMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 事务发件箱事件发布器。
+ *
+ * 业务事务中需要在提交后执行的副作用（清理购物车、发送邮件）不再直接执行，
+ * 而是通过 {@link #publish(List)} 用一条批量插入语句写入 {@code mall_outbox}，与业务数据同时提交或回滚：
+ *
+ * - 事务回滚时事件一并回滚，不会多清理购物车或多发邮件
+ * - 事务提交后触发一次异步投递，Redis 或邮件服务暂时不可用时由 {@link OutboxDispatcher} 按退避时间重试
+ * - 事务内只多一条 INSERT，不再在持有行锁期间访问 Redis
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * outboxPublisher.publish(Arrays.asList(
+ *         OutboxPublisher.cartRemove(userId, productIds),
+ *         OutboxPublisher.mail(MailTypeEnum.ORDER_SUBMIT.getCode(), email, orderNo)));
+ * }
+ * </pre>
+ *
+ * @author agrimall
+ * @see OutboxDispatcher
+ * @see com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum
+ * @since 1.0
+ */
+@Component
+public class OutboxPublisher {
+
+    private final OutboxMapper outboxMapper;
+
+    private final OutboxDispatcher outboxDispatcher;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param outboxMapper     事务发件箱数据访问对象
+     * @param outboxDispatcher 事务发件箱投递器
+     */
+    @Autowired
+    public OutboxPublisher(OutboxMapper outboxMapper, OutboxDispatcher outboxDispatcher) {
+        this.outboxMapper = outboxMapper;
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    /**
+     * 构造“移出购物车”事件。
+     *
+     * @param userId     用户ID
+     * @param productIds 商品ID
+     * @return 事件
+     */
+    public static Outbox cartRemove(Long userId, Collection<Long> productIds) {
+        StringJoiner payload = new StringJoiner(",");
+        for (Long productId : productIds) {
+            payload.add(String.valueOf(productId));
+        }
+        return new Outbox(OutboxEventTypeEnum.CART_REMOVE.getCode(), String.valueOf(userId), payload.toString());
+    }
+
+    /**
+     * 构造“发送邮件”事件。
+     *
+     * @param code    邮件模板编码，对应 {@link com.agrismart.agrimallbackend.common.enums.MailTypeEnum} 中的值
+     * @param to      收件人邮箱地址
+     * @param context 附加内容
+     * @return 事件
+     */
+    public static Outbox mail(Integer code, String to, String context) {
+        return new Outbox(OutboxEventTypeEnum.MAIL.getCode(), to, code + ":" + (context == null ? "" : context));
+    }
+
+    /**
+     * 发布单个事件。
+     *
+     * @param event 事件
+     */
+    public void publish(Outbox event) {
+        publish(Collections.singletonList(event));
+    }
+
+    /**
+     * 在当前事务中写入事件（一条批量插入语句），事务提交后触发异步投递。
+     * 不在事务中调用时写入后立即触发投递。
+     *
+     * @param events 事件列表
+     */
+    public void publish(List<Outbox> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxMapper.batchInsert(events);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxDispatcher.dispatchAsync();
+            return;
+        }
+        // 同一事务多次发布时只在提交后触发一次投递
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.dispatchAsync();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxPublisher.this);
+            }
+        });
+    }
+}
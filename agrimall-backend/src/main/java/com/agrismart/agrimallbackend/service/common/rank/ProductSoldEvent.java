@@ -0,0 +1,29 @@
+package com.agrismart.agrimallbackend.service.common.rank;
+
+import java.util.Map;
+
+/**
+ * 商品售出事件。
+ *
+ * 订单扣减库存、累加销量后由 {@link com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl} 发布，
+ * 在事务提交后由 {@link SalesLeaderboard} 累加到 Redis 销量排行榜。
+ *
+ * @author agrimall
+ * @see SalesLeaderboard
+ * @since 1.0
+ */
+public class ProductSoldEvent {
+
+    /**
+     * 商品ID -> 本次售出数量。
+     */
+    private final Map<Long, Integer> quantities;
+
+    public ProductSoldEvent(Map<Long, Integer> quantities) {
+        this.quantities = quantities;
+    }
+
+    public Map<Long, Integer> getQuantities() {
+        return quantities;
+    }
+}
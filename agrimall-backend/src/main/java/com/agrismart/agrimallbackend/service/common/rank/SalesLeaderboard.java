@@ -0,0 +1,434 @@
+package com.agrismart.agrimallbackend.service.common.rank;
+
+import com.agrismart.agrimallbackend.common.enums.SalesRankWindowEnum;
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
+import com.agrismart.agrimallbackend.service.common.stock.StockReservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.CollectionUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 商品销量排行榜（Redis 有序集合）。
+ *
+ * 热销排行不再对商品表执行 {@code order by sell_num desc}，而是读取 Redis 中维护的有序集合，
+ * 取前 N 名的复杂度为 O(log n + N)：
+ *
+ * - 全部时间：sales_rank_all，成员为商品ID，分数为累计销量；定时按商品表的 sell_num 全量重建纠偏
+ * - 按小时分桶：sales_rank_h_{yyyyMMddHH}，保留 25 小时后自动过期
+ * - 按天分桶：sales_rank_d_{yyyyMMdd}，保留 8 天后自动过期
+ * - 最近 24 小时 / 7 天：用 ZUNIONSTORE 合并最近 24 个小时桶 / 7 个天桶，结果缓存
+ *   {@code xqx.rank.window-cache-ttl} 秒（默认 60 秒）
+ *
+ * 订单扣减库存的事务提交后，通过 {@link ProductSoldEvent} 用一个 Lua 脚本累加三个有序集合。
+ * 时间窗口内上榜商品不足 N 个时用全部时间的排行补齐。
+ *
+ * 全部时间排行重建时，先用一个脚本获取重建锁并清空上次残留的临时排行和增量，从此之后累加的销量
+ * 同时记入 sales_rank_all_delta，然后才读取商品表的 sell_num；重建完成时临时排行与增量相加后覆盖正式排行，
+ * 并在同一个脚本中按持有者释放重建锁，因此重建期间的销量不会丢失。
+ *
+ * 预占模式下商品表的 sell_num 要等已售库存同步后才增加：重建期间暂停同步，并在获取重建锁的同一个脚本中
+ * 读取尚未同步的扣减量计入临时排行，锁之前提交的销量只计入临时排行，之后提交的只计入增量。
+ * 仍有两个极短的窗口由下一次重建纠正：直接扣减模式下，获取锁之后、读取商品表之前提交的订单会重复计一次；
+ * 预占模式下，销量事件与预占转为待同步分别在事务提交后的两个回调中执行，跨过获取锁的订单会少计一次。
+ *
+ * Redis 不可用或排行榜尚未构建时返回 null，调用方退回数据库查询。
+ *
+ * @author agrimall
+ * @see ProductSoldEvent
+ * @see SalesRankWindowEnum
+ * @since 1.0
+ */
+@Component
+public class SalesLeaderboard {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesLeaderboard.class);
+
+    /**
+     * 全部时间排行 Redis Key。
+     */
+    private static final String ALL_KEY = "sales_rank_all";
+
+    /**
+     * 重建全部时间排行时使用的临时 Key，写完后与重建增量相加覆盖正式排行。
+     */
+    private static final String ALL_REBUILD_KEY = "sales_rank_all_rebuild";
+
+    /**
+     * 小时桶 Redis Key 模板。
+     * 格式：sales_rank_h_{yyyyMMddHH}
+     */
+    private static final String HOUR_KEY_TEMPLATE = "sales_rank_h_%s";
+
+    /**
+     * 天桶 Redis Key 模板。
+     * 格式：sales_rank_d_{yyyyMMdd}
+     */
+    private static final String DAY_KEY_TEMPLATE = "sales_rank_d_%s";
+
+    /**
+     * 时间窗口合并结果 Redis Key 模板。
+     * 格式：sales_rank_w_{window}
+     */
+    private static final String WINDOW_KEY_TEMPLATE = "sales_rank_w_%s";
+
+    /**
+     * 重建期间累加的销量，重建完成时合并进全部时间排行。
+     */
+    private static final String ALL_DELTA_KEY = "sales_rank_all_delta";
+
+    /**
+     * 全量重建锁 Redis Key，值为本次重建的令牌，持有期间其他节点不再重建，同时标识重建正在进行。
+     */
+    private static final String REBUILD_LOCK_KEY = "sales_rank_rebuild_lock";
+
+    /**
+     * 累加脚本：累加全部时间、小时桶、天桶三个排行，重建进行中时同时记入重建增量，并刷新分桶过期时间。
+     * KEYS: 全部时间排行, 小时桶, 天桶, 重建锁, 重建增量
+     * ARGV: 小时桶过期时间（秒）, 天桶过期时间（秒）, 之后每两个一组（商品ID, 销量）
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local rebuilding = redis.call('exists', KEYS[4]) == 1\n"
+                    + "for i = 3, #ARGV, 2 do\n"
+                    + "  redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i])\n"
+                    + "  redis.call('zincrby', KEYS[2], ARGV[i + 1], ARGV[i])\n"
+                    + "  redis.call('zincrby', KEYS[3], ARGV[i + 1], ARGV[i])\n"
+                    + "  if rebuilding then redis.call('zincrby', KEYS[5], ARGV[i + 1], ARGV[i]) end\n"
+                    + "end\n"
+                    + "redis.call('expire', KEYS[2], ARGV[1])\n"
+                    + "redis.call('expire', KEYS[3], ARGV[2])\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 重建开始脚本：获取重建锁，清空上次残留的临时排行和增量，并读取尚未同步到商品表的扣减量。
+     * KEYS: 重建锁, 临时排行, 重建增量, 之后为尚未同步的扣减量（Hash，商品ID -> 数量）
+     * ARGV: 本次重建的令牌, 锁过期时间（毫秒）
+     * 返回 nil 表示锁已被持有，否则为平铺的（商品ID, 数量）列表
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> START_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return false end\n"
+                    + "redis.call('del', KEYS[2], KEYS[3])\n"
+                    + "local result = {}\n"
+                    + "for i = 4, #KEYS do\n"
+                    + "  local entries = redis.call('hgetall', KEYS[i])\n"
+                    + "  for j = 1, #entries do result[#result + 1] = entries[j] end\n"
+                    + "end\n"
+                    + "return result", List.class);
+
+    /**
+     * 重建完成脚本：重建锁仍属于本次重建时，把临时排行与重建增量相加后覆盖全部时间排行，然后释放锁。
+     * KEYS: 全部时间排行, 临时排行, 重建增量, 重建锁
+     * ARGV: 本次重建的令牌
+     * 返回 1 表示已覆盖，0 表示锁已过期或被其他节点持有
+     */
+    private static final RedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[4]) ~= ARGV[1] then return 0 end\n"
+                    + "redis.call('zunionstore', KEYS[1], 2, KEYS[2], KEYS[3])\n"
+                    + "redis.call('del', KEYS[2], KEYS[3], KEYS[4])\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 释放脚本：重建锁仍属于本次重建时删除。
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end\n"
+                    + "return 0", Long.class);
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * 小时桶保留时间（秒），比 24 小时窗口多留 1 小时。
+     */
+    private static final long HOUR_BUCKET_TTL_SECONDS = TimeUnit.HOURS.toSeconds(25);
+
+    /**
+     * 天桶保留时间（秒），比 7 天窗口多留 1 天。
+     */
+    private static final long DAY_BUCKET_TTL_SECONDS = TimeUnit.DAYS.toSeconds(8);
+
+    /**
+     * 重建时每次 ZADD 的成员数。
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * Redis 模板。
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 商品数据访问对象。
+     * 用于按累计销量重建全部时间排行。
+     */
+    private final ProductMapper productMapper;
+
+    /**
+     * 库存预占服务。
+     * 预占模式下重建时暂停同步，并补上尚未同步到商品表的销量。
+     */
+    private final StockReservation stockReservation;
+
+    /**
+     * 时间窗口合并结果的缓存时间（秒）。
+     */
+    private final long windowCacheTtl;
+
+    /**
+     * 全量重建间隔（毫秒），同时作为重建锁的过期时间。
+     */
+    private final long rebuildInterval;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param redisTemplate    Redis 模板
+     * @param productMapper    商品数据访问对象
+     * @param stockReservation 库存预占服务
+     * @param windowCacheTtl   时间窗口合并结果的缓存时间（秒）
+     * @param rebuildInterval  全量重建间隔（毫秒）
+     */
+    @Autowired
+    public SalesLeaderboard(StringRedisTemplate redisTemplate,
+                            ProductMapper productMapper,
+                            StockReservation stockReservation,
+                            @Value("${xqx.rank.window-cache-ttl:60}") long windowCacheTtl,
+                            @Value("${xqx.rank.rebuild-interval:3600000}") long rebuildInterval) {
+        this.redisTemplate = redisTemplate;
+        this.productMapper = productMapper;
+        this.stockReservation = stockReservation;
+        this.windowCacheTtl = Math.max(windowCacheTtl, 1L);
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    /**
+     * 获取排行榜前 N 名的商品ID。
+     *
+     * @param window 时间窗口
+     * @param limit  数量
+     * @return 按销量降序的商品ID列表；Redis 不可用或排行榜为空时返回 null
+     */
+    public List<Long> top(SalesRankWindowEnum window, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        try {
+            ZSetOperations<String, String> opsForZSet = redisTemplate.opsForZSet();
+            Set<Long> ids = new LinkedHashSet<>(limit);
+            if (window != null && window != SalesRankWindowEnum.ALL) {
+                addIds(ids, opsForZSet.reverseRange(windowKey(window), 0, limit - 1), limit);
+            }
+            if (ids.size() < limit) {
+                // 时间窗口内上榜商品不足时，用全部时间的排行补齐（跳过已上榜的商品）
+                addIds(ids, opsForZSet.reverseRange(ALL_KEY, 0, limit - 1 + ids.size()), limit);
+            }
+            return ids.isEmpty() ? null : new ArrayList<>(ids);
+        } catch (RuntimeException e) {
+            LOGGER.warn("读取销量排行榜失败，window={}", window, e);
+            return null;
+        }
+    }
+
+    /**
+     * 订单事务提交后累加销量。
+     *
+     * @param event 商品售出事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductSold(ProductSoldEvent event) {
+        Map<Long, Integer> quantities = event.getQuantities();
+        if (CollectionUtils.isEmpty(quantities)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String hourKey = String.format(HOUR_KEY_TEMPLATE, now.format(HOUR_FORMAT));
+        String dayKey = String.format(DAY_KEY_TEMPLATE, now.format(DAY_FORMAT));
+        List<String> args = new ArrayList<>(quantities.size() * 2 + 2);
+        args.add(String.valueOf(HOUR_BUCKET_TTL_SECONDS));
+        args.add(String.valueOf(DAY_BUCKET_TTL_SECONDS));
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || entry.getValue() <= 0) {
+                continue;
+            }
+            args.add(String.valueOf(entry.getKey()));
+            args.add(String.valueOf(entry.getValue()));
+        }
+        if (args.size() == 2) {
+            return;
+        }
+        try {
+            redisTemplate.execute(INCREMENT_SCRIPT, Arrays.asList(ALL_KEY, hourKey, dayKey, REBUILD_LOCK_KEY, ALL_DELTA_KEY),
+                    args.toArray());
+        } catch (RuntimeException e) {
+            // 全部时间排行会在下次重建时纠正，时间窗口排行丢失这部分销量
+            LOGGER.warn("累加销量排行榜失败，quantities={}", quantities, e);
+        }
+    }
+
+    /**
+     * 从排行榜中移除商品（例如商品被删除）。
+     *
+     * @param productId 商品ID
+     */
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(ALL_KEY, String.valueOf(productId));
+        } catch (RuntimeException e) {
+            LOGGER.warn("从销量排行榜移除商品失败，productId={}", productId, e);
+        }
+    }
+
+    /**
+     * 按商品表的累计销量全量重建全部时间排行。
+     *
+     * 启动时执行一次，之后按 {@code xqx.rank.rebuild-interval} 配置的间隔（默认 1 小时）纠正
+     * 事件丢失、后台修改销量等带来的偏差。多节点部署时通过 Redis 锁保证同一时间只有一个节点重建，
+     * 锁在重建结束时按持有者释放，进程异常退出时在一个重建间隔后过期。
+     * 预占模式下同步正在进行时等待片刻，仍未结束则放弃本次重建。
+     */
+    @Scheduled(initialDelayString = "${xqx.rank.initial-delay:0}",
+            fixedDelayString = "${xqx.rank.rebuild-interval:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        String token = UUID.randomUUID().toString();
+        AtomicBoolean locked = new AtomicBoolean();
+        boolean finished = false;
+        try {
+            Map<Long, Long> unsynced = new HashMap<>();
+            List<Product> products = stockReservation.pauseSync(() -> {
+                List<String> keys = new ArrayList<>(Arrays.asList(REBUILD_LOCK_KEY, ALL_REBUILD_KEY, ALL_DELTA_KEY));
+                keys.addAll(stockReservation.unsyncedKeys());
+                // 获取锁的同时开始记录增量并读取未同步的销量；之前提交的销量在商品表或未同步的扣减量中
+                List<?> entries = redisTemplate.execute(START_SCRIPT, keys, token,
+                        String.valueOf(Math.max(rebuildInterval, 1000L)));
+                if (entries == null) {
+                    return null;
+                }
+                locked.set(true);
+                for (int i = 0; i + 1 < entries.size(); i += 2) {
+                    unsynced.merge(Long.valueOf(String.valueOf(entries.get(i))),
+                            Long.parseLong(String.valueOf(entries.get(i + 1))), Long::sum);
+                }
+                return productMapper.selectSellNumbers();
+            });
+            if (products == null) {
+                return;
+            }
+            Set<ZSetOperations.TypedTuple<String>> batch = new HashSet<>();
+            int count = 0;
+            for (Product product : products) {
+                long sellNum = (product.getSellNum() == null ? 0 : product.getSellNum())
+                        + unsynced.getOrDefault(product.getId(), 0L);
+                batch.add(new DefaultTypedTuple<>(String.valueOf(product.getId()), (double) sellNum));
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    redisTemplate.opsForZSet().add(ALL_REBUILD_KEY, batch);
+                    count += batch.size();
+                    batch = new HashSet<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                redisTemplate.opsForZSet().add(ALL_REBUILD_KEY, batch);
+                count += batch.size();
+            }
+            Long replaced = redisTemplate.execute(FINISH_SCRIPT,
+                    Arrays.asList(ALL_KEY, ALL_REBUILD_KEY, ALL_DELTA_KEY, REBUILD_LOCK_KEY), token);
+            finished = true;
+            if (replaced == null || replaced == 0) {
+                LOGGER.warn("销量排行榜重建锁已过期，放弃本次重建结果");
+                return;
+            }
+            LOGGER.info("销量排行榜重建完成，商品数={}，耗时={}ms", count, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOGGER.error("销量排行榜重建失败，继续使用旧排行榜", e);
+        } finally {
+            if (locked.get() && !finished) {
+                release(token);
+            }
+        }
+    }
+
+    /**
+     * 重建失败时按持有者释放重建锁，临时排行留到下次重建时清理。
+     */
+    private void release(String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(REBUILD_LOCK_KEY), token);
+        } catch (RuntimeException e) {
+            LOGGER.warn("销量排行榜重建锁释放失败，等待自动过期", e);
+        }
+    }
+
+    /**
+     * 获取时间窗口的合并结果 Key，结果不存在或已过期时重新合并。
+     */
+    private String windowKey(SalesRankWindowEnum window) {
+        String key = String.format(WINDOW_KEY_TEMPLATE, window.getCode());
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            return key;
+        }
+        List<String> buckets = bucketKeys(window, LocalDateTime.now());
+        redisTemplate.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), key);
+        redisTemplate.expire(key, windowCacheTtl, TimeUnit.SECONDS);
+        return key;
+    }
+
+    /**
+     * 列出时间窗口覆盖的分桶 Key（包含当前所在的桶）。
+     */
+    private static List<String> bucketKeys(SalesRankWindowEnum window, LocalDateTime now) {
+        List<String> keys = new ArrayList<>();
+        if (window == SalesRankWindowEnum.DAY) {
+            for (int i = 0; i < 24; i++) {
+                keys.add(String.format(HOUR_KEY_TEMPLATE, now.minusHours(i).format(HOUR_FORMAT)));
+            }
+        } else {
+            for (int i = 0; i < 7; i++) {
+                keys.add(String.format(DAY_KEY_TEMPLATE, now.minusDays(i).format(DAY_FORMAT)));
+            }
+        }
+        return keys;
+    }
+
+    private static void addIds(Set<Long> ids, Set<String> members, int limit) {
+        if (members == null) {
+            return;
+        }
+        for (String member : members) {
+            if (ids.size() >= limit) {
+                return;
+            }
+            ids.add(Long.valueOf(member));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.agrismart.agrimallbackend.service.common.stats;
+
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
+import com.agrismart.agrimallbackend.mapper.common.DashboardStatsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 后台仪表盘计数。
+ *
+ * 各实体总数和今日、本周、本月的订单数保存在一个 Redis Hash 中（dashboard_counter），
+ * 仪表盘只需一次 HGETALL，不再把整张表查询到内存中再取 size()：
+ *
+ * - 新增、删除实体的服务在事务提交后用 Lua 脚本原子地调整计数；Hash 不存在时不写入，等待下次读取时重建
+ * - 订单数按创建时间所在的日、周、月分别计数，字段名带日期（如 order_day_20240101），跨天后自然从 0 开始
+ * - 定时用一条 {@code COUNT(*)} 语句重新统计，写入临时 Key 后 RENAME 覆盖，同时清理过期的日期字段
+ * - 级联删除、调整失败以及重新统计期间发生的调整造成的偏差，最多保留到下次重新统计
+ *
+ * 周与 MySQL {@code YEARWEEK(date, 1)} 一致，从周一开始计算。
+ *
+ * @author agrimall
+ * @see DashboardCounterEnum
+ * @see DashboardStatsMapper
+ * @since 1.0
+ */
+@Component
+public class DashboardCounter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardCounter.class);
+
+    /**
+     * 仪表盘计数 Redis Key。
+     */
+    private static final String COUNTER_KEY = "dashboard_counter";
+
+    /**
+     * 按日、周、月计数的订单数字段前缀，后接日期。
+     */
+    private static final String ORDER_DAY_FIELD_PREFIX = "order_day_";
+
+    private static final String ORDER_WEEK_FIELD_PREFIX = "order_week_";
+
+    private static final String ORDER_MONTH_FIELD_PREFIX = "order_month_";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 调整脚本：Hash 存在时按字段累加。
+     * KEYS: 计数 Hash
+     * ARGV: 每三个一组（字段, 增量, 字段不存在时是否写入 1/0）
+     * 返回 1 表示已调整，0 表示 Hash 不存在
+     */
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end\n"
+                    + "for i = 1, #ARGV, 3 do\n"
+                    + "  if ARGV[i + 2] == '1' or redis.call('hexists', KEYS[1], ARGV[i]) == 1 then\n"
+                    + "    redis.call('hincrby', KEYS[1], ARGV[i], ARGV[i + 1])\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "return 1", Long.class);
+
+    private final DashboardStatsMapper dashboardStatsMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param dashboardStatsMapper 仪表盘统计数据访问对象
+     * @param redisTemplate        Redis 模板
+     */
+    @Autowired
+    public DashboardCounter(DashboardStatsMapper dashboardStatsMapper, StringRedisTemplate redisTemplate) {
+        this.dashboardStatsMapper = dashboardStatsMapper;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 查询仪表盘计数，缓存缺失时重新统计并写入。
+     *
+     * @return 各实体总数（字段名见 {@link DashboardCounterEnum}）以及 todayOrderCount、weekOrderCount、monthOrderCount
+     */
+    public Map<String, Long> counts() {
+        Map<Object, Object> cached = Collections.emptyMap();
+        try {
+            cached = redisTemplate.opsForHash().entries(COUNTER_KEY);
+        } catch (RuntimeException e) {
+            LOGGER.warn("仪表盘计数读取失败，直接查询数据库", e);
+        }
+        Map<String, String> fields = new HashMap<>();
+        if (cached.isEmpty()) {
+            fields = rebuild();
+        } else {
+            for (Map.Entry<Object, Object> entry : cached.entrySet()) {
+                fields.put(entry.getKey().toString(), entry.getValue().toString());
+            }
+        }
+        LocalDate today = LocalDate.now();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("todayOrderCount", value(fields, dayField(today)));
+        counts.put("weekOrderCount", value(fields, weekField(today)));
+        counts.put("monthOrderCount", value(fields, monthField(today)));
+        for (DashboardCounterEnum counter : DashboardCounterEnum.values()) {
+            counts.put(counter.getField(), value(fields, counter.getField()));
+        }
+        return counts;
+    }
+
+    /**
+     * 调整一个实体总数，在事务中调用时延迟到事务提交后执行。
+     *
+     * @param counter 计数项
+     * @param delta   增量，删除时为负数
+     */
+    public void adjust(DashboardCounterEnum counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> execute(counter.getField(), String.valueOf(delta), "1"));
+    }
+
+    /**
+     * 新增订单：累加订单总数和当前日、周、月的订单数，在事务中调用时延迟到事务提交后执行。
+     *
+     * @param count 新增订单数
+     */
+    public void orderCreated(int count) {
+        if (count <= 0) {
+            return;
+        }
+        String delta = String.valueOf(count);
+        afterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            execute(DashboardCounterEnum.ORDER.getField(), delta, "1",
+                    dayField(today), delta, "1",
+                    weekField(today), delta, "1",
+                    monthField(today), delta, "1");
+        });
+    }
+
+    /**
+     * 删除订单：扣减订单总数，订单创建时间所在的日、周、月字段仍存在时一并扣减。
+     * 在事务中调用时延迟到事务提交后执行。
+     *
+     * @param createTime 订单创建时间
+     */
+    public void orderRemoved(Date createTime) {
+        if (createTime == null) {
+            adjust(DashboardCounterEnum.ORDER, -1);
+            return;
+        }
+        LocalDate day = createTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        afterCommit(() -> execute(DashboardCounterEnum.ORDER.getField(), "-1", "1",
+                dayField(day), "-1", "0",
+                weekField(day), "-1", "0",
+                monthField(day), "-1", "0"));
+    }
+
+    /**
+     * 定时按数据库重新统计全部计数，修正增量调整累积的偏差。
+     */
+    @Scheduled(initialDelayString = "${xqx.stats.reconcile-interval:300000}",
+            fixedDelayString = "${xqx.stats.reconcile-interval:300000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.error("仪表盘计数重新统计失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 用一条语句重新统计全部计数，写入临时 Key 后 RENAME 覆盖，过期的日期字段随之清除。
+     *
+     * @return 重新统计后的全部字段
+     */
+    private Map<String, String> rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        Map<String, Object> row = dashboardStatsMapper.countAll(startOf(today), startOf(weekStart), startOf(monthStart));
+        Map<String, String> fields = new HashMap<>();
+        for (DashboardCounterEnum counter : DashboardCounterEnum.values()) {
+            fields.put(counter.getField(), String.valueOf(number(row, counter.getField())));
+        }
+        fields.put(dayField(today), String.valueOf(number(row, "todayOrderCount")));
+        fields.put(weekField(today), String.valueOf(number(row, "weekOrderCount")));
+        fields.put(monthField(today), String.valueOf(number(row, "monthOrderCount")));
+        String tempKey = COUNTER_KEY + "_" + UUID.randomUUID();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.hMSet(tempKey, fields);
+                stringConnection.rename(tempKey, COUNTER_KEY);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("仪表盘计数写入失败", e);
+        }
+        return fields;
+    }
+
+    private void execute(String... args) {
+        try {
+            redisTemplate.execute(ADJUST_SCRIPT, Collections.singletonList(COUNTER_KEY), (Object[]) args);
+        } catch (RuntimeException e) {
+            // 偏差保留到下次重新统计
+            LOGGER.warn("仪表盘计数调整失败，args={}", List.of(args), e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String dayField(LocalDate day) {
+        return ORDER_DAY_FIELD_PREFIX + DAY_FORMATTER.format(day);
+    }
+
+    private static String weekField(LocalDate day) {
+        return ORDER_WEEK_FIELD_PREFIX + day.get(IsoFields.WEEK_BASED_YEAR)
+                + String.format("%02d", day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    private static String monthField(LocalDate day) {
+        return ORDER_MONTH_FIELD_PREFIX + MONTH_FORMATTER.format(day);
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static long number(Map<String, Object> row, String column) {
+        Object value = row == null ? null : row.get(column);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static long value(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        return value == null ? 0L : Math.max(Long.parseLong(value), 0L);
+    }
+}
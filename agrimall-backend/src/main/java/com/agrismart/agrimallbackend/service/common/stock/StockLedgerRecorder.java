@@ -0,0 +1,220 @@
+package com.agrismart.agrimallbackend.service.common.stock;
+
+import com.agrismart.agrimallbackend.common.enums.OutboxEventTypeEnum;
+import com.agrismart.agrimallbackend.common.enums.StockLedgerReasonEnum;
+import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.common.StockLedger;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import com.agrismart.agrimallbackend.mapper.common.OutboxMapper;
+import com.agrismart.agrimallbackend.mapper.common.StockLedgerMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 库存流水记录器。
+ *
+ * 订单扣减库存时在同一事务中向 {@code mall_stock_ledger} 追加流水，流水与库存同时提交或回滚：
+ *
+ * - 唯一键为 (订单ID, 商品ID, 原因)，同一订单以同一原因重复扣减（例如并发发货）时唯一键冲突，整个扣减事务回滚，不会重复扣减
+ * - 一批订单的流水用一条批量插入语句写入
+ * - 判断订单是否已扣减库存是一次按唯一键前缀（订单ID）的查询，不再依赖 Redis 中没有过期时间的 order_stock_{orderId} 标记
+ *
+ * 兼容升级前的数据：legacy-stock-flag 开启时，没有流水的订单再用一次 MGET 查询旧标记，
+ * 并查询发件箱中尚未投递的旧标记事件，存在旧标记的订单补写 {@link StockLedgerReasonEnum#LEGACY_FLAG} 流水
+ * （不再扣减库存）并在事务提交后删除旧标记。发件箱投递旧标记事件时同样直接写为该流水，不再创建 Redis 标记。
+ * 迁移流水只是标记，两处并发写入同一订单时重复的流水被忽略。
+ * 升级前的订单全部发货或取消后即可关闭该开关，之后扣减判断不再访问 Redis。
+ *
+ * @author agrimall
+ * @see StockLedgerMapper
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class StockLedgerRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockLedgerRecorder.class);
+
+    /**
+     * 升级前的订单库存扣减标记 Redis Key 模板。
+     * 格式：order_stock_{orderId}
+     */
+    private static final String LEGACY_FLAG_KEY_TEMPLATE = "order_stock_%d";
+
+    private final StockLedgerMapper stockLedgerMapper;
+
+    private final OrderItemMapper orderItemMapper;
+
+    private final OutboxMapper outboxMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 是否兼容查询升级前的 Redis 扣减标记。
+     */
+    private final boolean legacyFlagEnabled;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param stockLedgerMapper 库存流水数据访问对象
+     * @param orderItemMapper   订单项数据访问对象
+     * @param outboxMapper      事务发件箱数据访问对象
+     * @param redisTemplate     Redis 模板
+     * @param legacyFlagEnabled 是否兼容查询升级前的 Redis 扣减标记
+     */
+    @Autowired
+    public StockLedgerRecorder(StockLedgerMapper stockLedgerMapper,
+                               OrderItemMapper orderItemMapper,
+                               OutboxMapper outboxMapper,
+                               StringRedisTemplate redisTemplate,
+                               @Value("${xqx.order.legacy-stock-flag:true}") boolean legacyFlagEnabled) {
+        this.stockLedgerMapper = stockLedgerMapper;
+        this.orderItemMapper = orderItemMapper;
+        this.outboxMapper = outboxMapper;
+        this.redisTemplate = redisTemplate;
+        this.legacyFlagEnabled = legacyFlagEnabled;
+    }
+
+    /**
+     * 用一条语句写入一批订单的扣减流水，必须在扣减库存的事务中、扣减库存之前调用。
+     *
+     * @param quantitiesByOrderId 订单ID -> (商品ID -> 扣减数量)
+     * @param reason              变动原因
+     * @throws org.springframework.dao.DuplicateKeyException 任意订单的任意商品已有流水
+     */
+    public void record(Map<Long, Map<Long, Integer>> quantitiesByOrderId, StockLedgerReasonEnum reason) {
+        List<StockLedger> ledgerList = ledgers(quantitiesByOrderId, reason);
+        if (!ledgerList.isEmpty()) {
+            stockLedgerMapper.batchInsert(ledgerList);
+        }
+    }
+
+    /**
+     * 查询一批订单中已扣减库存的订单。
+     * 存在升级前旧标记的订单在当前事务中补写流水，视为已扣减。
+     *
+     * @param orderIds 订单ID
+     * @return 已扣减库存的订单ID
+     */
+    public Set<Long> deducted(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Long> deducted = new HashSet<>(stockLedgerMapper.selectOrderIdsByOrderIds(orderIds));
+        if (!legacyFlagEnabled || deducted.size() == orderIds.size()) {
+            return deducted;
+        }
+        List<Long> unknown = new ArrayList<>(orderIds.size() - deducted.size());
+        List<String> keys = new ArrayList<>(orderIds.size() - deducted.size());
+        List<String> bizKeys = new ArrayList<>(orderIds.size() - deducted.size());
+        for (Long orderId : orderIds) {
+            if (!deducted.contains(orderId)) {
+                unknown.add(orderId);
+                keys.add(String.format(LEGACY_FLAG_KEY_TEMPLATE, orderId));
+                bizKeys.add(String.valueOf(orderId));
+            }
+        }
+        List<String> flags = redisTemplate.opsForValue().multiGet(keys);
+        // 旧标记在事务提交后才写入 Redis，尚未投递的标记以发件箱中的事件为准
+        Set<String> pending = new HashSet<>(outboxMapper.selectBizKeysByEventTypeAndBizKeys(
+                OutboxEventTypeEnum.ORDER_STOCK_FLAG.getCode(), bizKeys));
+        List<Long> flagged = new ArrayList<>();
+        List<String> flaggedKeys = new ArrayList<>();
+        for (int i = 0; i < unknown.size(); i++) {
+            if ((flags != null && flags.get(i) != null) || pending.contains(bizKeys.get(i))) {
+                flagged.add(unknown.get(i));
+                flaggedKeys.add(keys.get(i));
+            }
+        }
+        if (!flagged.isEmpty()) {
+            migrate(flagged, flaggedKeys);
+            deducted.addAll(flagged);
+        }
+        return deducted;
+    }
+
+    /**
+     * 把发件箱中升级前的旧标记事件直接写为流水，已有流水的订单跳过。
+     *
+     * @param orderIds 旧标记事件的订单ID
+     */
+    public void recordLegacyFlags(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Long> unrecorded = new ArrayList<>(orderIds);
+        unrecorded.removeAll(new HashSet<>(stockLedgerMapper.selectOrderIdsByOrderIds(orderIds)));
+        if (!unrecorded.isEmpty()) {
+            recordLegacy(unrecorded);
+        }
+    }
+
+    /**
+     * 为存在旧标记的订单按订单项补写流水，事务提交后删除旧标记。
+     */
+    private void migrate(List<Long> orderIds, List<String> keys) {
+        recordLegacy(orderIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteQuietly(keys);
+                }
+            });
+        } else {
+            deleteQuietly(keys);
+        }
+    }
+
+    /**
+     * 按订单项写入 {@link StockLedgerReasonEnum#LEGACY_FLAG} 流水，已存在的忽略。
+     */
+    private void recordLegacy(List<Long> orderIds) {
+        Map<Long, Map<Long, Integer>> quantitiesByOrderId = new HashMap<>(orderIds.size() * 2);
+        for (OrderItem orderItem : orderItemMapper.selectByOrderIds(orderIds)) {
+            if (orderItem.getProductId() != null && orderItem.getQuantity() != null) {
+                quantitiesByOrderId.computeIfAbsent(orderItem.getOrderId(), k -> new HashMap<>())
+                        .merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+            }
+        }
+        List<StockLedger> ledgerList = ledgers(quantitiesByOrderId, StockLedgerReasonEnum.LEGACY_FLAG);
+        if (!ledgerList.isEmpty()) {
+            stockLedgerMapper.batchInsertIgnore(ledgerList);
+        }
+    }
+
+    private static List<StockLedger> ledgers(Map<Long, Map<Long, Integer>> quantitiesByOrderId, StockLedgerReasonEnum reason) {
+        List<StockLedger> ledgerList = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, Integer>> order : quantitiesByOrderId.entrySet()) {
+            for (Map.Entry<Long, Integer> product : order.getValue().entrySet()) {
+                ledgerList.add(new StockLedger(order.getKey(), product.getKey(), -product.getValue(), reason.getCode()));
+            }
+        }
+        return ledgerList;
+    }
+
+    private void deleteQuietly(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            // 流水已写入，残留的旧标记不再被读取
+            LOGGER.warn("旧的订单库存扣减标记删除失败，keys={}", keys, e);
+        }
+    }
+}
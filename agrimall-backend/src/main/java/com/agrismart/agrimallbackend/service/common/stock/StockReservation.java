@@ -0,0 +1,586 @@
+package com.agrismart.agrimallbackend.service.common.stock;
+
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
+import com.agrismart.agrimallbackend.mapper.common.StockSyncMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Redis 库存预占服务。
+ *
+ * 在 {@code xqx.order.stock-mode=reserve} 模式下，下单时不再直接更新商品表，而是在 Redis 中镜像可售库存，
+ * 通过 Lua 脚本原子地预占、释放和提交整单库存，售罄的请求在 Redis 中直接拒绝，不会竞争商品表的行锁：
+ *
+ * - stock_{productId}：可售库存镜像 = 商品表库存 - 预占中 - 待同步 - 同步中，缺失时从商品表加载
+ * - stock_reserve_{orderId}：订单预占明细（Hash，商品ID -> 数量），保证释放和提交只执行一次
+ * - stock_reserved：各商品预占中的总量；stock_reservations：预占订单及其超时时间（ZSet）
+ * - stock_pending / stock_processing：已提交、尚未同步到商品表的扣减量
+ * - stock_processing_batch：stock_processing 的批次号；stock_sync_generation：同步代数，奇数表示正在写商品表
+ *
+ * 订单事务提交后把预占明细转入 stock_pending，回滚后归还可售库存；
+ * 定时任务把 stock_pending 批量同步到商品表（一条 UPDATE），并释放超时未完成的预占。
+ *
+ * 同步与加载的并发：加载镜像先读同步代数，再在独立的只读事务中读取商品表库存，写入时代数已变化或为奇数则放弃重试，
+ * 避免读到扣减前的库存却减去已被删除的同步中数量（多卖），或读到扣减后的库存又减去同步中数量（少卖）。
+ * 同步的幂等：商品表扣减与批次号（mall_stock_sync）在同一事务中写入，删除 stock_processing 前宕机时，
+ * 下一轮发现批次号已写入即跳过扣减，不会重复扣减。
+ *
+ * 脚本会访问多个商品的 Key，只支持单机或主从 Redis。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.common.impl.OrderServiceImpl
+ * @since 1.0
+ */
+@Component
+public class StockReservation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockReservation.class);
+
+    /**
+     * 可售库存镜像 Key 前缀，完整格式：stock_{productId}。
+     */
+    private static final String STOCK_KEY_PREFIX = "stock_";
+
+    /**
+     * 订单预占明细 Redis Key 模板。
+     * 格式：stock_reserve_{orderId}
+     */
+    private static final String RESERVE_KEY_TEMPLATE = "stock_reserve_%d";
+
+    private static final String RESERVED_KEY = "stock_reserved";
+
+    private static final String RESERVATIONS_KEY = "stock_reservations";
+
+    private static final String PENDING_KEY = "stock_pending";
+
+    private static final String PROCESSING_KEY = "stock_processing";
+
+    /**
+     * 同步中数据的批次号 Redis Key。
+     */
+    private static final String PROCESSING_BATCH_KEY = "stock_processing_batch";
+
+    /**
+     * 同步代数 Redis Key，开始写商品表时变为奇数，写完并删除同步中数据后变为偶数。
+     */
+    private static final String SYNC_GENERATION_KEY = "stock_sync_generation";
+
+    /**
+     * 同步锁 Redis Key，保证同一时刻只有一个节点同步商品表。
+     */
+    private static final String SYNC_LOCK_KEY = "stock_sync_lock";
+
+    /**
+     * 每次最多释放的超时预占数。
+     */
+    private static final int EXPIRE_BATCH_SIZE = 100;
+
+    /**
+     * 加载库存镜像的最多尝试次数，每次因同步进行中而放弃后暂停 {@value #LOAD_RETRY_PAUSE_MILLIS} 毫秒。
+     */
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private static final long LOAD_RETRY_PAUSE_MILLIS = 20L;
+
+    /**
+     * 预占脚本。
+     * KEYS: 预占明细, stock_reserved, stock_reservations, 各商品库存镜像
+     * ARGV: 订单ID, 超时时间, 依次为商品ID和数量
+     * 返回 0 表示成功（重复预占也返回 0），i 表示第 i 个商品库存不足，-i 表示第 i 个商品的镜像不存在
+     */
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end\n"
+                    + "local n = #KEYS - 3\n"
+                    + "for i = 1, n do\n"
+                    + "  local stock = redis.call('get', KEYS[i + 3])\n"
+                    + "  if not stock then return -i end\n"
+                    + "  if tonumber(stock) < tonumber(ARGV[2 + 2 * i]) then return i end\n"
+                    + "end\n"
+                    + "for i = 1, n do\n"
+                    + "  local productId = ARGV[1 + 2 * i]\n"
+                    + "  local quantity = tonumber(ARGV[2 + 2 * i])\n"
+                    + "  redis.call('decrby', KEYS[i + 3], quantity)\n"
+                    + "  redis.call('hset', KEYS[1], productId, quantity)\n"
+                    + "  redis.call('hincrby', KEYS[2], productId, quantity)\n"
+                    + "end\n"
+                    + "redis.call('zadd', KEYS[3], ARGV[2], ARGV[1])\n"
+                    + "return 0", Long.class);
+
+    /**
+     * 释放脚本：归还可售库存（镜像不存在时跳过，下次加载时会重新计算）。
+     * KEYS: 预占明细, stock_reserved, stock_reservations
+     * ARGV: 订单ID, 库存镜像 Key 前缀
+     * 返回释放的商品数，预占不存在时返回 0
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local entries = redis.call('hgetall', KEYS[1])\n"
+                    + "for i = 1, #entries, 2 do\n"
+                    + "  local stockKey = ARGV[2] .. entries[i]\n"
+                    + "  if redis.call('exists', stockKey) == 1 then\n"
+                    + "    redis.call('incrby', stockKey, entries[i + 1])\n"
+                    + "  end\n"
+                    + "  redis.call('hincrby', KEYS[2], entries[i], -tonumber(entries[i + 1]))\n"
+                    + "end\n"
+                    + "redis.call('del', KEYS[1])\n"
+                    + "redis.call('zrem', KEYS[3], ARGV[1])\n"
+                    + "return #entries / 2", Long.class);
+
+    /**
+     * 提交脚本：预占转为待同步。
+     * KEYS: 预占明细, stock_reserved, stock_reservations, stock_pending
+     * ARGV: 订单ID
+     * 返回提交的商品数，预占不存在时返回 0
+     */
+    private static final RedisScript<Long> COMMIT_SCRIPT = new DefaultRedisScript<>(
+            "local entries = redis.call('hgetall', KEYS[1])\n"
+                    + "for i = 1, #entries, 2 do\n"
+                    + "  redis.call('hincrby', KEYS[2], entries[i], -tonumber(entries[i + 1]))\n"
+                    + "  redis.call('hincrby', KEYS[4], entries[i], entries[i + 1])\n"
+                    + "end\n"
+                    + "redis.call('del', KEYS[1])\n"
+                    + "redis.call('zrem', KEYS[3], ARGV[1])\n"
+                    + "return #entries / 2", Long.class);
+
+    /**
+     * 加载脚本：镜像不存在时按商品表库存扣除预占中、待同步、同步中的数量后写入。
+     * KEYS: 库存镜像, stock_reserved, stock_pending, stock_processing, stock_sync_generation
+     * ARGV: 商品ID, 商品表库存, 读取商品表前的同步代数
+     * 返回 1 表示已写入，0 表示镜像已存在，-1 表示读取商品表期间发生过同步，库存已过期
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end\n"
+                    + "if (redis.call('get', KEYS[5]) or '0') ~= ARGV[3] then return -1 end\n"
+                    + "local stock = tonumber(ARGV[2])\n"
+                    + "for i = 2, 4 do\n"
+                    + "  stock = stock - tonumber(redis.call('hget', KEYS[i], ARGV[1]) or '0')\n"
+                    + "end\n"
+                    + "redis.call('set', KEYS[1], stock)\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 同步准备脚本：上一批同步完成后，把待同步的扣减量整体移入同步中并分配批次号；
+     * 上一批未完成时沿用其批次号。有数据需要写入商品表时把同步代数置为奇数。
+     * KEYS: stock_pending, stock_processing, stock_processing_batch, stock_sync_generation
+     * ARGV: 新批次号
+     * 返回同步中数据的批次号，没有数据需要写入时返回 null
+     */
+    private static final RedisScript<String> DRAIN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 0 then\n"
+                    + "  if redis.call('exists', KEYS[1]) == 0 then return false end\n"
+                    + "  redis.call('rename', KEYS[1], KEYS[2])\n"
+                    + "  redis.call('set', KEYS[3], ARGV[1])\n"
+                    + "end\n"
+                    + "local batch = redis.call('get', KEYS[3])\n"
+                    + "if not batch then\n"
+                    + "  batch = ARGV[1]\n"
+                    + "  redis.call('set', KEYS[3], batch)\n"
+                    + "end\n"
+                    + "if tonumber(redis.call('get', KEYS[4]) or '0') % 2 == 0 then redis.call('incr', KEYS[4]) end\n"
+                    + "return batch", String.class);
+
+    /**
+     * 同步完成脚本：批次号未变时删除同步中数据和批次号，并把同步代数置回偶数。
+     * KEYS: stock_processing, stock_processing_batch, stock_sync_generation
+     * ARGV: 批次号
+     */
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[2]) ~= ARGV[1] then return 0 end\n"
+                    + "redis.call('del', KEYS[1], KEYS[2])\n"
+                    + "if tonumber(redis.call('get', KEYS[3]) or '0') % 2 == 1 then redis.call('incr', KEYS[3]) end\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 同步锁释放脚本：锁仍属于本节点时删除。
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end\n"
+                    + "return 0", Long.class);
+
+    /**
+     * Redis 模板。
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 商品数据访问对象。
+     * 用于加载库存镜像和同步已售库存。
+     */
+    private final ProductMapper productMapper;
+
+    /**
+     * 同步批次数据访问对象。
+     */
+    private final StockSyncMapper stockSyncMapper;
+
+    /**
+     * 事务模板。
+     * 商品表扣减与批次号在同一事务中写入。
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 加载库存镜像使用的事务模板。
+     * 独立于订单事务的只读事务，读取最新提交的库存且不持有商品行锁。
+     */
+    private final TransactionTemplate loadTransactionTemplate;
+
+    /**
+     * 是否启用 Redis 预占模式。
+     */
+    private final boolean enabled;
+
+    /**
+     * 预占超时时间（秒），超时未提交或回滚的预占由定时任务释放。
+     */
+    private final long reservationTimeout;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param redisTemplate      Redis 模板
+     * @param productMapper      商品数据访问对象
+     * @param stockSyncMapper    同步批次数据访问对象
+     * @param transactionManager 事务管理器
+     * @param stockMode          库存扣减模式：db 或 reserve
+     * @param reservationTimeout 预占超时时间（秒）
+     */
+    @Autowired
+    public StockReservation(StringRedisTemplate redisTemplate,
+                            ProductMapper productMapper,
+                            StockSyncMapper stockSyncMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${xqx.order.stock-mode:db}") String stockMode,
+                            @Value("${xqx.order.reservation-timeout:300}") long reservationTimeout) {
+        this.redisTemplate = redisTemplate;
+        this.productMapper = productMapper;
+        this.stockSyncMapper = stockSyncMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransactionTemplate.setReadOnly(true);
+        this.enabled = "reserve".equalsIgnoreCase(stockMode);
+        this.reservationTimeout = Math.max(reservationTimeout, 1L);
+    }
+
+    /**
+     * 是否启用 Redis 预占模式。
+     *
+     * @return true 表示下单走 Redis 预占，false 表示直接条件更新商品表
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 为订单原子预占整单库存。
+     *
+     * 必须在订单事务中调用：预占成功后注册事务回调，提交后转为待同步，回滚后自动释放。
+     *
+     * @param orderId    订单ID
+     * @param quantities 商品ID -> 数量
+     * @return null 表示预占成功，否则为库存不足（或商品不存在）的商品ID
+     * @throws org.springframework.dao.DataAccessException Redis 不可用，或同步持续进行导致库存镜像无法加载
+     */
+    public Long reserve(Long orderId, Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<String> keys = new ArrayList<>(productIds.size() + 3);
+        keys.add(String.format(RESERVE_KEY_TEMPLATE, orderId));
+        keys.add(RESERVED_KEY);
+        keys.add(RESERVATIONS_KEY);
+        List<String> args = new ArrayList<>(productIds.size() * 2 + 2);
+        args.add(String.valueOf(orderId));
+        args.add(String.valueOf(System.currentTimeMillis() + reservationTimeout * 1000L));
+        for (Long productId : productIds) {
+            keys.add(STOCK_KEY_PREFIX + productId);
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantities.get(productId)));
+        }
+        long result = 0;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long value = redisTemplate.execute(RESERVE_SCRIPT, keys, args.toArray());
+            result = value == null ? 0 : value;
+            if (result >= 0) {
+                break;
+            }
+            // 有商品的库存镜像不存在，从商品表加载后重试一次
+            load(productIds);
+        }
+        if (result != 0) {
+            return productIds.get((int) Math.abs(result) - 1);
+        }
+        registerCompletion(orderId);
+        return null;
+    }
+
+    /**
+     * 删除商品的库存镜像，下次预占时按商品表重新加载。
+     * 商品表库存被直接修改（后台编辑商品、发货时补扣库存）后调用；在事务中调用时延迟到事务提交后执行。
+     *
+     * @param productIds 商品ID
+     */
+    public void evict(Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            keys.add(STOCK_KEY_PREFIX + productId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteQuietly(keys);
+                }
+            });
+        } else {
+            deleteQuietly(keys);
+        }
+    }
+
+    /**
+     * 把已提交的扣减量批量同步到商品表，并释放超时的预占。
+     */
+    @Scheduled(initialDelayString = "${xqx.order.stock-sync-interval:1000}",
+            fixedDelayString = "${xqx.order.stock-sync-interval:1000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            releaseExpired();
+            String token = UUID.randomUUID().toString();
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(SYNC_LOCK_KEY, token, Duration.ofSeconds(30)))) {
+                return;
+            }
+            try {
+                String batchId = redisTemplate.execute(DRAIN_SCRIPT,
+                        Arrays.asList(PENDING_KEY, PROCESSING_KEY, PROCESSING_BATCH_KEY, SYNC_GENERATION_KEY),
+                        UUID.randomUUID().toString());
+                if (batchId == null) {
+                    return;
+                }
+                Map<Long, Integer> quantities = new HashMap<>();
+                Map<Object, Object> entries = redisTemplate.opsForHash().entries(PROCESSING_KEY);
+                for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                    int quantity = Integer.parseInt(String.valueOf(entry.getValue()));
+                    if (quantity > 0) {
+                        quantities.put(Long.valueOf(String.valueOf(entry.getKey())), quantity);
+                    }
+                }
+                // 批次号与扣减同时提交；批次号已存在说明上一轮已写入商品表，只是没来得及删除同步中的数据
+                Boolean applied = transactionTemplate.execute(status -> {
+                    if (stockSyncMapper.updateBatchId(batchId) == 0) {
+                        return false;
+                    }
+                    if (!quantities.isEmpty()) {
+                        productMapper.applyStockDeduction(quantities);
+                    }
+                    return true;
+                });
+                // 商品表更新失败时保留同步中的数据，下一轮重试
+                redisTemplate.execute(COMPLETE_SCRIPT,
+                        Arrays.asList(PROCESSING_KEY, PROCESSING_BATCH_KEY, SYNC_GENERATION_KEY), batchId);
+                if (Boolean.TRUE.equals(applied)) {
+                    LOGGER.info("已售库存同步到商品表，批次={}，商品数={}", batchId, quantities.size());
+                } else {
+                    LOGGER.warn("已售库存同步批次{}已写入过商品表，跳过扣减", batchId);
+                }
+            } finally {
+                redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(SYNC_LOCK_KEY), token);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("已售库存同步失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 暂停同步期间执行操作。
+     *
+     * 持有同步锁期间商品表的库存、销量和 stock_processing 都不会变化（stock_pending 仍会增加），
+     * 供需要把商品表与尚未同步的扣减量合在一起读取的场景使用。未启用预占模式时直接执行。
+     *
+     * @param action 要执行的操作
+     * @return 操作的返回值
+     * @throws TransientDataAccessResourceException 多次重试后同步仍在进行
+     */
+    public <T> T pauseSync(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        String token = UUID.randomUUID().toString();
+        for (int attempt = 0; !Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(SYNC_LOCK_KEY, token, Duration.ofSeconds(30))); attempt++) {
+            if (attempt + 1 >= LOAD_ATTEMPTS) {
+                throw new TransientDataAccessResourceException("已售库存同步进行中，无法暂停同步");
+            }
+            pause();
+        }
+        try {
+            return action.get();
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(SYNC_LOCK_KEY), token);
+        }
+    }
+
+    /**
+     * 获取已提交、尚未计入商品表销量的扣减量所在的 Redis Key（Hash，商品ID -> 数量），需在 {@link #pauseSync} 中调用。
+     *
+     * 上一轮同步写完商品表后来不及删除 stock_processing 时，该批次已计入商品表，不再返回。
+     *
+     * @return stock_pending，以及尚未写入商品表的 stock_processing；未启用预占模式时为空
+     */
+    public List<String> unsyncedKeys() {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        String batchId = redisTemplate.opsForValue().get(PROCESSING_BATCH_KEY);
+        if (batchId != null && batchId.equals(stockSyncMapper.selectBatchId())) {
+            return Collections.singletonList(PENDING_KEY);
+        }
+        return Arrays.asList(PENDING_KEY, PROCESSING_KEY);
+    }
+
+    /**
+     * 释放超时未提交或回滚的预占（例如节点在事务完成前宕机）。
+     */
+    private void releaseExpired() {
+        Set<String> expired = redisTemplate.opsForZSet()
+                .rangeByScore(RESERVATIONS_KEY, 0, System.currentTimeMillis(), 0, EXPIRE_BATCH_SIZE);
+        if (expired == null) {
+            return;
+        }
+        for (String orderId : expired) {
+            LOGGER.warn("订单库存预占超时，自动释放，orderId={}", orderId);
+            release(Long.valueOf(orderId));
+        }
+    }
+
+    /**
+     * 从商品表加载缺失的库存镜像。
+     *
+     * 先读同步代数再读商品表，代数为奇数（正在写商品表）或写入镜像时已变化则稍后重试。
+     * 商品表在独立的只读事务中读取：取得最新提交的库存，不受订单事务一致性快照的影响，
+     * 也不会在订单事务提交前一直持有商品行锁；读到的库存过期与否由同步代数判断。
+     *
+     * @throws TransientDataAccessResourceException 多次重试后仍与同步冲突
+     */
+    private void load(List<Long> productIds) {
+        Set<Long> remaining = new HashSet<>(productIds);
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                pause();
+            }
+            String generation = redisTemplate.opsForValue().get(SYNC_GENERATION_KEY);
+            if (generation == null) {
+                generation = "0";
+            }
+            if (Long.parseLong(generation) % 2 != 0) {
+                continue;
+            }
+            Set<Long> stale = new HashSet<>();
+            Set<Long> productIdSet = remaining;
+            List<Product> products = loadTransactionTemplate.execute(status -> productMapper.selectByProductIdSet(productIdSet));
+            for (Product product : products) {
+                int stock = product.getStock() == null ? 0 : product.getStock();
+                Long loaded = redisTemplate.execute(LOAD_SCRIPT,
+                        Arrays.asList(STOCK_KEY_PREFIX + product.getId(), RESERVED_KEY, PENDING_KEY, PROCESSING_KEY,
+                                SYNC_GENERATION_KEY),
+                        String.valueOf(product.getId()), String.valueOf(stock), generation);
+                if (loaded != null && loaded < 0) {
+                    stale.add(product.getId());
+                }
+            }
+            remaining = stale;
+        }
+        if (!remaining.isEmpty()) {
+            throw new TransientDataAccessResourceException("已售库存同步进行中，库存镜像加载失败，productIds=" + remaining);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(LOAD_RETRY_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessResourceException("等待已售库存同步时被中断", e);
+        }
+    }
+
+    /**
+     * 注册事务回调：事务提交后把预占转为待同步，回滚后释放预占。
+     */
+    private void registerCompletion(Long orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    commit(orderId);
+                } else {
+                    release(orderId);
+                }
+            }
+        });
+    }
+
+    private void commit(Long orderId) {
+        try {
+            Long count = redisTemplate.execute(COMMIT_SCRIPT, Arrays.asList(String.format(RESERVE_KEY_TEMPLATE, orderId),
+                    RESERVED_KEY, RESERVATIONS_KEY, PENDING_KEY), String.valueOf(orderId));
+            if (count == null || count == 0) {
+                LOGGER.error("订单库存预占已不存在（可能已超时释放），商品表不会扣减该订单库存，orderId={}", orderId);
+            }
+        } catch (RuntimeException e) {
+            // 预占仍在，超时后会被释放；订单已提交，需要人工核对库存
+            LOGGER.error("订单库存预占提交失败，orderId={}", orderId, e);
+        }
+    }
+
+    private void release(Long orderId) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Arrays.asList(String.format(RESERVE_KEY_TEMPLATE, orderId),
+                    RESERVED_KEY, RESERVATIONS_KEY), String.valueOf(orderId), STOCK_KEY_PREFIX);
+        } catch (RuntimeException e) {
+            LOGGER.warn("订单库存预占释放失败，超时后重试，orderId={}", orderId, e);
+        }
+    }
+
+    private void deleteQuietly(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            LOGGER.warn("删除库存镜像失败，keys={}", keys, e);
+        }
+    }
+}
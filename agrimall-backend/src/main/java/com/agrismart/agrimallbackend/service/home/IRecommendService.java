@@ -12,12 +12,14 @@ import java.util.List;
  *
  * - 个性化推荐（基于协同过滤算法）
  * - 热销推荐（基于销量）
+ * - 相关商品推荐（“买了该商品的用户还买了”）
  *
  * 推荐算法：
  *
  * - 个性化推荐：基于用户的购买和收藏行为，使用协同过滤算法计算商品相似度，推荐用户可能感兴趣的商品
  * - 热销推荐：按商品销量降序排序，返回热销商品列表
  * - 如果用户没有行为数据或推荐结果不足，则使用热销推荐作为兜底
+ * - 相关商品推荐：直接读取相似度索引中该商品的近邻行，按余弦相似度降序返回
  *
  * @author agrimall
  * @see com.agrismart.agrimallbackend.service.home.impl.RecommendServiceImpl
@@ -47,6 +49,14 @@ public interface IRecommendService {
      * @return 热销商品列表
      */
     ResponseVo<List<Product>> popular(int limit, int page);
-}
-
 
+    /**
+     * 获取与指定商品相关的商品列表（买了该商品的用户还买了）。
+     * 直接读取内存中预先计算好的近邻表，请求时不查询订单数据。
+     *
+     * @param productId 商品 ID
+     * @param limit     返回条数（如果小于等于 0，则使用默认值 6；最多为每个商品保留的近邻数量）
+     * @return 相关商品列表，按相似度从高到低排序；商品没有近邻时为空列表
+     */
+    ResponseVo<List<Product>> related(Long productId, int limit);
+}
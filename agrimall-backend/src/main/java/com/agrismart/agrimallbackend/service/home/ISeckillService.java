@@ -0,0 +1,84 @@
+package com.agrismart.agrimallbackend.service.home;
+
+import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.home.Seckill;
+import com.github.pagehelper.PageInfo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀服务接口。
+ *
+ * 该接口定义了秒杀相关的业务操作方法，包括：
+ *
+ * - 秒杀活动查询（前台进行中的活动、后台分页列表）
+ * - 秒杀活动创建（同时预加载名额）
+ * - 秒杀令牌发放、抢购和结果查询
+ *
+ * 抢购流程：先获取令牌，再凭令牌抢购；抢到名额后订单由后台线程批量创建，
+ * 前台通过结果接口轮询订单ID，之后按普通订单提交。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.impl.SeckillServiceImpl
+ * @see com.agrismart.agrimallbackend.entity.home.Seckill
+ * @since 1.0
+ */
+public interface ISeckillService {
+
+    /**
+     * 查询进行中和即将开始的秒杀活动。
+     *
+     * @return 秒杀活动列表，按开始时间排序
+     */
+    ResponseVo<List<Seckill>> listActive();
+
+    /**
+     * 分页查询全部秒杀活动。
+     *
+     * @param pageNum  页码，从 1 开始
+     * @param pageSize 每页大小
+     * @return 包含分页信息的秒杀活动列表
+     */
+    ResponseVo<PageInfo> selectByPage(Integer pageNum, Integer pageSize);
+
+    /**
+     * 创建秒杀活动并预加载名额。
+     *
+     * @param seckill 秒杀活动
+     * @return 操作结果
+     */
+    ResponseVo<Boolean> add(Seckill seckill);
+
+    /**
+     * 获取秒杀令牌。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @return 秒杀令牌，在有效期内凭令牌抢购一次
+     */
+    ResponseVo<String> token(Long seckillId, Long userId);
+
+    /**
+     * 凭令牌抢购。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @param token     秒杀令牌
+     * @return 操作结果，true 表示抢到名额、订单正在创建
+     */
+    ResponseVo<Boolean> attempt(Long seckillId, Long userId, String token);
+
+    /**
+     * 查询秒杀结果。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @return 秒杀结果
+     *
+     * - status：queuing 排队中，success 成功，failed 失败（名额已归还），none 没有秒杀记录
+     * - orderId：成功时的订单ID
+     *
+     */
+    ResponseVo<Map<String, Object>> result(Long seckillId, Long userId);
+}
@@ -3,14 +3,19 @@ package com.agrismart.agrimallbackend.service.home.impl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.DashboardCounterEnum;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
 import com.agrismart.agrimallbackend.entity.home.Collect;
 import com.agrismart.agrimallbackend.mapper.home.CollectMapper;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
 import com.agrismart.agrimallbackend.service.home.ICollectService;
+import com.agrismart.agrimallbackend.service.home.recommend.UserBehaviorEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,6 +37,20 @@ public class CollectServiceImpl implements ICollectService {
     @Autowired
     private CollectMapper collectMapper;
 
+    /**
+     * 事件发布器。
+     * 用于发布收藏行为事件，增量更新推荐模型。
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 后台仪表盘计数。
+     * 添加、删除收藏后调整收藏总数。
+     */
+    @Autowired
+    private DashboardCounter dashboardCounter;
+
     @Override
     public List<Collect> findCollectByUserId(Long userId) {
         return collectMapper.findCollectByUserId(userId);
@@ -52,6 +71,8 @@ public class CollectServiceImpl implements ICollectService {
         if (collectMapper.insertSelective(collect) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.COLLECT_ADD_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.COLLECT, 1);
+        eventPublisher.publishEvent(new UserBehaviorEvent(uid, UserBehaviorEvent.Type.COLLECT_ADD, Collections.singletonList(id)));
         return ResponseVo.successByMsg(true, "添加收藏成功！");
     }
 
@@ -60,9 +81,13 @@ public class CollectServiceImpl implements ICollectService {
         if (id == null) {
             return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
         }
-        if (collectMapper.deleteByPrimaryKey(id) <= 0) {
+        Collect collect = collectMapper.selectByPrimaryKey(id);
+        if (collect == null || collectMapper.deleteByPrimaryKey(id) <= 0) {
             return ResponseVo.errorByMsg(CodeMsg.COLLECT_DELETE_ERROR);
         }
+        dashboardCounter.adjust(DashboardCounterEnum.COLLECT, -1);
+        eventPublisher.publishEvent(new UserBehaviorEvent(collect.getUserId(), UserBehaviorEvent.Type.COLLECT_REMOVE,
+                Collections.singletonList(collect.getProductId())));
         return ResponseVo.successByMsg(true, "删除收藏成功！");
     }
 
@@ -1,16 +1,21 @@
 package com.agrismart.agrimallbackend.service.home.impl;
 
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.common.enums.SalesRankWindowEnum;
 import com.agrismart.agrimallbackend.dto.response.ResponseVo;
-import com.agrismart.agrimallbackend.entity.common.Order;
-import com.agrismart.agrimallbackend.entity.common.OrderItem;
 import com.agrismart.agrimallbackend.entity.common.Product;
-import com.agrismart.agrimallbackend.entity.home.Collect;
 import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
-import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
 import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
 import com.agrismart.agrimallbackend.mapper.home.CollectMapper;
+import com.agrismart.agrimallbackend.service.common.order.OrderArchiver;
+import com.agrismart.agrimallbackend.service.common.rank.SalesLeaderboard;
 import com.agrismart.agrimallbackend.service.home.IRecommendService;
+import com.agrismart.agrimallbackend.service.home.recommend.RecommendCache;
+import com.agrismart.agrimallbackend.service.home.recommend.RecommendIndex;
+import com.agrismart.agrimallbackend.service.home.recommend.RecommendIndexHolder;
+import com.agrismart.agrimallbackend.service.home.recommend.ScoreBuffer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -34,16 +39,15 @@ import java.util.stream.Collectors;
  * 推荐算法原理：
  *
  * - 用户偏好计算：根据用户的购买行为（权重 1.0）和收藏行为（权重 0.5）计算用户对商品的偏好分数
- * - 共现矩阵构建：统计商品之间的共现次数，构建商品共现矩阵
- * - 相似度计算：使用余弦相似度计算商品之间的相似度（考虑商品频率）
+ * - 相似度索引：由 {@link RecommendIndexHolder} 在后台定时构建商品共现矩阵和余弦相似度近邻表
  * - 推荐分数计算：根据用户对已购买/收藏商品的偏好和商品相似度，计算推荐分数
  * - 兜底策略：如果用户没有行为数据或推荐结果不足，则使用热销推荐作为兜底
  *
  * 推荐流程：
  *
- * - 构建推荐上下文（用户偏好、商品频率、共现矩阵）
+ * - 读取 Redis 中缓存的候选列表，未命中时读取内存中的相似度索引快照，查询目标用户的偏好
  * - 计算候选商品的推荐分数
- * - 按分数排序，返回 Top N 商品
+ * - 按分数排序，缓存 Top N 候选，分页时在候选中循环旋转
  * - 如果结果不足，使用热销推荐补充
  *
  * @author agrimall
@@ -72,20 +76,20 @@ public class RecommendServiceImpl implements IRecommendService {
     private static final int DEFAULT_LIMIT = 6;
 
     /**
-     * 订单数据访问对象。
-     * 用于查询用户的购买行为。
+     * 订单项数据访问对象。
+     * 用于查询目标用户的购买行为。
      */
-    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
 
     /**
-     * 订单项数据访问对象。
-     * 用于查询订单中的商品信息。
+     * 订单归档任务。
+     * 提供已归档的月份，购买记录包含归档的订单。
      */
-    private final OrderItemMapper orderItemMapper;
+    private final OrderArchiver orderArchiver;
 
     /**
      * 收藏数据访问对象。
-     * 用于查询用户的收藏行为。
+     * 用于查询目标用户的收藏行为。
      */
     private final CollectMapper collectMapper;
 
@@ -95,23 +99,58 @@ public class RecommendServiceImpl implements IRecommendService {
      */
     private final ProductMapper productMapper;
 
+    /**
+     * 商品相似度索引持有者。
+     * 提供后台预先构建好的只读索引快照。
+     */
+    private final RecommendIndexHolder indexHolder;
+
+    /**
+     * 推荐结果缓存。
+     * 按用户缓存排好序的候选商品ID列表。
+     */
+    private final RecommendCache recommendCache;
+
+    /**
+     * 商品销量排行榜。
+     * 热销兜底优先从 Redis 读取排行。
+     */
+    private final SalesLeaderboard salesLeaderboard;
+
+    /**
+     * 每个用户计算并缓存的候选商品数量，分页时在其中循环旋转。
+     */
+    private final int candidateSize;
+
     /**
      * 构造函数，注入依赖。
      *
-     * @param orderMapper      订单数据访问对象
      * @param orderItemMapper  订单项数据访问对象
+     * @param orderArchiver    订单归档任务
      * @param collectMapper    收藏数据访问对象
      * @param productMapper    商品数据访问对象
+     * @param indexHolder      商品相似度索引持有者
+     * @param recommendCache   推荐结果缓存
+     * @param salesLeaderboard 商品销量排行榜
+     * @param candidateSize    每个用户计算并缓存的候选商品数量
      */
     @Autowired
-    public RecommendServiceImpl(OrderMapper orderMapper,
-                                OrderItemMapper orderItemMapper,
+    public RecommendServiceImpl(OrderItemMapper orderItemMapper,
+                                OrderArchiver orderArchiver,
                                 CollectMapper collectMapper,
-                                ProductMapper productMapper) {
-        this.orderMapper = orderMapper;
+                                ProductMapper productMapper,
+                                RecommendIndexHolder indexHolder,
+                                RecommendCache recommendCache,
+                                SalesLeaderboard salesLeaderboard,
+                                @Value("${xqx.recommend.candidate-size:30}") int candidateSize) {
         this.orderItemMapper = orderItemMapper;
+        this.orderArchiver = orderArchiver;
         this.collectMapper = collectMapper;
         this.productMapper = productMapper;
+        this.indexHolder = indexHolder;
+        this.recommendCache = recommendCache;
+        this.salesLeaderboard = salesLeaderboard;
+        this.candidateSize = candidateSize;
     }
 
     /**
@@ -119,12 +158,13 @@ public class RecommendServiceImpl implements IRecommendService {
      *
      * 算法流程：
      *
-     * - 构建推荐上下文（用户偏好、商品频率、共现矩阵）
-     * - 遍历用户已购买/收藏的商品，找到与这些商品相似的其他商品
-     * - 使用余弦相似度计算商品相似度
+     * - 优先从 Redis 读取该用户缓存的候选商品列表，命中时直接分页
+     * - 未命中时获取后台预先构建好的商品相似度索引快照
+     * - 查询目标用户的购买/收藏行为，计算用户偏好
+     * - 遍历用户已购买/收藏的商品，从索引中取出其近邻商品及余弦相似度
      * - 根据用户偏好和相似度计算推荐分数
-     * - 按分数排序，返回 Top N 商品
-     * - 如果结果不足，使用热销推荐补充
+     * - 按分数排序，取 Top N 候选写入缓存
+     * - 分页旋转后查询商品详情，如果结果不足，使用热销推荐补充
      *
      * @param userId 用户ID
      * @param limit  推荐数量
@@ -142,98 +182,29 @@ public class RecommendServiceImpl implements IRecommendService {
             return popular(effectiveLimit, safePage);
         }
         
-        // 2. 构建推荐上下文（包含用户偏好、商品频率、共现矩阵）
-        RecommendContext context = buildContext();
-        
-        // 3. 获取目标用户的偏好数据（用户对各个商品的偏好分数）
-        Map<Long, Double> targetPreference = context.userPreference.get(userId);
-        
-        // 如果用户没有行为数据（未购买、未收藏），返回热销推荐
-        if (CollectionUtils.isEmpty(targetPreference)) {
-            return popular(effectiveLimit, safePage);
-        }
-
-        // 4. 计算推荐分数
-        // scoreMap: 候选商品ID -> 推荐分数
-        Map<Long, Double> scoreMap = new HashMap<>();
-        
-        // 获取用户已拥有（已购买/收藏）的商品ID集合，避免推荐已拥有的商品
-        Set<Long> ownedProducts = targetPreference.keySet();
-        
-        // 遍历用户已购买/收藏的每个商品
-        for (Map.Entry<Long, Double> entry : targetPreference.entrySet()) {
-            Long itemId = entry.getKey();           // 用户已拥有的商品ID
-            Double preference = entry.getValue();   // 用户对该商品的偏好分数
-            
-            // 获取与该商品共现的其他商品（共现矩阵中的邻居）
-            Map<Long, Double> neighbours = context.coMatrix.get(itemId);
-            if (CollectionUtils.isEmpty(neighbours)) {
-                continue;  // 如果没有共现商品，跳过
-            }
-            
-            // 获取商品A被购买的频率（用于相似度计算）
-            Integer freqA = context.itemFrequency.get(itemId);
-            if (freqA == null || freqA == 0) {
-                continue;  // 如果频率为0，跳过
-            }
-            
-            // 遍历与该商品共现的所有候选商品
-            for (Map.Entry<Long, Double> neighbour : neighbours.entrySet()) {
-                Long candidateId = neighbour.getKey();  // 候选商品ID
-                
-                // 跳过用户已拥有的商品
-                if (ownedProducts.contains(candidateId)) {
-                    continue;
-                }
-                
-                // 获取候选商品B被购买的频率
-                Integer freqB = context.itemFrequency.get(candidateId);
-                if (freqB == null || freqB == 0) {
-                    continue;  // 如果频率为0，跳过
-                }
-                
-                // 5. 计算商品相似度（余弦相似度变种）
-                // 相似度公式：sim(A, B) = coMatrix[A][B] / sqrt(freqA × freqB)
-                // coMatrix[A][B]: 商品A和B的共现次数
-                // freqA: 商品A被购买的次数
-                // freqB: 商品B被购买的次数
-                // sqrt(freqA × freqB): 归一化因子，避免热门商品主导推荐结果
-                double similarity = neighbour.getValue() / (Math.sqrt(freqA * freqB));
-                
-                // 如果相似度小于等于0，跳过
-                if (similarity <= 0) {
-                    continue;
-                }
-                
-                // 6. 计算推荐分数
-                // 推荐分数 = 用户对商品A的偏好 × 商品A与候选商品B的相似度
-                // 分数越高，说明用户越可能喜欢该候选商品
-                double score = similarity * preference;
-                
-                // 累加推荐分数（同一个候选商品可能从多个已拥有商品得到推荐分数）
-                scoreMap.merge(candidateId, score, Double::sum);
+        // 2. 读取缓存的候选列表，未命中时重新计算并写入缓存
+        List<Long> orderedIds = recommendCache.get(userId);
+        if (orderedIds == null) {
+            orderedIds = computeOrderedIds(userId, Math.max(effectiveLimit, candidateSize));
+            if (orderedIds == null) {
+                // 索引尚未构建完成，不缓存，直接走热销兜底
+                return popular(effectiveLimit, safePage);
             }
+            recommendCache.put(userId, orderedIds);
         }
-
-        // 7. 如果没有任何推荐结果，返回热销推荐作为兜底
-        if (scoreMap.isEmpty()) {
+        
+        // 没有任何个性化结果，返回热销推荐作为兜底
+        if (orderedIds.isEmpty()) {
             return popular(effectiveLimit, safePage);
         }
 
-        // 8. 按推荐分数降序排序，取 Top N
-        List<Long> orderedIds = scoreMap.entrySet().stream()
-            .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))  // 按分数降序排序
-            .map(Map.Entry::getKey)  // 提取商品ID
-            .limit(effectiveLimit)   // 限制数量
-            .collect(Collectors.toList());
-
-        // 9. 分页处理（旋转列表，实现分页效果）
+        // 3. 分页处理（旋转列表，实现分页效果）
         List<Long> rotatedIds = rotateByPage(orderedIds, effectiveLimit, safePage);
         
-        // 10. 根据商品ID列表查询商品详细信息
+        // 4. 根据商品ID列表查询商品详细信息
         List<Product> recommendProducts = fetchOrderedProducts(rotatedIds);
         
-        // 11. 如果推荐结果不足，使用热销推荐补充
+        // 5. 如果推荐结果不足，使用热销推荐补充
         if (recommendProducts.size() < effectiveLimit) {
             // 获取已推荐的商品ID集合，避免重复
             Set<Long> existed = recommendProducts.stream()
@@ -257,120 +228,125 @@ public class RecommendServiceImpl implements IRecommendService {
         return ResponseVo.success(recommendProducts);
     }
 
-    @Override
-    public ResponseVo<List<Product>> popular(int limit, int page) {
-        int effectiveLimit = limit > 0 ? limit : DEFAULT_LIMIT;
-        int safePage = Math.max(page, 0);
-        List<Product> hotList = fetchPopularProducts(effectiveLimit, safePage);
-        return ResponseVo.success(hotList);
-    }
-
     /**
-     * 构建推荐上下文（用户偏好、商品频率、共现矩阵）。
-     *
-     * 这是协同过滤算法的核心数据准备阶段，包括：
-     *
-     * - 用户偏好计算：根据购买和收藏行为计算用户对商品的偏好分数
-     * - 商品频率统计：统计每个商品被购买/收藏的总次数
-     * - 共现矩阵构建：统计商品之间的共现次数（同一用户购买/收藏的商品对）
+     * 计算用户的候选商品列表。
      *
-     * @return 推荐上下文对象
+     * @param userId 用户ID
+     * @param size   候选数量
+     * @return 按推荐分数降序的商品ID列表，没有个性化结果时为空列表；索引尚未构建完成时返回 null
      */
-    private RecommendContext buildContext() {
-        // ========== 第一步：获取订单数据 ==========
-        List<Order> orders = orderMapper.selectAll();
-        if (CollectionUtils.isEmpty(orders)) {
-            return RecommendContext.empty();
+    private List<Long> computeOrderedIds(Long userId, int size) {
+        // 获取当前生效的索引快照（模型尚未构建完成时为空索引）
+        RecommendIndex index = indexHolder.current();
+        if (index.isEmpty()) {
+            return null;
         }
-
-        // 构建订单ID到用户ID的映射，方便后续查询
-        Map<Long, Long> orderUserMapping = new HashMap<>(orders.size());
-        List<Long> orderIds = new ArrayList<>(orders.size());
-        for (Order order : orders) {
-            orderIds.add(order.getId());
-            orderUserMapping.put(order.getId(), order.getUserId());
+        
+        // 获取目标用户的偏好数据（用户对各个商品的偏好分数）
+        Map<Long, Double> targetPreference = loadUserPreference(userId);
+        
+        // 如果用户没有行为数据（未购买、未收藏），没有个性化结果
+        if (CollectionUtils.isEmpty(targetPreference)) {
+            return Collections.emptyList();
         }
 
-        // 批量查询订单项（订单中的商品信息）
-        List<OrderItem> orderItems = orderIds.isEmpty()
-            ? Collections.emptyList()
-            : orderItemMapper.selectByOrderIds(orderIds);
-
-        // ========== 第二步：计算用户偏好 ==========
-        // userPreference[userId][productId] = 偏好分数
-        // 偏好分数 = 购买次数 × 1.0 + 收藏次数 × 0.5
-        Map<Long, Map<Long, Double>> userPreference = new HashMap<>();
+        // 计算推荐分数
+        // 分数按索引的稠密下标累加在线程内复用的数组中，整个打分循环不产生装箱对象
+        ScoreBuffer buffer = ScoreBuffer.acquire(index.rowCount());
         
-        // 处理购买行为：每次购买增加 1.0 的偏好分数
-        for (OrderItem item : orderItems) {
-            Long userId = orderUserMapping.get(item.getOrderId());
-            if (userId == null || item.getProductId() == null) {
-                continue;
+        // 排除用户已拥有（已购买/收藏）的商品，避免推荐已拥有的商品
+        for (Long productId : targetPreference.keySet()) {
+            int row = index.indexOf(productId);
+            if (row >= 0) {
+                buffer.exclude(row);
             }
-            // 累加购买行为的偏好分数
-            userPreference
-                .computeIfAbsent(userId, key -> new HashMap<>())
-                .merge(item.getProductId(), PURCHASE_WEIGHT, Double::sum);
         }
-
-        // 处理收藏行为：每次收藏增加 0.5 的偏好分数
-        List<Collect> collects = collectMapper.selectAllSimple();
-        for (Collect collect : collects) {
-            if (collect.getUserId() == null || collect.getProductId() == null) {
+        
+        // 遍历用户已购买/收藏的每个商品
+        for (Map.Entry<Long, Double> entry : targetPreference.entrySet()) {
+            int row = index.indexOf(entry.getKey());
+            if (row < 0) {
                 continue;
             }
-            // 累加收藏行为的偏好分数（权重较低）
-            userPreference
-                .computeIfAbsent(collect.getUserId(), key -> new HashMap<>())
-                .merge(collect.getProductId(), COLLECT_WEIGHT, Double::sum);
+            double preference = entry.getValue();   // 用户对该商品的偏好分数
+            
+            // 遍历与该商品最相似的近邻商品（相似度已在构建索引时计算完成）
+            for (int pos = index.rowStart(row), end = index.rowEnd(row); pos < end; pos++) {
+                // 推荐分数 = 用户对商品A的偏好 × 商品A与候选商品B的相似度
+                // 累加推荐分数（同一个候选商品可能从多个已拥有商品得到推荐分数）
+                buffer.add(index.columnAt(pos), index.weightAt(pos) * preference);
+            }
         }
 
-        // 如果没有任何用户偏好数据，返回空上下文
-        if (userPreference.isEmpty()) {
-            return RecommendContext.empty();
+        // 按推荐分数降序取 Top N
+        int[] top = new int[size];
+        int topCount = buffer.topK(top);
+        List<Long> orderedIds = new ArrayList<>(topCount);
+        for (int i = 0; i < topCount; i++) {
+            orderedIds.add(index.productIdAt(top[i]));
         }
+        return orderedIds;
+    }
 
-        // ========== 第三步：统计商品频率和构建共现矩阵 ==========
-        // itemFrequency[productId] = 该商品被购买/收藏的总次数
-        Map<Long, Integer> itemFrequency = new HashMap<>();
-        
-        // coMatrix[productA][productB] = 商品A和B的共现次数
-        // 共现：指同一用户同时购买/收藏了商品A和B
-        Map<Long, Map<Long, Double>> coMatrix = new HashMap<>();
+    /**
+     * 查询与指定商品相关的商品。
+     *
+     * 近邻行在构建索引时已按余弦相似度降序排好，这里只截取前 N 个，再批量查询商品信息。
+     *
+     * @param productId 商品ID
+     * @param limit     返回条数
+     * @return 相关商品列表
+     */
+    @Override
+    public ResponseVo<List<Product>> related(Long productId, int limit) {
+        int effectiveLimit = limit > 0 ? limit : DEFAULT_LIMIT;
+        RecommendIndex index = indexHolder.current();
+        int row = productId == null ? -1 : index.indexOf(productId);
+        if (row < 0) {
+            return ResponseVo.success(new ArrayList<>());
+        }
+        int start = index.rowStart(row);
+        int end = Math.min(index.rowEnd(row), start + effectiveLimit);
+        List<Long> relatedIds = new ArrayList<>(end - start);
+        for (int pos = start; pos < end; pos++) {
+            relatedIds.add(index.productIdAt(index.columnAt(pos)));
+        }
+        return ResponseVo.success(fetchOrderedProducts(relatedIds));
+    }
 
-        // 遍历每个用户的偏好数据
-        for (Map.Entry<Long, Map<Long, Double>> entry : userPreference.entrySet()) {
-            // 获取该用户购买/收藏的所有商品ID
-            Set<Long> items = entry.getValue().keySet();
-            if (items.isEmpty()) {
-                continue;
-            }
-            
-            // 统计商品频率：每个商品被该用户购买/收藏，频率+1
-            for (Long itemId : items) {
-                itemFrequency.merge(itemId, 1, Integer::sum);
+    @Override
+    public ResponseVo<List<Product>> popular(int limit, int page) {
+        int effectiveLimit = limit > 0 ? limit : DEFAULT_LIMIT;
+        int safePage = Math.max(page, 0);
+        List<Product> hotList = fetchPopularProducts(effectiveLimit, safePage);
+        return ResponseVo.success(hotList);
+    }
+
+    /**
+     * 计算目标用户的偏好数据。
+     *
+     * 只查询目标用户自己的购买和收藏记录，不再扫描全量历史：
+     *
+     * - 每次购买增加 1.0 的偏好分数
+     * - 每次收藏增加 0.5 的偏好分数
+     *
+     * @param userId 用户ID
+     * @return 商品ID -> 偏好分数
+     */
+    private Map<Long, Double> loadUserPreference(Long userId) {
+        Map<Long, Double> preference = new HashMap<>();
+        for (Long productId : orderItemMapper.selectProductIdsByUserId(userId, OrderStateEnum.unpurchasedCodes(),
+                orderArchiver.months())) {
+            if (productId != null) {
+                preference.merge(productId, PURCHASE_WEIGHT, Double::sum);
             }
-            
-            // 构建共现矩阵：统计商品对之间的共现次数
-            // 如果用户同时拥有商品A和B，则 coMatrix[A][B] += 1
-            List<Long> itemList = new ArrayList<>(items);
-            for (int i = 0; i < itemList.size(); i++) {
-                Long itemA = itemList.get(i);
-                for (int j = 0; j < itemList.size(); j++) {
-                    if (i == j) {
-                        continue;  // 跳过自己与自己
-                    }
-                    Long itemB = itemList.get(j);
-                    // 累加商品A和B的共现次数
-                    coMatrix
-                        .computeIfAbsent(itemA, key -> new HashMap<>())
-                        .merge(itemB, 1.0D, Double::sum);
-                }
+        }
+        for (Long productId : collectMapper.selectProductIdsByUserId(userId)) {
+            if (productId != null) {
+                preference.merge(productId, COLLECT_WEIGHT, Double::sum);
             }
         }
-
-        // 返回构建好的推荐上下文
-        return new RecommendContext(userPreference, itemFrequency, coMatrix);
+        return preference;
     }
 
     /**
@@ -409,7 +385,11 @@ public class RecommendServiceImpl implements IRecommendService {
     }
 
     private List<Product> fetchPopularProducts(int limit, int page) {
-        List<Product> popular = productMapper.selectBySellNumberLimit(Math.max(limit * 3, limit));
+        int size = Math.max(limit * 3, limit);
+        List<Long> rankedIds = salesLeaderboard.top(SalesRankWindowEnum.ALL, size);
+        List<Product> popular = rankedIds == null
+                ? productMapper.selectBySellNumberLimit(size)
+                : fetchOrderedProducts(rankedIds);
         if (CollectionUtils.isEmpty(popular)) {
             return popular;
         }
@@ -456,65 +436,4 @@ public class RecommendServiceImpl implements IRecommendService {
         }
         return ordered;
     }
-
-    /**
-     * 推荐上下文类。
-     *
-     * 封装协同过滤算法所需的所有数据：
-     *
-     * - userPreference: 用户偏好矩阵 [userId][productId] = 偏好分数
-     * - itemFrequency: 商品频率统计 [productId] = 被购买/收藏的总次数
-     * - coMatrix: 商品共现矩阵 [productA][productB] = 共现次数
-     *
-     */
-    private static class RecommendContext {
-        /**
-         * 用户偏好矩阵。
-         * 结构：userPreference[userId][productId] = 偏好分数
-         * 偏好分数 = 购买次数 × 1.0 + 收藏次数 × 0.5
-         */
-        private final Map<Long, Map<Long, Double>> userPreference;
-
-        /**
-         * 商品频率统计。
-         * 结构：itemFrequency[productId] = 该商品被购买/收藏的总次数
-         * 用于相似度计算中的归一化
-         */
-        private final Map<Long, Integer> itemFrequency;
-
-        /**
-         * 商品共现矩阵。
-         * 结构：coMatrix[productA][productB] = 商品A和B的共现次数
-         * 共现：指同一用户同时购买/收藏了商品A和B
-         * 用于计算商品之间的相似度
-         */
-        private final Map<Long, Map<Long, Double>> coMatrix;
-
-        /**
-         * 构造函数。
-         *
-         * @param userPreference 用户偏好矩阵
-         * @param itemFrequency  商品频率统计
-         * @param coMatrix       商品共现矩阵
-         */
-        RecommendContext(Map<Long, Map<Long, Double>> userPreference,
-                         Map<Long, Integer> itemFrequency,
-                         Map<Long, Map<Long, Double>> coMatrix) {
-            this.userPreference = userPreference;
-            this.itemFrequency = itemFrequency;
-            this.coMatrix = coMatrix;
-        }
-
-        /**
-         * 创建空的推荐上下文。
-         * 当没有数据时返回空上下文。
-         *
-         * @return 空的推荐上下文
-         */
-        static RecommendContext empty() {
-            return new RecommendContext(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
-        }
-    }
 }
-
-
@@ -0,0 +1,237 @@
+package com.agrismart.agrimallbackend.service.home.impl;
+
+import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.util.ValidateEntityUtil;
+import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.entity.home.Seckill;
+import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
+import com.agrismart.agrimallbackend.mapper.home.SeckillMapper;
+import com.agrismart.agrimallbackend.service.home.ISeckillService;
+import com.agrismart.agrimallbackend.service.home.seckill.SeckillOrderQueue;
+import com.agrismart.agrimallbackend.service.home.seckill.SeckillQuota;
+import com.agrismart.agrimallbackend.service.home.seckill.SeckillRequest;
+import com.github.pagehelper.PageHelper;
+import com.github.pagehelper.PageInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 秒杀服务实现类。
+ *
+ * 该类实现了 {@link ISeckillService} 接口。抢购路径上不访问数据库：
+ * 活动信息来自本地缓存（定时刷新），名额校验和扣减由 {@link SeckillQuota} 在 Redis 中原子完成，
+ * 订单由 {@link SeckillOrderQueue} 批量创建。已售罄的活动在本地标记，后续请求不再访问 Redis。
+ *
+ * @author agrimall
+ * @see com.agrismart.agrimallbackend.service.home.ISeckillService
+ * @since 1.0
+ */
+@Service
+public class SeckillServiceImpl implements ISeckillService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeckillServiceImpl.class);
+
+    /**
+     * 秒杀活动数据访问对象。
+     */
+    @Autowired
+    private SeckillMapper seckillMapper;
+
+    /**
+     * 商品数据访问对象。
+     * 创建活动时校验商品和库存。
+     */
+    @Autowired
+    private ProductMapper productMapper;
+
+    /**
+     * 秒杀名额服务。
+     */
+    @Autowired
+    private SeckillQuota seckillQuota;
+
+    /**
+     * 秒杀下单队列。
+     */
+    @Autowired
+    private SeckillOrderQueue seckillOrderQueue;
+
+    /**
+     * 未结束的秒杀活动（活动ID -> 活动），按开始时间排序，整体替换。
+     */
+    private volatile Map<Long, Seckill> activeSeckills = Collections.emptyMap();
+
+    /**
+     * 本节点已知售罄的秒杀活动ID。
+     */
+    private final Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public ResponseVo<List<Seckill>> listActive() {
+        return ResponseVo.success(new ArrayList<>(activeSeckills.values()));
+    }
+
+    @Override
+    public ResponseVo<PageInfo> selectByPage(Integer pageNum, Integer pageSize) {
+        PageHelper.startPage(pageNum, pageSize);
+        List<Seckill> seckillList = seckillMapper.selectAll();
+        PageInfo<Seckill> pageInfo = new PageInfo<>(seckillList);
+        pageInfo.setList(seckillList);
+        return ResponseVo.success(pageInfo);
+    }
+
+    @Override
+    public ResponseVo<Boolean> add(Seckill seckill) {
+        if (seckill == null) {
+            return ResponseVo.errorByMsg(CodeMsg.DATA_ERROR);
+        }
+        CodeMsg validate = ValidateEntityUtil.validate(seckill);
+        if (!validate.getCode().equals(CodeMsg.SUCCESS.getCode())) {
+            return ResponseVo.errorByMsg(validate);
+        }
+        if (!seckill.getEndTime().after(seckill.getStartTime())) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_TIME_ERROR);
+        }
+        Product product = productMapper.selectByPrimaryKey(seckill.getProductId());
+        if (product == null) {
+            return ResponseVo.errorByMsg(CodeMsg.PRODUCT_NOT_EXIST);
+        }
+        if (product.getStock() == null || product.getStock() < seckill.getQuota()) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_QUOTA_EXCEED_STOCK);
+        }
+        if (seckillMapper.insertSelective(seckill) <= 0) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_ADD_ERROR);
+        }
+        seckillQuota.preload(seckill.getId(), seckill.getQuota(), seckill.getEndTime());
+        refresh();
+        return ResponseVo.successByMsg(true, "添加成功！");
+    }
+
+    @Override
+    public ResponseVo<String> token(Long seckillId, Long userId) {
+        Seckill seckill = activeSeckills.get(seckillId);
+        if (seckill == null) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_NOT_EXIST);
+        }
+        if (!inTime(seckill)) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_NOT_IN_TIME);
+        }
+        if (soldOut.contains(seckillId)) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_SOLD_OUT);
+        }
+        String token = UUID.randomUUID().toString().replace("-", "");
+        long result;
+        try {
+            result = seckillQuota.issueToken(seckillId, userId, seckill.getQuota(), token);
+        } catch (DataAccessException e) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_BUSY);
+        }
+        if (result == 1) {
+            return ResponseVo.success(token);
+        }
+        if (result == 0) {
+            soldOut.add(seckillId);
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_SOLD_OUT);
+        }
+        return ResponseVo.errorByMsg(result == -2 ? CodeMsg.SECKILL_REPEAT : CodeMsg.SECKILL_BUSY);
+    }
+
+    @Override
+    public ResponseVo<Boolean> attempt(Long seckillId, Long userId, String token) {
+        Seckill seckill = activeSeckills.get(seckillId);
+        if (seckill == null) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_NOT_EXIST);
+        }
+        if (!inTime(seckill)) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_NOT_IN_TIME);
+        }
+        if (soldOut.contains(seckillId)) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_SOLD_OUT);
+        }
+        long result;
+        try {
+            result = seckillQuota.attempt(seckillId, userId, token);
+        } catch (DataAccessException e) {
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_BUSY);
+        }
+        if (result == 0) {
+            soldOut.add(seckillId);
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_SOLD_OUT);
+        }
+        if (result != 1) {
+            return ResponseVo.errorByMsg(result == -2 ? CodeMsg.SECKILL_REPEAT : CodeMsg.SECKILL_TOKEN_INVALID);
+        }
+        Product product = seckill.getProduct();
+        SeckillRequest request = new SeckillRequest(seckillId, userId, seckill.getProductId(),
+                product.getProductName(), product.getProductPic(), seckill.getSeckillPrice());
+        if (!seckillOrderQueue.offer(request)) {
+            seckillQuota.restore(seckillId, userId);
+            return ResponseVo.errorByMsg(CodeMsg.SECKILL_BUSY);
+        }
+        return ResponseVo.successByMsg(true, "秒杀成功，订单创建中！");
+    }
+
+    @Override
+    public ResponseVo<Map<String, Object>> result(Long seckillId, Long userId) {
+        Long result = seckillQuota.result(seckillId, userId);
+        Map<String, Object> payload = new HashMap<>(2);
+        if (result == null) {
+            payload.put("status", "none");
+        } else if (result == SeckillQuota.RESULT_QUEUING) {
+            payload.put("status", "queuing");
+        } else if (result == SeckillQuota.RESULT_FAILED) {
+            payload.put("status", "failed");
+        } else {
+            payload.put("status", "success");
+            payload.put("orderId", result);
+        }
+        return ResponseVo.success(payload);
+    }
+
+    /**
+     * 刷新本地活动缓存，补齐缺失的名额，并清除已有名额归还的售罄标记。
+     */
+    @Scheduled(fixedDelayString = "${xqx.seckill.refresh-interval:5000}")
+    public synchronized void refresh() {
+        try {
+            Map<Long, Seckill> active = new LinkedHashMap<>();
+            for (Seckill seckill : seckillMapper.selectActive()) {
+                if (seckill.getProduct() == null) {
+                    continue;
+                }
+                seckillQuota.preload(seckill.getId(), seckill.getQuota(), seckill.getEndTime());
+                active.put(seckill.getId(), seckill);
+            }
+            activeSeckills = active;
+            soldOut.retainAll(active.keySet());
+            for (Long seckillId : new ArrayList<>(soldOut)) {
+                Long remaining = seckillQuota.remaining(seckillId);
+                if (remaining != null && remaining > 0) {
+                    soldOut.remove(seckillId);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("秒杀活动缓存刷新失败，继续使用上一次的活动列表", e);
+        }
+    }
+
+    private boolean inTime(Seckill seckill) {
+        long now = System.currentTimeMillis();
+        return now >= seckill.getStartTime().getTime() && now < seckill.getEndTime().getTime();
+    }
+}
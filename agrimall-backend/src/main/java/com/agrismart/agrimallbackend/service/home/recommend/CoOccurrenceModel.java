@@ -0,0 +1,425 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 商品共现计数模型（可变）。
+ *
+ * 该类保存协同过滤所需的原始计数，是 {@link RecommendIndex} 的数据来源：
+ *
+ * - idIndex: 商品ID -> 稠密下标，下标按首次出现顺序分配且不会回收
+ * - frequency: 商品频率统计 [index] = 被多少个用户购买/收藏
+ * - rows: 商品共现矩阵 [indexA] = {indexB -> 同时拥有商品A和B的用户数}
+ *
+ * 所有计数都保存在基本类型数组和 {@link LongIntHashMap} 中，不使用装箱的 Long/Integer，
+ * 因此内存占用与共现商品对数量成正比，而不是与 HashMap 节点数量成正比。
+ *
+ * 计数既可以由 {@link RecommendIndexBuilder} 从全量历史一次性累加（并行构建时各线程累加局部模型后 {@link #merge} 汇总），
+ * 也可以由下单、收藏等行为事件增量更新：每个事件只会触及该用户已有商品与新商品组成的商品对。
+ * 计数可以随索引一起写入快照文件（{@link #snapshot}），加载快照的节点通过 {@link #restore} 还原出稠密下标一致的模型。
+ *
+ * 注意：该类不是线程安全的，由 {@link RecommendIndexHolder} 加锁后访问。
+ *
+ * @author agrimall
+ * @see RecommendIndexHolder
+ * @since 1.0
+ */
+public class CoOccurrenceModel {
+
+    /**
+     * 商品ID -> 稠密下标。
+     */
+    private final LongIntHashMap idIndex = new LongIntHashMap(1024);
+
+    /**
+     * 稠密下标 -> 商品ID。
+     */
+    private long[] productIds = new long[1024];
+
+    /**
+     * 商品频率统计，按稠密下标存储。
+     */
+    private int[] frequency = new int[1024];
+
+    /**
+     * 共现矩阵的行，按稠密下标存储，键为另一个商品的稠密下标。
+     */
+    private LongIntHashMap[] rows = new LongIntHashMap[1024];
+
+    /**
+     * 已分配的稠密下标数量。
+     */
+    private int size;
+
+    /**
+     * 计数所反映的数据时间点（毫秒时间戳）。
+     * 全量构建时为打开读游标的时间，之后提交的行为需要通过增量更新补上。
+     */
+    private long dataTime;
+
+    /**
+     * 用户新增拥有的商品。
+     *
+     * - 每个新增商品的频率 +1
+     * - 新增商品与用户已有商品两两共现次数 +1
+     * - 新增商品之间两两共现次数 +1
+     *
+     * 全量构建时对每个用户调用 {@code addItems(空集合, 该用户的商品集合)} 即可。
+     *
+     * @param existing 用户原本已拥有的商品（不包含新增商品）
+     * @param added    用户新增拥有的商品（已去重）
+     */
+    public void addItems(Collection<Long> existing, Collection<Long> added) {
+        int[] existingIdx = intern(existing);
+        int[] addedIdx = intern(added);
+        for (int item : addedIdx) {
+            frequency[item]++;
+            for (int other : existingIdx) {
+                increment(item, other, 1);
+                increment(other, item, 1);
+            }
+            for (int other : addedIdx) {
+                if (item != other) {
+                    increment(item, other, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * 用户不再拥有某些商品（例如取消收藏），与 {@link #addItems} 互为逆操作。
+     *
+     * @param remaining 用户仍然拥有的商品（不包含移除商品）
+     * @param removed   用户不再拥有的商品（已去重）
+     */
+    public void removeItems(Collection<Long> remaining, Collection<Long> removed) {
+        int[] remainingIdx = intern(remaining);
+        int[] removedIdx = intern(removed);
+        for (int item : removedIdx) {
+            if (frequency[item] > 0) {
+                frequency[item]--;
+            }
+            for (int other : remainingIdx) {
+                increment(item, other, -1);
+                increment(other, item, -1);
+            }
+            for (int other : removedIdx) {
+                if (item != other) {
+                    increment(item, other, -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将整个模型转换为只读索引快照。
+     *
+     * @param maxNeighbours 每个商品保留的近邻数量上限
+     * @return 索引快照
+     */
+    public RecommendIndex toIndex(int maxNeighbours) {
+        return patch(null, null, maxNeighbours);
+    }
+
+    /**
+     * 在旧快照的基础上只重算发生变化的商品行，生成新的只读索引快照。
+     *
+     * 旧快照必须由同一个模型生成（稠密下标空间一致），未变化的行直接按下标复制。
+     *
+     * @param base          旧快照，为 null 时重算所有行
+     * @param dirtyItems    计数发生变化的商品ID
+     * @param maxNeighbours 每个商品保留的近邻数量上限
+     * @return 新的索引快照
+     */
+    public RecommendIndex patch(RecommendIndex base, Set<Long> dirtyItems, int maxNeighbours) {
+        boolean[] dirty = new boolean[size];
+        if (dirtyItems != null) {
+            for (Long productId : dirtyItems) {
+                int index = idIndex.getOrDefault(productId, -1);
+                if (index >= 0) {
+                    dirty[index] = true;
+                }
+            }
+        }
+        int baseRows = base == null ? 0 : base.rowCount();
+
+        int[] rowOffsets = new int[size + 1];
+        int[] columns = new int[Math.max(16, base == null ? size : base.pairCount() + 64)];
+        float[] weights = new float[columns.length];
+        long[] heap = new long[Math.max(maxNeighbours, 1)];
+        int cursor = 0;
+        for (int i = 0; i < size; i++) {
+            rowOffsets[i] = cursor;
+            if (i < baseRows && !dirty[i]) {
+                int start = base.rowStart(i);
+                int length = base.rowEnd(i) - start;
+                if (cursor + length > columns.length) {
+                    columns = Arrays.copyOf(columns, Math.max(columns.length * 2, cursor + length));
+                    weights = Arrays.copyOf(weights, columns.length);
+                }
+                base.copyRow(start, length, columns, weights, cursor);
+                cursor += length;
+                continue;
+            }
+            LongIntHashMap row = rows[i];
+            int freqA = frequency[i];
+            if (row == null || row.size() == 0 || freqA == 0) {
+                continue;
+            }
+            int count = 0;
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                if (!row.isUsed(slot)) {
+                    continue;
+                }
+                int other = (int) row.keyAt(slot);
+                int freqB = frequency[other];
+                if (freqB == 0) {
+                    continue;
+                }
+                // 相似度公式：sim(A, B) = coMatrix[A][B] / sqrt(freqA × freqB)
+                float similarity = (float) (row.valueAt(slot) / Math.sqrt((double) freqA * freqB));
+                if (similarity <= 0) {
+                    continue;
+                }
+                // 正浮点数的位模式与数值同序，高 32 位放相似度、低 32 位放下标，比较 long 即可按相似度排序
+                long packed = ((long) Float.floatToIntBits(similarity) << 32) | other;
+                // 只保留最强的 maxNeighbours 个近邻：容量固定的最小堆，堆顶是当前最弱的近邻
+                if (count < maxNeighbours) {
+                    heap[count] = packed;
+                    siftUp(heap, count++);
+                } else if (packed > heap[0]) {
+                    heap[0] = packed;
+                    siftDown(heap, count);
+                }
+            }
+            Arrays.sort(heap, 0, count);
+            if (cursor + count > columns.length) {
+                columns = Arrays.copyOf(columns, Math.max(columns.length * 2, cursor + count));
+                weights = Arrays.copyOf(weights, columns.length);
+            }
+            for (int k = count - 1; k >= 0; k--) {
+                long packed = heap[k];
+                columns[cursor] = (int) packed;
+                weights[cursor] = Float.intBitsToFloat((int) (packed >>> 32));
+                cursor++;
+            }
+        }
+        rowOffsets[size] = cursor;
+        return new RecommendIndex(idIndex.copy(),
+                Arrays.copyOf(productIds, size),
+                Arrays.copyOf(frequency, size),
+                rowOffsets,
+                Arrays.copyOf(columns, cursor),
+                Arrays.copyOf(weights, cursor),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 获取共现单元格数量（有序商品对数）。
+     *
+     * @return 共现单元格数量
+     */
+    public long pairCount() {
+        long pairs = 0;
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != null) {
+                pairs += rows[i].size();
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * 导出全部计数，与同一时刻由本模型生成的索引一起写入快照文件。
+     *
+     * @param index 由本模型当前计数生成的索引快照
+     * @return 包含索引和计数的快照
+     */
+    public RecommendSnapshot snapshot(RecommendIndex index) {
+        long pairs = pairCount();
+        if (pairs > Integer.MAX_VALUE) {
+            throw new IllegalStateException("共现商品对过多，无法导出快照");
+        }
+        int[] pairOffsets = new int[size + 1];
+        int[] pairColumns = new int[(int) pairs];
+        int[] pairCounts = new int[(int) pairs];
+        int cursor = 0;
+        for (int i = 0; i < size; i++) {
+            pairOffsets[i] = cursor;
+            LongIntHashMap row = rows[i];
+            if (row == null) {
+                continue;
+            }
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                if (row.isUsed(slot)) {
+                    pairColumns[cursor] = (int) row.keyAt(slot);
+                    pairCounts[cursor] = row.valueAt(slot);
+                    cursor++;
+                }
+            }
+        }
+        pairOffsets[size] = cursor;
+        return new RecommendSnapshot(index, pairOffsets, pairColumns, pairCounts, dataTime);
+    }
+
+    /**
+     * 由快照还原模型，稠密下标按快照中索引的商品顺序分配，因此可以继续 {@link #patch} 该索引。
+     *
+     * @param snapshot 快照
+     * @return 共现计数模型
+     */
+    public static CoOccurrenceModel restore(RecommendSnapshot snapshot) {
+        long[] ids = snapshot.getIndex().productIds();
+        int[] counts = snapshot.getIndex().frequency();
+        int[] pairOffsets = snapshot.pairOffsets();
+        int[] pairColumns = snapshot.pairColumns();
+        int[] pairCounts = snapshot.pairCounts();
+        CoOccurrenceModel model = new CoOccurrenceModel();
+        for (int i = 0; i < ids.length; i++) {
+            int index = model.internId(ids[i]);
+            if (index != i) {
+                throw new IllegalStateException("快照中的商品ID重复：" + ids[i]);
+            }
+            model.frequency[index] = counts[i];
+            int start = pairOffsets[i];
+            int end = pairOffsets[i + 1];
+            if (end > start) {
+                LongIntHashMap row = new LongIntHashMap(end - start);
+                for (int k = start; k < end; k++) {
+                    row.put(pairColumns[k], pairCounts[k]);
+                }
+                model.rows[index] = row;
+            }
+        }
+        model.dataTime = snapshot.getDataTime();
+        return model;
+    }
+
+    /**
+     * 获取计数所反映的数据时间点。
+     *
+     * @return 毫秒时间戳
+     */
+    public long getDataTime() {
+        return dataTime;
+    }
+
+    /**
+     * 设置计数所反映的数据时间点。
+     *
+     * @param dataTime 毫秒时间戳
+     */
+    public void setDataTime(long dataTime) {
+        this.dataTime = dataTime;
+    }
+
+    /**
+     * 合并另一个模型的计数，用于并行构建时汇总各线程的局部模型。
+     *
+     * 两个模型的稠密下标空间相互独立，合并时按商品ID重新映射。
+     *
+     * @param other 另一个模型，合并后不应再使用
+     */
+    public void merge(CoOccurrenceModel other) {
+        int[] mapping = new int[other.size];
+        for (int i = 0; i < other.size; i++) {
+            mapping[i] = internId(other.productIds[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            int target = mapping[i];
+            frequency[target] += other.frequency[i];
+            LongIntHashMap row = other.rows[i];
+            if (row == null) {
+                continue;
+            }
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                if (row.isUsed(slot)) {
+                    increment(target, mapping[(int) row.keyAt(slot)], row.valueAt(slot));
+                }
+            }
+        }
+    }
+
+    /**
+     * 把商品ID转换为稠密下标，首次出现的商品分配新下标。
+     */
+    private int[] intern(Collection<Long> ids) {
+        int[] result = new int[ids.size()];
+        int count = 0;
+        for (Long id : ids) {
+            if (id != null) {
+                result[count++] = internId(id);
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private int internId(long id) {
+        int index = idIndex.getOrDefault(id, -1);
+        if (index < 0) {
+            index = size;
+            if (index == productIds.length) {
+                int capacity = productIds.length * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                frequency = Arrays.copyOf(frequency, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            productIds[index] = id;
+            idIndex.put(id, index);
+            size++;
+        }
+        return index;
+    }
+
+    private static void siftUp(long[] heap, int pos) {
+        long value = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int pos = 0;
+        while (true) {
+            int child = (pos << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = value;
+    }
+
+    /**
+     * 调整共现次数，减到 0 时移除对应单元格。
+     */
+    private void increment(int itemA, int itemB, int delta) {
+        LongIntHashMap row = rows[itemA];
+        if (row == null) {
+            if (delta <= 0) {
+                return;
+            }
+            row = new LongIntHashMap(4);
+            rows[itemA] = row;
+        }
+        if (row.addTo(itemB, delta) <= 0) {
+            row.remove(itemB);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import java.util.Arrays;
+
+/**
+ * long -> int 开放寻址哈希表。
+ *
+ * 推荐模型中商品ID到稠密下标的映射、共现计数等数据量很大，
+ * 使用 {@code HashMap<Long, Integer>} 时每个条目都要额外分配装箱的 Long、Integer 和链表节点。
+ * 该类使用线性探测，键和值分别保存在两个基本类型数组中，查询和累加过程中不产生任何对象。
+ *
+ * 约束：
+ *
+ * - {@link Long#MIN_VALUE} 用作空槽标记，不能作为键
+ * - 负载因子达到 0.6 时容量翻倍
+ * - 删除采用向后移位，不留墓碑
+ *
+ * 注意：该类不是线程安全的。
+ *
+ * @author agrimall
+ * @see CoOccurrenceModel
+ * @see RecommendIndex
+ * @since 1.0
+ */
+public class LongIntHashMap {
+
+    /**
+     * 空槽标记。
+     */
+    private static final long FREE_KEY = Long.MIN_VALUE;
+
+    /**
+     * 最大负载因子。
+     */
+    private static final float LOAD_FACTOR = 0.6F;
+
+    /**
+     * 键数组，长度为 2 的幂。
+     */
+    private long[] keys;
+
+    /**
+     * 值数组，与键数组一一对应。
+     */
+    private int[] values;
+
+    /**
+     * 当前条目数。
+     */
+    private int size;
+
+    /**
+     * 扩容阈值。
+     */
+    private int threshold;
+
+    /**
+     * 构造函数。
+     *
+     * @param expectedSize 预计条目数
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (Math.max(expectedSize, 2) / LOAD_FACTOR), 2) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /**
+     * 查询键对应的值。
+     *
+     * @param key          键
+     * @param defaultValue 键不存在时返回的值
+     * @return 键对应的值
+     */
+    public int getOrDefault(long key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * 写入键值对，已存在时覆盖。
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(long key, int value) {
+        int slot = insertionSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * 把键对应的值加上 delta，键不存在时视为 0。
+     *
+     * @param key   键
+     * @param delta 增量
+     * @return 累加后的值
+     */
+    public int addTo(long key, int delta) {
+        int slot = insertionSlot(key);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * 删除键。
+     *
+     * @param key 键
+     * @return true 表示键存在并已删除
+     */
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        // 向后移位：把后续探测链上的条目前移，保证查找不会在空洞处提前终止
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = 0;
+        size--;
+        return true;
+    }
+
+    /**
+     * 获取条目数。
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取槽位总数，与 {@link #isUsed}、{@link #keyAt}、{@link #valueAt} 配合遍历全部条目。
+     *
+     * @return 槽位总数
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * 判断槽位是否被占用。
+     *
+     * @param slot 槽位
+     * @return true 表示该槽位保存了条目
+     */
+    public boolean isUsed(int slot) {
+        return keys[slot] != FREE_KEY;
+    }
+
+    /**
+     * 获取槽位上的键。
+     *
+     * @param slot 槽位
+     * @return 键
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * 获取槽位上的值。
+     *
+     * @param slot 槽位
+     * @return 值
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * 复制一份独立的哈希表，用于生成只读快照。
+     *
+     * @return 副本
+     */
+    public LongIntHashMap copy() {
+        LongIntHashMap copy = new LongIntHashMap(2);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.threshold = threshold;
+        return copy;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int insertionSlot(long key) {
+        if (key == FREE_KEY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE 不能作为键");
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE_KEY) {
+                if (size >= threshold) {
+                    rehash(keys.length << 1);
+                    return insertionSlot(key);
+                }
+                keys[slot] = key;
+                size++;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE_KEY) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != FREE_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * 64 位混淆函数（MurmurHash3 finalizer），避免连续ID聚集在相邻槽位。
+     */
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
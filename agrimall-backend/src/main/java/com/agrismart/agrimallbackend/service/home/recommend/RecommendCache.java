@@ -0,0 +1,127 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 个性化推荐结果缓存。
+ *
+ * 按用户缓存排好序的候选商品ID列表（分页旋转之前的结果），存储在 Redis 中：
+ *
+ * - Key 格式：recommend_{userId}
+ * - Value 格式：逗号分隔的商品ID；空字符串表示该用户没有个性化结果，直接走热销兜底
+ * - 过期时间由 {@code xqx.recommend.cache-ttl} 配置（默认 10 分钟），兜住索引重建带来的变化
+ * - 用户下单、提交订单、添加/取消收藏的事务提交后立即删除该用户的缓存
+ *
+ * Redis 不可用时只记录日志并视为未命中，不影响推荐接口。
+ *
+ * @author agrimall
+ * @see UserBehaviorEvent
+ * @since 1.0
+ */
+@Component
+public class RecommendCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendCache.class);
+
+    /**
+     * 推荐结果 Redis Key 模板。
+     * 格式：recommend_{userId}
+     */
+    private static final String RECOMMEND_REDIS_KEY_TEMPLATE = "recommend_%d";
+
+    /**
+     * Redis 模板。
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 缓存过期时间（秒）。
+     */
+    private final long ttlSeconds;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param redisTemplate Redis 模板
+     * @param ttlSeconds    缓存过期时间（秒）
+     */
+    @Autowired
+    public RecommendCache(StringRedisTemplate redisTemplate,
+                          @Value("${xqx.recommend.cache-ttl:600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * 读取用户的候选商品ID列表。
+     *
+     * @param userId 用户ID
+     * @return 候选商品ID列表（可能为空列表），未命中时返回 null
+     */
+    public List<Long> get(Long userId) {
+        String value;
+        try {
+            value = redisTemplate.opsForValue().get(String.format(RECOMMEND_REDIS_KEY_TEMPLATE, userId));
+        } catch (RuntimeException e) {
+            LOGGER.warn("读取推荐缓存失败，userId={}", userId, e);
+            return null;
+        }
+        if (value == null) {
+            return null;
+        }
+        if (value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] split = value.split(",");
+        List<Long> ids = new ArrayList<>(split.length);
+        for (String id : split) {
+            ids.add(Long.valueOf(id));
+        }
+        return ids;
+    }
+
+    /**
+     * 写入用户的候选商品ID列表。
+     *
+     * @param userId     用户ID
+     * @param orderedIds 按推荐分数降序的商品ID列表，空列表表示没有个性化结果
+     */
+    public void put(Long userId, List<Long> orderedIds) {
+        try {
+            redisTemplate.opsForValue().set(String.format(RECOMMEND_REDIS_KEY_TEMPLATE, userId),
+                    StringUtils.collectionToCommaDelimitedString(orderedIds), ttlSeconds, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            LOGGER.warn("写入推荐缓存失败，userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 用户行为事务提交后删除该用户的缓存。
+     *
+     * @param event 用户行为事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evict(UserBehaviorEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(String.format(RECOMMEND_REDIS_KEY_TEMPLATE, event.getUserId()));
+        } catch (RuntimeException e) {
+            LOGGER.warn("删除推荐缓存失败，userId={}", event.getUserId(), e);
+        }
+    }
+}
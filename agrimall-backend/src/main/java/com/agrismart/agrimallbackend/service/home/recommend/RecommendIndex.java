@@ -0,0 +1,273 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+/**
+ * 商品相似度索引（只读快照）。
+ *
+ * 该类保存离线构建好的物品协同过滤模型，所有商品先映射为稠密下标，近邻表以 CSR（压缩稀疏行）格式存储：
+ *
+ * - idIndex: 商品ID -> 稠密下标
+ * - productIds / frequency: [index] = 商品ID / 被多少个用户购买/收藏
+ * - rowOffsets: 第 i 行的近邻位于 columns/weights 的 [rowOffsets[i], rowOffsets[i + 1]) 区间
+ * - columns / weights: 近邻商品的稠密下标 / 余弦相似度（每行按相似度降序，最多 Top N 个）
+ *
+ * 相似度在构建阶段已经按余弦相似度计算完毕：
+ * sim(A, B) = coMatrix[A][B] / sqrt(freqA × freqB)
+ *
+ * 与 {@code Map<Long, List<...>>} 相比，每个近邻只占 8 字节（int 下标 + float 相似度），
+ * 打分时按下标顺序访问数组，不产生装箱和迭代器对象。
+ *
+ * 快照一经构建便不再修改，由 {@link RecommendIndexHolder} 原子替换（全量重建或增量修补），
+ * 因此请求线程可以在无锁的情况下并发读取。
+ *
+ * @author agrimall
+ * @see RecommendIndexHolder
+ * @see CoOccurrenceModel
+ * @since 1.0
+ */
+public class RecommendIndex {
+
+    /**
+     * 空索引，模型尚未构建完成或没有任何行为数据时使用。
+     */
+    private static final RecommendIndex EMPTY = new RecommendIndex(new LongIntHashMap(2),
+            new long[0], new int[0], new int[]{0}, new int[0], new float[0], 0L);
+
+    /**
+     * 商品ID -> 稠密下标。
+     */
+    private final LongIntHashMap idIndex;
+
+    /**
+     * 稠密下标 -> 商品ID。
+     */
+    private final long[] productIds;
+
+    /**
+     * 商品频率统计，按稠密下标存储。
+     */
+    private final int[] frequency;
+
+    /**
+     * 每行近邻在 columns/weights 中的起始位置，长度为商品数 + 1。
+     */
+    private final int[] rowOffsets;
+
+    /**
+     * 近邻商品的稠密下标。
+     */
+    private final int[] columns;
+
+    /**
+     * 近邻商品的余弦相似度，与 columns 一一对应。
+     */
+    private final float[] weights;
+
+    /**
+     * 有过购买/收藏行为的商品数量。
+     */
+    private final int itemCount;
+
+    /**
+     * 索引构建完成的时间戳（毫秒），用于日志和排查。
+     */
+    private final long buildTime;
+
+    /**
+     * 构造函数，数组由调用方移交，之后不能再修改。
+     *
+     * @param idIndex    商品ID -> 稠密下标
+     * @param productIds 稠密下标 -> 商品ID
+     * @param frequency  商品频率统计
+     * @param rowOffsets 每行近邻的起始位置
+     * @param columns    近邻商品的稠密下标
+     * @param weights    近邻商品的余弦相似度
+     * @param buildTime  构建完成时间戳
+     */
+    public RecommendIndex(LongIntHashMap idIndex,
+                          long[] productIds,
+                          int[] frequency,
+                          int[] rowOffsets,
+                          int[] columns,
+                          float[] weights,
+                          long buildTime) {
+        this.idIndex = idIndex;
+        this.productIds = productIds;
+        this.frequency = frequency;
+        this.rowOffsets = rowOffsets;
+        this.columns = columns;
+        this.weights = weights;
+        this.buildTime = buildTime;
+        int count = 0;
+        for (int value : frequency) {
+            if (value > 0) {
+                count++;
+            }
+        }
+        this.itemCount = count;
+    }
+
+    /**
+     * 由数组还原索引（例如从快照文件加载），根据商品ID数组重建 ID -> 下标映射。
+     *
+     * @param productIds 稠密下标 -> 商品ID
+     * @param frequency  商品频率统计
+     * @param rowOffsets 每行近邻的起始位置
+     * @param columns    近邻商品的稠密下标
+     * @param weights    近邻商品的余弦相似度
+     * @param buildTime  构建完成时间戳
+     * @return 索引快照
+     */
+    public static RecommendIndex of(long[] productIds,
+                                    int[] frequency,
+                                    int[] rowOffsets,
+                                    int[] columns,
+                                    float[] weights,
+                                    long buildTime) {
+        LongIntHashMap idIndex = new LongIntHashMap(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            idIndex.put(productIds[i], i);
+        }
+        return new RecommendIndex(idIndex, productIds, frequency, rowOffsets, columns, weights, buildTime);
+    }
+
+    /**
+     * 获取空索引。
+     *
+     * @return 空索引
+     */
+    public static RecommendIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 判断索引是否为空。
+     *
+     * @return true 表示没有任何近邻数据
+     */
+    public boolean isEmpty() {
+        return columns.length == 0;
+    }
+
+    /**
+     * 查询商品的稠密下标。
+     *
+     * @param productId 商品ID
+     * @return 稠密下标，商品不在索引中时返回 -1
+     */
+    public int indexOf(long productId) {
+        return idIndex.getOrDefault(productId, -1);
+    }
+
+    /**
+     * 根据稠密下标获取商品ID。
+     *
+     * @param index 稠密下标
+     * @return 商品ID
+     */
+    public long productIdAt(int index) {
+        return productIds[index];
+    }
+
+    /**
+     * 获取第 index 行近邻在 {@link #columnAt}/{@link #weightAt} 中的起始位置（包含）。
+     *
+     * @param index 稠密下标
+     * @return 起始位置
+     */
+    public int rowStart(int index) {
+        return rowOffsets[index];
+    }
+
+    /**
+     * 获取第 index 行近邻的结束位置（不包含）。
+     *
+     * @param index 稠密下标
+     * @return 结束位置
+     */
+    public int rowEnd(int index) {
+        return rowOffsets[index + 1];
+    }
+
+    /**
+     * 获取近邻商品的稠密下标。
+     *
+     * @param position 位置，取值范围见 {@link #rowStart}/{@link #rowEnd}
+     * @return 近邻商品的稠密下标
+     */
+    public int columnAt(int position) {
+        return columns[position];
+    }
+
+    /**
+     * 获取近邻商品的余弦相似度。
+     *
+     * @param position 位置，取值范围见 {@link #rowStart}/{@link #rowEnd}
+     * @return 余弦相似度
+     */
+    public float weightAt(int position) {
+        return weights[position];
+    }
+
+    /**
+     * 获取稠密下标总数（包含频率已降为 0 的商品），打分缓冲区按此大小分配。
+     *
+     * @return 稠密下标总数
+     */
+    public int rowCount() {
+        return productIds.length;
+    }
+
+    /**
+     * 获取近邻条目总数。
+     *
+     * @return 近邻条目总数
+     */
+    public int pairCount() {
+        return columns.length;
+    }
+
+    /**
+     * 获取索引中的商品数量。
+     *
+     * @return 商品数量
+     */
+    public int size() {
+        return itemCount;
+    }
+
+    /*
+     * 以下方法直接暴露内部数组，只供 {@link RecommendSnapshotStore} 写快照文件使用，调用方不能修改。
+     */
+
+    long[] productIds() {
+        return productIds;
+    }
+
+    int[] frequency() {
+        return frequency;
+    }
+
+    int[] rowOffsets() {
+        return rowOffsets;
+    }
+
+    int[] columns() {
+        return columns;
+    }
+
+    float[] weights() {
+        return weights;
+    }
+
+    /**
+     * 复制一行近邻，供 {@link CoOccurrenceModel#patch} 复用未变化的行。
+     */
+    void copyRow(int start, int length, int[] targetColumns, float[] targetWeights, int targetOffset) {
+        System.arraycopy(columns, start, targetColumns, targetOffset, length);
+        System.arraycopy(weights, start, targetWeights, targetOffset, length);
+    }
+
+    public long getBuildTime() {
+        return buildTime;
+    }
+}
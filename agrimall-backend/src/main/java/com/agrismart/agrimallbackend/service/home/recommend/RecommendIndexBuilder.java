@@ -0,0 +1,274 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.entity.common.UserProduct;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import com.agrismart.agrimallbackend.service.common.order.OrderArchiver;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 商品共现模型构建器。
+ *
+ * 该类负责从全量历史行为数据中构建 {@link CoOccurrenceModel}，包括：
+ *
+ * - 用户行为汇总：流式读取按用户排序的购买/收藏记录，逐个用户拼出商品集合
+ * - 商品频率统计：统计每个商品被多少个用户购买/收藏
+ * - 共现矩阵构建：统计商品之间的共现次数（同一用户购买/收藏的商品对）
+ *
+ * 近邻计算（按余弦相似度保留 Top N）由 {@link CoOccurrenceModel#toIndex(int)} 完成。
+ *
+ * 历史记录通过 MyBatis {@link Cursor} 逐行读取，每凑满 {@code xqx.recommend.build-batch-size} 个用户
+ * 就作为一个批次提交到独立的 {@link ForkJoinPool} 中累加，并行度由 {@code xqx.recommend.build-parallelism}
+ * 配置（默认使用全部 CPU 核）。每个工作线程只维护一个局部模型，全部批次完成后再两两合并；
+ * 同时在途的批次数有上限，因此内存占用与历史记录总量无关。
+ *
+ * 返回的模型记录打开读游标的时间（{@link CoOccurrenceModel#getDataTime()}），
+ * {@link RecommendIndexHolder} 据此只重放读游标打开之后提交的行为。
+ *
+ * 构建过程需要扫描订单、订单项和收藏全表，耗时较长，
+ * 只应由 {@link RecommendIndexHolder} 在后台线程中调用，不能出现在请求链路上。
+ *
+ * @author agrimall
+ * @see CoOccurrenceModel
+ * @see RecommendIndexHolder
+ * @since 1.0
+ */
+@Component
+public class RecommendIndexBuilder {
+
+    /**
+     * 订单项数据访问对象。
+     * 用于流式查询全部用户的购买/收藏记录。
+     */
+    private final OrderItemMapper orderItemMapper;
+
+    /**
+     * 订单归档任务。
+     * 提供已归档的月份，购买记录包含归档的订单。
+     */
+    private final OrderArchiver orderArchiver;
+
+    /**
+     * 只读事务模板。
+     * Cursor 需要在同一个数据库会话中消费完毕。
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 构建共现矩阵的并行度。
+     */
+    private final int parallelism;
+
+    /**
+     * 每个批次包含的用户数。
+     */
+    private final int batchSize;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderItemMapper    订单项数据访问对象
+     * @param orderArchiver      订单归档任务
+     * @param transactionManager 事务管理器
+     * @param parallelism        构建共现矩阵的并行度，小于等于 0 时使用 CPU 核数
+     * @param batchSize          每个批次包含的用户数
+     */
+    @Autowired
+    public RecommendIndexBuilder(OrderItemMapper orderItemMapper,
+                                 OrderArchiver orderArchiver,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${xqx.recommend.build-parallelism:0}") int parallelism,
+                                 @Value("${xqx.recommend.build-batch-size:1000}") int batchSize) {
+        this.orderItemMapper = orderItemMapper;
+        this.orderArchiver = orderArchiver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * 从全量历史数据构建商品共现计数模型。
+     *
+     * @return 构建好的共现计数模型，没有任何行为数据时返回空模型
+     */
+    public CoOccurrenceModel build() {
+        if (parallelism == 1) {
+            // 单线程：在调用线程中直接累加
+            CoOccurrenceModel model = new CoOccurrenceModel();
+            model.setDataTime(streamBaskets(batch -> accumulate(model, batch)));
+            return model;
+        }
+
+        // 每个工作线程从队列中借出一个局部模型，累加完一个批次后归还，局部模型数量等于并行度
+        BlockingQueue<CoOccurrenceModel> accumulators = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            accumulators.add(new CoOccurrenceModel());
+        }
+        // 限制在途批次数，读游标的速度快于累加时阻塞等待，避免批次堆积在内存中
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long dataTime = streamBaskets(batch -> {
+                acquire(inFlight, 1);
+                pool.execute(() -> {
+                    try {
+                        CoOccurrenceModel model = accumulators.take();
+                        try {
+                            accumulate(model, batch);
+                        } finally {
+                            accumulators.add(model);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failure.compareAndSet(null, new IllegalStateException("推荐模型构建被中断", e));
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            });
+            // 等待全部批次完成
+            acquire(inFlight, maxInFlight);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            // ========== 合并各线程的局部模型 ==========
+            List<CoOccurrenceModel> partials = new ArrayList<>(accumulators);
+            CoOccurrenceModel model = pool.invoke(new MergeTask(partials, 0, partials.size()));
+            model.setDataTime(dataTime);
+            return model;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 流式读取全部用户的购买/收藏记录，按用户拼成商品集合，每凑满一个批次回调一次。
+     *
+     * 记录已按用户ID排序，用户ID变化即表示上一个用户的商品集合已经完整。
+     * 共现矩阵只关心用户是否拥有某个商品，因此这里按集合去重，行为权重在打分阶段再使用。
+     *
+     * @param consumer 批次回调
+     * @return 读游标打开（查询快照建立）后的时间戳
+     */
+    private long streamBaskets(Consumer<List<Set<Long>>> consumer) {
+        return transactionTemplate.execute(status -> {
+            // 游标消费期间连接不能执行其他查询，归档月份要先查出来
+            List<String> months = orderArchiver.months();
+            try (Cursor<UserProduct> cursor = orderItemMapper.streamUserProducts(OrderStateEnum.unpurchasedCodes(), months)) {
+                long dataTime = System.currentTimeMillis();
+                List<Set<Long>> batch = new ArrayList<>(batchSize);
+                Set<Long> basket = new HashSet<>();
+                Long currentUser = null;
+                for (UserProduct row : cursor) {
+                    if (row.getUserId() == null || row.getProductId() == null) {
+                        continue;
+                    }
+                    if (!row.getUserId().equals(currentUser)) {
+                        if (!basket.isEmpty()) {
+                            batch.add(basket);
+                            basket = new HashSet<>();
+                            if (batch.size() >= batchSize) {
+                                consumer.accept(batch);
+                                batch = new ArrayList<>(batchSize);
+                            }
+                        }
+                        currentUser = row.getUserId();
+                    }
+                    basket.add(row.getProductId());
+                }
+                if (!basket.isEmpty()) {
+                    batch.add(basket);
+                }
+                if (!batch.isEmpty()) {
+                    consumer.accept(batch);
+                }
+                return dataTime;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 把一个批次的用户商品集合累加到模型中。
+     * 如果用户同时拥有商品A和B，则 coMatrix[A][B] += 1
+     */
+    private static void accumulate(CoOccurrenceModel model, List<Set<Long>> batch) {
+        for (Set<Long> basket : batch) {
+            model.addItems(Collections.emptyList(), basket);
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("推荐模型构建被中断", e);
+        }
+    }
+
+    /**
+     * 局部模型合并任务。
+     *
+     * 对半拆分后分别合并，再把较小的局部模型合并进较大的一个。
+     */
+    private static class MergeTask extends RecursiveTask<CoOccurrenceModel> {
+
+        private final List<CoOccurrenceModel> models;
+
+        private final int from;
+
+        private final int to;
+
+        MergeTask(List<CoOccurrenceModel> models, int from, int to) {
+            this.models = models;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CoOccurrenceModel compute() {
+            if (to - from == 1) {
+                return models.get(from);
+            }
+            int mid = (from + to) >>> 1;
+            MergeTask left = new MergeTask(models, from, mid);
+            MergeTask right = new MergeTask(models, mid, to);
+            left.fork();
+            CoOccurrenceModel rightModel = right.compute();
+            CoOccurrenceModel leftModel = left.join();
+            if (leftModel.pairCount() >= rightModel.pairCount()) {
+                leftModel.merge(rightModel);
+                return leftModel;
+            }
+            rightModel.merge(leftModel);
+            return rightModel;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 商品相似度索引持有者。
+ *
+ * 该类在内存中持有共现计数模型 {@link CoOccurrenceModel} 以及当前生效的 {@link RecommendIndex} 快照：
+ *
+ * - 下单、收藏等行为事件通过 {@link #applyAdded} / {@link #applyRemoved} 增量修改计数，并记录受影响的商品
+ * - 按 {@code xqx.recommend.publish-interval} 配置的间隔（默认 5 秒）只重算受影响商品的近邻行，发布新快照
+ * - 按 {@code xqx.recommend.refresh-interval} 配置的间隔（默认 10 分钟）全量重建，纠正增量更新累积的偏差
+ * - 最近的增量修改同时记入有界的重放日志，换上新模型（全量重建或加载快照）时，只重放提交时间晚于新模型
+ *   数据时间点的修改，避免已被全量读取的行为重复计数；提交时间取自事务提交后的回调，与数据时间点相差毫秒级，
+ *   落在这一窗口内或超出日志容量的少量行为可能多计或漏计一次，由下一次全量重建纠正
+ * - 启用 {@link RecommendSnapshotStore} 时，启动后先加载最新的快照文件立即提供服务；快照包含完整计数，
+ *   加载后仍可继续增量更新
+ * - 多节点共享快照目录时通过 Redis 锁保证每个周期只有一个节点重建并写出快照文件，其他节点轮询加载新版本快照；
+ *   等待一个重建间隔仍未加载到新快照（例如目录并未共享）时，本节点自行重建
+ * - 新快照通过 {@link AtomicReference} 原子替换，读请求始终看到完整的快照
+ * - 重建失败时保留旧模型和旧快照继续服务
+ *
+ * @author agrimall
+ * @see RecommendIndex
+ * @see CoOccurrenceModel
+ * @see RecommendIndexBuilder
+ * @see RecommendSnapshotStore
+ * @since 1.0
+ */
+@Component
+public class RecommendIndexHolder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendIndexHolder.class);
+
+    /**
+     * 全量重建锁 Redis Key，持有期间其他节点不再重建。
+     */
+    private static final String BUILD_LOCK_KEY = "recommend_build_lock";
+
+    /**
+     * 当前节点标识，写入重建锁便于排查。
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    /**
+     * 重放日志保留的增量修改条数上限。
+     */
+    private static final int JOURNAL_CAPACITY = 10000;
+
+    /**
+     * 模型构建器。
+     */
+    private final RecommendIndexBuilder indexBuilder;
+
+    /**
+     * 快照文件存储。
+     */
+    private final RecommendSnapshotStore snapshotStore;
+
+    /**
+     * Redis 模板。
+     * 用于多节点之间的重建锁。
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 全量重建间隔（毫秒），同时作为重建锁的过期时间。
+     */
+    private final long refreshInterval;
+
+    /**
+     * 每个商品保留的近邻数量上限。
+     */
+    private final int maxNeighbours;
+
+    /**
+     * 当前生效的索引快照。
+     */
+    private final AtomicReference<RecommendIndex> current = new AtomicReference<>(RecommendIndex.empty());
+
+    /**
+     * 保护 {@link #model}、{@link #dirtyItems}、{@link #journal} 和 {@link #journalTruncatedAt} 的锁。
+     */
+    private final Object modelLock = new Object();
+
+    /**
+     * 当前的共现计数模型。
+     * 本节点尚未全量构建过也未加载过快照文件时为 null，此时增量更新只记入重放日志。
+     */
+    private CoOccurrenceModel model;
+
+    /**
+     * 当前模型对应的全量索引版本（构建时间），用于判断快照目录中是否有更新的版本。
+     * 增量发布的索引会刷新构建时间，因此不能直接比较当前索引的构建时间。
+     */
+    private volatile long snapshotVersion;
+
+    /**
+     * 上一次因其他节点持有重建锁而跳过重建时的 {@link #snapshotVersion}，未跳过时为 -1。
+     * 只在调度线程中访问。
+     */
+    private long skippedVersion = -1L;
+
+    /**
+     * 自上次发布快照以来计数发生变化的商品。
+     */
+    private Set<Long> dirtyItems = new HashSet<>();
+
+    /**
+     * 最近的增量修改，按到达顺序保存，换上新模型时重放其中晚于新模型数据时间点的部分。
+     */
+    private final Deque<JournalEntry> journal = new ArrayDeque<>();
+
+    /**
+     * 因超出容量被丢弃的最新一条修改的提交时间，没有丢弃过时为 0。
+     */
+    private long journalTruncatedAt;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param indexBuilder    模型构建器
+     * @param snapshotStore   快照文件存储
+     * @param redisTemplate   Redis 模板
+     * @param maxNeighbours   每个商品保留的近邻数量上限
+     * @param refreshInterval 全量重建间隔（毫秒）
+     */
+    @Autowired
+    public RecommendIndexHolder(RecommendIndexBuilder indexBuilder,
+                                RecommendSnapshotStore snapshotStore,
+                                StringRedisTemplate redisTemplate,
+                                @Value("${xqx.recommend.max-neighbours:50}") int maxNeighbours,
+                                @Value("${xqx.recommend.refresh-interval:600000}") long refreshInterval) {
+        this.indexBuilder = indexBuilder;
+        this.snapshotStore = snapshotStore;
+        this.redisTemplate = redisTemplate;
+        this.maxNeighbours = Math.max(maxNeighbours, 1);
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 获取当前生效的索引快照。
+     *
+     * @return 索引快照（不会为 null）
+     */
+    public RecommendIndex current() {
+        return current.get();
+    }
+
+    /**
+     * 全量重建模型并原子替换当前快照。
+     *
+     * 启用快照文件时，先加载比当前更新的快照文件；只有拿到重建锁的节点才会重建并写出新版本。
+     * 没拿到锁的节点等待一个重建间隔，期间仍未加载到新版本快照则不再等待，自行重建。
+     */
+    @Scheduled(initialDelayString = "${xqx.recommend.initial-delay:0}",
+            fixedDelayString = "${xqx.recommend.refresh-interval:600000}")
+    public void refresh() {
+        if (snapshotStore.isEnabled()) {
+            loadSnapshot();
+            if (!tryAcquireBuildLock()) {
+                if (skippedVersion < 0 || snapshotVersion > skippedVersion) {
+                    skippedVersion = snapshotVersion;
+                    LOGGER.info("其他节点正在重建推荐索引，本节点等待加载快照");
+                    return;
+                }
+                LOGGER.warn("等待一个重建间隔仍未加载到其他节点的新快照，本节点自行重建，请确认各节点的快照目录是否共享");
+            }
+            skippedVersion = -1L;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            CoOccurrenceModel rebuilt = indexBuilder.build();
+            RecommendIndex index;
+            RecommendSnapshot snapshot = null;
+            synchronized (modelLock) {
+                replayJournal(rebuilt);
+                model = rebuilt;
+                dirtyItems = new HashSet<>();
+                index = rebuilt.toIndex(maxNeighbours);
+                snapshotVersion = index.getBuildTime();
+                current.set(index);
+                if (snapshotStore.isEnabled()) {
+                    // 计数会被后续增量修改，与索引在同一把锁内导出
+                    snapshot = rebuilt.snapshot(index);
+                }
+            }
+            LOGGER.info("推荐索引重建完成，商品数={}，耗时={}ms", index.size(), System.currentTimeMillis() - start);
+            if (snapshot != null) {
+                snapshotStore.save(snapshot);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("推荐索引重建失败，继续使用旧索引", e);
+        }
+    }
+
+    /**
+     * 发布增量快照：只重算计数发生变化的商品的近邻行，其余行沿用旧快照。
+     */
+    @Scheduled(initialDelayString = "${xqx.recommend.publish-interval:5000}",
+            fixedDelayString = "${xqx.recommend.publish-interval:5000}")
+    public void publish() {
+        synchronized (modelLock) {
+            if (model == null || dirtyItems.isEmpty()) {
+                return;
+            }
+            current.set(model.patch(current.get(), dirtyItems, maxNeighbours));
+            dirtyItems = new HashSet<>();
+        }
+    }
+
+    /**
+     * 轮询快照目录，加载其他节点写出的新版本。
+     */
+    @Scheduled(initialDelayString = "${xqx.recommend.snapshot.poll-interval:30000}",
+            fixedDelayString = "${xqx.recommend.snapshot.poll-interval:30000}")
+    public void pollSnapshot() {
+        if (snapshotStore.isEnabled()) {
+            loadSnapshot();
+        }
+    }
+
+    /**
+     * 如果快照目录中有比当前模型更新的版本，则加载并替换当前模型和索引。
+     *
+     * 快照中的计数包含写出节点读取的全量数据及其自身的增量修改，本节点在其上重放自己晚于快照数据时间点的修改，
+     * 受影响的行由下一次 {@link #publish()} 重算；其他节点在这段时间内的修改由下一次全量重建补上。
+     */
+    private void loadSnapshot() {
+        if (snapshotStore.latestVersion() <= snapshotVersion) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        RecommendSnapshot snapshot = snapshotStore.loadLatest();
+        if (snapshot == null || snapshot.getVersion() <= snapshotVersion) {
+            return;
+        }
+        CoOccurrenceModel loaded;
+        try {
+            loaded = snapshot.toModel();
+        } catch (RuntimeException e) {
+            LOGGER.warn("推荐索引快照{}计数无法还原，已忽略", snapshot.getVersion(), e);
+            return;
+        }
+        synchronized (modelLock) {
+            if (snapshot.getVersion() <= snapshotVersion) {
+                return;
+            }
+            dirtyItems = replayJournal(loaded);
+            model = loaded;
+            snapshotVersion = snapshot.getVersion();
+            current.set(snapshot.getIndex());
+        }
+        LOGGER.info("推荐索引快照加载完成，版本={}，商品数={}，耗时={}ms",
+                snapshot.getVersion(), snapshot.getIndex().size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 在新模型上重放提交时间晚于其数据时间点的修改，调用方需持有 {@link #modelLock}。
+     *
+     * @param target 新模型
+     * @return 重放涉及的商品
+     */
+    private Set<Long> replayJournal(CoOccurrenceModel target) {
+        if (journalTruncatedAt > target.getDataTime()) {
+            LOGGER.warn("推荐模型重放日志超出容量，部分增量修改要等下一次全量重建才能补上");
+        }
+        Set<Long> touched = new HashSet<>();
+        for (JournalEntry entry : journal) {
+            // 数据时间点之前提交的行为已包含在新模型中
+            if (entry.commitTime > target.getDataTime()) {
+                entry.change.accept(target);
+                touched.addAll(entry.changed);
+                touched.addAll(entry.others);
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * 尝试获取本周期的重建锁，锁在一个重建间隔后自动过期。
+     * Redis 不可用时退化为每个节点各自重建。
+     *
+     * @return true 表示本节点负责重建
+     */
+    private boolean tryAcquireBuildLock() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(BUILD_LOCK_KEY, NODE_ID, Duration.ofMillis(Math.max(refreshInterval, 1000L))));
+        } catch (RuntimeException e) {
+            LOGGER.warn("获取推荐索引重建锁失败，本节点直接重建", e);
+            return true;
+        }
+    }
+
+    /**
+     * 增量记录用户新增拥有的商品。
+     *
+     * @param existing   用户原本已拥有的商品（不包含新增商品）
+     * @param added      用户新增拥有的商品（已去重）
+     * @param commitTime 行为所在事务的提交时间（毫秒时间戳）
+     */
+    public void applyAdded(Collection<Long> existing, Collection<Long> added, long commitTime) {
+        if (added.isEmpty()) {
+            return;
+        }
+        apply(target -> target.addItems(existing, added), existing, added, commitTime);
+    }
+
+    /**
+     * 增量记录用户不再拥有的商品。
+     *
+     * @param remaining  用户仍然拥有的商品（不包含移除商品）
+     * @param removed    用户不再拥有的商品（已去重）
+     * @param commitTime 行为所在事务的提交时间（毫秒时间戳）
+     */
+    public void applyRemoved(Collection<Long> remaining, Collection<Long> removed, long commitTime) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        apply(target -> target.removeItems(remaining, removed), remaining, removed, commitTime);
+    }
+
+    /**
+     * 在当前模型上执行一次增量修改，并标记受影响的商品。
+     * 同时写入重放日志，保证之后换上的新模型不会丢失这次修改。
+     */
+    private void apply(Consumer<CoOccurrenceModel> change, Collection<Long> others, Collection<Long> changed,
+                       long commitTime) {
+        synchronized (modelLock) {
+            journal.addLast(new JournalEntry(commitTime, change, others, changed));
+            if (journal.size() > JOURNAL_CAPACITY) {
+                journalTruncatedAt = Math.max(journalTruncatedAt, journal.removeFirst().commitTime);
+            }
+            if (model == null) {
+                return;
+            }
+            change.accept(model);
+            dirtyItems.addAll(changed);
+            dirtyItems.addAll(others);
+        }
+    }
+
+    /**
+     * 重放日志条目：一次增量修改、其所在事务的提交时间以及受影响的商品。
+     */
+    private static final class JournalEntry {
+
+        private final long commitTime;
+
+        private final Consumer<CoOccurrenceModel> change;
+
+        private final Collection<Long> others;
+
+        private final Collection<Long> changed;
+
+        JournalEntry(long commitTime, Consumer<CoOccurrenceModel> change, Collection<Long> others,
+                     Collection<Long> changed) {
+            this.commitTime = commitTime;
+            this.change = change;
+            this.others = others;
+            this.changed = changed;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+/**
+ * 推荐索引快照文件的内容。
+ *
+ * 除只读的 {@link RecommendIndex} 外，还保存生成该索引时共现计数模型的完整计数（按稠密下标排列的 CSR 结构），
+ * 加载快照的节点可以据此还原 {@link CoOccurrenceModel}，继续接收增量更新并按行重算近邻：
+ *
+ * - pairOffsets: int[n + 1]，第 i 行计数在 pairColumns/pairCounts 中的起止位置
+ * - pairColumns: 共现商品的稠密下标
+ * - pairCounts: 同时拥有两个商品的用户数
+ * - dataTime: 计数所反映的数据时间点，之后提交的行为需要由加载方重放
+ *
+ * @author agrimall
+ * @see RecommendSnapshotStore
+ * @see CoOccurrenceModel#snapshot(RecommendIndex)
+ * @since 1.0
+ */
+public class RecommendSnapshot {
+
+    /**
+     * 索引快照。
+     */
+    private final RecommendIndex index;
+
+    /**
+     * 每行计数的起始位置。
+     */
+    private final int[] pairOffsets;
+
+    /**
+     * 共现商品的稠密下标。
+     */
+    private final int[] pairColumns;
+
+    /**
+     * 共现次数，与 pairColumns 一一对应。
+     */
+    private final int[] pairCounts;
+
+    /**
+     * 计数所反映的数据时间点（毫秒时间戳）。
+     */
+    private final long dataTime;
+
+    /**
+     * 构造函数，数组由调用方移交，之后不能再修改。
+     *
+     * @param index       索引快照
+     * @param pairOffsets 每行计数的起始位置
+     * @param pairColumns 共现商品的稠密下标
+     * @param pairCounts  共现次数
+     * @param dataTime    计数所反映的数据时间点
+     */
+    public RecommendSnapshot(RecommendIndex index, int[] pairOffsets, int[] pairColumns, int[] pairCounts, long dataTime) {
+        this.index = index;
+        this.pairOffsets = pairOffsets;
+        this.pairColumns = pairColumns;
+        this.pairCounts = pairCounts;
+        this.dataTime = dataTime;
+    }
+
+    /**
+     * 还原共现计数模型，稠密下标与 {@link #getIndex()} 一致。
+     *
+     * @return 共现计数模型
+     */
+    public CoOccurrenceModel toModel() {
+        return CoOccurrenceModel.restore(this);
+    }
+
+    public RecommendIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 获取快照版本号，即索引构建时间。
+     *
+     * @return 快照版本号
+     */
+    public long getVersion() {
+        return index.getBuildTime();
+    }
+
+    public long getDataTime() {
+        return dataTime;
+    }
+
+    int[] pairOffsets() {
+        return pairOffsets;
+    }
+
+    int[] pairColumns() {
+        return pairColumns;
+    }
+
+    int[] pairCounts() {
+        return pairCounts;
+    }
+}
@@ -0,0 +1,328 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 推荐索引快照文件存储。
+ *
+ * 把 {@link RecommendSnapshot}（索引及其共现计数）序列化为带版本号的二进制文件，新节点启动或其他节点完成重建后
+ * 直接映射加载，无需再扫描订单历史，并且可以在还原的计数上继续增量更新。
+ * 文件名格式：recommend-{version}.idx，version 为索引构建时间戳。
+ *
+ * 文件格式（小端序，所有区段按 8 字节对齐）：
+ *
+ * - 文件头（128 字节）：magic(int) | 格式版本(int) | 快照版本(long) | 商品数 n(int) | 近邻数 m(int)
+ *   | 数据时间点(long) | 共现单元格数 p(int) | 保留(int) | 8 个区段偏移量(long)
+ * - productIds: long[n]
+ * - frequency: int[n]
+ * - rowOffsets: int[n + 1]
+ * - columns: int[m]
+ * - weights: float[m]
+ * - pairOffsets: int[n + 1]
+ * - pairColumns: int[p]
+ * - pairCounts: int[p]
+ *
+ * 写入时先写临时文件再原子重命名，读取方不会看到写了一半的文件；目录中只保留最近的
+ * {@value #KEEP_VERSIONS} 个版本。
+ *
+ * 快照默认关闭。只有各节点的 {@code xqx.recommend.snapshot.path} 指向同一个共享目录时，
+ * 一个节点重建、其他节点加载才有意义；目录仅本机可见时其他节点加载不到新快照，会在一个重建间隔后自行重建。
+ *
+ * @author agrimall
+ * @see RecommendIndexHolder
+ * @since 1.0
+ */
+@Component
+public class RecommendSnapshotStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendSnapshotStore.class);
+
+    /**
+     * 文件魔数："FPIX"。
+     */
+    private static final int MAGIC = 0x46504958;
+
+    /**
+     * 文件格式版本，格式变化时递增，旧格式文件会被忽略。
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * 文件头长度（字节）。
+     */
+    private static final int HEADER_BYTES = 128;
+
+    /**
+     * 目录中保留的快照版本数。
+     */
+    private static final int KEEP_VERSIONS = 2;
+
+    private static final String FILE_PREFIX = "recommend-";
+
+    private static final String FILE_SUFFIX = ".idx";
+
+    /**
+     * 是否启用快照文件。
+     */
+    private final boolean enabled;
+
+    /**
+     * 快照目录。
+     */
+    private final Path directory;
+
+    /**
+     * 构造函数。
+     *
+     * @param enabled 是否启用快照文件
+     * @param path    快照目录
+     */
+    public RecommendSnapshotStore(@Value("${xqx.recommend.snapshot.enabled:false}") boolean enabled,
+                                  @Value("${xqx.recommend.snapshot.path:data/recommend}") String path) {
+        this.enabled = enabled;
+        this.directory = Paths.get(path);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取目录中最新快照的版本号。
+     *
+     * @return 最新版本号，没有可用快照时返回 0
+     */
+    public long latestVersion() {
+        List<Long> versions = listVersions();
+        return versions.isEmpty() ? 0L : versions.get(versions.size() - 1);
+    }
+
+    /**
+     * 加载目录中最新的快照。
+     *
+     * @return 快照，没有可用快照或文件损坏时返回 null
+     */
+    public RecommendSnapshot loadLatest() {
+        List<Long> versions = listVersions();
+        // 从新到旧尝试，最新文件损坏时退回上一个版本
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            Path file = fileOf(versions.get(i));
+            try {
+                return read(file);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("推荐索引快照{}无法加载，已忽略", file, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把快照写入新版本快照文件。
+     *
+     * @param snapshot 快照
+     */
+    public void save(RecommendSnapshot snapshot) {
+        if (!enabled) {
+            return;
+        }
+        long version = snapshot.getVersion();
+        Path target = fileOf(version);
+        Path temp = directory.resolve(FILE_PREFIX + version + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            write(temp, snapshot);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("推荐索引快照已写入{}", target);
+            purgeOldVersions();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("推荐索引快照写入失败", e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // 临时文件下次写入时会被覆盖
+            }
+        }
+    }
+
+    private void write(Path file, RecommendSnapshot snapshot) throws IOException {
+        RecommendIndex index = snapshot.getIndex();
+        long[] productIds = index.productIds();
+        int[] frequency = index.frequency();
+        int[] rowOffsets = index.rowOffsets();
+        int[] columns = index.columns();
+        float[] weights = index.weights();
+        int[] pairOffsets = snapshot.pairOffsets();
+        int[] pairColumns = snapshot.pairColumns();
+        int[] pairCounts = snapshot.pairCounts();
+        int n = productIds.length;
+        int m = columns.length;
+        int p = pairColumns.length;
+
+        long productIdsOffset = HEADER_BYTES;
+        long frequencyOffset = align(productIdsOffset + (long) n * Long.BYTES);
+        long rowOffsetsOffset = align(frequencyOffset + (long) n * Integer.BYTES);
+        long columnsOffset = align(rowOffsetsOffset + (long) (n + 1) * Integer.BYTES);
+        long weightsOffset = align(columnsOffset + (long) m * Integer.BYTES);
+        long pairOffsetsOffset = align(weightsOffset + (long) m * Float.BYTES);
+        long pairColumnsOffset = align(pairOffsetsOffset + (long) (n + 1) * Integer.BYTES);
+        long pairCountsOffset = align(pairColumnsOffset + (long) p * Integer.BYTES);
+        long length = align(pairCountsOffset + (long) p * Integer.BYTES);
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("推荐索引过大，无法写入单个映射文件");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(index.getBuildTime()).putInt(n).putInt(m)
+                    .putLong(snapshot.getDataTime()).putInt(p).putInt(0)
+                    .putLong(productIdsOffset).putLong(frequencyOffset).putLong(rowOffsetsOffset)
+                    .putLong(columnsOffset).putLong(weightsOffset)
+                    .putLong(pairOffsetsOffset).putLong(pairColumnsOffset).putLong(pairCountsOffset);
+            buffer.position((int) productIdsOffset);
+            buffer.asLongBuffer().put(productIds);
+            buffer.position((int) frequencyOffset);
+            buffer.asIntBuffer().put(frequency);
+            buffer.position((int) rowOffsetsOffset);
+            buffer.asIntBuffer().put(rowOffsets);
+            buffer.position((int) columnsOffset);
+            buffer.asIntBuffer().put(columns);
+            buffer.position((int) weightsOffset);
+            buffer.asFloatBuffer().put(weights);
+            buffer.position((int) pairOffsetsOffset);
+            buffer.asIntBuffer().put(pairOffsets);
+            buffer.position((int) pairColumnsOffset);
+            buffer.asIntBuffer().put(pairColumns);
+            buffer.position((int) pairCountsOffset);
+            buffer.asIntBuffer().put(pairCounts);
+            buffer.force();
+        }
+    }
+
+    private RecommendSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("文件长度非法：" + length);
+            }
+            // 映射关闭通道后依然有效；数组区段直接批量拷贝，不逐条解析
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("文件头不匹配");
+            }
+            long version = buffer.getLong();
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            long dataTime = buffer.getLong();
+            int p = buffer.getInt();
+            buffer.getInt();
+            long productIdsOffset = buffer.getLong();
+            long frequencyOffset = buffer.getLong();
+            long rowOffsetsOffset = buffer.getLong();
+            long columnsOffset = buffer.getLong();
+            long weightsOffset = buffer.getLong();
+            long pairOffsetsOffset = buffer.getLong();
+            long pairColumnsOffset = buffer.getLong();
+            long pairCountsOffset = buffer.getLong();
+            if (n < 0 || m < 0 || p < 0 || pairCountsOffset + (long) p * Integer.BYTES > length) {
+                throw new IllegalStateException("区段越界");
+            }
+
+            long[] productIds = new long[n];
+            int[] frequency = new int[n];
+            int[] rowOffsets = new int[n + 1];
+            int[] columns = new int[m];
+            float[] weights = new float[m];
+            int[] pairOffsets = new int[n + 1];
+            int[] pairColumns = new int[p];
+            int[] pairCounts = new int[p];
+            buffer.position((int) productIdsOffset);
+            buffer.asLongBuffer().get(productIds);
+            buffer.position((int) frequencyOffset);
+            buffer.asIntBuffer().get(frequency);
+            buffer.position((int) rowOffsetsOffset);
+            buffer.asIntBuffer().get(rowOffsets);
+            buffer.position((int) columnsOffset);
+            buffer.asIntBuffer().get(columns);
+            buffer.position((int) weightsOffset);
+            buffer.asFloatBuffer().get(weights);
+            buffer.position((int) pairOffsetsOffset);
+            buffer.asIntBuffer().get(pairOffsets);
+            buffer.position((int) pairColumnsOffset);
+            buffer.asIntBuffer().get(pairColumns);
+            buffer.position((int) pairCountsOffset);
+            buffer.asIntBuffer().get(pairCounts);
+            if (rowOffsets[n] != m) {
+                throw new IllegalStateException("行偏移表与近邻数不一致");
+            }
+            if (pairOffsets[n] != p) {
+                throw new IllegalStateException("计数偏移表与共现单元格数不一致");
+            }
+            for (int column : pairColumns) {
+                if (column < 0 || column >= n) {
+                    throw new IllegalStateException("共现商品下标越界：" + column);
+                }
+            }
+            RecommendIndex index = RecommendIndex.of(productIds, frequency, rowOffsets, columns, weights, version);
+            return new RecommendSnapshot(index, pairOffsets, pairColumns, pairCounts, dataTime);
+        }
+    }
+
+    private List<Long> listVersions() {
+        List<Long> versions = new ArrayList<>();
+        if (!enabled || !Files.isDirectory(directory)) {
+            return versions;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    versions.add(Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // 不是快照文件
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("读取推荐索引快照目录失败", e);
+        }
+        versions.sort(null);
+        return versions;
+    }
+
+    private void purgeOldVersions() {
+        List<Long> versions = listVersions();
+        for (int i = 0; i < versions.size() - KEEP_VERSIONS; i++) {
+            try {
+                Files.deleteIfExists(fileOf(versions.get(i)));
+            } catch (IOException e) {
+                LOGGER.warn("删除旧推荐索引快照失败", e);
+            }
+        }
+    }
+
+    private Path fileOf(long version) {
+        return directory.resolve(FILE_PREFIX + version + FILE_SUFFIX);
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
@@ -0,0 +1,160 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import java.util.Arrays;
+
+/**
+ * 推荐打分缓冲区（线程内复用）。
+ *
+ * 按 {@link RecommendIndex} 的稠密下标累加候选商品的推荐分数，替代每次请求新建的 {@code Map<Long, Double>}：
+ *
+ * - scores: [index] = 累加的推荐分数
+ * - stamp: [index] = 本轮打分的轮次号（正数表示已是候选，负数表示被排除），轮次号递增即可“清空”，无需重置数组
+ * - touched: 本轮出现过的候选下标，选取 Top N 时只遍历这部分，并用固定容量的最小堆筛选
+ *
+ * 每个请求线程持有一份缓冲区，通过 {@link #acquire(int)} 获取；不能跨线程或跨请求保存引用。
+ *
+ * @author agrimall
+ * @see RecommendIndex
+ * @since 1.0
+ */
+public final class ScoreBuffer {
+
+    private static final ThreadLocal<ScoreBuffer> LOCAL = ThreadLocal.withInitial(ScoreBuffer::new);
+
+    private double[] scores = new double[0];
+
+    private int[] stamp = new int[0];
+
+    private int[] touched = new int[0];
+
+    private int touchedCount;
+
+    private int epoch;
+
+    private ScoreBuffer() {
+    }
+
+    /**
+     * 获取当前线程的缓冲区，并开始新一轮打分。
+     *
+     * @param rowCount 索引的稠密下标总数
+     * @return 已清空的缓冲区
+     */
+    public static ScoreBuffer acquire(int rowCount) {
+        ScoreBuffer buffer = LOCAL.get();
+        buffer.reset(rowCount);
+        return buffer;
+    }
+
+    /**
+     * 排除某个商品（例如用户已拥有的商品），之后对它的累加都会被忽略。
+     *
+     * @param index 稠密下标
+     */
+    public void exclude(int index) {
+        stamp[index] = -epoch;
+    }
+
+    /**
+     * 为候选商品累加推荐分数。
+     *
+     * @param index 稠密下标
+     * @param score 分数增量
+     */
+    public void add(int index, double score) {
+        int mark = stamp[index];
+        if (mark == -epoch) {
+            return;
+        }
+        if (mark != epoch) {
+            stamp[index] = epoch;
+            scores[index] = 0D;
+            touched[touchedCount++] = index;
+        }
+        scores[index] += score;
+    }
+
+    /**
+     * 选出分数最高的候选商品，按分数降序写入 out。
+     *
+     * 使用容量为 N 的最小堆：堆顶是当前第 N 名，新候选只有超过堆顶才入堆，
+     * 复杂度 O(候选数 × log N)，不需要对全部候选排序。
+     *
+     * @param out 输出数组，长度即为 N
+     * @return 实际写入的数量
+     */
+    public int topK(int[] out) {
+        int k = out.length;
+        if (k == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int index = touched[t];
+            if (count < k) {
+                out[count] = index;
+                siftUp(out, count++);
+            } else if (scores[index] > scores[out[0]]) {
+                out[0] = index;
+                siftDown(out, 0, count);
+            }
+        }
+        // 堆排序：依次把堆顶（最小值）换到末尾，得到降序结果
+        for (int end = count - 1; end > 0; end--) {
+            int top = out[0];
+            out[0] = out[end];
+            out[end] = top;
+            siftDown(out, 0, end);
+        }
+        return count;
+    }
+
+    private void siftUp(int[] heap, int pos) {
+        int index = heap[pos];
+        double score = scores[index];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (scores[heap[parent]] <= score) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = index;
+    }
+
+    private void siftDown(int[] heap, int pos, int size) {
+        int index = heap[pos];
+        double score = scores[index];
+        while (true) {
+            int child = (pos << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[heap[child + 1]] < scores[heap[child]]) {
+                child++;
+            }
+            if (scores[heap[child]] >= score) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = index;
+    }
+
+    private void reset(int rowCount) {
+        if (stamp.length < rowCount) {
+            int capacity = Math.max(rowCount, stamp.length * 2);
+            scores = new double[capacity];
+            stamp = new int[capacity];
+            touched = new int[capacity];
+            epoch = 0;
+        }
+        touchedCount = 0;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import java.util.List;
+
+/**
+ * 用户行为事件。
+ *
+ * 生成订单、提交订单、添加收藏、取消收藏成功后由业务服务发布，在事务提交后被消费：
+ *
+ * - {@link UserBehaviorListener} 异步增量更新推荐模型
+ * - {@link RecommendCache} 删除该用户缓存的推荐结果
+ *
+ * @author agrimall
+ * @see UserBehaviorListener
+ * @see RecommendCache
+ * @since 1.0
+ */
+public class UserBehaviorEvent {
+
+    /**
+     * 行为类型。
+     */
+    public enum Type {
+        /**
+         * 生成订单（未支付），只影响用户偏好，推荐模型在提交订单时更新。
+         */
+        ORDER_CREATE,
+        /**
+         * 提交订单（购买）。
+         */
+        PURCHASE,
+        /**
+         * 添加收藏。
+         */
+        COLLECT_ADD,
+        /**
+         * 取消收藏。
+         */
+        COLLECT_REMOVE
+    }
+
+    /**
+     * 用户ID。
+     */
+    private final Long userId;
+
+    /**
+     * 行为类型。
+     */
+    private final Type type;
+
+    /**
+     * 涉及的商品ID。
+     */
+    private final List<Long> productIds;
+
+    public UserBehaviorEvent(Long userId, Type type, List<Long> productIds) {
+        this.userId = userId;
+        this.type = type;
+        this.productIds = productIds;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
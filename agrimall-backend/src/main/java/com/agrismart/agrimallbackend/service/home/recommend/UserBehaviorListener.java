@@ -0,0 +1,187 @@
+package com.agrismart.agrimallbackend.service.home.recommend;
+
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import com.agrismart.agrimallbackend.mapper.home.CollectMapper;
+import com.agrismart.agrimallbackend.service.common.order.OrderArchiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 用户行为监听器。
+ *
+ * 在业务事务提交后消费 {@link UserBehaviorEvent}，把行为转换为共现模型的增量修改：
+ *
+ * - 提交回调中同步记录提交时间，其余处理交给推荐任务执行器异步完成，全量重建据此判断行为是否已包含在全量数据中
+ * - 从数据库读取该用户当前拥有的商品集合（已提交订单中购买的商品 + 收藏，事务已提交，因此包含本次行为），
+ *   口径与 {@link RecommendIndexBuilder} 全量构建一致，未支付和已取消的订单不算拥有
+ * - 判断本次行为真正新增或移除了哪些商品（例如重复购买、购买已收藏的商品不会改变集合）
+ * - 只把新增/移除商品与该用户其余商品组成的商品对交给 {@link RecommendIndexHolder}
+ *
+ * 单个事件的代价为 O(该用户商品数 × 本次商品数)，商品数超过
+ * {@code xqx.recommend.incremental-max-items} 的用户跳过增量更新，留给定时全量重建处理。
+ * 订单取消等不发布行为事件的变化同样由全量重建纠正。
+ *
+ * @author agrimall
+ * @see UserBehaviorEvent
+ * @see RecommendIndexHolder
+ * @since 1.0
+ */
+@Component
+public class UserBehaviorListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserBehaviorListener.class);
+
+    /**
+     * 订单项数据访问对象。
+     */
+    private final OrderItemMapper orderItemMapper;
+
+    /**
+     * 订单归档任务。
+     * 提供已归档的月份，购买记录包含归档的订单。
+     */
+    private final OrderArchiver orderArchiver;
+
+    /**
+     * 收藏数据访问对象。
+     */
+    private final CollectMapper collectMapper;
+
+    /**
+     * 索引持有者。
+     */
+    private final RecommendIndexHolder indexHolder;
+
+    /**
+     * 允许增量更新的用户商品数上限。
+     */
+    private final int incrementalMaxItems;
+
+    /**
+     * 推荐任务执行器。
+     */
+    private final Executor recommendTaskExecutor;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderItemMapper       订单项数据访问对象
+     * @param orderArchiver         订单归档任务
+     * @param collectMapper         收藏数据访问对象
+     * @param indexHolder           索引持有者
+     * @param incrementalMaxItems   允许增量更新的用户商品数上限
+     * @param recommendTaskExecutor 推荐任务执行器
+     */
+    @Autowired
+    public UserBehaviorListener(OrderItemMapper orderItemMapper,
+                                OrderArchiver orderArchiver,
+                                CollectMapper collectMapper,
+                                RecommendIndexHolder indexHolder,
+                                @Value("${xqx.recommend.incremental-max-items:500}") int incrementalMaxItems,
+                                @Qualifier("recommendTaskExecutor") Executor recommendTaskExecutor) {
+        this.orderItemMapper = orderItemMapper;
+        this.orderArchiver = orderArchiver;
+        this.collectMapper = collectMapper;
+        this.indexHolder = indexHolder;
+        this.incrementalMaxItems = incrementalMaxItems;
+        this.recommendTaskExecutor = recommendTaskExecutor;
+    }
+
+    /**
+     * 处理用户行为事件：在提交回调中记录提交时间，再提交到推荐任务执行器异步处理。
+     *
+     * @param event 用户行为事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserBehavior(UserBehaviorEvent event) {
+        if (event.getUserId() == null || CollectionUtils.isEmpty(event.getProductIds())
+                || event.getType() == UserBehaviorEvent.Type.ORDER_CREATE) {
+            return;
+        }
+        long commitTime = System.currentTimeMillis();
+        try {
+            recommendTaskExecutor.execute(() -> apply(event, commitTime));
+        } catch (RuntimeException e) {
+            LOGGER.warn("推荐模型增量更新提交失败，userId={}，type={}", event.getUserId(), event.getType(), e);
+        }
+    }
+
+    /**
+     * 把用户行为转换为共现模型的增量修改。
+     *
+     * @param event      用户行为事件
+     * @param commitTime 行为所在事务的提交时间
+     */
+    private void apply(UserBehaviorEvent event, long commitTime) {
+        try {
+            // 统计用户每个商品的购买次数（已提交订单的订单项行数）和收藏情况
+            Map<Long, Integer> purchaseCount = new HashMap<>();
+            for (Long productId : orderItemMapper.selectProductIdsByUserId(event.getUserId(),
+                    OrderStateEnum.unpurchasedCodes(), orderArchiver.months())) {
+                purchaseCount.merge(productId, 1, Integer::sum);
+            }
+            Set<Long> collected = new HashSet<>(collectMapper.selectProductIdsByUserId(event.getUserId()));
+            Set<Long> owned = new HashSet<>(purchaseCount.keySet());
+            owned.addAll(collected);
+            if (owned.size() > incrementalMaxItems) {
+                LOGGER.debug("用户{}商品数{}超过增量更新上限，等待全量重建", event.getUserId(), owned.size());
+                return;
+            }
+
+            Set<Long> changed = new HashSet<>();
+            for (Long productId : event.getProductIds()) {
+                int purchased = purchaseCount.getOrDefault(productId, 0);
+                switch (event.getType()) {
+                    case PURCHASE:
+                        // 只有本次订单这一条购买记录且未收藏，才是新拥有的商品（未支付的订单不计入购买记录）
+                        if (purchased == 1 && !collected.contains(productId)) {
+                            changed.add(productId);
+                        }
+                        break;
+                    case COLLECT_ADD:
+                        // 之前买过的商品已经在集合中
+                        if (purchased == 0 && collected.contains(productId)) {
+                            changed.add(productId);
+                        }
+                        break;
+                    case COLLECT_REMOVE:
+                        // 仍然购买过的商品继续保留在集合中
+                        if (!owned.contains(productId)) {
+                            changed.add(productId);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            if (event.getType() == UserBehaviorEvent.Type.COLLECT_REMOVE) {
+                indexHolder.applyRemoved(new ArrayList<>(owned), changed, commitTime);
+            } else {
+                owned.removeAll(changed);
+                indexHolder.applyAdded(new ArrayList<>(owned), changed, commitTime);
+            }
+        } catch (RuntimeException e) {
+            // 增量更新失败不影响业务，偏差由定时全量重建纠正
+            LOGGER.warn("推荐模型增量更新失败，userId={}，type={}", event.getUserId(), event.getType(), e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.agrismart.agrimallbackend.service.home.seckill;
+
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.common.util.IdGenerator;
+import com.agrismart.agrimallbackend.common.util.SegmentIdAllocator;
+import com.agrismart.agrimallbackend.entity.common.Order;
+import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.home.SeckillOrder;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
+import com.agrismart.agrimallbackend.mapper.home.SeckillOrderMapper;
+import com.agrismart.agrimallbackend.service.common.order.OrderStateCounter;
+import com.agrismart.agrimallbackend.service.common.order.OrderTimeoutScheduler;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀下单队列。
+ *
+ * 抢到名额的请求放入本节点的有界队列后立即返回，由固定数量的后台线程批量创建订单：
+ * 每个线程一次取出最多 batch-size 个请求，在同一个事务中用三条批量插入语句写入
+ * {@code mall_order}、{@code mall_order_item} 和秒杀订单标记 {@code mall_seckill_order}，
+ * 再通过一次管道往返把订单ID写入秒杀结果。
+ * 数据库写入次数与并发请求数无关，只与批次数有关。
+ *
+ * 批次写入失败时归还整批请求的名额，用户可以重新秒杀。
+ * 队列只存在于内存中，节点宕机时尚未写入的请求会丢失（名额不归还，结果停留在排队中直至过期）。
+ *
+ * 秒杀订单的状态为未支付，用户在订单页按普通订单提交，提交时扣减商品库存；
+ * 超时未支付被取消时，{@link OrderTimeoutScheduler} 按秒杀订单标记归还名额。
+ *
+ * @author agrimall
+ * @see SeckillQuota
+ * @see com.agrismart.agrimallbackend.service.home.impl.SeckillServiceImpl
+ * @since 1.0
+ */
+@Component
+public class SeckillOrderQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeckillOrderQueue.class);
+
+    /**
+     * 待创建订单的秒杀请求。
+     */
+    private final BlockingQueue<SeckillRequest> queue;
+
+    private final OrderMapper orderMapper;
+
+    private final OrderItemMapper orderItemMapper;
+
+    private final SeckillOrderMapper seckillOrderMapper;
+
+    private final SeckillQuota seckillQuota;
+
+    /**
+     * 用户订单状态计数缓存，批次写入后删除相关用户的计数。
+     */
+    private final OrderStateCounter orderStateCounter;
+
+    /**
+     * 未支付订单超时取消调度器，批次写入后登记订单到期时间。
+     */
+    private final OrderTimeoutScheduler orderTimeoutScheduler;
+
+    /**
+     * 后台仪表盘计数，批次写入后累加订单数。
+     */
+    private final DashboardCounter dashboardCounter;
+
+    /**
+     * 订单流水号生成器。
+     */
+    private final IdGenerator idGenerator;
+
+    /**
+     * 订单项主键号段分配器。
+     */
+    private final SegmentIdAllocator segmentIdAllocator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 批量创建订单的线程数。
+     */
+    private final int workers;
+
+    /**
+     * 每个批次最多创建的订单数。
+     */
+    private final int batchSize;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param orderMapper        订单数据访问对象
+     * @param orderItemMapper    订单项数据访问对象
+     * @param seckillOrderMapper 秒杀订单标记数据访问对象
+     * @param seckillQuota       秒杀名额服务
+     * @param orderStateCounter  用户订单状态计数缓存
+     * @param orderTimeoutScheduler 未支付订单超时取消调度器
+     * @param dashboardCounter   后台仪表盘计数
+     * @param idGenerator        订单流水号生成器
+     * @param segmentIdAllocator 订单项主键号段分配器
+     * @param transactionManager 事务管理器
+     * @param capacity           队列容量
+     * @param workers            批量创建订单的线程数
+     * @param batchSize          每个批次最多创建的订单数
+     */
+    @Autowired
+    public SeckillOrderQueue(OrderMapper orderMapper,
+                             OrderItemMapper orderItemMapper,
+                             SeckillOrderMapper seckillOrderMapper,
+                             SeckillQuota seckillQuota,
+                             OrderStateCounter orderStateCounter,
+                             OrderTimeoutScheduler orderTimeoutScheduler,
+                             DashboardCounter dashboardCounter,
+                             IdGenerator idGenerator,
+                             SegmentIdAllocator segmentIdAllocator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${xqx.seckill.queue-capacity:10000}") int capacity,
+                             @Value("${xqx.seckill.workers:2}") int workers,
+                             @Value("${xqx.seckill.batch-size:200}") int batchSize) {
+        this.orderMapper = orderMapper;
+        this.orderItemMapper = orderItemMapper;
+        this.seckillOrderMapper = seckillOrderMapper;
+        this.seckillQuota = seckillQuota;
+        this.orderStateCounter = orderStateCounter;
+        this.orderTimeoutScheduler = orderTimeoutScheduler;
+        this.dashboardCounter = dashboardCounter;
+        this.idGenerator = idGenerator;
+        this.segmentIdAllocator = segmentIdAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.workers = Math.max(workers, 1);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, "seckill-order-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * 停止接收新请求，等待后台线程写完队列中剩余的请求。
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.warn("节点关闭时仍有 {} 个秒杀请求未创建订单", queue.size());
+        }
+    }
+
+    /**
+     * 放入一个抢到名额的请求，不阻塞。
+     *
+     * @param request 秒杀请求
+     * @return false 表示队列已满或节点正在关闭，调用方需要归还名额
+     */
+    public boolean offer(SeckillRequest request) {
+        return running && queue.offer(request);
+    }
+
+    private void work() {
+        List<SeckillRequest> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                SeckillRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                createOrders(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中批量创建一批秒杀订单，失败时归还整批名额。
+     */
+    private void createOrders(List<SeckillRequest> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (SeckillRequest request : batch) {
+            orders.add(new Order(idGenerator.nextId(), request.getUserId(),
+                    OrderStateEnum.NO_PAY.getCode(), request.getSeckillPrice()));
+        }
+        try {
+            long[] orderItemIds = segmentIdAllocator.nextIds(IdSegmentEnum.ORDER_ITEM, batch.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                orderMapper.batchInsert(orders);
+                List<OrderItem> orderItems = new ArrayList<>(batch.size());
+                List<SeckillOrder> seckillOrders = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    SeckillRequest request = batch.get(i);
+                    OrderItem orderItem = new OrderItem(request.getProductId(), 1,
+                            request.getProductName(),
+                            request.getProductPic(),
+                            request.getSeckillPrice(),
+                            request.getSeckillPrice());
+                    orderItem.setId(orderItemIds[i]);
+                    orderItem.setOrderId(orders.get(i).getId());
+                    orderItems.add(orderItem);
+                    seckillOrders.add(new SeckillOrder(orders.get(i).getId(), request.getSeckillId(), request.getUserId()));
+                }
+                orderItemMapper.batchInsert(orderItems);
+                seckillOrderMapper.batchInsert(seckillOrders);
+                List<Long> userIds = new ArrayList<>(batch.size());
+                for (SeckillRequest request : batch) {
+                    userIds.add(request.getUserId());
+                }
+                orderStateCounter.evict(userIds);
+                List<Long> orderIds = new ArrayList<>(orders.size());
+                for (Order order : orders) {
+                    orderIds.add(order.getId());
+                }
+                orderTimeoutScheduler.schedule(orderIds);
+                dashboardCounter.orderCreated(orders.size());
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("秒杀订单批量创建失败，归还名额，批次大小={}", batch.size(), e);
+            for (SeckillRequest request : batch) {
+                seckillQuota.restore(request.getSeckillId(), request.getUserId());
+            }
+            return;
+        }
+        Map<SeckillRequest, Long> results = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            results.put(batch.get(i), orders.get(i).getId());
+        }
+        try {
+            seckillQuota.complete(results);
+        } catch (RuntimeException e) {
+            // 订单已创建，用户仍可在订单列表中看到，只是轮询结果停留在排队中
+            LOGGER.error("秒杀结果写入失败，批次大小={}", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.agrismart.agrimallbackend.service.home.seckill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀名额服务。
+ *
+ * 秒杀的全部并发控制都在 Redis 中用 Lua 脚本原子完成，抢购请求不访问数据库：
+ *
+ * - seckill_quota_{seckillId}：剩余名额，活动创建时预加载
+ * - seckill_users_{seckillId}：已抢到名额的用户（Set），保证每人限购一件
+ * - seckill_token_{seckillId}_{userId}：秒杀令牌，一次有效，抢购时校验并删除
+ * - seckill_token_count_{seckillId}：当前令牌有效期内已发放的令牌数，超过 名额 × token-factor 后不再发放
+ * - seckill_result_{seckillId}_{userId}：秒杀结果，0 表示排队中，-1 表示失败，其他值为订单ID
+ *
+ * 名额和已抢用户在活动结束一天后过期。名额不会从数据库恢复，Redis 需开启持久化。
+ *
+ * @author agrimall
+ * @see SeckillOrderQueue
+ * @see com.agrismart.agrimallbackend.service.home.impl.SeckillServiceImpl
+ * @since 1.0
+ */
+@Component
+public class SeckillQuota {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeckillQuota.class);
+
+    private static final String QUOTA_KEY_TEMPLATE = "seckill_quota_%d";
+
+    private static final String USERS_KEY_TEMPLATE = "seckill_users_%d";
+
+    private static final String TOKEN_KEY_TEMPLATE = "seckill_token_%d_%d";
+
+    private static final String TOKEN_COUNT_KEY_TEMPLATE = "seckill_token_count_%d";
+
+    private static final String RESULT_KEY_TEMPLATE = "seckill_result_%d_%d";
+
+    /**
+     * 秒杀结果：排队中。
+     */
+    public static final long RESULT_QUEUING = 0L;
+
+    /**
+     * 秒杀结果：订单创建失败，名额已归还。
+     */
+    public static final long RESULT_FAILED = -1L;
+
+    /**
+     * 发放令牌脚本。
+     * KEYS: 剩余名额, 已抢用户, 令牌计数, 用户令牌
+     * ARGV: 用户ID, 令牌, 令牌有效期（秒）, 令牌上限
+     * 返回 1 表示发放成功，0 表示已售罄，-1 表示令牌已发完，-2 表示重复秒杀
+     */
+    private static final RedisScript<Long> TOKEN_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('get', KEYS[1]) or '0') <= 0 then return 0 end\n"
+                    + "if redis.call('sismember', KEYS[2], ARGV[1]) == 1 then return -2 end\n"
+                    + "local count = redis.call('incr', KEYS[3])\n"
+                    + "if count == 1 then redis.call('expire', KEYS[3], ARGV[3]) end\n"
+                    + "if count > tonumber(ARGV[4]) then return -1 end\n"
+                    + "redis.call('set', KEYS[4], ARGV[2], 'EX', ARGV[3])\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 抢购脚本：校验并删除令牌，扣减名额并记录用户，结果置为排队中。
+     * KEYS: 用户令牌, 已抢用户, 剩余名额, 秒杀结果
+     * ARGV: 令牌, 用户ID, 结果保留时间（秒）
+     * 返回 1 表示抢到名额，0 表示已售罄，-1 表示令牌无效，-2 表示重复秒杀
+     */
+    private static final RedisScript<Long> ATTEMPT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) ~= ARGV[1] then return -1 end\n"
+                    + "redis.call('del', KEYS[1])\n"
+                    + "if redis.call('sismember', KEYS[2], ARGV[2]) == 1 then return -2 end\n"
+                    + "if tonumber(redis.call('get', KEYS[3]) or '0') <= 0 then return 0 end\n"
+                    + "redis.call('decr', KEYS[3])\n"
+                    + "redis.call('sadd', KEYS[2], ARGV[2])\n"
+                    + "if redis.call('ttl', KEYS[2]) < 0 then redis.call('expire', KEYS[2], redis.call('ttl', KEYS[3])) end\n"
+                    + "redis.call('set', KEYS[4], '0', 'EX', ARGV[3])\n"
+                    + "return 1", Long.class);
+
+    /**
+     * 归还脚本：移除用户并归还名额（只归还一次），结果置为失败。
+     * KEYS: 已抢用户, 剩余名额, 秒杀结果
+     * ARGV: 用户ID, 结果保留时间（秒）
+     */
+    private static final RedisScript<Long> RESTORE_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('srem', KEYS[1], ARGV[1])\n"
+                    + "if removed == 1 then redis.call('incr', KEYS[2]) end\n"
+                    + "redis.call('set', KEYS[3], '-1', 'EX', ARGV[2])\n"
+                    + "return removed", Long.class);
+
+    /**
+     * Redis 模板。
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 令牌有效期（秒）。
+     */
+    private final long tokenTtl;
+
+    /**
+     * 令牌发放倍数，每个令牌有效期内最多发放 名额 × 该倍数 个令牌。
+     */
+    private final int tokenFactor;
+
+    /**
+     * 秒杀结果保留时间（秒）。
+     */
+    private final long resultTtl;
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param redisTemplate Redis 模板
+     * @param tokenTtl      令牌有效期（秒）
+     * @param tokenFactor   令牌发放倍数
+     * @param resultTtl     秒杀结果保留时间（秒）
+     */
+    @Autowired
+    public SeckillQuota(StringRedisTemplate redisTemplate,
+                        @Value("${xqx.seckill.token-ttl:60}") long tokenTtl,
+                        @Value("${xqx.seckill.token-factor:3}") int tokenFactor,
+                        @Value("${xqx.seckill.result-ttl:1800}") long resultTtl) {
+        this.redisTemplate = redisTemplate;
+        this.tokenTtl = Math.max(tokenTtl, 1L);
+        this.tokenFactor = Math.max(tokenFactor, 1);
+        this.resultTtl = Math.max(resultTtl, 1L);
+    }
+
+    /**
+     * 预加载秒杀名额，名额已存在时不覆盖。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param quota     名额
+     * @param endTime   活动结束时间，相关 Key 在结束一天后过期
+     * @return true 表示本次写入了名额
+     */
+    public boolean preload(Long seckillId, int quota, Date endTime) {
+        String quotaKey = String.format(QUOTA_KEY_TEMPLATE, seckillId);
+        long ttl = Math.max(endTime.getTime() - System.currentTimeMillis(), 0L) + TimeUnit.DAYS.toMillis(1);
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(quotaKey, String.valueOf(quota), ttl, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 查询剩余名额。
+     *
+     * @param seckillId 秒杀活动ID
+     * @return 剩余名额，未预加载时返回 null
+     */
+    public Long remaining(Long seckillId) {
+        String value = redisTemplate.opsForValue().get(String.format(QUOTA_KEY_TEMPLATE, seckillId));
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    /**
+     * 为用户发放秒杀令牌。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @param quota     活动名额，用于计算令牌上限
+     * @param token     令牌
+     * @return 1 表示发放成功，0 表示已售罄，-1 表示令牌已发完，-2 表示重复秒杀
+     */
+    public long issueToken(Long seckillId, Long userId, int quota, String token) {
+        Long result = redisTemplate.execute(TOKEN_SCRIPT,
+                Arrays.asList(String.format(QUOTA_KEY_TEMPLATE, seckillId),
+                        String.format(USERS_KEY_TEMPLATE, seckillId),
+                        String.format(TOKEN_COUNT_KEY_TEMPLATE, seckillId),
+                        String.format(TOKEN_KEY_TEMPLATE, seckillId, userId)),
+                String.valueOf(userId), token, String.valueOf(tokenTtl),
+                String.valueOf((long) quota * tokenFactor));
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 凭令牌抢购名额。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @param token     秒杀令牌
+     * @return 1 表示抢到名额，0 表示已售罄，-1 表示令牌无效，-2 表示重复秒杀
+     */
+    public long attempt(Long seckillId, Long userId, String token) {
+        Long result = redisTemplate.execute(ATTEMPT_SCRIPT,
+                Arrays.asList(String.format(TOKEN_KEY_TEMPLATE, seckillId, userId),
+                        String.format(USERS_KEY_TEMPLATE, seckillId),
+                        String.format(QUOTA_KEY_TEMPLATE, seckillId),
+                        String.format(RESULT_KEY_TEMPLATE, seckillId, userId)),
+                token, String.valueOf(userId), String.valueOf(resultTtl));
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * 归还用户抢到的名额，并把结果置为失败。
+     * 订单创建失败、排队队列已满或秒杀订单超时取消时调用，Redis 异常时只记录日志。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     */
+    public void restore(Long seckillId, Long userId) {
+        try {
+            redisTemplate.execute(RESTORE_SCRIPT,
+                    Arrays.asList(String.format(USERS_KEY_TEMPLATE, seckillId),
+                            String.format(QUOTA_KEY_TEMPLATE, seckillId),
+                            String.format(RESULT_KEY_TEMPLATE, seckillId, userId)),
+                    String.valueOf(userId), String.valueOf(resultTtl));
+        } catch (RuntimeException e) {
+            LOGGER.error("秒杀名额归还失败，seckillId={}，userId={}", seckillId, userId, e);
+        }
+    }
+
+    /**
+     * 批量写入秒杀成功结果（一次管道往返）。
+     *
+     * @param results 秒杀请求 -> 订单ID
+     */
+    public void complete(Map<SeckillRequest, Long> results) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Map.Entry<SeckillRequest, Long> entry : results.entrySet()) {
+                SeckillRequest request = entry.getKey();
+                stringConnection.setEx(String.format(RESULT_KEY_TEMPLATE, request.getSeckillId(), request.getUserId()),
+                        resultTtl, String.valueOf(entry.getValue()));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 查询秒杀结果。
+     *
+     * @param seckillId 秒杀活动ID
+     * @param userId    用户ID
+     * @return 订单ID、{@link #RESULT_QUEUING} 或 {@link #RESULT_FAILED}，没有秒杀记录时返回 null
+     */
+    public Long result(Long seckillId, Long userId) {
+        String value = redisTemplate.opsForValue().get(String.format(RESULT_KEY_TEMPLATE, seckillId, userId));
+        return value == null ? null : Long.valueOf(value);
+    }
+}
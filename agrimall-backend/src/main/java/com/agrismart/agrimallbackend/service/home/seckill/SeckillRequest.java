@@ -0,0 +1,65 @@
+package com.agrismart.agrimallbackend.service.home.seckill;
+
+import java.math.BigDecimal;
+
+/**
+ * 秒杀下单请求。
+ *
+ * 用户在 Redis 中抢到名额后放入 {@link SeckillOrderQueue}，由后台线程批量创建订单。
+ * 请求中携带创建订单所需的全部商品信息，批量下单时不再查询商品表。
+ *
+ * @author agrimall
+ * @see SeckillOrderQueue
+ * @since 1.0
+ */
+public class SeckillRequest {
+
+    private final Long seckillId;
+
+    private final Long userId;
+
+    private final Long productId;
+
+    private final String productName;
+
+    private final String productPic;
+
+    /**
+     * 秒杀价格，即订单项单价和订单总价。
+     */
+    private final BigDecimal seckillPrice;
+
+    public SeckillRequest(Long seckillId, Long userId, Long productId, String productName,
+                          String productPic, BigDecimal seckillPrice) {
+        this.seckillId = seckillId;
+        this.userId = userId;
+        this.productId = productId;
+        this.productName = productName;
+        this.productPic = productPic;
+        this.seckillPrice = seckillPrice;
+    }
+
+    public Long getSeckillId() {
+        return seckillId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getProductPic() {
+        return productPic;
+    }
+
+    public BigDecimal getSeckillPrice() {
+        return seckillPrice;
+    }
+}
@@ -0,0 +1,121 @@
+package com.agrismart.agrimallbackend.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link IdGenerator} 单元测试，Redis 租约使用 Mock。
+ *
+ * @author agrimall
+ * @since 1.0
+ */
+class IdGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    private static final int IDS_PER_THREAD = 20000;
+
+    private static final long MAX_BACKWARD = 10L;
+
+    private IdGenerator idGenerator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.setIfAbsent(eq("id_worker_7"), anyString(), any(Duration.class))).thenReturn(true);
+        idGenerator = new IdGenerator(redisTemplate, 60, MAX_BACKWARD);
+        ReflectionTestUtils.setField(idGenerator, "workerId", 0L);
+        idGenerator.init();
+    }
+
+    @Test
+    void leasesFirstFreeWorkerId() {
+        assertEquals(7L, idGenerator.getWorkerId());
+        long id = idGenerator.nextId();
+        assertEquals(7L, (id >>> SnowFlake.MACHINE_LEFT) & ((1L << (SnowFlake.TIMESTAMP_LEFT - SnowFlake.MACHINE_LEFT)) - 1));
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long last = Long.MIN_VALUE;
+                    boolean increasing = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = idGenerator.nextId();
+                        increasing &= id > last;
+                        last = id;
+                        ids.add(id);
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(30, TimeUnit.SECONDS), "同一线程内的 ID 应递增");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void waitsOutSmallClockStepBack() {
+        long first = idGenerator.nextId();
+        // 把上次分配的时间戳推到当前时间之后，相当于时钟回拨了 5 毫秒
+        long aheadStamp = System.currentTimeMillis() - SnowFlake.START_STAMP + 5;
+        state().set(aheadStamp << SnowFlake.SEQUENCE_BIT);
+
+        long id = idGenerator.nextId();
+
+        assertTrue(id > first);
+        assertTrue(id >>> SnowFlake.TIMESTAMP_LEFT >= aheadStamp, "时钟追上之前不应分配更早的时间戳");
+    }
+
+    @Test
+    void rejectsClockStepBackBeyondLimit() {
+        long aheadStamp = System.currentTimeMillis() - SnowFlake.START_STAMP + 1000;
+        state().set(aheadStamp << SnowFlake.SEQUENCE_BIT);
+
+        assertThrows(IllegalStateException.class, idGenerator::nextId);
+    }
+
+    private AtomicLong state() {
+        return (AtomicLong) ReflectionTestUtils.getField(idGenerator, "state");
+    }
+}
@@ -0,0 +1,180 @@
+package com.agrismart.agrimallbackend.service.common.impl;
+
+import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.entity.home.Cart;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 生成订单时读取购物车、匹配商品的前后对比计时测试。
+ *
+ * - 优化前：HGETALL 读取整个购物车，逐条解析后与商品列表双重循环匹配，之后逐个 HDEL 勾选的商品
+ * - 优化后：HMGET 只读取勾选的字段，商品按ID建索引后逐项匹配，购物车由发件箱在事务提交后一次 HDEL 清理
+ *
+ * 购物车数据在内存中构造，计时只包含解析和匹配的 CPU 开销；Redis 往返次数单独统计。
+ *
+ * @author agrimall
+ * @since 1.0
+ */
+class CartCheckoutBenchmarkTest {
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * 购物车中的商品数。
+     */
+    private static final int CART_SIZE = 200;
+
+    /**
+     * 勾选结算的商品数。
+     */
+    private static final int SELECTED = 20;
+
+    private static final int WARMUP = 2000;
+
+    private static final int ITERATIONS = 5000;
+
+    @Test
+    void hmgetAndMapLookupBeatsHgetallAndNestedLoop() {
+        Map<String, String> cart = new LinkedHashMap<>();
+        for (long productId = 1; productId <= CART_SIZE; productId++) {
+            cart.put(String.valueOf(productId), GSON.toJson(new Cart(productId, (int) (productId % 5) + 1)));
+        }
+        Set<Long> productIdSet = new LinkedHashSet<>();
+        List<Product> products = new ArrayList<>(SELECTED);
+        for (long productId = 1; productId <= CART_SIZE && productIdSet.size() < SELECTED; productId += CART_SIZE / SELECTED) {
+            productIdSet.add(productId);
+            products.add(product(productId));
+        }
+
+        Checkout before = before(cart, products, productIdSet);
+        Checkout after = after(cart, products, productIdSet);
+        assertEquals(SELECTED, before.orderItems.size());
+        assertEquals(SELECTED, after.orderItems.size());
+        assertEquals(0, before.totalPrice.compareTo(after.totalPrice));
+        assertEquals(1 + SELECTED, before.redisRoundTrips);
+        assertEquals(1, after.redisRoundTrips);
+
+        double beforeMicros = measure(() -> before(cart, products, productIdSet));
+        double afterMicros = measure(() -> after(cart, products, productIdSet));
+        System.out.printf("购物车 %d 件、勾选 %d 件：优化前 %.1f µs/次（Redis 往返 %d 次），优化后 %.1f µs/次（Redis 往返 %d 次）%n",
+                CART_SIZE, SELECTED, beforeMicros, before.redisRoundTrips, afterMicros, after.redisRoundTrips);
+        assertTrue(afterMicros < beforeMicros, "优化后的解析和匹配不应慢于优化前");
+    }
+
+    /**
+     * 优化前的实现：HGETALL 整个购物车，购物车条目与商品列表双重循环匹配。
+     */
+    private static Checkout before(Map<String, String> cartEntries, List<Product> productList, Set<Long> productIdSet) {
+        // HGETALL
+        Map<String, String> entries = new HashMap<>(cartEntries);
+        List<OrderItem> orderItemList = new ArrayList<>();
+        BigDecimal orderTotalPrice = BigDecimal.ZERO;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            Cart cart = GSON.fromJson(entry.getValue(), Cart.class);
+            for (Product product : productList) {
+                if (product.getId().equals(cart.getProductId())) {
+                    orderItemList.add(new OrderItem(product.getId(), cart.getQuantity(),
+                            product.getProductName(),
+                            product.getProductPic(),
+                            product.getPrice(),
+                            product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity()))));
+                    orderTotalPrice = orderTotalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity())));
+                }
+            }
+        }
+        // 一次 HGETALL，之后每个勾选的商品一次 HDEL
+        return new Checkout(orderItemList, orderTotalPrice, 1 + productIdSet.size());
+    }
+
+    /**
+     * 优化后的实现：HMGET 勾选的字段，商品按ID建索引后逐项匹配。
+     */
+    private static Checkout after(Map<String, String> cartEntries, List<Product> productList, Set<Long> productIdSet) {
+        // HMGET
+        List<String> cartValues = new ArrayList<>(productIdSet.size());
+        for (Long productId : productIdSet) {
+            cartValues.add(cartEntries.get(String.valueOf(productId)));
+        }
+        Map<Long, Product> productMap = new HashMap<>();
+        for (Product product : productList) {
+            productMap.put(product.getId(), product);
+        }
+        List<OrderItem> orderItemList = new ArrayList<>(productIdSet.size());
+        BigDecimal orderTotalPrice = BigDecimal.ZERO;
+        for (String cartValue : cartValues) {
+            if (cartValue == null) {
+                continue;
+            }
+            Cart cart = GSON.fromJson(cartValue, Cart.class);
+            Product product = productMap.get(cart.getProductId());
+            if (product == null) {
+                continue;
+            }
+            BigDecimal totalPrice = product.getPrice().multiply(BigDecimal.valueOf(cart.getQuantity()));
+            orderItemList.add(new OrderItem(product.getId(), cart.getQuantity(),
+                    product.getProductName(),
+                    product.getProductPic(),
+                    product.getPrice(),
+                    totalPrice));
+            orderTotalPrice = orderTotalPrice.add(totalPrice);
+        }
+        // 一次 HMGET，清理购物车不在请求路径上
+        return new Checkout(orderItemList, orderTotalPrice, 1);
+    }
+
+    /**
+     * 预热后执行 {@link #ITERATIONS} 次，返回平均耗时（微秒）。
+     */
+    private static double measure(Supplier<Checkout> checkout) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += checkout.get().orderItems.size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += checkout.get().orderItems.size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return elapsed / 1000.0 / ITERATIONS;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("商品" + id);
+        product.setProductPic("product" + id + ".jpg");
+        product.setPrice(new BigDecimal("9.90").add(BigDecimal.valueOf(id)));
+        return product;
+    }
+
+    private static final class Checkout {
+
+        private final List<OrderItem> orderItems;
+
+        private final BigDecimal totalPrice;
+
+        private final int redisRoundTrips;
+
+        private Checkout(List<OrderItem> orderItems, BigDecimal totalPrice, int redisRoundTrips) {
+            this.orderItems = orderItems;
+            this.totalPrice = totalPrice;
+            this.redisRoundTrips = redisRoundTrips;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.agrismart.agrimallbackend.service.common.impl;
+
+import com.agrismart.agrimallbackend.common.bean.CodeMsg;
+import com.agrismart.agrimallbackend.common.enums.IdSegmentEnum;
+import com.agrismart.agrimallbackend.common.enums.OrderStateEnum;
+import com.agrismart.agrimallbackend.common.util.IdGenerator;
+import com.agrismart.agrimallbackend.common.util.SegmentIdAllocator;
+import com.agrismart.agrimallbackend.dto.response.ResponseVo;
+import com.agrismart.agrimallbackend.entity.common.Order;
+import com.agrismart.agrimallbackend.entity.common.OrderItem;
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.mapper.common.OrderItemMapper;
+import com.agrismart.agrimallbackend.mapper.common.OrderMapper;
+import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
+import com.agrismart.agrimallbackend.service.common.order.OrderStateCounter;
+import com.agrismart.agrimallbackend.service.common.order.OrderTimeoutScheduler;
+import com.agrismart.agrimallbackend.service.common.outbox.OutboxPublisher;
+import com.agrismart.agrimallbackend.service.common.stats.DashboardCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link OrderServiceImpl#generate} 单元测试，统计生成订单时的 Redis 和数据库往返次数。
+ *
+ * 生成订单应只有一次 Redis 往返（HMGET 勾选的购物车字段）和三次数据库往返
+ * （批量查询商品、插入订单、批量插入订单项），与勾选的商品数无关。
+ *
+ * @author agrimall
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+
+    private static final long ORDER_ID = 900L;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private OrderItemMapper orderItemMapper;
+
+    @Mock
+    private OrderStateCounter orderStateCounter;
+
+    @Mock
+    private OrderTimeoutScheduler orderTimeoutScheduler;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private DashboardCounter dashboardCounter;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdGenerator idGenerator;
+
+    @Mock
+    private SegmentIdAllocator segmentIdAllocator;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        when(request.getAttribute("id")).thenReturn(USER_ID);
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(productMapper.selectByProductIdSet(Set.of(1L, 2L, 3L)))
+                .thenReturn(Arrays.asList(product(1L, "5.00"), product(2L, "2.50"), product(3L, "8.00")));
+    }
+
+    @Test
+    void generateUsesOneRedisAndThreeDatabaseRoundTrips() {
+        when(hashOperations.multiGet("cart_7", Arrays.asList("1", "2", "3")))
+                .thenReturn(Arrays.asList(cart(1L, 2), cart(2L, 4), null));
+        when(idGenerator.nextId()).thenReturn(ORDER_ID);
+        when(orderMapper.insertSelective(any(Order.class))).thenReturn(1);
+        when(segmentIdAllocator.nextIds(IdSegmentEnum.ORDER_ITEM, 2)).thenReturn(new long[]{100L, 101L});
+        when(orderItemMapper.batchInsert(anyList())).thenReturn(2);
+
+        ResponseVo<Long> response = orderService.generate("1,2,3", request);
+
+        assertEquals(CodeMsg.SUCCESS.getCode(), response.getCode());
+        assertEquals(ORDER_ID, response.getData());
+
+        // Redis：一次 HMGET
+        verify(redisTemplate, times(1)).opsForHash();
+        verify(hashOperations, times(1)).multiGet(eq("cart_7"), anyList());
+        verifyNoMoreInteractions(redisTemplate, hashOperations);
+
+        // 数据库：查询商品、插入订单、批量插入订单项各一次
+        ArgumentCaptor<Order> order = ArgumentCaptor.forClass(Order.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderItem>> orderItems = ArgumentCaptor.forClass(List.class);
+        verify(productMapper, times(1)).selectByProductIdSet(any());
+        verify(orderMapper, times(1)).insertSelective(order.capture());
+        verify(orderItemMapper, times(1)).batchInsert(orderItems.capture());
+        verifyNoMoreInteractions(productMapper, orderMapper, orderItemMapper);
+
+        assertEquals(OrderStateEnum.NO_PAY.getCode(), order.getValue().getState());
+        assertEquals(0, new BigDecimal("20.00").compareTo(order.getValue().getTotalPrice()));
+        assertEquals(2, orderItems.getValue().size());
+        assertEquals(100L, orderItems.getValue().get(0).getId());
+        assertEquals(101L, orderItems.getValue().get(1).getId());
+        assertEquals(ORDER_ID, orderItems.getValue().get(1).getOrderId());
+    }
+
+    @Test
+    void generateWritesNothingWhenTickedItemsLeftTheCart() {
+        when(hashOperations.multiGet("cart_7", Arrays.asList("1", "2", "3")))
+                .thenReturn(Arrays.asList(null, null, null));
+
+        ResponseVo<Long> response = orderService.generate("1,2,3", request);
+
+        assertEquals(CodeMsg.DATA_ERROR.getCode(), response.getCode());
+        verify(hashOperations, times(1)).multiGet(eq("cart_7"), anyList());
+        verify(productMapper, times(1)).selectByProductIdSet(any());
+        verify(orderMapper, never()).insertSelective(any(Order.class));
+        verify(orderItemMapper, never()).batchInsert(anyList());
+        verifyNoMoreInteractions(hashOperations, productMapper, orderMapper, orderItemMapper);
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("商品" + id);
+        product.setProductPic("product" + id + ".jpg");
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static String cart(Long productId, int quantity) {
+        return "{\"productId\":" + productId + ",\"quantity\":" + quantity + "}";
+    }
+}
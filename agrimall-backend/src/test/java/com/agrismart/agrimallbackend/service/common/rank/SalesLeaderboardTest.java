@@ -0,0 +1,272 @@
+package com.agrismart.agrimallbackend.service.common.rank;
+
+import com.agrismart.agrimallbackend.entity.common.Product;
+import com.agrismart.agrimallbackend.mapper.common.ProductMapper;
+import com.agrismart.agrimallbackend.service.common.stock.StockReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link SalesLeaderboard} 单元测试，重建与销量累加并发执行。
+ *
+ * Redis 用内存中的有序集合模拟，脚本在同一把锁内执行（与 Redis 单线程执行脚本一致）。
+ * 按预占模式模拟：商品表的 sell_num 在测试期间不变，售出的数量记在 stock_pending 中，
+ * 一次售出（转入待同步并发布销量事件）与重建开始互不交叉。
+ *
+ * @author agrimall
+ * @since 1.0
+ */
+class SalesLeaderboardTest {
+
+    private static final String ALL_KEY = "sales_rank_all";
+
+    private static final String PENDING_KEY = "stock_pending";
+
+    private static final int PRODUCTS = 20;
+
+    private static final int SELLERS = 4;
+
+    private static final int SALES_PER_SELLER = 2000;
+
+    /**
+     * 模拟的 Redis，脚本和售出都在这把锁内执行。
+     */
+    private final Object redis = new Object();
+
+    private final Map<String, Map<String, Double>> zsets = new HashMap<>();
+
+    private final Map<String, Long> pending = new HashMap<>();
+
+    private String lock;
+
+    private ProductMapper productMapper;
+
+    private SalesLeaderboard leaderboard;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        productMapper = mock(ProductMapper.class);
+        StockReservation stockReservation = mock(StockReservation.class);
+
+        doAnswer(invocation -> execute(invocation.getArgument(0), invocation.getArgument(1),
+                (Object[]) invocation.getRawArguments()[2]))
+                .when(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.add(anyString(), anySet())).thenAnswer(invocation -> {
+            synchronized (redis) {
+                Set<ZSetOperations.TypedTuple<String>> tuples = invocation.getArgument(1);
+                Map<String, Double> zset = zsets.computeIfAbsent(invocation.getArgument(0), key -> new HashMap<>());
+                tuples.forEach(tuple -> zset.put(tuple.getValue(), tuple.getScore()));
+                return (long) tuples.size();
+            }
+        });
+        when(stockReservation.pauseSync(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(stockReservation.unsyncedKeys()).thenReturn(Collections.singletonList(PENDING_KEY));
+        when(productMapper.selectSellNumbers()).thenAnswer(invocation -> {
+            // 拉长读取商品表的时间，让售出落在重建过程中
+            Thread.sleep(1);
+            return products();
+        });
+
+        leaderboard = new SalesLeaderboard(redisTemplate, productMapper, stockReservation, 60, 3600000);
+    }
+
+    @Test
+    void salesDuringConcurrentRebuildsAreCountedOnce() throws Exception {
+        leaderboard.rebuild();
+        long[] sold = new long[PRODUCTS + 1];
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger(SELLERS);
+        ExecutorService executor = Executors.newFixedThreadPool(SELLERS + 1);
+        try {
+            List<Future<long[]>> sellers = new ArrayList<>(SELLERS);
+            for (int t = 0; t < SELLERS; t++) {
+                sellers.add(executor.submit(() -> {
+                    start.await();
+                    long[] counts = new long[PRODUCTS + 1];
+                    try {
+                        for (int i = 0; i < SALES_PER_SELLER; i++) {
+                            long productId = ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1);
+                            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                            sell(productId, quantity);
+                            counts[(int) productId] += quantity;
+                        }
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    return counts;
+                }));
+            }
+            Future<Integer> rebuilder = executor.submit(() -> {
+                start.await();
+                int rebuilds = 0;
+                while (running.get() > 0) {
+                    leaderboard.rebuild();
+                    rebuilds++;
+                }
+                return rebuilds;
+            });
+            start.countDown();
+            for (Future<long[]> seller : sellers) {
+                long[] counts = seller.get(30, TimeUnit.SECONDS);
+                for (int productId = 1; productId <= PRODUCTS; productId++) {
+                    sold[productId] += counts[productId];
+                }
+            }
+            assertTrue(rebuilder.get(30, TimeUnit.SECONDS) > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertScores(sold);
+        // 没有新的售出时再重建一次，结果不变
+        leaderboard.rebuild();
+        assertScores(sold);
+    }
+
+    @Test
+    void saleWhileReadingProductTableIsCountedOnce() {
+        leaderboard.rebuild();
+        when(productMapper.selectSellNumbers()).thenAnswer(invocation -> {
+            sell(1L, 5);
+            return products();
+        });
+
+        leaderboard.rebuild();
+
+        synchronized (redis) {
+            assertEquals(sellNum(1L) + 5, zsets.get(ALL_KEY).get("1"));
+            assertEquals(sellNum(2L), zsets.get(ALL_KEY).get("2"));
+        }
+    }
+
+    /**
+     * 一次售出：预占转为待同步，并在订单事务提交后累加排行榜。
+     */
+    private void sell(long productId, int quantity) {
+        synchronized (redis) {
+            pending.merge(String.valueOf(productId), (long) quantity, Long::sum);
+            leaderboard.onProductSold(new ProductSoldEvent(Collections.singletonMap(productId, quantity)));
+        }
+    }
+
+    private void assertScores(long[] sold) {
+        synchronized (redis) {
+            Map<String, Double> all = zsets.get(ALL_KEY);
+            for (int productId = 1; productId <= PRODUCTS; productId++) {
+                assertEquals(sellNum(productId) + sold[productId], all.get(String.valueOf(productId)),
+                        "商品" + productId + "的销量");
+            }
+        }
+    }
+
+    private static List<Product> products() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            Product product = new Product();
+            product.setId(productId);
+            product.setSellNum((int) sellNum(productId));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static double sellNum(long productId) {
+        return productId * 10;
+    }
+
+    private Object execute(RedisScript<?> script, List<String> keys, Object[] args) {
+        synchronized (redis) {
+            if (script == script("INCREMENT_SCRIPT")) {
+                boolean rebuilding = lock != null;
+                for (int i = 2; i < args.length; i += 2) {
+                    double quantity = Double.parseDouble(String.valueOf(args[i + 1]));
+                    for (int k = 0; k < 3; k++) {
+                        increment(keys.get(k), String.valueOf(args[i]), quantity);
+                    }
+                    if (rebuilding) {
+                        increment(keys.get(4), String.valueOf(args[i]), quantity);
+                    }
+                }
+                return 1L;
+            }
+            if (script == script("START_SCRIPT")) {
+                if (lock != null) {
+                    return null;
+                }
+                lock = String.valueOf(args[0]);
+                zsets.remove(keys.get(1));
+                zsets.remove(keys.get(2));
+                List<String> entries = new ArrayList<>();
+                for (String key : keys.subList(3, keys.size())) {
+                    assertEquals(PENDING_KEY, key);
+                    pending.forEach((productId, quantity) -> {
+                        entries.add(productId);
+                        entries.add(String.valueOf(quantity));
+                    });
+                }
+                return entries;
+            }
+            if (script == script("FINISH_SCRIPT")) {
+                if (!String.valueOf(args[0]).equals(lock)) {
+                    return 0L;
+                }
+                Map<String, Double> all = new HashMap<>(zsets.getOrDefault(keys.get(1), Collections.emptyMap()));
+                zsets.getOrDefault(keys.get(2), Collections.emptyMap()).forEach((member, score) -> all.merge(member, score, Double::sum));
+                zsets.put(keys.get(0), all);
+                zsets.remove(keys.get(1));
+                zsets.remove(keys.get(2));
+                lock = null;
+                return 1L;
+            }
+            if (script == script("RELEASE_SCRIPT")) {
+                if (String.valueOf(args[0]).equals(lock)) {
+                    lock = null;
+                    return 1L;
+                }
+                return 0L;
+            }
+            throw new IllegalStateException("未模拟的脚本");
+        }
+    }
+
+    private void increment(String key, String member, double quantity) {
+        zsets.computeIfAbsent(key, k -> new HashMap<>()).merge(member, quantity, Double::sum);
+    }
+
+    private static Object script(String name) {
+        return ReflectionTestUtils.getField(SalesLeaderboard.class, name);
+    }
+}